@@ -1,6 +1,7 @@
 package com.mailflow.campaignservice.client;
 
 import com.mailflow.campaignservice.dto.contact.ContactResponse;
+import com.mailflow.campaignservice.dto.contact.SegmentPage;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -14,6 +15,15 @@ public interface ContactServiceClient {
     @GetMapping("/by-tag")
     List<ContactResponse> findContactsByTag(@RequestParam("tag") String tag);
 
+    @GetMapping("/segments/{tag}")
+    SegmentPage getSegmentPage(
+            @PathVariable("tag") String tag,
+            @RequestParam("after") long after,
+            @RequestParam("size") int size);
+
+    @GetMapping("/segments/{tag}/count")
+    long countSegment(@PathVariable("tag") String tag);
+
     @GetMapping("/{id}")
     ContactResponse getContact(@PathVariable("id") Long id);
 }
\ No newline at end of file
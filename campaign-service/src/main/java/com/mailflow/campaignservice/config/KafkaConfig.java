@@ -1,23 +1,36 @@
 package com.mailflow.campaignservice.config;
 
+import com.mailflow.events.ContactTaggedEvent;
+import com.mailflow.events.kafka.EventDeserializer;
+import com.mailflow.events.kafka.EventSerializer;
+import com.mailflow.events.kafka.ProducerProfile;
+import com.mailflow.events.kafka.ProducerProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
 import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.config.TopicBuilder;
 import org.springframework.kafka.core.*;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
 import org.springframework.kafka.listener.DefaultErrorHandler;
 import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
 import org.springframework.kafka.support.serializer.JsonSerializer;
 import org.springframework.util.backoff.FixedBackOff;
 
+import java.time.Duration;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Configuration
@@ -26,7 +39,21 @@ public class KafkaConfig {
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
 
+    @Value("${kafka.topics.campaign-triggered.partitions:6}")
+    private int campaignTriggeredPartitions;
+
+    @Value("${campaign.contact-events.concurrency:3}")
+    private int contactEventsConcurrency;
+
+    @Value("${campaign.contact-events.max-poll-records:500}")
+    private int contactEventsMaxPollRecords;
+
     public static final String CAMPAIGN_EVENTS_TOPIC = "campaign-events";
+    public static final String CONTACT_EVENTS_DLT = "contact-events.DLT";
+    /**
+     * Keyed by contact id, so every trigger for one contact lands on the same partition and is
+     * handled in order by the one email-service consumer thread that owns it.
+     */
     public static final String CAMPAIGN_TRIGGERED_TOPIC = "campaign-triggered";
 
     @Bean
@@ -40,46 +67,114 @@ public class KafkaConfig {
     @Bean
     public NewTopic campaignTriggeredTopic() {
         return TopicBuilder.name(CAMPAIGN_TRIGGERED_TOPIC)
+                .partitions(campaignTriggeredPartitions)
+                .replicas(1)
+                .build();
+    }
+
+    @Bean
+    public NewTopic contactEventsDeadLetterTopic() {
+        return TopicBuilder.name(CONTACT_EVENTS_DLT)
                 .partitions(1)
                 .replicas(1)
                 .build();
     }
 
     @Bean
-    public ProducerFactory<String, Object> producerFactory() {
-        Map<String, Object> props = new HashMap<>();
-        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
-        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+    @ConfigurationProperties("kafka.producer")
+    public ProducerProperties producerProperties() {
+        return new ProducerProperties();
+    }
 
-        props.put(JsonSerializer.ADD_TYPE_INFO_HEADERS, false);
+    /** Settings of the bulk profile, under {@code kafka.producer.bulk}. */
+    @Bean
+    @ConfigurationProperties("kafka.producer.bulk")
+    public ProducerProperties bulkProducerProperties() {
+        ProducerProperties bulk = new ProducerProperties();
+        bulk.setLinger(Duration.ofMillis(20));
+        bulk.setBatchSize(262144);
+        bulk.setCompression("zstd");
+        bulk.setBufferMemory(67108864);
+        return bulk;
+    }
+
+    @Bean
+    public ProducerFactory<String, Object> producerFactory(MeterRegistry meterRegistry) {
+        return createProducerFactory(producerProperties().toProfile("default"), meterRegistry);
+    }
 
-        return new DefaultKafkaProducerFactory<>(props);
+    /**
+     * Producer for the {@code campaign-triggered} fan-out. It lingers longer and compresses
+     * harder than the default one, since an activation sends millions of small, similar records
+     * and only the whole chunk's acknowledgement is waited for.
+     */
+    @Bean
+    public ProducerFactory<String, Object> bulkProducerFactory(MeterRegistry meterRegistry) {
+        return createProducerFactory(bulkProducerProperties().toProfile("bulk"), meterRegistry);
     }
 
     @Bean
-    public KafkaTemplate<String, Object> kafkaTemplate() {
-        return new KafkaTemplate<>(producerFactory());
+    public KafkaTemplate<String, Object> kafkaTemplate(MeterRegistry meterRegistry) {
+        return createTemplate(producerFactory(meterRegistry), "default");
     }
 
+    @Bean
+    public KafkaTemplate<String, Object> bulkKafkaTemplate(MeterRegistry meterRegistry) {
+        return createTemplate(bulkProducerFactory(meterRegistry), "bulk");
+    }
+
+    private ProducerFactory<String, Object> createProducerFactory(
+            ProducerProfile profile, MeterRegistry meterRegistry) {
+        Map<String, Object> props = profile.toProperties();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+
+        // Events go out in their binary form, anything without a codec as JSON
+        DefaultKafkaProducerFactory<String, Object> factory = new DefaultKafkaProducerFactory<>(
+                props,
+                new StringSerializer(),
+                new EventSerializer(new JsonSerializer<>().noTypeInfo()));
+        // Client metrics such as kafka.producer.batch.size.avg and request.latency.avg
+        factory.addListener(new MicrometerProducerListener<>(
+                meterRegistry, List.of(Tag.of("profile", profile.name()))));
+        return factory;
+    }
+
+    private static KafkaTemplate<String, Object> createTemplate(
+            ProducerFactory<String, Object> producerFactory, String profile) {
+        KafkaTemplate<String, Object> template = new KafkaTemplate<>(producerFactory);
+        // Send latency is timed as spring.kafka.template
+        template.setMicrometerTags(Map.of("profile", profile));
+        return template;
+    }
+
+    /**
+     * Consumer settings for {@code contact-events}. Records written before the topic carried
+     * binary events have no event header and are still read as JSON.
+     */
     @Bean
     public ConsumerFactory<String, Object> consumerFactory() {
         Map<String, Object> props = new HashMap<>();
         props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         props.put(ConsumerConfig.GROUP_ID_CONFIG, "campaign-service-group");
         props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, contactEventsMaxPollRecords);
 
-        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
-        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
-        props.put(ErrorHandlingDeserializer.KEY_DESERIALIZER_CLASS, StringDeserializer.class);
-        props.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, JsonDeserializer.class);
-
-        props.put(JsonDeserializer.TRUSTED_PACKAGES, "*");
-        props.put(JsonDeserializer.TYPE_MAPPINGS,
-                "com.mailflow.contactservice.dto.contact.ContactTaggedEvent:" +
-                        "com.mailflow.campaignservice.dto.contact.ContactTaggedEvent");
+        return new DefaultKafkaConsumerFactory<>(
+                props,
+                () -> new ErrorHandlingDeserializer<>(new StringDeserializer()),
+                () -> new ErrorHandlingDeserializer<>(new EventDeserializer(
+                        new JsonDeserializer<>(ContactTaggedEvent.class, false))));
+    }
 
-        return new DefaultKafkaConsumerFactory<>(props);
+    /**
+     * Publishes {@code contact-events} records that could not be read to {@value
+     * #CONTACT_EVENTS_DLT}, keeping their key and original bytes.
+     */
+    @Bean
+    public DeadLetterPublishingRecoverer contactEventsDeadLetterRecoverer(
+            KafkaTemplate<String, Object> kafkaTemplate) {
+        return new DeadLetterPublishingRecoverer(
+                kafkaTemplate, (failed, e) -> new TopicPartition(CONTACT_EVENTS_DLT, -1));
     }
 
     @Bean
@@ -94,4 +189,28 @@ public class KafkaConfig {
 
         return factory;
     }
-}
\ No newline at end of file
+
+    /**
+     * Hands {@code contact-events} to the listener one poll at a time. Offsets are committed once
+     * the whole batch has been handled, and each consumer thread owns a share of the partitions.
+     * A batch that still fails after its retries is published record by record to {@value
+     * #CONTACT_EVENTS_DLT} and committed.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, Object>
+            batchKafkaListenerContainerFactory(
+                    DeadLetterPublishingRecoverer contactEventsDeadLetterRecoverer) {
+        ConcurrentKafkaListenerContainerFactory<String, Object> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory());
+        factory.setBatchListener(true);
+        factory.setConcurrency(contactEventsConcurrency);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.BATCH);
+
+        DefaultErrorHandler errorHandler = new DefaultErrorHandler(
+                contactEventsDeadLetterRecoverer, new FixedBackOff(1000L, 3));
+        factory.setCommonErrorHandler(errorHandler);
+
+        return factory;
+    }
+}
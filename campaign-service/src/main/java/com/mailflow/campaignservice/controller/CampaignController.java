@@ -1,5 +1,6 @@
 package com.mailflow.campaignservice.controller;
 
+import com.mailflow.campaignservice.dto.campaign.ActivationProgressResponse;
 import com.mailflow.campaignservice.dto.campaign.CampaignRequest;
 import com.mailflow.campaignservice.dto.campaign.CampaignResponse;
 import com.mailflow.campaignservice.dto.contact.ContactResponse;
@@ -54,10 +55,16 @@ public class CampaignController {
   }
 
   @PostMapping("/{id}/activate")
+  @ResponseStatus(HttpStatus.ACCEPTED)
   public CampaignResponse activateCampaign(@PathVariable Long id) {
     return campaignService.activateCampaign(id);
   }
 
+  @GetMapping("/{id}/activation")
+  public ActivationProgressResponse getActivationProgress(@PathVariable Long id) {
+    return campaignService.getActivationProgress(id);
+  }
+
   @PostMapping("/{id}/deactivate")
   public CampaignResponse deactivateCampaign(@PathVariable Long id) {
     return campaignService.deactivateCampaign(id);
@@ -0,0 +1,81 @@
+package com.mailflow.campaignservice.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Fan-out of an activated campaign to every contact carrying its trigger tag.
+ *
+ * <p>The worker walks the segment in keyset order and records the last contact id it has
+ * enqueued in {@code cursorContactId}, so a job interrupted by a crash or redeploy resumes from
+ * that checkpoint instead of starting over. {@code lockedBy}/{@code lockedUntil} form a lease
+ * that keeps two instances from running the same job.
+ */
+@Entity
+@Table(name = "activation_jobs")
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ActivationJob {
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(nullable = false)
+  private Long campaignId;
+
+  @Column(nullable = false)
+  private String triggerTag;
+
+  @Column(nullable = false)
+  private Long templateId;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false)
+  @Builder.Default
+  private ActivationJobStatus status = ActivationJobStatus.PENDING;
+
+  @Column(nullable = false)
+  @Builder.Default
+  private long cursorContactId = 0;
+
+  @Column(nullable = false)
+  @Builder.Default
+  private long contactsEnqueued = 0;
+
+  private Long estimatedTotal;
+
+  @Column(nullable = false)
+  @Builder.Default
+  private int attempts = 0;
+
+  private String errorMessage;
+
+  private String lockedBy;
+
+  private LocalDateTime lockedUntil;
+
+  private LocalDateTime startedAt;
+
+  private LocalDateTime completedAt;
+
+  @CreationTimestamp
+  @Column(name = "created_at", updatable = false)
+  private LocalDateTime createdAt;
+
+  @UpdateTimestamp
+  @Column(name = "updated_at")
+  private LocalDateTime updatedAt;
+
+  public boolean isFinished() {
+    return status == ActivationJobStatus.COMPLETED
+        || status == ActivationJobStatus.FAILED
+        || status == ActivationJobStatus.CANCELLED;
+  }
+}
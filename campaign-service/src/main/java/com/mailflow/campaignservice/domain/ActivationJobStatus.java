@@ -0,0 +1,9 @@
+package com.mailflow.campaignservice.domain;
+
+public enum ActivationJobStatus {
+  PENDING,
+  RUNNING,
+  COMPLETED,
+  FAILED,
+  CANCELLED
+}
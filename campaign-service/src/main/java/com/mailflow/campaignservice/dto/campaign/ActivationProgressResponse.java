@@ -0,0 +1,17 @@
+package com.mailflow.campaignservice.dto.campaign;
+
+import lombok.Builder;
+
+@Builder
+public record ActivationProgressResponse(
+    Long jobId,
+    Long campaignId,
+    String status,
+    long contactsEnqueued,
+    Long estimatedTotal,
+    double contactsPerSecond,
+    Long etaSeconds,
+    int attempts,
+    String errorMessage,
+    String startedAt,
+    String completedAt) {}
@@ -1,10 +0,0 @@
-package com.mailflow.campaignservice.dto.campaign;
-
-import lombok.Builder;
-
-@Builder
-public record CampaignTriggeredEvent(
-        Long campaignId,
-        Long contactId,
-        Long templateId
-) {}
\ No newline at end of file
@@ -0,0 +1,3 @@
+package com.mailflow.campaignservice.dto.contact;
+
+public record SegmentContact(Long id, String email, String firstName, String lastName) {}
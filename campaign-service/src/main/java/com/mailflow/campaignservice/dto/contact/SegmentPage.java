@@ -0,0 +1,5 @@
+package com.mailflow.campaignservice.dto.contact;
+
+import java.util.List;
+
+public record SegmentPage(List<SegmentContact> contacts, Long nextCursor) {}
@@ -0,0 +1,195 @@
+package com.mailflow.campaignservice.index;
+
+import com.mailflow.campaignservice.domain.Campaign;
+import com.mailflow.campaignservice.repository.CampaignRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory {@code trigger tag -> active campaigns} map consulted for every consumed contact
+ * event, so matching a tag never touches the database.
+ *
+ * <p>Built at startup, patched by this instance's own campaign writes once they commit, and
+ * rebuilt every {@code campaign.trigger-index.reconcile-interval} to pick up writes made by other
+ * instances. Readers see an immutable snapshot and never block.
+ */
+@Component
+@Slf4j
+public class TriggerTagIndex {
+
+  public record ActiveCampaign(Long id, String triggerTag, Long templateId) {}
+
+  /** A local write, numbered so a rebuild can tell which ones its snapshot may have missed. */
+  private record LocalWrite(long sequence, Long campaignId, ActiveCampaign entry) {}
+
+  private final CampaignRepository campaignRepository;
+  private final Counter hits;
+  private final Counter misses;
+  private final Timer rebuildTimer;
+
+  private final Object lock = new Object();
+  private volatile Map<String, List<ActiveCampaign>> campaignsByTag = Map.of();
+  private long modifications;
+  // Kept only while a rebuild is reading, guarded by lock
+  private final List<LocalWrite> writesDuringRebuild = new ArrayList<>();
+  private int rebuilding;
+
+  public TriggerTagIndex(CampaignRepository campaignRepository, MeterRegistry meterRegistry) {
+    this.campaignRepository = campaignRepository;
+    this.hits = meterRegistry.counter("mailflow.campaign.trigger.index.lookups", "result", "hit");
+    this.misses =
+        meterRegistry.counter("mailflow.campaign.trigger.index.lookups", "result", "miss");
+    this.rebuildTimer =
+        Timer.builder("mailflow.campaign.trigger.index.rebuild")
+            .description("Time taken to reload the trigger tag index from the database")
+            .register(meterRegistry);
+    Gauge.builder(
+            "mailflow.campaign.trigger.index.tags", this, index -> index.campaignsByTag.size())
+        .description("Trigger tags with at least one active campaign")
+        .register(meterRegistry);
+  }
+
+  public List<ActiveCampaign> campaignsFor(String tag) {
+    List<ActiveCampaign> campaigns = campaignsByTag.getOrDefault(tag.toLowerCase(), List.of());
+    (campaigns.isEmpty() ? misses : hits).increment();
+    return campaigns;
+  }
+
+  /** Applies the campaign's current state to the index once the surrounding transaction commits. */
+  public void onSaved(Campaign campaign) {
+    ActiveCampaign entry =
+        campaign.isActive()
+            ? new ActiveCampaign(
+                campaign.getId(), campaign.getTriggerTag().toLowerCase(), campaign.getTemplateId())
+            : null;
+    afterCommit(() -> apply(campaign.getId(), entry));
+  }
+
+  public void onDeleted(Long campaignId) {
+    afterCommit(() -> apply(campaignId, null));
+  }
+
+  /**
+   * Reloads the index from the database. Local writes that commit while the snapshot is read may
+   * be missing from it, so they are replayed on top of it in order; replaying one the snapshot
+   * already has changes nothing.
+   */
+  @PostConstruct
+  public void rebuild() {
+    long start = System.nanoTime();
+    long seen;
+    synchronized (lock) {
+      seen = modifications;
+      rebuilding++;
+    }
+
+    try {
+      Map<String, List<ActiveCampaign>> rebuilt =
+          campaignRepository.findByActiveTrue().stream()
+              .map(
+                  campaign ->
+                      new ActiveCampaign(
+                          campaign.getId(),
+                          campaign.getTriggerTag().toLowerCase(),
+                          campaign.getTemplateId()))
+              .collect(
+                  Collectors.collectingAndThen(
+                      Collectors.groupingBy(ActiveCampaign::triggerTag),
+                      TriggerTagIndex::freeze));
+
+      int replayed = 0;
+      synchronized (lock) {
+        for (LocalWrite write : writesDuringRebuild) {
+          if (write.sequence() > seen) {
+            rebuilt = with(rebuilt, write.campaignId(), write.entry());
+            replayed++;
+          }
+        }
+        campaignsByTag = rebuilt;
+      }
+      rebuildTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+      log.debug(
+          "Rebuilt trigger index with {} tags, replayed {} local writes", rebuilt.size(), replayed);
+    } finally {
+      synchronized (lock) {
+        if (--rebuilding == 0) {
+          writesDuringRebuild.clear();
+        }
+      }
+    }
+  }
+
+  @Scheduled(
+      fixedDelayString = "${campaign.trigger-index.reconcile-interval:60000}",
+      initialDelayString = "${campaign.trigger-index.reconcile-interval:60000}")
+  public void reconcile() {
+    try {
+      rebuild();
+    } catch (Exception e) {
+      log.warn("Trigger index reconciliation failed: {}", e.getMessage());
+    }
+  }
+
+  private void apply(Long campaignId, ActiveCampaign entry) {
+    synchronized (lock) {
+      campaignsByTag = with(campaignsByTag, campaignId, entry);
+      modifications++;
+      if (rebuilding > 0) {
+        writesDuringRebuild.add(new LocalWrite(modifications, campaignId, entry));
+      }
+    }
+  }
+
+  /** Copies the index with the campaign moved to {@code entry}, or dropped if it is null. */
+  private static Map<String, List<ActiveCampaign>> with(
+      Map<String, List<ActiveCampaign>> campaignsByTag, Long campaignId, ActiveCampaign entry) {
+    Map<String, List<ActiveCampaign>> next = new HashMap<>();
+    campaignsByTag.forEach(
+        (tag, campaigns) -> {
+          List<ActiveCampaign> kept =
+              campaigns.stream().filter(c -> !c.id().equals(campaignId)).toList();
+          if (!kept.isEmpty()) {
+            next.put(tag, new ArrayList<>(kept));
+          }
+        });
+    if (entry != null) {
+      next.computeIfAbsent(entry.triggerTag(), tag -> new ArrayList<>()).add(entry);
+    }
+    return freeze(next);
+  }
+
+  private static Map<String, List<ActiveCampaign>> freeze(
+      Map<String, List<ActiveCampaign>> campaignsByTag) {
+    return campaignsByTag.entrySet().stream()
+        .collect(Collectors.toUnmodifiableMap(Map.Entry::getKey, e -> List.copyOf(e.getValue())));
+  }
+
+  private static void afterCommit(Runnable action) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      action.run();
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void afterCommit() {
+            action.run();
+          }
+        });
+  }
+}
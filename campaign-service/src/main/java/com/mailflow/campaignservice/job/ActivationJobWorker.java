@@ -0,0 +1,114 @@
+package com.mailflow.campaignservice.job;
+
+import com.mailflow.campaignservice.client.ContactServiceClient;
+import com.mailflow.campaignservice.config.KafkaConfig;
+import com.mailflow.campaignservice.domain.ActivationJob;
+import com.mailflow.campaignservice.dto.contact.SegmentContact;
+import com.mailflow.campaignservice.dto.contact.SegmentPage;
+import com.mailflow.campaignservice.service.ActivationJobService;
+import com.mailflow.events.CampaignTriggeredEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drives activation jobs in the background, one segment page per chunk.
+ *
+ * <p>A chunk is only checkpointed once Kafka has acknowledged every trigger event in it, so after
+ * a crash at most one chunk is sent again; nothing is skipped.
+ */
+@Component
+@EnableScheduling
+@RequiredArgsConstructor
+@Slf4j
+public class ActivationJobWorker {
+
+  private final ActivationJobService activationJobService;
+  private final ContactServiceClient contactServiceClient;
+  private final KafkaTemplate<String, Object> bulkKafkaTemplate;
+
+  private final String workerId = UUID.randomUUID().toString();
+
+  @Value("${campaign.activation.segment-page-size:1000}")
+  private int segmentPageSize;
+
+  @Value("${campaign.activation.send-timeout:30s}")
+  private Duration sendTimeout;
+
+  @Scheduled(fixedDelayString = "${campaign.activation.poll-interval:2000}")
+  public void runPendingJobs() {
+    Optional<ActivationJob> job;
+    while ((job = activationJobService.claimNextJob(workerId)).isPresent()) {
+      process(job.get());
+    }
+  }
+
+  void process(ActivationJob job) {
+    log.info(
+        "Running activation job {} for campaign {} from contact {}",
+        job.getId(),
+        job.getCampaignId(),
+        job.getCursorContactId());
+
+    try {
+      if (job.getEstimatedTotal() == null) {
+        activationJobService.recordEstimatedTotal(
+            job.getId(), contactServiceClient.countSegment(job.getTriggerTag()));
+      }
+
+      long cursor = job.getCursorContactId();
+      while (true) {
+        SegmentPage page =
+            contactServiceClient.getSegmentPage(job.getTriggerTag(), cursor, segmentPageSize);
+        List<SegmentContact> contacts = page.contacts();
+
+        enqueue(job, contacts);
+        if (!contacts.isEmpty()) {
+          cursor = contacts.get(contacts.size() - 1).id();
+        }
+
+        if (!activationJobService.checkpoint(job.getId(), workerId, cursor, contacts.size())) {
+          log.info("Activation job {} was cancelled or taken over, stopping", job.getId());
+          return;
+        }
+        if (page.nextCursor() == null) {
+          break;
+        }
+      }
+
+      activationJobService.complete(job.getId(), workerId);
+      log.info("Activation job {} for campaign {} completed", job.getId(), job.getCampaignId());
+    } catch (Exception e) {
+      if (e instanceof InterruptedException) {
+        Thread.currentThread().interrupt();
+      }
+      log.error("Activation job {} failed, will resume from checkpoint", job.getId(), e);
+      activationJobService.release(job.getId(), workerId, e.getMessage());
+    }
+  }
+
+  private void enqueue(ActivationJob job, List<SegmentContact> contacts) throws Exception {
+    CompletableFuture<?>[] sends =
+        contacts.stream()
+            .map(
+                contact ->
+                    bulkKafkaTemplate.send(
+                        KafkaConfig.CAMPAIGN_TRIGGERED_TOPIC,
+                        String.valueOf(contact.id()),
+                        new CampaignTriggeredEvent(
+                            job.getCampaignId(), contact.id(), job.getTemplateId())))
+            .toArray(CompletableFuture[]::new);
+    CompletableFuture.allOf(sends).get(sendTimeout.toMillis(), TimeUnit.MILLISECONDS);
+  }
+}
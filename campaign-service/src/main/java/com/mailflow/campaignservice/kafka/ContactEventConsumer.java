@@ -1,40 +1,103 @@
 package com.mailflow.campaignservice.kafka;
 
-import com.mailflow.campaignservice.domain.Campaign;
-import com.mailflow.campaignservice.dto.campaign.CampaignTriggeredEvent;
-import com.mailflow.campaignservice.dto.contact.ContactTaggedEvent;
-import com.mailflow.campaignservice.repository.CampaignRepository;
+import com.mailflow.campaignservice.config.KafkaConfig;
+import com.mailflow.campaignservice.index.TriggerTagIndex;
+import com.mailflow.campaignservice.index.TriggerTagIndex.ActiveCampaign;
+import com.mailflow.events.CampaignTriggeredEvent;
+import com.mailflow.events.ContactTaggedEvent;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.log.LogAccessor;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.support.serializer.DeserializationException;
+import org.springframework.kafka.support.serializer.SerializationUtils;
 import org.springframework.stereotype.Component;
 
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class ContactEventConsumer {
-    private final CampaignRepository campaignRepository;
-    private final KafkaTemplate<String, Object> kafkaTemplate;
-
-    @KafkaListener(topics = "contact-events", groupId = "campaign-service-group")
-    public void consume(ContactTaggedEvent event) {
-        log.info("Received contact tagged event: {} - {}", event.contactId(), event.tag());
-
-        List<Campaign> matchingCampaigns = campaignRepository.findByTriggerTagAndActive(
-                event.tag().toLowerCase(), true);
-
-        matchingCampaigns.forEach(campaign -> {
-            kafkaTemplate.send("campaign-triggered",
-                    new CampaignTriggeredEvent(
-                            campaign.getId(),
-                            event.contactId(),
-                            campaign.getTemplateId()
-                    )
-            );
-            log.info("Triggered campaign {} for contact {}",
-                    campaign.getId(), event.contactId());
+    private static final LogAccessor LOGGER = new LogAccessor(ContactEventConsumer.class);
+
+    private final TriggerTagIndex triggerTagIndex;
+    private final KafkaTemplate<String, Object> bulkKafkaTemplate;
+    private final DeadLetterPublishingRecoverer contactEventsDeadLetterRecoverer;
+
+    @Value("${campaign.contact-events.send-timeout:30s}")
+    private Duration sendTimeout;
+
+    /**
+     * Records that could not be deserialized arrive with a null value and the failure in a
+     * header. They are published to {@value KafkaConfig#CONTACT_EVENTS_DLT} once the triggers of
+     * the rest of the batch have been sent, before the batch is committed.
+     */
+    @KafkaListener(
+            topics = "contact-events",
+            groupId = "campaign-service-group",
+            containerFactory = "batchKafkaListenerContainerFactory")
+    public void consume(List<ConsumerRecord<String, Object>> records) throws Exception {
+        // A contact tagged twice within one poll only needs to be matched once
+        Map<String, Set<Long>> contactsByTag = new LinkedHashMap<>();
+        Map<ConsumerRecord<String, Object>, DeserializationException> unreadable =
+                new LinkedHashMap<>();
+        for (ConsumerRecord<String, Object> record : records) {
+            if (!(record.value() instanceof ContactTaggedEvent event)) {
+                DeserializationException failure = SerializationUtils.getExceptionFromHeader(
+                        record, SerializationUtils.VALUE_DESERIALIZER_EXCEPTION_HEADER, LOGGER);
+                if (failure != null) {
+                    unreadable.put(record, failure);
+                }
+                continue;
+            }
+            if (event.tag() == null) {
+                continue;
+            }
+            contactsByTag
+                    .computeIfAbsent(event.tag().toLowerCase(), tag -> new LinkedHashSet<>())
+                    .add(event.contactId());
+        }
+
+        // Two tags of the same contact can match the same campaign
+        Set<CampaignTriggeredEvent> triggers = new LinkedHashSet<>();
+        contactsByTag.forEach((tag, contactIds) -> {
+            List<ActiveCampaign> campaigns = triggerTagIndex.campaignsFor(tag);
+            for (ActiveCampaign campaign : campaigns) {
+                for (Long contactId : contactIds) {
+                    triggers.add(new CampaignTriggeredEvent(
+                            campaign.id(), contactId, campaign.templateId()));
+                }
+            }
         });
+
+        CompletableFuture<?>[] sends = triggers.stream()
+                .map(trigger -> bulkKafkaTemplate.send(
+                        KafkaConfig.CAMPAIGN_TRIGGERED_TOPIC,
+                        String.valueOf(trigger.contactId()),
+                        trigger))
+                .toArray(CompletableFuture[]::new);
+
+        // Offsets are committed once this returns, so wait until the broker has every trigger
+        CompletableFuture.allOf(sends).get(sendTimeout.toMillis(), TimeUnit.MILLISECONDS);
+
+        unreadable.forEach((record, failure) -> {
+            log.error("Unreadable contact event at {}-{}@{}, sending to dead letter topic: {}",
+                    record.topic(), record.partition(), record.offset(), failure.getMessage());
+            contactEventsDeadLetterRecoverer.accept(record, failure);
+        });
+
+        log.info("Processed {} contact tagged events, triggered {} campaign sends",
+                records.size(), triggers.size());
     }
-}
\ No newline at end of file
+}
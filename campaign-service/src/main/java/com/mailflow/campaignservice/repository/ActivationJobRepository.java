@@ -0,0 +1,98 @@
+package com.mailflow.campaignservice.repository;
+
+import com.mailflow.campaignservice.domain.ActivationJob;
+import com.mailflow.campaignservice.domain.ActivationJobStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Optional;
+
+@Repository
+public interface ActivationJobRepository extends JpaRepository<ActivationJob, Long> {
+
+  Optional<ActivationJob> findFirstByCampaignIdOrderByCreatedAtDesc(Long campaignId);
+
+  Optional<ActivationJob> findFirstByCampaignIdAndStatusIn(
+      Long campaignId, Collection<ActivationJobStatus> statuses);
+
+  /**
+   * Locks the oldest unfinished job whose lease is free or has expired. Rows already locked by
+   * another instance are skipped rather than waited on.
+   */
+  @Query(
+      value =
+          "SELECT * FROM activation_jobs "
+              + "WHERE status IN ('PENDING', 'RUNNING') "
+              + "AND (locked_until IS NULL OR locked_until < :now) "
+              + "ORDER BY created_at LIMIT 1 FOR UPDATE SKIP LOCKED",
+      nativeQuery = true)
+  Optional<ActivationJob> lockNextRunnable(@Param("now") LocalDateTime now);
+
+  /**
+   * Records a processed chunk and renews the lease, but only while {@code owner} still holds the
+   * job. Returns 0 when the lease was lost or the job was cancelled in the meantime.
+   */
+  @Modifying
+  @Query(
+      value =
+          "UPDATE activation_jobs SET cursor_contact_id = :cursor, "
+              + "contacts_enqueued = contacts_enqueued + :enqueued, "
+              + "locked_until = :leaseUntil, updated_at = :now "
+              + "WHERE id = :id AND locked_by = :owner AND status = 'RUNNING'",
+      nativeQuery = true)
+  int checkpoint(
+      @Param("id") Long id,
+      @Param("owner") String owner,
+      @Param("cursor") long cursor,
+      @Param("enqueued") int enqueued,
+      @Param("leaseUntil") LocalDateTime leaseUntil,
+      @Param("now") LocalDateTime now);
+
+  @Modifying
+  @Query(
+      value =
+          "UPDATE activation_jobs SET status = 'COMPLETED', completed_at = :now, "
+              + "locked_by = NULL, locked_until = NULL, error_message = NULL, updated_at = :now "
+              + "WHERE id = :id AND locked_by = :owner AND status = 'RUNNING'",
+      nativeQuery = true)
+  int complete(@Param("id") Long id, @Param("owner") String owner, @Param("now") LocalDateTime now);
+
+  /**
+   * Releases the lease after a failed chunk. The job stays runnable and is picked up again from
+   * its checkpoint once {@code retryAt} has passed, unless it has used up {@code maxAttempts}.
+   */
+  @Modifying
+  @Query(
+      value =
+          "UPDATE activation_jobs SET error_message = :error, locked_by = NULL, "
+              + "locked_until = :retryAt, updated_at = :now, "
+              + "status = CASE WHEN attempts >= :maxAttempts THEN 'FAILED' ELSE status END, "
+              + "completed_at = CASE WHEN attempts >= :maxAttempts THEN :now ELSE NULL END "
+              + "WHERE id = :id AND locked_by = :owner AND status = 'RUNNING'",
+      nativeQuery = true)
+  int release(
+      @Param("id") Long id,
+      @Param("owner") String owner,
+      @Param("error") String error,
+      @Param("retryAt") LocalDateTime retryAt,
+      @Param("maxAttempts") int maxAttempts,
+      @Param("now") LocalDateTime now);
+
+  @Modifying
+  @Query(
+      value =
+          "UPDATE activation_jobs SET status = 'CANCELLED', completed_at = :now, "
+              + "locked_by = NULL, locked_until = NULL, updated_at = :now "
+              + "WHERE campaign_id = :campaignId AND status IN ('PENDING', 'RUNNING')",
+      nativeQuery = true)
+  int cancelUnfinished(@Param("campaignId") Long campaignId, @Param("now") LocalDateTime now);
+
+  @Modifying
+  @Query("UPDATE ActivationJob j SET j.estimatedTotal = :total WHERE j.id = :id")
+  int updateEstimatedTotal(@Param("id") Long id, @Param("total") long total);
+}
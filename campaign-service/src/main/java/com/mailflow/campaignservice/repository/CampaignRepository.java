@@ -18,4 +18,6 @@ public interface CampaignRepository extends JpaRepository<Campaign, Long> {
   Page<Campaign> searchCampaigns(String query, Pageable pageable);
 
     List<Campaign> findByTriggerTagAndActive(String lowerCase, boolean b);
+
+    List<Campaign> findByActiveTrue();
 }
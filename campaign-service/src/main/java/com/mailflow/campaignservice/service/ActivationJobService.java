@@ -0,0 +1,25 @@
+package com.mailflow.campaignservice.service;
+
+import com.mailflow.campaignservice.domain.ActivationJob;
+import com.mailflow.campaignservice.domain.Campaign;
+import com.mailflow.campaignservice.dto.campaign.ActivationProgressResponse;
+
+import java.util.Optional;
+
+public interface ActivationJobService {
+  ActivationJob createJob(Campaign campaign);
+
+  void cancelJobs(Long campaignId);
+
+  ActivationProgressResponse getProgress(Long campaignId);
+
+  Optional<ActivationJob> claimNextJob(String owner);
+
+  boolean checkpoint(Long jobId, String owner, long cursor, int enqueued);
+
+  void complete(Long jobId, String owner);
+
+  void release(Long jobId, String owner, String error);
+
+  void recordEstimatedTotal(Long jobId, long total);
+}
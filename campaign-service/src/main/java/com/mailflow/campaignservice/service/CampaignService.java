@@ -1,5 +1,6 @@
 package com.mailflow.campaignservice.service;
 
+import com.mailflow.campaignservice.dto.campaign.ActivationProgressResponse;
 import com.mailflow.campaignservice.dto.campaign.CampaignRequest;
 import com.mailflow.campaignservice.dto.campaign.CampaignResponse;
 import com.mailflow.campaignservice.dto.contact.ContactResponse;
@@ -21,6 +22,8 @@ public interface CampaignService {
 
   CampaignResponse getCampaign(Long id);
 
+  ActivationProgressResponse getActivationProgress(Long id);
+
   PageResponse<CampaignResponse> searchCampaigns(String query, Pageable pageable);
 
   PageResponse<CampaignResponse> getAll(Pageable pageable);
@@ -0,0 +1,177 @@
+package com.mailflow.campaignservice.service.impl;
+
+import com.mailflow.campaignservice.domain.ActivationJob;
+import com.mailflow.campaignservice.domain.ActivationJobStatus;
+import com.mailflow.campaignservice.domain.Campaign;
+import com.mailflow.campaignservice.dto.campaign.ActivationProgressResponse;
+import com.mailflow.campaignservice.exception.ResourceNotFoundException;
+import com.mailflow.campaignservice.repository.ActivationJobRepository;
+import com.mailflow.campaignservice.service.ActivationJobService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.EnumSet;
+import java.util.Optional;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ActivationJobServiceImpl implements ActivationJobService {
+
+  private static final DateTimeFormatter DATE_FORMATTER =
+      DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+  private static final int MAX_ERROR_LENGTH = 1000;
+
+  private final ActivationJobRepository activationJobRepository;
+
+  @Value("${campaign.activation.lease:2m}")
+  private Duration lease;
+
+  @Value("${campaign.activation.retry-delay:30s}")
+  private Duration retryDelay;
+
+  @Value("${campaign.activation.max-attempts:5}")
+  private int maxAttempts;
+
+  @Override
+  @Transactional
+  public ActivationJob createJob(Campaign campaign) {
+    Optional<ActivationJob> unfinished =
+        activationJobRepository.findFirstByCampaignIdAndStatusIn(
+            campaign.getId(), EnumSet.of(ActivationJobStatus.PENDING, ActivationJobStatus.RUNNING));
+    if (unfinished.isPresent()) {
+      log.info(
+          "Campaign {} already has activation job {} in progress",
+          campaign.getId(),
+          unfinished.get().getId());
+      return unfinished.get();
+    }
+
+    ActivationJob job =
+        activationJobRepository.save(
+            ActivationJob.builder()
+                .campaignId(campaign.getId())
+                .triggerTag(campaign.getTriggerTag())
+                .templateId(campaign.getTemplateId())
+                .build());
+    log.info("Queued activation job {} for campaign {}", job.getId(), campaign.getId());
+    return job;
+  }
+
+  @Override
+  @Transactional
+  public void cancelJobs(Long campaignId) {
+    int cancelled = activationJobRepository.cancelUnfinished(campaignId, LocalDateTime.now());
+    if (cancelled > 0) {
+      log.info("Cancelled {} activation job(s) for campaign {}", cancelled, campaignId);
+    }
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public ActivationProgressResponse getProgress(Long campaignId) {
+    ActivationJob job =
+        activationJobRepository
+            .findFirstByCampaignIdOrderByCreatedAtDesc(campaignId)
+            .orElseThrow(
+                () ->
+                    new ResourceNotFoundException(
+                        "No activation found for campaign with ID: " + campaignId));
+
+    double rate = contactsPerSecond(job);
+    Long eta = null;
+    if (!job.isFinished() && job.getEstimatedTotal() != null && rate > 0) {
+      long remaining = Math.max(0, job.getEstimatedTotal() - job.getContactsEnqueued());
+      eta = (long) Math.ceil(remaining / rate);
+    }
+
+    return ActivationProgressResponse.builder()
+        .jobId(job.getId())
+        .campaignId(job.getCampaignId())
+        .status(job.getStatus().name())
+        .contactsEnqueued(job.getContactsEnqueued())
+        .estimatedTotal(job.getEstimatedTotal())
+        .contactsPerSecond(rate)
+        .etaSeconds(eta)
+        .attempts(job.getAttempts())
+        .errorMessage(job.getErrorMessage())
+        .startedAt(formatDateTime(job.getStartedAt()))
+        .completedAt(formatDateTime(job.getCompletedAt()))
+        .build();
+  }
+
+  @Override
+  @Transactional
+  public Optional<ActivationJob> claimNextJob(String owner) {
+    LocalDateTime now = LocalDateTime.now();
+    return activationJobRepository
+        .lockNextRunnable(now)
+        .map(
+            job -> {
+              job.setStatus(ActivationJobStatus.RUNNING);
+              job.setLockedBy(owner);
+              job.setLockedUntil(now.plus(lease));
+              job.setAttempts(job.getAttempts() + 1);
+              if (job.getStartedAt() == null) {
+                job.setStartedAt(now);
+              }
+              return activationJobRepository.save(job);
+            });
+  }
+
+  @Override
+  @Transactional
+  public boolean checkpoint(Long jobId, String owner, long cursor, int enqueued) {
+    LocalDateTime now = LocalDateTime.now();
+    return activationJobRepository.checkpoint(
+            jobId, owner, cursor, enqueued, now.plus(lease), now)
+        > 0;
+  }
+
+  @Override
+  @Transactional
+  public void complete(Long jobId, String owner) {
+    activationJobRepository.complete(jobId, owner, LocalDateTime.now());
+  }
+
+  @Override
+  @Transactional
+  public void release(Long jobId, String owner, String error) {
+    LocalDateTime now = LocalDateTime.now();
+    String message =
+        error != null && error.length() > MAX_ERROR_LENGTH
+            ? error.substring(0, MAX_ERROR_LENGTH)
+            : error;
+    activationJobRepository.release(
+        jobId, owner, message, now.plus(retryDelay), maxAttempts, now);
+  }
+
+  @Override
+  @Transactional
+  public void recordEstimatedTotal(Long jobId, long total) {
+    activationJobRepository.updateEstimatedTotal(jobId, total);
+  }
+
+  private double contactsPerSecond(ActivationJob job) {
+    if (job.getStartedAt() == null || job.getContactsEnqueued() == 0) {
+      return 0;
+    }
+    LocalDateTime end = job.getCompletedAt() != null ? job.getCompletedAt() : LocalDateTime.now();
+    long millis = Duration.between(job.getStartedAt(), end).toMillis();
+    return millis > 0 ? job.getContactsEnqueued() * 1000.0 / millis : 0;
+  }
+
+  private String formatDateTime(LocalDateTime dateTime) {
+    if (dateTime == null) {
+      return null;
+    }
+    return dateTime.format(DATE_FORMATTER);
+  }
+}
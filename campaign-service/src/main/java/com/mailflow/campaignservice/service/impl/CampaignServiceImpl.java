@@ -7,15 +7,17 @@ import com.mailflow.campaignservice.dto.campaign.*;
 import com.mailflow.campaignservice.dto.contact.ContactResponse;
 import com.mailflow.campaignservice.dto.response.PageResponse;
 import com.mailflow.campaignservice.exception.ResourceNotFoundException;
+import com.mailflow.campaignservice.index.TriggerTagIndex;
 import com.mailflow.campaignservice.mapper.CampaignMapper;
 import com.mailflow.campaignservice.repository.CampaignRepository;
+import com.mailflow.campaignservice.service.ActivationJobService;
 import com.mailflow.campaignservice.service.CampaignService;
+import com.mailflow.outbox.OutboxRepository;
 import feign.FeignException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -29,9 +31,11 @@ public class CampaignServiceImpl implements CampaignService {
 
   private final CampaignRepository campaignRepository;
   private final CampaignMapper campaignMapper;
-  private final KafkaTemplate<String, Object> kafkaTemplate;
+  private final OutboxRepository outboxRepository;
   private final ContactServiceClient contactServiceClient;
   private final TemplateServiceClient templateServiceClient;
+  private final ActivationJobService activationJobService;
+  private final TriggerTagIndex triggerTagIndex;
 
   private static final String CAMPAIGN_EVENTS_TOPIC = "campaign-events";
 
@@ -45,9 +49,10 @@ public class CampaignServiceImpl implements CampaignService {
 
     Campaign campaign = campaignMapper.toEntity(request);
     Campaign savedCampaign = campaignRepository.save(campaign);
+    triggerTagIndex.onSaved(savedCampaign);
 
-    // Publish campaign created event
-    kafkaTemplate.send(CAMPAIGN_EVENTS_TOPIC, new CampaignCreatedEvent(
+    // Publish campaign created event once the campaign is committed
+    outboxRepository.append(CAMPAIGN_EVENTS_TOPIC, null, new CampaignCreatedEvent(
             savedCampaign.getId(),
             savedCampaign.getName(),
             savedCampaign.getTriggerTag(),
@@ -68,6 +73,7 @@ public class CampaignServiceImpl implements CampaignService {
 
     campaignMapper.updateCampaignFromDto(request, campaign);
     Campaign updatedCampaign = campaignRepository.save(campaign);
+    triggerTagIndex.onSaved(updatedCampaign);
 
     log.info("Campaign updated successfully with ID: {}", id);
     return campaignMapper.toResponse(updatedCampaign);
@@ -79,6 +85,7 @@ public class CampaignServiceImpl implements CampaignService {
 
     Campaign campaign = getCampaignById(id);
     campaignRepository.delete(campaign);
+    triggerTagIndex.onDeleted(id);
 
     log.info("Campaign deleted successfully with ID: {}", id);
     return campaignMapper.toResponse(campaign);
@@ -96,14 +103,15 @@ public class CampaignServiceImpl implements CampaignService {
 
     campaign.activate();
     Campaign savedCampaign = campaignRepository.save(campaign);
+    triggerTagIndex.onSaved(savedCampaign);
 
-    // Publish campaign activated event
-    kafkaTemplate.send(CAMPAIGN_EVENTS_TOPIC, new CampaignActivatedEvent(
+    // Publish campaign activated event once the activation is committed
+    outboxRepository.append(CAMPAIGN_EVENTS_TOPIC, null, new CampaignActivatedEvent(
             savedCampaign.getId(),
             savedCampaign.getTriggerTag()));
 
-    // Find contacts that match this campaign's trigger tag and process them
-    findAndProcessMatchingContacts(savedCampaign);
+    // Fan-out to matching contacts runs in the background, see ActivationJobWorker
+    activationJobService.createJob(savedCampaign);
 
     log.info("Campaign activated successfully with ID: {}", id);
     return campaignMapper.toResponse(savedCampaign);
@@ -117,6 +125,8 @@ public class CampaignServiceImpl implements CampaignService {
     Campaign campaign = getCampaignById(id);
     campaign.deactivate();
     Campaign savedCampaign = campaignRepository.save(campaign);
+    triggerTagIndex.onSaved(savedCampaign);
+    activationJobService.cancelJobs(id);
 
     log.info("Campaign deactivated successfully with ID: {}", id);
     return campaignMapper.toResponse(savedCampaign);
@@ -129,6 +139,13 @@ public class CampaignServiceImpl implements CampaignService {
     return campaignMapper.toResponse(getCampaignById(id));
   }
 
+  @Override
+  @Transactional(readOnly = true)
+  public ActivationProgressResponse getActivationProgress(Long id) {
+    Campaign campaign = getCampaignById(id);
+    return activationJobService.getProgress(campaign.getId());
+  }
+
   @Override
   @Transactional(readOnly = true)
   public PageResponse<CampaignResponse> getAll(Pageable pageable) {
@@ -209,28 +226,4 @@ public class CampaignServiceImpl implements CampaignService {
       throw new ResourceNotFoundException("Template not found with ID: " + templateId);
     }
   }
-
-  private void findAndProcessMatchingContacts(Campaign campaign) {
-    if (!campaign.isActive()) {
-      return;
-    }
-
-    try {
-      List<ContactResponse> contacts = contactServiceClient.findContactsByTag(campaign.getTriggerTag());
-      log.info("Found {} contacts matching campaign {} trigger tag '{}'",
-              contacts.size(), campaign.getId(), campaign.getTriggerTag());
-
-      // Process each matching contact
-      contacts.forEach(contact ->
-              kafkaTemplate.send("campaign-triggered",
-                      new CampaignTriggeredEvent(
-                              campaign.getId(),
-                              contact.id(),
-                              campaign.getTemplateId()
-                      ))
-      );
-    } catch (Exception e) {
-      log.error("Error processing matching contacts for campaign {}", campaign.getId(), e);
-    }
-  }
 }
\ No newline at end of file
@@ -0,0 +1,27 @@
+CREATE TABLE activation_jobs
+(
+    id                BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    campaign_id       BIGINT                                  NOT NULL,
+    trigger_tag       VARCHAR(255)                            NOT NULL,
+    template_id       BIGINT                                  NOT NULL,
+    status            VARCHAR(20)                             NOT NULL,
+    cursor_contact_id BIGINT                                  NOT NULL DEFAULT 0,
+    contacts_enqueued BIGINT                                  NOT NULL DEFAULT 0,
+    estimated_total   BIGINT,
+    attempts          INT                                     NOT NULL DEFAULT 0,
+    error_message     TEXT,
+    locked_by         VARCHAR(64),
+    locked_until      TIMESTAMP WITHOUT TIME ZONE,
+    started_at        TIMESTAMP WITHOUT TIME ZONE,
+    completed_at      TIMESTAMP WITHOUT TIME ZONE,
+    created_at        TIMESTAMP WITHOUT TIME ZONE,
+    updated_at        TIMESTAMP WITHOUT TIME ZONE,
+    CONSTRAINT pk_activation_jobs PRIMARY KEY (id),
+    CONSTRAINT fk_activation_jobs_campaign FOREIGN KEY (campaign_id) REFERENCES campaigns (id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_activation_jobs_campaign ON activation_jobs (campaign_id, created_at DESC);
+
+-- Only unfinished jobs are ever polled, so keep the claim index small
+CREATE INDEX idx_activation_jobs_runnable ON activation_jobs (created_at)
+    WHERE status IN ('PENDING', 'RUNNING');
@@ -0,0 +1,17 @@
+-- Events written in the same transaction as the change they report, published by OutboxRelay.
+-- Rows only live until Kafka has acknowledged them, so the table stays small but churns a lot.
+CREATE TABLE outbox_events
+(
+    id           BIGINT GENERATED ALWAYS AS IDENTITY NOT NULL,
+    topic        VARCHAR(255)                        NOT NULL,
+    message_key  VARCHAR(255),
+    payload_type VARCHAR(255)                        NOT NULL,
+    -- Plain text: the payload is only ever read back whole, so jsonb parsing would be wasted
+    payload      TEXT                                NOT NULL,
+    created_at   TIMESTAMP WITHOUT TIME ZONE         NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT pk_outbox_events PRIMARY KEY (id)
+);
+
+-- Vacuum after a fixed number of deleted rows rather than a share of a near-empty table
+ALTER TABLE outbox_events
+    SET (autovacuum_vacuum_scale_factor = 0, autovacuum_vacuum_threshold = 1000);
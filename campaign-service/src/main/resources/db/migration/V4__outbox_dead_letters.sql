@@ -0,0 +1,15 @@
+-- Outbox events whose payload can no longer be read back, for example because its class was
+-- renamed, moved here by the relay so they stop blocking the events behind them. Rows keep the
+-- original id and payload so they can be fixed and appended to outbox_events again.
+CREATE TABLE outbox_dead_letters
+(
+    id           BIGINT                      NOT NULL,
+    topic        VARCHAR(255)                NOT NULL,
+    message_key  VARCHAR(255),
+    payload_type VARCHAR(255)                NOT NULL,
+    payload      TEXT                        NOT NULL,
+    created_at   TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    failed_at    TIMESTAMP WITHOUT TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    error        TEXT                        NOT NULL,
+    CONSTRAINT pk_outbox_dead_letters PRIMARY KEY (id)
+);
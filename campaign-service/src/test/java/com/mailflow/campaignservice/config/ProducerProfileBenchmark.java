@@ -0,0 +1,133 @@
+package com.mailflow.campaignservice.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.mailflow.events.CampaignTriggeredEvent;
+import com.mailflow.events.kafka.EventSerializer;
+import com.mailflow.events.kafka.ProducerProfile;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+
+/**
+ * Measures how fast each {@link ProducerProfile} pushes {@code campaign-triggered} fan-out to an
+ * embedded single-node broker: an unbatched baseline ({@code linger.ms=0}, no compression), the
+ * default profile and the bulk one, with the values {@code KafkaConfig} falls back to. Records are
+ * sent the way {@code ActivationJobWorker} sends them, all at once and acknowledged together.
+ *
+ * <p>Run with {@code ./mvnw test -Dtest=ProducerProfileBenchmark -Dbenchmark=true}. An embedded
+ * broker shares the machine with the producer, so compare the profiles with each other rather than
+ * with production numbers.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ProducerProfileBenchmark {
+
+  private static final String TOPIC = "campaign-triggered-bench";
+  private static final int PARTITIONS = 6;
+  private static final int RECORDS = 500_000;
+  private static final int WARM_UP_RECORDS = 50_000;
+
+  private static final List<ProducerProfile> PROFILES =
+      List.of(
+          ProducerProfile.builder()
+              .name("baseline")
+              .linger(Duration.ZERO)
+              .batchSize(16_384)
+              .compression("none")
+              .maxInFlight(5)
+              .bufferMemory(33_554_432L)
+              .build(),
+          ProducerProfile.builder()
+              .name("default")
+              .linger(Duration.ofMillis(5))
+              .batchSize(65_536)
+              .compression("lz4")
+              .maxInFlight(5)
+              .bufferMemory(33_554_432L)
+              .build(),
+          ProducerProfile.builder()
+              .name("bulk")
+              .linger(Duration.ofMillis(20))
+              .batchSize(262_144)
+              .compression("zstd")
+              .maxInFlight(5)
+              .bufferMemory(67_108_864L)
+              .build());
+
+  @Test
+  void compareProducerProfiles() {
+    EmbeddedKafkaBroker broker = new EmbeddedKafkaKraftBroker(1, PARTITIONS, TOPIC);
+    broker.afterPropertiesSet();
+    try {
+      System.out.printf(
+          "%-10s %10s %12s %12s %12s %12s%n",
+          "profile", "records", "records/s", "batch avg", "compression", "latency avg");
+      for (ProducerProfile profile : PROFILES) {
+        run(broker.getBrokersAsString(), profile);
+      }
+    } finally {
+      broker.destroy();
+    }
+  }
+
+  private void run(String bootstrapServers, ProducerProfile profile) {
+    Map<String, Object> props = profile.toProperties();
+    props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+    props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+    props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, EventSerializer.class);
+
+    DefaultKafkaProducerFactory<String, Object> factory = new DefaultKafkaProducerFactory<>(props);
+    try {
+      KafkaTemplate<String, Object> template = new KafkaTemplate<>(factory);
+      send(template, WARM_UP_RECORDS);
+
+      long start = System.nanoTime();
+      send(template, RECORDS);
+      double seconds = (System.nanoTime() - start) / 1e9;
+
+      System.out.printf(
+          "%-10s %10d %12.0f %11.0fB %12.2f %10.1fms%n",
+          profile.name(),
+          RECORDS,
+          RECORDS / seconds,
+          metric(template, "batch-size-avg"),
+          metric(template, "compression-rate-avg"),
+          metric(template, "request-latency-avg"));
+    } finally {
+      factory.destroy();
+    }
+  }
+
+  private static void send(KafkaTemplate<String, Object> template, int records) {
+    CompletableFuture<?>[] sends = new CompletableFuture<?>[records];
+    for (int i = 0; i < records; i++) {
+      long contactId = i;
+      sends[i] =
+          template.send(
+              TOPIC, String.valueOf(contactId), new CampaignTriggeredEvent(1L, contactId, 10L));
+    }
+    CompletableFuture.allOf(sends).orTimeout(5, TimeUnit.MINUTES).join();
+    assertThat(sends).allMatch(send -> !send.isCompletedExceptionally());
+  }
+
+  private static double metric(KafkaTemplate<String, Object> template, String name) {
+    return template.metrics().entrySet().stream()
+        .filter(
+            entry ->
+                entry.getKey().group().equals("producer-metrics")
+                    && entry.getKey().name().equals(name))
+        .mapToDouble(entry -> ((Number) entry.getValue().metricValue()).doubleValue())
+        .findFirst()
+        .orElse(Double.NaN);
+  }
+}
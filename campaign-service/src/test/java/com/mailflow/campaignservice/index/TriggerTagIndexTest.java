@@ -0,0 +1,117 @@
+package com.mailflow.campaignservice.index;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+import com.mailflow.campaignservice.domain.Campaign;
+import com.mailflow.campaignservice.index.TriggerTagIndex.ActiveCampaign;
+import com.mailflow.campaignservice.repository.CampaignRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class TriggerTagIndexTest {
+
+  @Mock private CampaignRepository campaignRepository;
+
+  private SimpleMeterRegistry meterRegistry;
+  private TriggerTagIndex index;
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    index = new TriggerTagIndex(campaignRepository, meterRegistry);
+  }
+
+  @Test
+  @DisplayName("Should serve active campaigns loaded at rebuild without further queries")
+  void shouldServeCampaignsFromRebuild() {
+    // Arrange
+    when(campaignRepository.findByActiveTrue())
+        .thenReturn(List.of(campaign(1L, "newsletter-subscriber", true)));
+    index.rebuild();
+
+    // Act
+    List<ActiveCampaign> matches = index.campaignsFor("Newsletter-Subscriber");
+    List<ActiveCampaign> none = index.campaignsFor("promo-subscriber");
+
+    // Assert
+    assertThat(matches).extracting(ActiveCampaign::id).containsExactly(1L);
+    assertThat(none).isEmpty();
+    verify(campaignRepository, times(1)).findByActiveTrue();
+    assertThat(
+            meterRegistry
+                .counter("mailflow.campaign.trigger.index.lookups", "result", "hit")
+                .count())
+        .isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("Should move, add and drop campaigns as they are saved and deleted")
+  void shouldApplyLocalWrites() {
+    // Arrange
+    when(campaignRepository.findByActiveTrue()).thenReturn(List.of());
+    index.rebuild();
+
+    // Act & Assert
+    index.onSaved(campaign(1L, "newsletter-subscriber", true));
+    assertThat(index.campaignsFor("newsletter-subscriber")).hasSize(1);
+
+    index.onSaved(campaign(1L, "promo-subscriber", true));
+    assertThat(index.campaignsFor("newsletter-subscriber")).isEmpty();
+    assertThat(index.campaignsFor("promo-subscriber")).hasSize(1);
+
+    index.onSaved(campaign(1L, "promo-subscriber", false));
+    assertThat(index.campaignsFor("promo-subscriber")).isEmpty();
+
+    index.onSaved(campaign(2L, "promo-subscriber", true));
+    index.onDeleted(2L);
+    assertThat(index.campaignsFor("promo-subscriber")).isEmpty();
+  }
+
+  @Test
+  @DisplayName("Should apply a rebuild and replay local writes made while it was reading")
+  void shouldReplayLocalWritesMadeDuringRebuild() {
+    // Arrange
+    when(campaignRepository.findByActiveTrue())
+        .thenReturn(List.of(campaign(1L, "newsletter-subscriber", true)))
+        .thenAnswer(
+            invocation -> {
+              // Committed after the snapshot below was read
+              index.onSaved(campaign(2L, "promo-subscriber", true));
+              index.onDeleted(1L);
+              return List.of(
+                  campaign(1L, "newsletter-subscriber", true),
+                  campaign(3L, "welcome-subscriber", true));
+            });
+    index.rebuild();
+
+    // Act
+    index.rebuild();
+
+    // Assert
+    assertThat(index.campaignsFor("newsletter-subscriber")).isEmpty();
+    assertThat(index.campaignsFor("promo-subscriber"))
+        .extracting(ActiveCampaign::id)
+        .containsExactly(2L);
+    assertThat(index.campaignsFor("welcome-subscriber"))
+        .extracting(ActiveCampaign::id)
+        .containsExactly(3L);
+  }
+
+  private Campaign campaign(Long id, String tag, boolean active) {
+    return Campaign.builder()
+        .id(id)
+        .name("Campaign " + id)
+        .triggerTag(tag)
+        .templateId(10L)
+        .active(active)
+        .build();
+  }
+}
@@ -0,0 +1,170 @@
+package com.mailflow.campaignservice.job;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import com.mailflow.campaignservice.client.ContactServiceClient;
+import com.mailflow.campaignservice.domain.ActivationJob;
+import com.mailflow.campaignservice.domain.ActivationJobStatus;
+import com.mailflow.campaignservice.dto.contact.SegmentContact;
+import com.mailflow.campaignservice.dto.contact.SegmentPage;
+import com.mailflow.campaignservice.service.ActivationJobService;
+import com.mailflow.events.CampaignTriggeredEvent;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@ExtendWith(MockitoExtension.class)
+public class ActivationJobWorkerTest {
+
+  @Mock private ActivationJobService activationJobService;
+
+  @Mock private ContactServiceClient contactServiceClient;
+
+  @Mock private KafkaTemplate<String, Object> kafkaTemplate;
+
+  @InjectMocks private ActivationJobWorker worker;
+
+  private ActivationJob job;
+
+  @BeforeEach
+  void setUp() {
+    ReflectionTestUtils.setField(worker, "segmentPageSize", 1);
+    ReflectionTestUtils.setField(worker, "sendTimeout", Duration.ofSeconds(5));
+
+    job =
+        ActivationJob.builder()
+            .id(7L)
+            .campaignId(1L)
+            .triggerTag("newsletter-subscriber")
+            .templateId(10L)
+            .status(ActivationJobStatus.RUNNING)
+            .build();
+  }
+
+  @Test
+  @DisplayName("Should trigger each contact page by page and checkpoint after every chunk")
+  void shouldTriggerContactsAndCheckpointEachChunk() {
+    // Arrange
+    SegmentContact contact1 = new SegmentContact(1L, "khalid@gmail.com", "Khalid", "Waheli");
+    SegmentContact contact2 = new SegmentContact(2L, "latifa@gmail.com", "Latifa", "Chakir");
+
+    when(contactServiceClient.countSegment("newsletter-subscriber")).thenReturn(2L);
+    when(contactServiceClient.getSegmentPage(eq("newsletter-subscriber"), eq(0L), anyInt()))
+        .thenReturn(new SegmentPage(List.of(contact1), 1L));
+    when(contactServiceClient.getSegmentPage(eq("newsletter-subscriber"), eq(1L), anyInt()))
+        .thenReturn(new SegmentPage(List.of(contact2), null));
+    when(kafkaTemplate.send(
+            eq("campaign-triggered"), anyString(), any(CampaignTriggeredEvent.class)))
+        .thenReturn(CompletableFuture.completedFuture(null));
+    when(activationJobService.checkpoint(eq(7L), anyString(), anyLong(), anyInt()))
+        .thenReturn(true);
+
+    // Act
+    worker.process(job);
+
+    // Assert
+    ArgumentCaptor<String> keyCaptor = ArgumentCaptor.forClass(String.class);
+    ArgumentCaptor<CampaignTriggeredEvent> eventCaptor =
+        ArgumentCaptor.forClass(CampaignTriggeredEvent.class);
+    verify(kafkaTemplate, times(2))
+        .send(eq("campaign-triggered"), keyCaptor.capture(), eventCaptor.capture());
+    assertThat(eventCaptor.getAllValues())
+        .extracting(CampaignTriggeredEvent::contactId)
+        .containsExactly(1L, 2L);
+    // Keyed by contact, so each contact's triggers stay on one partition
+    assertThat(keyCaptor.getAllValues()).containsExactly("1", "2");
+
+    verify(activationJobService).recordEstimatedTotal(7L, 2L);
+    verify(activationJobService).checkpoint(eq(7L), anyString(), eq(1L), eq(1));
+    verify(activationJobService).checkpoint(eq(7L), anyString(), eq(2L), eq(1));
+    verify(activationJobService).complete(eq(7L), anyString());
+  }
+
+  @Test
+  @DisplayName("Should resume from the stored cursor")
+  void shouldResumeFromCheckpoint() {
+    // Arrange
+    job.setCursorContactId(1L);
+    job.setEstimatedTotal(2L);
+    SegmentContact contact2 = new SegmentContact(2L, "latifa@gmail.com", "Latifa", "Chakir");
+
+    when(contactServiceClient.getSegmentPage(eq("newsletter-subscriber"), eq(1L), anyInt()))
+        .thenReturn(new SegmentPage(List.of(contact2), null));
+    when(kafkaTemplate.send(
+            eq("campaign-triggered"), anyString(), any(CampaignTriggeredEvent.class)))
+        .thenReturn(CompletableFuture.completedFuture(null));
+    when(activationJobService.checkpoint(eq(7L), anyString(), anyLong(), anyInt()))
+        .thenReturn(true);
+
+    // Act
+    worker.process(job);
+
+    // Assert
+    verify(contactServiceClient, never()).getSegmentPage(anyString(), eq(0L), anyInt());
+    verify(contactServiceClient, never()).countSegment(anyString());
+    verify(kafkaTemplate, times(1))
+        .send(eq("campaign-triggered"), anyString(), any(CampaignTriggeredEvent.class));
+    verify(activationJobService).complete(eq(7L), anyString());
+  }
+
+  @Test
+  @DisplayName("Should release the job without checkpointing when a send fails")
+  void shouldReleaseJobWhenSendFails() {
+    // Arrange
+    job.setEstimatedTotal(1L);
+    SegmentContact contact1 = new SegmentContact(1L, "khalid@gmail.com", "Khalid", "Waheli");
+
+    when(contactServiceClient.getSegmentPage(eq("newsletter-subscriber"), eq(0L), anyInt()))
+        .thenReturn(new SegmentPage(List.of(contact1), null));
+    when(kafkaTemplate.send(
+            eq("campaign-triggered"), anyString(), any(CampaignTriggeredEvent.class)))
+        .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+
+    // Act
+    worker.process(job);
+
+    // Assert
+    verify(activationJobService, never()).checkpoint(anyLong(), anyString(), anyLong(), anyInt());
+    verify(activationJobService, never()).complete(anyLong(), anyString());
+    verify(activationJobService).release(eq(7L), anyString(), any());
+  }
+
+  @Test
+  @DisplayName("Should stop when the job is cancelled between chunks")
+  void shouldStopWhenJobIsCancelled() {
+    // Arrange
+    job.setEstimatedTotal(2L);
+    SegmentContact contact1 = new SegmentContact(1L, "khalid@gmail.com", "Khalid", "Waheli");
+
+    when(contactServiceClient.getSegmentPage(eq("newsletter-subscriber"), eq(0L), anyInt()))
+        .thenReturn(new SegmentPage(List.of(contact1), 1L));
+    when(kafkaTemplate.send(
+            eq("campaign-triggered"), anyString(), any(CampaignTriggeredEvent.class)))
+        .thenReturn(CompletableFuture.completedFuture(null));
+    when(activationJobService.checkpoint(eq(7L), anyString(), anyLong(), anyInt()))
+        .thenReturn(false);
+
+    // Act
+    worker.process(job);
+
+    // Assert
+    verify(contactServiceClient, never()).getSegmentPage(anyString(), eq(1L), anyInt());
+    verify(activationJobService, never()).complete(anyLong(), anyString());
+  }
+}
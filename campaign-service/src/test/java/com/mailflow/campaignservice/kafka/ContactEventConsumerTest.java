@@ -0,0 +1,80 @@
+package com.mailflow.campaignservice.kafka;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import com.mailflow.campaignservice.config.KafkaConfig;
+import com.mailflow.campaignservice.index.TriggerTagIndex;
+import com.mailflow.campaignservice.index.TriggerTagIndex.ActiveCampaign;
+import com.mailflow.events.CampaignTriggeredEvent;
+import com.mailflow.events.ContactTaggedEvent;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.support.serializer.DeserializationException;
+import org.springframework.kafka.support.serializer.SerializationUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@ExtendWith(MockitoExtension.class)
+public class ContactEventConsumerTest {
+
+  private static final String TOPIC = "contact-events";
+
+  @Mock private TriggerTagIndex triggerTagIndex;
+
+  @Mock private KafkaTemplate<String, Object> bulkKafkaTemplate;
+
+  @Mock private DeadLetterPublishingRecoverer contactEventsDeadLetterRecoverer;
+
+  @InjectMocks private ContactEventConsumer consumer;
+
+  @BeforeEach
+  void setUp() {
+    ReflectionTestUtils.setField(consumer, "sendTimeout", Duration.ofSeconds(5));
+  }
+
+  @Test
+  @DisplayName("Should trigger readable events and dead-letter unreadable records after sending")
+  void shouldDeadLetterUnreadableRecords() throws Exception {
+    // Arrange
+    when(triggerTagIndex.campaignsFor("newsletter-subscriber"))
+        .thenReturn(List.of(new ActiveCampaign(1L, "newsletter-subscriber", 10L)));
+    when(bulkKafkaTemplate.send(any(), any(), any()))
+        .thenReturn(CompletableFuture.completedFuture(null));
+    ContactTaggedEvent event =
+        new ContactTaggedEvent(5L, "khalid@gmail.com", "Newsletter-Subscriber");
+    ConsumerRecord<String, Object> readable = new ConsumerRecord<>(TOPIC, 0, 0, "5", event);
+    ConsumerRecord<String, Object> unreadable = new ConsumerRecord<>(TOPIC, 0, 1, "6", null);
+    SerializationUtils.deserializationException(
+        unreadable.headers(),
+        "not an event".getBytes(StandardCharsets.UTF_8),
+        new IllegalArgumentException("Unreadable event"),
+        false);
+
+    // Act
+    consumer.consume(List.of(readable, unreadable));
+
+    // Assert
+    InOrder order = inOrder(bulkKafkaTemplate, contactEventsDeadLetterRecoverer);
+    order
+        .verify(bulkKafkaTemplate)
+        .send(KafkaConfig.CAMPAIGN_TRIGGERED_TOPIC, "5", new CampaignTriggeredEvent(1L, 5L, 10L));
+    order
+        .verify(contactEventsDeadLetterRecoverer)
+        .accept(eq(unreadable), any(DeserializationException.class));
+    verify(contactEventsDeadLetterRecoverer, never()).accept(eq(readable), any());
+  }
+}
@@ -14,12 +14,14 @@ import com.mailflow.campaignservice.dto.contact.ContactResponse;
 import com.mailflow.campaignservice.dto.response.PageResponse;
 import com.mailflow.campaignservice.dto.template.EmailTemplateResponse;
 import com.mailflow.campaignservice.exception.ResourceNotFoundException;
+import com.mailflow.campaignservice.index.TriggerTagIndex;
 import com.mailflow.campaignservice.mapper.CampaignMapper;
 import com.mailflow.campaignservice.repository.CampaignRepository;
 import com.mailflow.campaignservice.service.impl.CampaignServiceImpl;
+import com.mailflow.events.CampaignTriggeredEvent;
+import com.mailflow.outbox.OutboxRepository;
 import feign.FeignException;
 import java.time.LocalDateTime;
-import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -35,7 +37,6 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.kafka.core.KafkaTemplate;
 
 @ExtendWith(MockitoExtension.class)
 public class CampaignServiceTest {
@@ -44,12 +45,16 @@ public class CampaignServiceTest {
 
   @Mock private CampaignMapper campaignMapper;
 
-  @Mock private KafkaTemplate<String, Object> kafkaTemplate;
+  @Mock private OutboxRepository outboxRepository;
 
   @Mock private ContactServiceClient contactServiceClient;
 
   @Mock private TemplateServiceClient templateServiceClient;
 
+  @Mock private ActivationJobService activationJobService;
+
+  @Mock private TriggerTagIndex triggerTagIndex;
+
   @InjectMocks private CampaignServiceImpl campaignService;
 
   private Campaign campaign;
@@ -95,8 +100,6 @@ public class CampaignServiceTest {
     when(campaignMapper.toEntity(campaignRequest)).thenReturn(campaign);
     when(campaignRepository.save(campaign)).thenReturn(campaign);
     when(campaignMapper.toResponse(campaign)).thenReturn(campaignResponse);
-    when(kafkaTemplate.send(eq(CAMPAIGN_EVENTS_TOPIC), any(CampaignCreatedEvent.class)))
-        .thenReturn(null);
 
     // Act
     CampaignResponse result = campaignService.createCampaign(campaignRequest);
@@ -111,7 +114,8 @@ public class CampaignServiceTest {
     verify(campaignMapper).toEntity(campaignRequest);
     verify(campaignRepository).save(campaign);
     verify(campaignMapper).toResponse(campaign);
-    verify(kafkaTemplate).send(eq(CAMPAIGN_EVENTS_TOPIC), any(CampaignCreatedEvent.class));
+    verify(outboxRepository)
+        .append(eq(CAMPAIGN_EVENTS_TOPIC), isNull(), any(CampaignCreatedEvent.class));
   }
 
   @Test
@@ -127,7 +131,7 @@ public class CampaignServiceTest {
 
     verify(templateServiceClient).getTemplate(campaignRequest.templateId());
     verifyNoInteractions(campaignRepository);
-    verifyNoInteractions(kafkaTemplate);
+    verifyNoInteractions(outboxRepository);
   }
 
   @Test
@@ -227,6 +231,7 @@ public class CampaignServiceTest {
 
     verify(campaignRepository).findById(1L);
     verify(campaignRepository).delete(campaign);
+    verify(triggerTagIndex).onDeleted(1L);
   }
 
   @Test
@@ -268,10 +273,6 @@ public class CampaignServiceTest {
             new EmailTemplateResponse(10L, "Welcome Email", null, null, null, null, null, null));
     when(campaignRepository.save(inactiveCampaign)).thenReturn(activeCampaign);
     when(campaignMapper.toResponse(activeCampaign)).thenReturn(activeResponse);
-    when(kafkaTemplate.send(eq(CAMPAIGN_EVENTS_TOPIC), any(CampaignActivatedEvent.class)))
-        .thenReturn(null);
-    when(contactServiceClient.findContactsByTag("newsletter-subscriber"))
-        .thenReturn(Collections.emptyList());
 
     // Act
     CampaignResponse result = campaignService.activateCampaign(1L);
@@ -283,8 +284,10 @@ public class CampaignServiceTest {
     verify(campaignRepository).findById(1L);
     verify(templateServiceClient).getTemplate(10L);
     verify(campaignRepository).save(inactiveCampaign);
-    verify(kafkaTemplate).send(eq(CAMPAIGN_EVENTS_TOPIC), any(CampaignActivatedEvent.class));
-    verify(contactServiceClient).findContactsByTag("newsletter-subscriber");
+    verify(outboxRepository)
+        .append(eq(CAMPAIGN_EVENTS_TOPIC), isNull(), any(CampaignActivatedEvent.class));
+    verify(activationJobService).createJob(activeCampaign);
+    verify(triggerTagIndex).onSaved(activeCampaign);
   }
 
   @Test
@@ -333,6 +336,8 @@ public class CampaignServiceTest {
 
     verify(campaignRepository).findById(1L);
     verify(campaignRepository).save(activeCampaign);
+    verify(activationJobService).cancelJobs(1L);
+    verify(triggerTagIndex).onSaved(inactiveCampaign);
   }
 
   @Test
@@ -479,8 +484,8 @@ public class CampaignServiceTest {
   }
 
   @Test
-  @DisplayName("Should process matching contacts when activating campaign")
-  void shouldProcessMatchingContactsWhenActivatingCampaign() {
+  @DisplayName("Should queue activation job instead of triggering contacts inline")
+  void shouldQueueActivationJobWhenActivatingCampaign() {
     // Arrange
     Campaign inactiveCampaign =
         Campaign.builder()
@@ -500,39 +505,12 @@ public class CampaignServiceTest {
             .active(true)
             .build();
 
-    ContactResponse contact1 =
-        new ContactResponse(
-            1L,
-            "khalid@gmail.com",
-            "Khalid",
-            "Waheli",
-            Set.of("newsletter-subscriber"),
-            "2025-03-23 12:00:00",
-            "2025-03-23 12:00:00");
-    ContactResponse contact2 =
-        new ContactResponse(
-            2L,
-            "latifa@gmail.com",
-            "Latifa",
-            "Chakir",
-            Set.of("newsletter-subscriber"),
-            "2025-03-23 12:00:00",
-            "2025-03-23 12:00:00");
-
-    List<ContactResponse> matchingContacts = List.of(contact1, contact2);
-
     when(campaignRepository.findById(1L)).thenReturn(Optional.of(inactiveCampaign));
     when(templateServiceClient.getTemplate(10L))
         .thenReturn(
             new EmailTemplateResponse(10L, "Welcome Email", null, null, null, null, null, null));
     when(campaignRepository.save(inactiveCampaign)).thenReturn(activeCampaign);
     when(campaignMapper.toResponse(activeCampaign)).thenReturn(campaignResponse);
-    when(contactServiceClient.findContactsByTag("newsletter-subscriber"))
-        .thenReturn(matchingContacts);
-    when(kafkaTemplate.send(eq(CAMPAIGN_EVENTS_TOPIC), any(CampaignActivatedEvent.class)))
-        .thenReturn(null);
-    when(kafkaTemplate.send(eq("campaign-triggered"), any(CampaignTriggeredEvent.class)))
-        .thenReturn(null);
 
     // Act
     CampaignResponse result = campaignService.activateCampaign(1L);
@@ -540,20 +518,38 @@ public class CampaignServiceTest {
     // Assert
     assertThat(result).isNotNull();
 
-    verify(campaignRepository).findById(1L);
-    verify(templateServiceClient).getTemplate(10L);
-    verify(campaignRepository).save(inactiveCampaign);
-    verify(contactServiceClient).findContactsByTag("newsletter-subscriber");
-    verify(kafkaTemplate).send(eq(CAMPAIGN_EVENTS_TOPIC), any(CampaignActivatedEvent.class));
+    ArgumentCaptor<Campaign> campaignCaptor = ArgumentCaptor.forClass(Campaign.class);
+    verify(activationJobService).createJob(campaignCaptor.capture());
+    assertThat(campaignCaptor.getValue().getTriggerTag()).isEqualTo("newsletter-subscriber");
 
-    // Verify that kafka send was called for each matching contact
-    ArgumentCaptor<CampaignTriggeredEvent> eventCaptor =
-        ArgumentCaptor.forClass(CampaignTriggeredEvent.class);
-    verify(kafkaTemplate, times(2)).send(eq("campaign-triggered"), eventCaptor.capture());
+    // Contacts are fanned out by the worker, not within the request
+    verifyNoInteractions(contactServiceClient);
+    verify(outboxRepository, never())
+        .append(eq("campaign-triggered"), any(), any(CampaignTriggeredEvent.class));
+  }
+
+  @Test
+  @DisplayName("Should get activation progress for campaign")
+  void shouldGetActivationProgress() {
+    // Arrange
+    ActivationProgressResponse progress =
+        ActivationProgressResponse.builder()
+            .jobId(5L)
+            .campaignId(1L)
+            .status("RUNNING")
+            .contactsEnqueued(2000)
+            .estimatedTotal(10000L)
+            .build();
 
-    List<CampaignTriggeredEvent> capturedEvents = eventCaptor.getAllValues();
-    assertThat(capturedEvents).hasSize(2);
-    assertThat(capturedEvents.get(0).contactId()).isEqualTo(1L);
-    assertThat(capturedEvents.get(1).contactId()).isEqualTo(2L);
+    when(campaignRepository.findById(1L)).thenReturn(Optional.of(campaign));
+    when(activationJobService.getProgress(1L)).thenReturn(progress);
+
+    // Act
+    ActivationProgressResponse result = campaignService.getActivationProgress(1L);
+
+    // Assert
+    assertThat(result.status()).isEqualTo("RUNNING");
+    assertThat(result.contactsEnqueued()).isEqualTo(2000);
+    verify(activationJobService).getProgress(1L);
   }
 }
@@ -1,18 +1,25 @@
 package com.mailflow.contactservice.config;
 
+import com.mailflow.events.kafka.EventSerializer;
+import com.mailflow.events.kafka.ProducerProfile;
+import com.mailflow.events.kafka.ProducerProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
 import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.TopicBuilder;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.MicrometerProducerListener;
 import org.springframework.kafka.core.ProducerFactory;
 import org.springframework.kafka.support.serializer.JsonSerializer;
 
-import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Configuration
@@ -21,27 +28,45 @@ public class KafkaConfig {
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
 
+    @Value("${kafka.topics.contact-events.partitions:6}")
+    private int contactEventsPartitions;
+
     public static final String CONTACT_EVENTS_TOPIC = "contact-events";
 
     @Bean
     public NewTopic contactEventsTopic() {
         return TopicBuilder.name(CONTACT_EVENTS_TOPIC)
-                .partitions(1)
+                .partitions(contactEventsPartitions)
                 .replicas(1)
                 .build();
     }
 
     @Bean
-    public ProducerFactory<String, Object> producerFactory() {
-        Map<String, Object> config = new HashMap<>();
+    @ConfigurationProperties("kafka.producer")
+    public ProducerProperties producerProperties() {
+        return new ProducerProperties();
+    }
+
+    @Bean
+    public ProducerFactory<String, Object> producerFactory(MeterRegistry meterRegistry) {
+        ProducerProfile profile = producerProperties().toProfile("default");
+
+        Map<String, Object> config = profile.toProperties();
         config.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
-        config.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        config.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
-        return new DefaultKafkaProducerFactory<>(config);
+
+        // Events go out in their binary form, anything without a codec as JSON
+        DefaultKafkaProducerFactory<String, Object> factory = new DefaultKafkaProducerFactory<>(
+                config,
+                new StringSerializer(),
+                new EventSerializer(new JsonSerializer<>().noTypeInfo()));
+        // Client metrics such as kafka.producer.batch.size.avg and request.latency.avg
+        factory.addListener(new MicrometerProducerListener<>(
+                meterRegistry, List.of(Tag.of("profile", profile.name()))));
+        return factory;
     }
 
     @Bean
-    public KafkaTemplate<String, Object> kafkaTemplate() {
-        return new KafkaTemplate<>(producerFactory());
+    public KafkaTemplate<String, Object> kafkaTemplate(MeterRegistry meterRegistry) {
+        return new KafkaTemplate<>(producerFactory(meterRegistry));
     }
 }
\ No newline at end of file
@@ -1,9 +1,14 @@
 package com.mailflow.contactservice.controller;
 
+import com.mailflow.contactservice.dto.contact.ContactImportResponse;
 import com.mailflow.contactservice.dto.contact.ContactRequest;
 import com.mailflow.contactservice.dto.contact.ContactResponse;
+import com.mailflow.contactservice.dto.contact.ContactSearchPage;
+import com.mailflow.contactservice.dto.contact.SegmentPage;
 import com.mailflow.contactservice.dto.contact.TagOperation;
 import com.mailflow.contactservice.dto.response.PageResponse;
+import com.mailflow.contactservice.importer.ImportFormat;
+import com.mailflow.contactservice.service.ContactImportService;
 import com.mailflow.contactservice.service.ContactService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -11,7 +16,10 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/v1/contacts")
@@ -19,6 +27,7 @@ import java.util.List;
 public class ContactController {
 
   private final ContactService contactService;
+  private final ContactImportService contactImportService;
 
   @GetMapping
   public PageResponse<ContactResponse> getContacts(Pageable pageable) {
@@ -50,9 +59,11 @@ public class ContactController {
   }
 
   @GetMapping("/search")
-  public PageResponse<ContactResponse> searchContacts(
-      @RequestParam String query, Pageable pageable) {
-    return contactService.searchContacts(query, pageable);
+  public ContactSearchPage searchContacts(
+      @RequestParam String query,
+      @RequestParam(defaultValue = "0") long after,
+      @RequestParam(defaultValue = "20") int size) {
+    return contactService.searchContacts(query, after, size);
   }
 
   @GetMapping("/{id}")
@@ -66,6 +77,34 @@ public class ContactController {
       return contactService.findContactsByTag(tag);
   }
 
+  @GetMapping("/segments/{tag}")
+  public SegmentPage getSegmentPage(
+      @PathVariable String tag,
+      @RequestParam(defaultValue = "0") long after,
+      @RequestParam(defaultValue = "1000") int size) {
+    return contactService.getSegmentPage(tag, after, size);
+  }
+
+  @GetMapping("/segments/{tag}/count")
+  public long countSegment(@PathVariable String tag) {
+    return contactService.countSegment(tag);
+  }
+
+  @PostMapping(value = "/import", consumes = "text/csv")
+  public ContactImportResponse importCsv(InputStream body) throws IOException {
+    return contactImportService.importContacts(body, ImportFormat.CSV);
+  }
+
+  @PostMapping(value = "/import", consumes = "application/x-ndjson")
+  public ContactImportResponse importNdjson(InputStream body) throws IOException {
+    return contactImportService.importContacts(body, ImportFormat.NDJSON);
+  }
+
+  @PostMapping("/batch")
+  public List<ContactResponse> getContactsByIds(@RequestBody Set<Long> ids) {
+    return contactService.getContactsByIds(ids);
+  }
+
   @DeleteMapping("/{id}")
   @ResponseStatus(HttpStatus.NO_CONTENT)
   public void deleteContact(@PathVariable Long id) {
@@ -0,0 +1,20 @@
+package com.mailflow.contactservice.dto.contact;
+
+import java.util.List;
+import lombok.Builder;
+
+/**
+ * Outcome of a bulk import. Only the first {@code contact.import.max-reported-errors} rejected
+ * rows are listed in {@code errors}; {@code rejected} always holds the full count.
+ */
+@Builder
+public record ContactImportResponse(
+    long rows,
+    long created,
+    long updated,
+    long duplicates,
+    long rejected,
+    long tagsAdded,
+    long durationMs,
+    List<ImportRowError> errors,
+    boolean errorsTruncated) {}
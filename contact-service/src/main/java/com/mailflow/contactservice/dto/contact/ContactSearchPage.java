@@ -0,0 +1,11 @@
+package com.mailflow.contactservice.dto.contact;
+
+import java.util.List;
+import lombok.Builder;
+
+/**
+ * One page of search results ordered by contact id. {@code nextCursor} is passed back as {@code
+ * after} to read the following page and is {@code null} on the last page.
+ */
+@Builder
+public record ContactSearchPage(List<ContactResponse> contacts, Long nextCursor) {}
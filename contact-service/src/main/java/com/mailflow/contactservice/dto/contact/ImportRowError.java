@@ -0,0 +1,3 @@
+package com.mailflow.contactservice.dto.contact;
+
+public record ImportRowError(long row, String email, String message) {}
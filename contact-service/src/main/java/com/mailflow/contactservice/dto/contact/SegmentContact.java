@@ -0,0 +1,7 @@
+package com.mailflow.contactservice.dto.contact;
+
+import lombok.Builder;
+
+/** The fields of a contact a campaign needs to address it, without tags or audit columns. */
+@Builder
+public record SegmentContact(Long id, String email, String firstName, String lastName) {}
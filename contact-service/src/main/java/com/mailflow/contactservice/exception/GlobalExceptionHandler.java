@@ -41,6 +41,20 @@ public class GlobalExceptionHandler {
         .build();
   }
 
+  @ExceptionHandler(InvalidImportException.class)
+  @ResponseStatus(HttpStatus.BAD_REQUEST)
+  public ErrorResponse handleInvalidImportException(
+      InvalidImportException ex, HttpServletRequest request) {
+    log.error("Rejected contact import: {}", ex.getMessage());
+    return ErrorResponse.builder()
+        .timestamp(LocalDateTime.now())
+        .status(HttpStatus.BAD_REQUEST.value())
+        .error(HttpStatus.BAD_REQUEST.getReasonPhrase())
+        .message(ex.getMessage())
+        .path(request.getRequestURI())
+        .build();
+  }
+
   @ExceptionHandler(MethodArgumentNotValidException.class)
   @ResponseStatus(HttpStatus.BAD_REQUEST)
   public ErrorResponse handleValidationExceptions(
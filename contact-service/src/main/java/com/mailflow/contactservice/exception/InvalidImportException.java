@@ -0,0 +1,7 @@
+package com.mailflow.contactservice.exception;
+
+public class InvalidImportException extends RuntimeException {
+    public InvalidImportException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,28 @@
+package com.mailflow.contactservice.importer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+/** Reads an upload one record at a time so memory does not grow with the size of the file. */
+public interface ContactImportReader extends AutoCloseable {
+
+  /** Returns the next record, or {@code null} once the upload is exhausted. */
+  ImportRow next() throws IOException;
+
+  @Override
+  void close() throws IOException;
+
+  static ContactImportReader open(ImportFormat format, InputStream input, ObjectMapper mapper)
+      throws IOException {
+    BufferedReader reader =
+        new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8), 64 * 1024);
+    return switch (format) {
+      case CSV -> new CsvContactImportReader(reader);
+      case NDJSON -> new NdjsonContactImportReader(reader, mapper);
+    };
+  }
+}
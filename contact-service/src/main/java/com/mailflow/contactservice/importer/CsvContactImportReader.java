@@ -0,0 +1,152 @@
+package com.mailflow.contactservice.importer;
+
+import com.mailflow.contactservice.dto.contact.ContactRequest;
+import com.mailflow.contactservice.exception.InvalidImportException;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * RFC 4180 CSV with a header row. Recognised columns are {@code email}, {@code firstName} (or
+ * {@code first_name}), {@code lastName} (or {@code last_name}) and {@code tags}, matched
+ * case-insensitively; tags within a cell are separated by {@code ;} or {@code |}.
+ */
+class CsvContactImportReader implements ContactImportReader {
+
+  private static final int MAX_FIELD_LENGTH = 10_000;
+
+  private final BufferedReader reader;
+  private final int emailColumn;
+  private final int firstNameColumn;
+  private final int lastNameColumn;
+  private final int tagsColumn;
+  private long recordNumber;
+
+  CsvContactImportReader(BufferedReader reader) throws IOException {
+    this.reader = reader;
+
+    List<String> header = readRecord();
+    if (header == null) {
+      throw new InvalidImportException("CSV upload is empty");
+    }
+    recordNumber = 1;
+    header.set(0, header.get(0).replace("\uFEFF", ""));
+
+    this.emailColumn = column(header, "email");
+    this.firstNameColumn = column(header, "firstname", "first_name");
+    this.lastNameColumn = column(header, "lastname", "last_name");
+    this.tagsColumn = column(header, "tags");
+    if (emailColumn < 0) {
+      throw new InvalidImportException("CSV header must contain an 'email' column");
+    }
+  }
+
+  @Override
+  public ImportRow next() throws IOException {
+    List<String> fields;
+    while ((fields = readRecord()) != null) {
+      recordNumber++;
+      if (fields.size() == 1 && fields.get(0).isBlank()) {
+        continue;
+      }
+      return ImportRow.parsed(
+          recordNumber,
+          ContactRequest.builder()
+              .email(field(fields, emailColumn))
+              .firstName(field(fields, firstNameColumn))
+              .lastName(field(fields, lastNameColumn))
+              .tags(tags(field(fields, tagsColumn)))
+              .build());
+    }
+    return null;
+  }
+
+  @Override
+  public void close() throws IOException {
+    reader.close();
+  }
+
+  private List<String> readRecord() throws IOException {
+    List<String> fields = new ArrayList<>();
+    StringBuilder field = new StringBuilder();
+    boolean quoted = false;
+    boolean read = false;
+
+    int c;
+    while ((c = reader.read()) != -1) {
+      read = true;
+      if (quoted) {
+        if (c == '"') {
+          reader.mark(1);
+          int following = reader.read();
+          if (following == '"') {
+            field.append('"');
+          } else {
+            quoted = false;
+            if (following != -1) {
+              reader.reset();
+            }
+          }
+        } else {
+          field.append((char) c);
+        }
+      } else if (c == '"' && field.isEmpty()) {
+        quoted = true;
+      } else if (c == ',') {
+        fields.add(field.toString());
+        field.setLength(0);
+      } else if (c == '\n') {
+        fields.add(field.toString());
+        return fields;
+      } else if (c != '\r') {
+        field.append((char) c);
+      }
+
+      // An unterminated quote would otherwise swallow the rest of the upload into one field
+      if (field.length() > MAX_FIELD_LENGTH) {
+        throw new InvalidImportException(
+            "Field longer than " + MAX_FIELD_LENGTH + " characters after row " + recordNumber);
+      }
+    }
+
+    if (!read) {
+      return null;
+    }
+    fields.add(field.toString());
+    return fields;
+  }
+
+  private static int column(List<String> header, String... names) {
+    for (int i = 0; i < header.size(); i++) {
+      String name = header.get(i).trim().toLowerCase(Locale.ROOT);
+      if (Arrays.asList(names).contains(name)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private static String field(List<String> fields, int column) {
+    if (column < 0 || column >= fields.size()) {
+      return null;
+    }
+    String value = fields.get(column).trim();
+    return value.isEmpty() ? null : value;
+  }
+
+  private static Set<String> tags(String value) {
+    if (value == null) {
+      return Set.of();
+    }
+    return Arrays.stream(value.split("[;|]"))
+        .map(String::trim)
+        .filter(tag -> !tag.isEmpty())
+        .collect(Collectors.toCollection(LinkedHashSet::new));
+  }
+}
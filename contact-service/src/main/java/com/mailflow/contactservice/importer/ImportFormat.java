@@ -0,0 +1,6 @@
+package com.mailflow.contactservice.importer;
+
+public enum ImportFormat {
+  CSV,
+  NDJSON
+}
@@ -0,0 +1,18 @@
+package com.mailflow.contactservice.importer;
+
+import com.mailflow.contactservice.dto.contact.ContactRequest;
+
+/**
+ * One record read from an upload. {@code number} is 1-based and counts the CSV header, so it
+ * matches the row a spreadsheet shows. {@code error} is set when the record could not be parsed.
+ */
+public record ImportRow(long number, ContactRequest contact, String error) {
+
+  public static ImportRow parsed(long number, ContactRequest contact) {
+    return new ImportRow(number, contact, null);
+  }
+
+  public static ImportRow invalid(long number, String error) {
+    return new ImportRow(number, null, error);
+  }
+}
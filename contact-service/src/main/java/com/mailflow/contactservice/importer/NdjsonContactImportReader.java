@@ -0,0 +1,42 @@
+package com.mailflow.contactservice.importer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mailflow.contactservice.dto.contact.ContactRequest;
+import java.io.BufferedReader;
+import java.io.IOException;
+
+/** One JSON object per line, with the same fields as {@code POST /api/v1/contacts}. */
+class NdjsonContactImportReader implements ContactImportReader {
+
+  private final BufferedReader reader;
+  private final ObjectMapper mapper;
+  private long lineNumber;
+
+  NdjsonContactImportReader(BufferedReader reader, ObjectMapper mapper) {
+    this.reader = reader;
+    this.mapper = mapper;
+  }
+
+  @Override
+  public ImportRow next() throws IOException {
+    String line;
+    while ((line = reader.readLine()) != null) {
+      lineNumber++;
+      if (line.isBlank()) {
+        continue;
+      }
+      try {
+        return ImportRow.parsed(lineNumber, mapper.readValue(line, ContactRequest.class));
+      } catch (JsonProcessingException e) {
+        return ImportRow.invalid(lineNumber, "Malformed JSON: " + e.getOriginalMessage());
+      }
+    }
+    return null;
+  }
+
+  @Override
+  public void close() throws IOException {
+    reader.close();
+  }
+}
@@ -0,0 +1,94 @@
+package com.mailflow.contactservice.repository;
+
+import com.mailflow.contactservice.dto.contact.ContactRequest;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.function.Function;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Set-based writes for bulk import. Each call is a single statement over {@code unnest()}ed
+ * arrays, so a whole batch costs one round trip instead of one insert per contact and tag.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ContactBulkRepository {
+
+  private static final String UPSERT_CONTACTS =
+      """
+      INSERT INTO contacts (email, first_name, last_name)
+      SELECT * FROM unnest(CAST(? AS text[]), CAST(? AS text[]), CAST(? AS text[]))
+      ON CONFLICT (email) DO UPDATE
+      SET first_name = EXCLUDED.first_name,
+          last_name = EXCLUDED.last_name,
+          updated_at = CURRENT_TIMESTAMP,
+          version = contacts.version + 1
+      RETURNING id, email, (xmax = 0) AS inserted
+      """;
+
+  private static final String INSERT_TAGS =
+      """
+      INSERT INTO contact_tags (contact_id, tag)
+      SELECT * FROM unnest(CAST(? AS bigint[]), CAST(? AS text[]))
+      ON CONFLICT DO NOTHING
+      RETURNING contact_id, tag
+      """;
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public record UpsertedContact(Long id, String email, boolean inserted) {}
+
+  public record AddedTag(Long contactId, String tag) {}
+
+  /**
+   * Inserts new contacts and refreshes the names of existing ones, matched by email. Emails must
+   * be unique within {@code contacts}.
+   */
+  public List<UpsertedContact> upsertContacts(List<ContactRequest> contacts) {
+    if (contacts.isEmpty()) {
+      return List.of();
+    }
+    return jdbcTemplate.query(
+        connection -> {
+          PreparedStatement statement = connection.prepareStatement(UPSERT_CONTACTS);
+          statement.setArray(1, textArray(connection, contacts, ContactRequest::email));
+          statement.setArray(2, textArray(connection, contacts, ContactRequest::firstName));
+          statement.setArray(3, textArray(connection, contacts, ContactRequest::lastName));
+          return statement;
+        },
+        (rs, rowNum) ->
+            new UpsertedContact(
+                rs.getLong("id"), rs.getString("email"), rs.getBoolean("inserted")));
+  }
+
+  /** Adds the given tags, returning only those the contacts did not already have. */
+  public List<AddedTag> insertTags(List<AddedTag> tags) {
+    if (tags.isEmpty()) {
+      return List.of();
+    }
+    return jdbcTemplate.query(
+        connection -> {
+          PreparedStatement statement = connection.prepareStatement(INSERT_TAGS);
+          statement.setArray(
+              1,
+              connection.createArrayOf(
+                  "bigint", tags.stream().map(AddedTag::contactId).toArray(Long[]::new)));
+          statement.setArray(
+              2,
+              connection.createArrayOf(
+                  "text", tags.stream().map(AddedTag::tag).toArray(String[]::new)));
+          return statement;
+        },
+        (rs, rowNum) -> new AddedTag(rs.getLong("contact_id"), rs.getString("tag")));
+  }
+
+  private static <T> Array textArray(
+      Connection connection, List<T> rows, Function<T, String> column) throws SQLException {
+    return connection.createArrayOf("text", rows.stream().map(column).toArray(String[]::new));
+  }
+}
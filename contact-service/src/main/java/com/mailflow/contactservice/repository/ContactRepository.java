@@ -1,13 +1,12 @@
 package com.mailflow.contactservice.repository;
 
 import com.mailflow.contactservice.domain.Contact;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -25,11 +24,55 @@ public interface ContactRepository extends JpaRepository<Contact, Long> {
   @Query("SELECT DISTINCT c FROM Contact c JOIN c.tags t WHERE t IN :tags")
   List<Contact> findByTags(@Param("tags") Set<String> tags);
 
+  /**
+   * Keyset page of contacts carrying {@code tag} with an id greater than {@code afterId}, served
+   * from the {@code (tag, contact_id)} index without loading tags.
+   */
   @Query(
-      "SELECT DISTINCT c FROM Contact c LEFT JOIN c.tags t WHERE "
-          + "LOWER(c.firstName) LIKE LOWER(CONCAT('%', :query, '%')) OR "
-          + "LOWER(c.lastName) LIKE LOWER(CONCAT('%', :query, '%')) OR "
-          + "LOWER(c.email) LIKE LOWER(CONCAT('%', :query, '%')) OR "
-          + "LOWER(t) LIKE LOWER(CONCAT('%', :query, '%'))")
-  Page<Contact> searchContacts(@Param("query") String query, Pageable pageable);
+      value =
+          "SELECT c.id AS \"id\", c.email AS \"email\", c.first_name AS \"firstName\", "
+              + "c.last_name AS \"lastName\" "
+              + "FROM contact_tags t JOIN contacts c ON c.id = t.contact_id "
+              + "WHERE t.tag = :tag AND t.contact_id > :afterId "
+              + "ORDER BY t.contact_id LIMIT :limit",
+      nativeQuery = true)
+  List<SegmentContactView> findSegmentPage(
+      @Param("tag") String tag, @Param("afterId") long afterId, @Param("limit") int limit);
+
+  @Query(value = "SELECT COUNT(*) FROM contact_tags WHERE tag = :tag", nativeQuery = true)
+  long countByTag(@Param("tag") String tag);
+
+  /**
+   * Ids of contacts whose name or email, or one of whose tags, contains {@code pattern}, in id
+   * order after {@code afterId}. Both branches are served by trigram indexes and each is cut to
+   * {@code limit} before the union, so deduplication only ever sees two small sets. The tag branch
+   * is made distinct before its cut so a contact with several matching tags takes one slot.
+   */
+  @Query(
+      value =
+          "SELECT id FROM ("
+              + "(SELECT c.id FROM contacts c "
+              + "WHERE c.search_text LIKE :pattern AND c.id > :afterId "
+              + "ORDER BY c.id LIMIT :limit) "
+              + "UNION "
+              + "(SELECT DISTINCT t.contact_id FROM contact_tags t "
+              + "WHERE t.tag LIKE :pattern AND t.contact_id > :afterId "
+              + "ORDER BY t.contact_id LIMIT :limit)"
+              + ") matches ORDER BY id LIMIT :limit",
+      nativeQuery = true)
+  List<Long> searchContactIds(
+      @Param("pattern") String pattern, @Param("afterId") long afterId, @Param("limit") int limit);
+
+  @Query("SELECT DISTINCT c FROM Contact c LEFT JOIN FETCH c.tags WHERE c.id IN :ids")
+  List<Contact> findAllWithTagsByIdIn(@Param("ids") Collection<Long> ids);
+
+  interface SegmentContactView {
+    Long getId();
+
+    String getEmail();
+
+    String getFirstName();
+
+    String getLastName();
+  }
 }
@@ -0,0 +1,10 @@
+package com.mailflow.contactservice.service;
+
+import com.mailflow.contactservice.dto.contact.ContactImportResponse;
+import com.mailflow.contactservice.importer.ImportFormat;
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface ContactImportService {
+  ContactImportResponse importContacts(InputStream input, ImportFormat format) throws IOException;
+}
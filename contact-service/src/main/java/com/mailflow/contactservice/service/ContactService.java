@@ -2,8 +2,11 @@ package com.mailflow.contactservice.service;
 
 import com.mailflow.contactservice.dto.contact.ContactRequest;
 import com.mailflow.contactservice.dto.contact.ContactResponse;
+import com.mailflow.contactservice.dto.contact.ContactSearchPage;
+import com.mailflow.contactservice.dto.contact.SegmentPage;
 import com.mailflow.contactservice.dto.response.PageResponse;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 import org.springframework.data.domain.Pageable;
@@ -22,9 +25,15 @@ public interface ContactService {
 
   ContactResponse getContact(Long id);
 
-  PageResponse<ContactResponse> searchContacts(String query, Pageable pageable);
+  ContactSearchPage searchContacts(String query, long afterId, int size);
 
   void deleteContact(Long id);
 
   List<ContactResponse> findContactsByTag(String tag);
+
+  List<ContactResponse> getContactsByIds(Collection<Long> ids);
+
+  SegmentPage getSegmentPage(String tag, long afterId, int size);
+
+  long countSegment(String tag);
 }
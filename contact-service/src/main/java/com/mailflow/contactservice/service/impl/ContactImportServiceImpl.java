@@ -0,0 +1,245 @@
+package com.mailflow.contactservice.service.impl;
+
+import static com.mailflow.contactservice.config.KafkaConfig.CONTACT_EVENTS_TOPIC;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mailflow.contactservice.dto.contact.ContactImportResponse;
+import com.mailflow.contactservice.dto.contact.ContactRequest;
+import com.mailflow.contactservice.dto.contact.ImportRowError;
+import com.mailflow.contactservice.importer.ContactImportReader;
+import com.mailflow.contactservice.importer.ImportFormat;
+import com.mailflow.contactservice.importer.ImportRow;
+import com.mailflow.contactservice.repository.ContactBulkRepository;
+import com.mailflow.contactservice.repository.ContactBulkRepository.AddedTag;
+import com.mailflow.contactservice.repository.ContactBulkRepository.UpsertedContact;
+import com.mailflow.contactservice.service.ContactImportService;
+import com.mailflow.events.ContactTaggedEvent;
+import com.mailflow.outbox.OutboxMessage;
+import com.mailflow.outbox.OutboxRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Streams an upload through validation into batched upserts.
+ *
+ * <p>Rows are buffered only up to {@code contact.import.batch-size}; each batch is written in its
+ * own transaction, which also queues its tag events in the outbox. A failure part-way through
+ * leaves earlier batches in place, and re-running the same file is safe because both contacts and
+ * tags are upserted.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ContactImportServiceImpl implements ContactImportService {
+
+  private static final int MAX_EMAIL_LENGTH = 255;
+  private static final int MAX_NAME_LENGTH = 100;
+  private static final int MAX_TAG_LENGTH = 50;
+
+  private final ContactBulkRepository contactBulkRepository;
+  private final OutboxRepository outboxRepository;
+  private final TransactionTemplate transactionTemplate;
+  private final Validator validator;
+  private final ObjectMapper objectMapper;
+
+  @Value("${contact.import.batch-size:1000}")
+  private int batchSize;
+
+  @Value("${contact.import.max-reported-errors:1000}")
+  private int maxReportedErrors;
+
+  @Override
+  public ContactImportResponse importContacts(InputStream input, ImportFormat format)
+      throws IOException {
+    long start = System.nanoTime();
+    ImportProgress progress = new ImportProgress(maxReportedErrors);
+
+    try (ContactImportReader reader = ContactImportReader.open(format, input, objectMapper)) {
+      List<ImportRow> batch = new ArrayList<>(batchSize);
+      ImportRow row;
+      while ((row = reader.next()) != null) {
+        progress.rows++;
+        String error = row.error() != null ? row.error() : validate(row.contact());
+        if (error != null) {
+          progress.reject(row, error);
+          continue;
+        }
+
+        batch.add(row);
+        if (batch.size() >= batchSize) {
+          writeBatch(batch, progress);
+          batch.clear();
+        }
+      }
+      writeBatch(batch, progress);
+    }
+
+    long durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    log.info(
+        "Imported {} rows in {} ms: {} created, {} updated, {} rejected",
+        progress.rows,
+        durationMs,
+        progress.created,
+        progress.updated,
+        progress.rejected);
+
+    return ContactImportResponse.builder()
+        .rows(progress.rows)
+        .created(progress.created)
+        .updated(progress.updated)
+        .duplicates(progress.duplicates)
+        .rejected(progress.rejected)
+        .tagsAdded(progress.tagsAdded)
+        .durationMs(durationMs)
+        .errors(progress.errors)
+        .errorsTruncated(progress.rejected > progress.errors.size())
+        .build();
+  }
+
+  private void writeBatch(List<ImportRow> batch, ImportProgress progress) {
+    if (batch.isEmpty()) {
+      return;
+    }
+
+    // ON CONFLICT cannot touch the same row twice in one statement, so fold repeated emails
+    // into one contact: the last row's names win and tags are merged.
+    Map<String, ContactRequest> byEmail = new LinkedHashMap<>();
+    for (ImportRow row : batch) {
+      ContactRequest contact = normalize(row.contact());
+      ContactRequest previous = byEmail.get(contact.email());
+      if (previous != null) {
+        progress.duplicates++;
+        Set<String> tags = new LinkedHashSet<>(previous.tags());
+        tags.addAll(contact.tags());
+        contact =
+            ContactRequest.builder()
+                .email(contact.email())
+                .firstName(contact.firstName())
+                .lastName(contact.lastName())
+                .tags(tags)
+                .build();
+      }
+      byEmail.put(contact.email(), contact);
+    }
+
+    List<ContactRequest> contacts = new ArrayList<>(byEmail.values());
+    Integer tagsAdded =
+        transactionTemplate.execute(
+            status -> {
+              List<UpsertedContact> upserted = contactBulkRepository.upsertContacts(contacts);
+
+              Map<Long, String> emailById = new HashMap<>();
+              List<AddedTag> tags = new ArrayList<>();
+              for (UpsertedContact contact : upserted) {
+                emailById.put(contact.id(), contact.email());
+                if (contact.inserted()) {
+                  progress.created++;
+                } else {
+                  progress.updated++;
+                }
+                byEmail
+                    .get(contact.email())
+                    .tags()
+                    .forEach(tag -> tags.add(new AddedTag(contact.id(), tag)));
+              }
+
+              List<AddedTag> added = contactBulkRepository.insertTags(tags);
+              publishTagEvents(added, emailById);
+              return added.size();
+            });
+
+    progress.tagsAdded += tagsAdded;
+  }
+
+  /** Queues one event per newly added tag, published by the outbox relay once the batch commits. */
+  private void publishTagEvents(List<AddedTag> added, Map<Long, String> emailById) {
+    outboxRepository.appendAll(
+        added.stream()
+            .map(
+                tag ->
+                    new OutboxMessage(
+                        CONTACT_EVENTS_TOPIC,
+                        String.valueOf(tag.contactId()),
+                        new ContactTaggedEvent(
+                            tag.contactId(), emailById.get(tag.contactId()), tag.tag())))
+            .toList());
+  }
+
+  private String validate(ContactRequest contact) {
+    Set<ConstraintViolation<ContactRequest>> violations = validator.validate(contact);
+    if (!violations.isEmpty()) {
+      return violations.stream()
+          .map(ConstraintViolation::getMessage)
+          .sorted()
+          .collect(Collectors.joining("; "));
+    }
+    if (contact.email().length() > MAX_EMAIL_LENGTH) {
+      return "Email must be at most " + MAX_EMAIL_LENGTH + " characters";
+    }
+    if (contact.firstName().length() > MAX_NAME_LENGTH
+        || contact.lastName().length() > MAX_NAME_LENGTH) {
+      return "Names must be at most " + MAX_NAME_LENGTH + " characters";
+    }
+    if (contact.tags() != null
+        && contact.tags().stream()
+            .anyMatch(tag -> tag != null && tag.trim().length() > MAX_TAG_LENGTH)) {
+      return "Tags must be at most " + MAX_TAG_LENGTH + " characters";
+    }
+    return null;
+  }
+
+  private static ContactRequest normalize(ContactRequest contact) {
+    Set<String> tags =
+        contact.tags() == null
+            ? Set.of()
+            : contact.tags().stream()
+                .filter(tag -> tag != null && !tag.isBlank())
+                .map(tag -> tag.trim().toLowerCase())
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    return ContactRequest.builder()
+        .email(contact.email().trim())
+        .firstName(contact.firstName().trim())
+        .lastName(contact.lastName().trim())
+        .tags(tags)
+        .build();
+  }
+
+  private static final class ImportProgress {
+    private final int maxErrors;
+    private final List<ImportRowError> errors = new ArrayList<>();
+    private long rows;
+    private long created;
+    private long updated;
+    private long duplicates;
+    private long rejected;
+    private long tagsAdded;
+
+    private ImportProgress(int maxErrors) {
+      this.maxErrors = maxErrors;
+    }
+
+    private void reject(ImportRow row, String error) {
+      rejected++;
+      if (errors.size() < maxErrors) {
+        String email = row.contact() != null ? row.contact().email() : null;
+        errors.add(new ImportRowError(row.number(), email, error));
+      }
+    }
+  }
+}
@@ -3,20 +3,29 @@ package com.mailflow.contactservice.service.impl;
 import com.mailflow.contactservice.domain.Contact;
 import com.mailflow.contactservice.dto.contact.ContactRequest;
 import com.mailflow.contactservice.dto.contact.ContactResponse;
-import com.mailflow.contactservice.dto.contact.ContactTaggedEvent;
+import com.mailflow.contactservice.dto.contact.ContactSearchPage;
+import com.mailflow.contactservice.dto.contact.SegmentContact;
+import com.mailflow.contactservice.dto.contact.SegmentPage;
 import com.mailflow.contactservice.dto.response.PageResponse;
 import com.mailflow.contactservice.exception.ContactAlreadyExistsException;
 import com.mailflow.contactservice.exception.ResourceNotFoundException;
 import com.mailflow.contactservice.mapper.ContactMapper;
 import com.mailflow.contactservice.repository.ContactRepository;
 import com.mailflow.contactservice.service.ContactService;
+import com.mailflow.events.ContactTaggedEvent;
+import com.mailflow.outbox.OutboxMessage;
+import com.mailflow.outbox.OutboxRepository;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -27,9 +36,12 @@ import static com.mailflow.contactservice.config.KafkaConfig.CONTACT_EVENTS_TOPI
 @Slf4j
 public class ContactServiceImpl implements ContactService {
 
+  private static final int MAX_SEGMENT_PAGE_SIZE = 5000;
+  private static final int MAX_SEARCH_PAGE_SIZE = 100;
+
   private final ContactRepository contactRepository;
   private final ContactMapper contactMapper;
-  private final KafkaTemplate<String, Object> kafkaTemplate;
+  private final OutboxRepository outboxRepository;
 
   @Transactional
   @Override
@@ -44,19 +56,7 @@ public class ContactServiceImpl implements ContactService {
     Contact contact = contactMapper.toEntity(request);
     Contact savedContact = contactRepository.save(contact);
 
-    Set<String> tags = request.tags();
-
-    tags.forEach(
-            tag -> {
-              ContactTaggedEvent event = new ContactTaggedEvent(
-                      savedContact.getId(),
-                      savedContact.getEmail(),
-                      tag
-              );
-              kafkaTemplate.send(CONTACT_EVENTS_TOPIC, event);
-              log.info("Published contact tagged event: {} - {}", savedContact.getId(), tag);
-            }
-    );
+    publishTagEvents(savedContact, request.tags());
 
     log.info("Contact created successfully with ID: {}", savedContact.getId());
     return contactMapper.toResponse(savedContact);
@@ -98,15 +98,7 @@ public class ContactServiceImpl implements ContactService {
     tags.forEach(contact::addTag);
     Contact updatedContact = contactRepository.save(contact);
 
-    tags.forEach(tag -> {
-      ContactTaggedEvent event = new ContactTaggedEvent(
-              updatedContact.getId(),
-              updatedContact.getEmail(),
-              tag
-      );
-      kafkaTemplate.send(CONTACT_EVENTS_TOPIC, event);
-      log.info("Published contact tagged event: {} - {}", updatedContact.getId(), tag);
-    });
+    publishTagEvents(updatedContact, tags);
 
     log.info("Tags added successfully to contact with ID: {}", id);
     return contactMapper.toResponse(updatedContact);
@@ -155,13 +147,54 @@ public class ContactServiceImpl implements ContactService {
 
   @Transactional(readOnly = true)
   @Override
-  public PageResponse<ContactResponse> searchContacts(String query, Pageable pageable) {
+  public ContactSearchPage searchContacts(String query, long afterId, int size) {
     log.info("Searching contacts with query: {}", query);
 
-    Page<Contact> contacts = contactRepository.searchContacts(query, pageable);
-    List<ContactResponse> content =
-        contacts.stream().map(contactMapper::toResponse).toList();
-    return PageResponse.of(content, contacts);
+    int limit = Math.max(1, Math.min(size, MAX_SEARCH_PAGE_SIZE));
+    List<Long> ids = contactRepository.searchContactIds(likePattern(query), afterId, limit);
+    if (ids.isEmpty()) {
+      return ContactSearchPage.builder().contacts(List.of()).nextCursor(null).build();
+    }
+
+    Map<Long, Contact> contactsById =
+        contactRepository.findAllWithTagsByIdIn(ids).stream()
+            .collect(Collectors.toMap(Contact::getId, Function.identity()));
+    List<ContactResponse> contacts =
+        ids.stream()
+            .map(contactsById::get)
+            .filter(Objects::nonNull)
+            .map(contactMapper::toResponse)
+            .toList();
+
+    Long nextCursor = ids.size() == limit ? ids.get(ids.size() - 1) : null;
+    return ContactSearchPage.builder().contacts(contacts).nextCursor(nextCursor).build();
+  }
+
+  /** Case-insensitive substring pattern with LIKE wildcards in the user's input escaped. */
+  private static String likePattern(String query) {
+    String escaped =
+        query
+            .trim()
+            .toLowerCase()
+            .replace("\\", "\\\\")
+            .replace("%", "\\%")
+            .replace("_", "\\_");
+    return "%" + escaped + "%";
+  }
+
+  /** Queues one tagged event per tag, published by the outbox relay once the change commits. */
+  private void publishTagEvents(Contact contact, Set<String> tags) {
+    String key = String.valueOf(contact.getId());
+    outboxRepository.appendAll(
+        tags.stream()
+            .map(
+                tag ->
+                    new OutboxMessage(
+                        CONTACT_EVENTS_TOPIC,
+                        key,
+                        new ContactTaggedEvent(contact.getId(), contact.getEmail(), tag)))
+            .toList());
+    log.info("Queued {} contact tagged events for contact {}", tags.size(), contact.getId());
   }
 
   @Transactional
@@ -184,4 +217,40 @@ public class ContactServiceImpl implements ContactService {
     List<Contact> contacts = contactRepository.findByTag(tag);
     return contacts.stream().map(contactMapper::toResponse).toList();
   }
+
+  @Transactional(readOnly = true)
+  @Override
+  public List<ContactResponse> getContactsByIds(Collection<Long> ids) {
+    log.info("Fetching {} contacts by ID", ids.size());
+
+    return contactRepository.findAllById(ids).stream().map(contactMapper::toResponse).toList();
+  }
+
+  @Transactional(readOnly = true)
+  @Override
+  public SegmentPage getSegmentPage(String tag, long afterId, int size) {
+    int limit = Math.max(1, Math.min(size, MAX_SEGMENT_PAGE_SIZE));
+    log.debug("Fetching segment page for tag {} after contact {}", tag, afterId);
+
+    List<SegmentContact> contacts =
+        contactRepository.findSegmentPage(tag, afterId, limit).stream()
+            .map(
+                row ->
+                    SegmentContact.builder()
+                        .id(row.getId())
+                        .email(row.getEmail())
+                        .firstName(row.getFirstName())
+                        .lastName(row.getLastName())
+                        .build())
+            .toList();
+
+    Long nextCursor = contacts.size() == limit ? contacts.get(contacts.size() - 1).id() : null;
+    return SegmentPage.builder().contacts(contacts).nextCursor(nextCursor).build();
+  }
+
+  @Transactional(readOnly = true)
+  @Override
+  public long countSegment(String tag) {
+    return contactRepository.countByTag(tag);
+  }
 }
@@ -0,0 +1,4 @@
+-- Segment export walks a tag's contacts in id order (WHERE tag = ? AND contact_id > ?), which
+-- this index serves directly. It also covers every lookup the single-column tag index did.
+CREATE INDEX idx_contact_tags_tag_contact ON contact_tags (tag, contact_id);
+DROP INDEX idx_contact_tags_tag;
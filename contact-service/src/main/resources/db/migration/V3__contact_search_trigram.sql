@@ -0,0 +1,14 @@
+-- Substring search ("LIKE '%q%'") cannot use a btree index. Trigram GIN indexes can, so search
+-- no longer scans every contact and tag row on each request.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- Single lower-cased column over the searchable contact fields, kept current by PostgreSQL
+ALTER TABLE contacts
+    ADD COLUMN search_text TEXT GENERATED ALWAYS AS (
+        lower(email || ' ' || coalesce(first_name, '') || ' ' || coalesce(last_name, ''))
+    ) STORED;
+
+CREATE INDEX idx_contacts_search_text_trgm ON contacts USING gin (search_text gin_trgm_ops);
+
+-- Tags are stored lower-cased already
+CREATE INDEX idx_contact_tags_tag_trgm ON contact_tags USING gin (tag gin_trgm_ops);
@@ -0,0 +1,5 @@
+-- Event records moved to the shared mailflow-events module. Rows still waiting in the outbox name
+-- the old class, which no longer exists, so point them at the new one.
+UPDATE outbox_events
+SET payload_type = 'com.mailflow.events.ContactTaggedEvent'
+WHERE payload_type = 'com.mailflow.contactservice.dto.contact.ContactTaggedEvent';
@@ -0,0 +1,74 @@
+package com.mailflow.contactservice.repository;
+
+import com.mailflow.contactservice.domain.Contact;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.test.context.TestPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** Runs the native search queries against PostgreSQL with the Flyway schema; needs Docker. */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+@TestPropertySource(properties = "spring.cloud.config.enabled=false")
+public class ContactRepositoryTest {
+
+  @Container @ServiceConnection
+  static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:17-alpine");
+
+  @Autowired private ContactRepository contactRepository;
+
+  @Test
+  @DisplayName("Should page past a contact with several matching tags without losing contacts")
+  void shouldPageSearchAcrossContactWithSeveralMatchingTags() {
+    // Arrange
+    Contact manyTags =
+        save("omar@example.org", Set.of("promo-spring", "promo-summer", "promo-fall"));
+    Contact second = save("nora@example.org", Set.of("promo-spring"));
+    Contact third = save("imane@example.org", Set.of("promo-winter"));
+
+    // Act
+    List<Long> found = new ArrayList<>();
+    long afterId = 0L;
+    List<Long> page;
+    do {
+      page = contactRepository.searchContactIds("%promo%", afterId, 2);
+      found.addAll(page);
+      afterId = page.isEmpty() ? afterId : page.get(page.size() - 1);
+    } while (page.size() == 2);
+
+    // Assert
+    assertThat(found).containsExactly(manyTags.getId(), second.getId(), third.getId());
+  }
+
+  @Test
+  @DisplayName("Should return a contact once when both its fields and its tags match")
+  void shouldReturnContactOnceWhenFieldsAndTagsMatch() {
+    // Arrange
+    Contact both = save("promo.lead@example.org", Set.of("promo-spring", "promo-fall"));
+
+    // Act
+    List<Long> found = contactRepository.searchContactIds("%promo%", both.getId() - 1, 10);
+
+    // Assert
+    assertThat(found).containsExactly(both.getId());
+  }
+
+  private Contact save(String email, Set<String> tags) {
+    return contactRepository.saveAndFlush(
+        Contact.builder().email(email).tags(new HashSet<>(tags)).build());
+  }
+}
@@ -0,0 +1,186 @@
+package com.mailflow.contactservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mailflow.contactservice.dto.contact.ContactImportResponse;
+import com.mailflow.contactservice.dto.contact.ContactRequest;
+import com.mailflow.contactservice.exception.InvalidImportException;
+import com.mailflow.contactservice.importer.ImportFormat;
+import com.mailflow.contactservice.repository.ContactBulkRepository;
+import com.mailflow.contactservice.repository.ContactBulkRepository.AddedTag;
+import com.mailflow.contactservice.repository.ContactBulkRepository.UpsertedContact;
+import com.mailflow.contactservice.service.impl.ContactImportServiceImpl;
+import com.mailflow.events.ContactTaggedEvent;
+import com.mailflow.outbox.OutboxMessage;
+import com.mailflow.outbox.OutboxRepository;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.mailflow.contactservice.config.KafkaConfig.CONTACT_EVENTS_TOPIC;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ContactImportServiceTest {
+
+  @Mock private ContactBulkRepository contactBulkRepository;
+
+  @Mock private OutboxRepository outboxRepository;
+
+  @Mock private TransactionTemplate transactionTemplate;
+
+  private ContactImportServiceImpl contactImportService;
+
+  @BeforeEach
+  void setUp() {
+    contactImportService =
+        new ContactImportServiceImpl(
+            contactBulkRepository,
+            outboxRepository,
+            transactionTemplate,
+            Validation.buildDefaultValidatorFactory().getValidator(),
+            new ObjectMapper());
+    ReflectionTestUtils.setField(contactImportService, "batchSize", 2);
+    ReflectionTestUtils.setField(contactImportService, "maxReportedErrors", 10);
+  }
+
+  @Test
+  @DisplayName("Should import CSV rows in batches and report invalid rows")
+  void shouldImportCsvInBatches() throws Exception {
+    // Arrange
+    String csv =
+        "email,first_name,last_name,tags\r\n"
+            + "khalid@gmail.com,Khalid,\"Waheli, Jr.\",Newsletter;vip\r\n"
+            + ",Missing,Email,newsletter\r\n"
+            + "latifa@gmail.com,Latifa,Chakir,newsletter\r\n"
+            + "omar@gmail.com,Omar,Idrissi,\r\n";
+    stubWrites();
+
+    // Act
+    ContactImportResponse result =
+        contactImportService.importContacts(stream(csv), ImportFormat.CSV);
+
+    // Assert
+    assertThat(result.rows()).isEqualTo(4);
+    assertThat(result.created()).isEqualTo(3);
+    assertThat(result.rejected()).isEqualTo(1);
+    assertThat(result.tagsAdded()).isEqualTo(3);
+    assertThat(result.errors()).hasSize(1);
+    assertThat(result.errors().get(0).row()).isEqualTo(3);
+    assertThat(result.errors().get(0).message()).contains("Email is required");
+
+    @SuppressWarnings("unchecked")
+    ArgumentCaptor<List<ContactRequest>> batches = ArgumentCaptor.forClass(List.class);
+    verify(contactBulkRepository, times(2)).upsertContacts(batches.capture());
+    assertThat(batches.getAllValues().get(0))
+        .extracting(ContactRequest::lastName)
+        .containsExactly("Waheli, Jr.", "Chakir");
+    assertThat(batches.getAllValues().get(0).get(0).tags())
+        .containsExactly("newsletter", "vip");
+
+    @SuppressWarnings("unchecked")
+    ArgumentCaptor<List<OutboxMessage>> messages = ArgumentCaptor.forClass(List.class);
+    verify(outboxRepository, times(2)).appendAll(messages.capture());
+    assertThat(messages.getAllValues().stream().flatMap(List::stream))
+        .extracting(OutboxMessage::topic, OutboxMessage::payload)
+        .containsExactly(
+            tuple(
+                CONTACT_EVENTS_TOPIC,
+                new ContactTaggedEvent(
+                    (long) "khalid@gmail.com".hashCode(), "khalid@gmail.com", "newsletter")),
+            tuple(
+                CONTACT_EVENTS_TOPIC,
+                new ContactTaggedEvent(
+                    (long) "khalid@gmail.com".hashCode(), "khalid@gmail.com", "vip")),
+            tuple(
+                CONTACT_EVENTS_TOPIC,
+                new ContactTaggedEvent(
+                    (long) "latifa@gmail.com".hashCode(), "latifa@gmail.com", "newsletter")));
+  }
+
+  @Test
+  @DisplayName("Should fold repeated emails within a batch and reject malformed NDJSON lines")
+  void shouldImportNdjson() throws Exception {
+    // Arrange
+    String ndjson =
+        "{\"email\":\"khalid@gmail.com\",\"firstName\":\"Khalid\",\"lastName\":\"Waheli\","
+            + "\"tags\":[\"newsletter\"]}\n"
+            + "{\"email\":\"khalid@gmail.com\",\"firstName\":\"Khalid\",\"lastName\":\"W.\","
+            + "\"tags\":[\"vip\"]}\n"
+            + "{not json\n";
+    stubWrites();
+
+    // Act
+    ContactImportResponse result =
+        contactImportService.importContacts(stream(ndjson), ImportFormat.NDJSON);
+
+    // Assert
+    assertThat(result.rows()).isEqualTo(3);
+    assertThat(result.created()).isEqualTo(1);
+    assertThat(result.duplicates()).isEqualTo(1);
+    assertThat(result.rejected()).isEqualTo(1);
+    assertThat(result.errors().get(0).row()).isEqualTo(3);
+    assertThat(result.errors().get(0).message()).startsWith("Malformed JSON");
+
+    @SuppressWarnings("unchecked")
+    ArgumentCaptor<List<ContactRequest>> batch = ArgumentCaptor.forClass(List.class);
+    verify(contactBulkRepository).upsertContacts(batch.capture());
+    assertThat(batch.getValue()).hasSize(1);
+    assertThat(batch.getValue().get(0).lastName()).isEqualTo("W.");
+    assertThat(batch.getValue().get(0).tags()).containsExactly("newsletter", "vip");
+  }
+
+  @Test
+  @DisplayName("Should reject a CSV upload without an email column")
+  void shouldRejectCsvWithoutEmailColumn() {
+    assertThatThrownBy(
+            () ->
+                contactImportService.importContacts(
+                    stream("first_name,last_name\nKhalid,Waheli\n"), ImportFormat.CSV))
+        .isInstanceOf(InvalidImportException.class)
+        .hasMessageContaining("email");
+
+    verifyNoInteractions(contactBulkRepository);
+  }
+
+  private void stubWrites() {
+    when(transactionTemplate.execute(any()))
+        .thenAnswer(
+            invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    when(contactBulkRepository.upsertContacts(anyList()))
+        .thenAnswer(
+            invocation -> {
+              List<ContactRequest> contacts = invocation.getArgument(0);
+              List<UpsertedContact> upserted = new ArrayList<>();
+              for (ContactRequest contact : contacts) {
+                upserted.add(
+                    new UpsertedContact(
+                        (long) contact.email().hashCode(), contact.email(), true));
+              }
+              return upserted;
+            });
+    when(contactBulkRepository.insertTags(anyList()))
+        .thenAnswer(invocation -> List.copyOf(invocation.<List<AddedTag>>getArgument(0)));
+  }
+
+  private static InputStream stream(String content) {
+    return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+  }
+}
@@ -3,13 +3,18 @@ package com.mailflow.contactservice.service;
 import com.mailflow.contactservice.domain.Contact;
 import com.mailflow.contactservice.dto.contact.ContactRequest;
 import com.mailflow.contactservice.dto.contact.ContactResponse;
-import com.mailflow.contactservice.dto.contact.ContactTaggedEvent;
+import com.mailflow.contactservice.dto.contact.ContactSearchPage;
+import com.mailflow.contactservice.dto.contact.SegmentContact;
+import com.mailflow.contactservice.dto.contact.SegmentPage;
 import com.mailflow.contactservice.dto.response.PageResponse;
 import com.mailflow.contactservice.exception.ContactAlreadyExistsException;
 import com.mailflow.contactservice.exception.ResourceNotFoundException;
 import com.mailflow.contactservice.mapper.ContactMapper;
 import com.mailflow.contactservice.repository.ContactRepository;
 import com.mailflow.contactservice.service.impl.ContactServiceImpl;
+import com.mailflow.events.ContactTaggedEvent;
+import com.mailflow.outbox.OutboxMessage;
+import com.mailflow.outbox.OutboxRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -22,7 +27,6 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.kafka.core.KafkaTemplate;
 
 import java.util.*;
 
@@ -38,7 +42,7 @@ public class ContactServiceTest {
 
   @Mock private ContactMapper contactMapper;
 
-  @Mock private KafkaTemplate<String, Object> kafkaTemplate;
+  @Mock private OutboxRepository outboxRepository;
 
   @InjectMocks private ContactServiceImpl contactService;
 
@@ -176,7 +180,6 @@ public class ContactServiceTest {
   @DisplayName("Should search contacts by query")
   void shouldSearchContacts() {
     // Arrange
-    String searchQuery = "john";
     Contact matchingContact =
         Contact.builder()
             .id(1L)
@@ -186,25 +189,48 @@ public class ContactServiceTest {
             .tags(new HashSet<>(Arrays.asList("newsletter", "customer")))
             .build();
 
-    Pageable pageable = PageRequest.of(0, 10);
-    Page<Contact> contactPage = new PageImpl<>(List.of(matchingContact), pageable, 1);
-
-    when(contactRepository.searchContacts(searchQuery, pageable)).thenReturn(contactPage);
+    when(contactRepository.searchContactIds("%john%", 0L, 10)).thenReturn(List.of(1L));
+    when(contactRepository.findAllWithTagsByIdIn(List.of(1L))).thenReturn(List.of(matchingContact));
     when(contactMapper.toResponse(matchingContact)).thenReturn(contactResponse);
 
     // Act
-    PageResponse<ContactResponse> result = contactService.searchContacts(searchQuery, pageable);
+    ContactSearchPage result = contactService.searchContacts(" John ", 0L, 10);
 
     // Assert
-    assertThat(result.getContent()).hasSize(1);
-    assertThat(result.getTotalElements()).isEqualTo(1);
-    assertThat(result.getContent().get(0).firstName()).isEqualTo("Khalid");
-    assertThat(result.getContent().get(0).email()).isEqualTo("khalid.waheli@gmail.com");
+    assertThat(result.contacts()).hasSize(1);
+    assertThat(result.nextCursor()).isNull();
+    assertThat(result.contacts().get(0).firstName()).isEqualTo("Khalid");
+    assertThat(result.contacts().get(0).email()).isEqualTo("khalid.waheli@gmail.com");
 
-    verify(contactRepository).searchContacts(searchQuery, pageable);
+    verify(contactRepository).searchContactIds("%john%", 0L, 10);
     verify(contactMapper).toResponse(matchingContact);
   }
 
+  @Test
+  @DisplayName("Should escape LIKE wildcards and return a cursor when the search page is full")
+  void shouldEscapeWildcardsAndReturnSearchCursor() {
+    // Arrange
+    Contact discounted =
+        Contact.builder()
+            .id(7L)
+            .email("salma.tazi@gmail.com")
+            .firstName("Salma")
+            .lastName("Tazi")
+            .tags(new HashSet<>(Collections.singletonList("50%_off")))
+            .build();
+
+    when(contactRepository.searchContactIds("%50\\%\\_off%", 0L, 1)).thenReturn(List.of(7L));
+    when(contactRepository.findAllWithTagsByIdIn(List.of(7L))).thenReturn(List.of(discounted));
+    when(contactMapper.toResponse(discounted)).thenReturn(contactResponse);
+
+    // Act
+    ContactSearchPage result = contactService.searchContacts("50%_off", 0L, 1);
+
+    // Assert
+    assertThat(result.contacts()).hasSize(1);
+    assertThat(result.nextCursor()).isEqualTo(7L);
+  }
+
   @Test
   @DisplayName("Should create contact successfully")
   void shouldCreateContact() {
@@ -213,8 +239,6 @@ public class ContactServiceTest {
     when(contactMapper.toEntity(contactRequest)).thenReturn(contact);
     when(contactRepository.save(contact)).thenReturn(contact);
     when(contactMapper.toResponse(contact)).thenReturn(contactResponse);
-    when(kafkaTemplate.send(eq(CONTACT_EVENTS_TOPIC), any(ContactTaggedEvent.class)))
-        .thenReturn(null);
 
     // Act
     ContactResponse result = contactService.createContact(contactRequest);
@@ -231,13 +255,20 @@ public class ContactServiceTest {
     verify(contactRepository).save(contact);
     verify(contactMapper).toResponse(contact);
 
-    ArgumentCaptor<ContactTaggedEvent> eventCaptor =
-        ArgumentCaptor.forClass(ContactTaggedEvent.class);
-    verify(kafkaTemplate, times(2)).send(eq(CONTACT_EVENTS_TOPIC), eventCaptor.capture());
-
-    List<ContactTaggedEvent> capturedEvents = eventCaptor.getAllValues();
-    assertThat(capturedEvents).hasSize(2);
-    assertThat(capturedEvents.stream().map(ContactTaggedEvent::tag))
+    @SuppressWarnings("unchecked")
+    ArgumentCaptor<List<OutboxMessage>> messageCaptor = ArgumentCaptor.forClass(List.class);
+    verify(outboxRepository).appendAll(messageCaptor.capture());
+
+    List<OutboxMessage> capturedMessages = messageCaptor.getValue();
+    assertThat(capturedMessages).hasSize(2);
+    assertThat(capturedMessages)
+        .allSatisfy(
+            message -> {
+              assertThat(message.topic()).isEqualTo(CONTACT_EVENTS_TOPIC);
+              assertThat(message.key()).isEqualTo("1");
+            });
+    assertThat(capturedMessages.stream().map(message -> (ContactTaggedEvent) message.payload()))
+        .extracting(ContactTaggedEvent::tag)
         .containsExactlyInAnyOrder("newsletter", "customer");
   }
 
@@ -254,7 +285,7 @@ public class ContactServiceTest {
 
     verify(contactRepository).existsByEmail(contactRequest.email());
     verifyNoInteractions(contactMapper);
-    verifyNoInteractions(kafkaTemplate);
+    verifyNoInteractions(outboxRepository);
   }
 
   @Test
@@ -377,8 +408,6 @@ public class ContactServiceTest {
     when(contactRepository.findById(1L)).thenReturn(Optional.of(contact));
     when(contactRepository.save(contact)).thenReturn(updatedContact);
     when(contactMapper.toResponse(updatedContact)).thenReturn(updatedResponse);
-    when(kafkaTemplate.send(eq(CONTACT_EVENTS_TOPIC), any(ContactTaggedEvent.class)))
-        .thenReturn(null);
 
     // Act
     ContactResponse result = contactService.addTags(1L, tagsToAdd);
@@ -392,13 +421,20 @@ public class ContactServiceTest {
     verify(contactRepository).save(contact);
     verify(contactMapper).toResponse(updatedContact);
 
-    ArgumentCaptor<ContactTaggedEvent> eventCaptor =
-        ArgumentCaptor.forClass(ContactTaggedEvent.class);
-    verify(kafkaTemplate, times(2)).send(eq(CONTACT_EVENTS_TOPIC), eventCaptor.capture());
-
-    List<ContactTaggedEvent> capturedEvents = eventCaptor.getAllValues();
-    assertThat(capturedEvents).hasSize(2);
-    assertThat(capturedEvents.stream().map(ContactTaggedEvent::tag))
+    @SuppressWarnings("unchecked")
+    ArgumentCaptor<List<OutboxMessage>> messageCaptor = ArgumentCaptor.forClass(List.class);
+    verify(outboxRepository).appendAll(messageCaptor.capture());
+
+    List<OutboxMessage> capturedMessages = messageCaptor.getValue();
+    assertThat(capturedMessages).hasSize(2);
+    assertThat(capturedMessages)
+        .allSatisfy(
+            message -> {
+              assertThat(message.topic()).isEqualTo(CONTACT_EVENTS_TOPIC);
+              assertThat(message.key()).isEqualTo("1");
+            });
+    assertThat(capturedMessages.stream().map(message -> (ContactTaggedEvent) message.payload()))
+        .extracting(ContactTaggedEvent::tag)
         .containsExactlyInAnyOrder("premium", "active");
   }
 
@@ -442,7 +478,7 @@ public class ContactServiceTest {
     verify(contactRepository).findById(1L);
     verify(contactRepository).save(contact);
     verify(contactMapper).toResponse(updatedContact);
-    verifyNoInteractions(kafkaTemplate); // No Kafka events should be published for tag removal
+    verifyNoInteractions(outboxRepository); // No events should be published for tag removal
   }
 
   @Test
@@ -526,4 +562,43 @@ public class ContactServiceTest {
     verify(contactMapper).toResponse(contact);
     verify(contactMapper).toResponse(contact2);
   }
+
+  @Test
+  @DisplayName("Should get contacts by ids in one lookup")
+  void shouldGetContactsByIds() {
+    // Arrange
+    Set<Long> ids = Set.of(1L, 42L);
+    when(contactRepository.findAllById(ids)).thenReturn(List.of(contact));
+    when(contactMapper.toResponse(contact)).thenReturn(contactResponse);
+
+    // Act
+    List<ContactResponse> result = contactService.getContactsByIds(ids);
+
+    // Assert
+    assertThat(result).containsExactly(contactResponse);
+    verify(contactRepository).findAllById(ids);
+    verify(contactRepository, never()).findById(anyLong());
+  }
+
+  @Test
+  @DisplayName("Should return a cursor only when the segment page is full")
+  void shouldReturnSegmentPageWithCursor() {
+    // Arrange
+    ContactRepository.SegmentContactView row1 = mock(ContactRepository.SegmentContactView.class);
+    ContactRepository.SegmentContactView row2 = mock(ContactRepository.SegmentContactView.class);
+    when(row1.getId()).thenReturn(3L);
+    when(row2.getId()).thenReturn(7L);
+    when(contactRepository.findSegmentPage("customer", 0L, 2)).thenReturn(List.of(row1, row2));
+    when(contactRepository.findSegmentPage("customer", 7L, 2)).thenReturn(List.of());
+
+    // Act
+    SegmentPage firstPage = contactService.getSegmentPage("customer", 0L, 2);
+    SegmentPage lastPage = contactService.getSegmentPage("customer", 7L, 2);
+
+    // Assert
+    assertThat(firstPage.contacts()).extracting(SegmentContact::id).containsExactly(3L, 7L);
+    assertThat(firstPage.nextCursor()).isEqualTo(7L);
+    assertThat(lastPage.contacts()).isEmpty();
+    assertThat(lastPage.nextCursor()).isNull();
+  }
 }
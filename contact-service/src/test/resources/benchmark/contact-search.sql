@@ -0,0 +1,156 @@
+-- Contact search benchmark: offset LIKE search vs. trigram-indexed keyset search.
+--
+-- Builds a throwaway schema with 1,000,000 synthetic contacts (about 2.5M tag rows), times the
+-- query the service used to run, applies the V3 search column and indexes, then times the
+-- replacement. Run against a scratch database, never production:
+--
+--   psql -h localhost -U mailflow -d contact -f contact-service/src/test/resources/benchmark/contact-search.sql
+--
+-- Compare the "Execution Time" lines of each EXPLAIN ANALYZE pair. Data generation takes a few
+-- minutes; the schema is dropped at the end.
+
+\timing on
+SET client_min_messages = warning;
+
+DROP SCHEMA IF EXISTS search_bench CASCADE;
+CREATE SCHEMA search_bench;
+SET search_path = search_bench, public;
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm WITH SCHEMA public;
+
+CREATE TABLE contacts
+(
+    id         BIGSERIAL PRIMARY KEY,
+    email      VARCHAR(255) NOT NULL UNIQUE,
+    first_name VARCHAR(100),
+    last_name  VARCHAR(100),
+    created_at TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    version    BIGINT       NOT NULL DEFAULT 0
+);
+
+CREATE TABLE contact_tags
+(
+    contact_id BIGINT      NOT NULL REFERENCES contacts (id) ON DELETE CASCADE,
+    tag        VARCHAR(50) NOT NULL,
+    PRIMARY KEY (contact_id, tag)
+);
+
+-- Names drawn from small pools so common fragments match many rows and rare ones match few
+INSERT INTO contacts (email, first_name, last_name)
+SELECT 'user' || g || '@' || (ARRAY ['gmail.com', 'outlook.com', 'mailflow.io', 'example.org'])[1 + g % 4],
+       (ARRAY ['Khalid', 'Latifa', 'Omar', 'Salma', 'Youssef', 'Imane', 'Hamza', 'Nora'])[1 + g % 8]
+           || (g % 997),
+       (ARRAY ['Waheli', 'Chakir', 'Idrissi', 'Bennani', 'Alaoui', 'Tazi'])[1 + g % 6] || (g % 1009)
+FROM generate_series(1, 1000000) AS g;
+
+INSERT INTO contact_tags (contact_id, tag)
+SELECT c.id, t.tag
+FROM contacts c
+         CROSS JOIN LATERAL (
+    SELECT (ARRAY ['newsletter', 'customer', 'premium', 'trial', 'churned', 'beta-tester'])[(1 + (c.id + n) % 6)::int]
+               || CASE WHEN n = 2 THEN '-' || (c.id % 500) ELSE '' END AS tag
+    FROM generate_series(0, 1 + (c.id % 2)::int) AS n
+    ) t
+ON CONFLICT DO NOTHING;
+
+CREATE INDEX idx_contact_tags_tag_contact ON contact_tags (tag, contact_id);
+VACUUM ANALYZE contacts;
+VACUUM ANALYZE contact_tags;
+
+-- ---------------------------------------------------------------------------------------------
+-- Before: LOWER(...) LIKE over a tag join with DISTINCT, page 50 by OFFSET, plus the count query
+-- ---------------------------------------------------------------------------------------------
+
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT DISTINCT c.*
+FROM contacts c
+         LEFT JOIN contact_tags t ON t.contact_id = c.id
+WHERE LOWER(c.first_name) LIKE '%khalid42%'
+   OR LOWER(c.last_name) LIKE '%khalid42%'
+   OR LOWER(c.email) LIKE '%khalid42%'
+   OR LOWER(t.tag) LIKE '%khalid42%'
+ORDER BY c.id
+OFFSET 980 LIMIT 20;
+
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT COUNT(DISTINCT c.id)
+FROM contacts c
+         LEFT JOIN contact_tags t ON t.contact_id = c.id
+WHERE LOWER(c.first_name) LIKE '%khalid42%'
+   OR LOWER(c.last_name) LIKE '%khalid42%'
+   OR LOWER(c.email) LIKE '%khalid42%'
+   OR LOWER(t.tag) LIKE '%khalid42%';
+
+-- Selective term, first page
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT DISTINCT c.*
+FROM contacts c
+         LEFT JOIN contact_tags t ON t.contact_id = c.id
+WHERE LOWER(c.first_name) LIKE '%user987654@%'
+   OR LOWER(c.last_name) LIKE '%user987654@%'
+   OR LOWER(c.email) LIKE '%user987654@%'
+   OR LOWER(t.tag) LIKE '%user987654@%'
+ORDER BY c.id
+LIMIT 20;
+
+-- ---------------------------------------------------------------------------------------------
+-- After: V3 generated column and trigram indexes, keyset page (cursor taken from the page before)
+-- ---------------------------------------------------------------------------------------------
+
+ALTER TABLE contacts
+    ADD COLUMN search_text TEXT GENERATED ALWAYS AS (
+        lower(email || ' ' || coalesce(first_name, '') || ' ' || coalesce(last_name, ''))
+    ) STORED;
+CREATE INDEX idx_contacts_search_text_trgm ON contacts USING gin (search_text gin_trgm_ops);
+CREATE INDEX idx_contact_tags_tag_trgm ON contact_tags USING gin (tag gin_trgm_ops);
+VACUUM ANALYZE contacts;
+VACUUM ANALYZE contact_tags;
+
+-- Roughly where page 50 starts, so both plans return the same rows
+SELECT id AS after_id
+FROM contacts
+WHERE search_text LIKE '%khalid42%'
+ORDER BY id
+OFFSET 979 LIMIT 1
+\gset
+
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT id
+FROM ((SELECT c.id
+       FROM contacts c
+       WHERE c.search_text LIKE '%khalid42%'
+         AND c.id > :after_id
+       ORDER BY c.id
+       LIMIT 20)
+      UNION
+      (SELECT t.contact_id
+       FROM contact_tags t
+       WHERE t.tag LIKE '%khalid42%'
+         AND t.contact_id > :after_id
+       ORDER BY t.contact_id
+       LIMIT 20)) matches
+ORDER BY id
+LIMIT 20;
+
+-- Selective term: the trigram index narrows the candidate set to a handful of rows
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT id
+FROM ((SELECT c.id
+       FROM contacts c
+       WHERE c.search_text LIKE '%user987654@%'
+         AND c.id > 0
+       ORDER BY c.id
+       LIMIT 20)
+      UNION
+      (SELECT t.contact_id
+       FROM contact_tags t
+       WHERE t.tag LIKE '%user987654@%'
+         AND t.contact_id > 0
+       ORDER BY t.contact_id
+       LIMIT 20)) matches
+ORDER BY id
+LIMIT 20;
+
+RESET search_path;
+DROP SCHEMA search_bench CASCADE;
@@ -0,0 +1,137 @@
+package com.mailflow.emailservice.analytics;
+
+import com.mailflow.emailservice.dto.email.EmailDailyStatsDTO;
+import com.mailflow.emailservice.repository.EmailRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicReference;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * In-memory copy of the {@code email_daily_stats} rollup, summed over campaigns.
+ *
+ * <p>Counters are stamped with the UTC day the event happened, and the day is rolled over in UTC
+ * here as well. Counters of a day are spread over several shard rows, which the repository sums.
+ *
+ * <p>Days before today no longer change and are cached until the date rolls over; a request
+ * reaching further back than what is cached reloads the history once. Today's counters are still
+ * moving and are re-read at most every {@code email.stats.today-ttl}.
+ */
+@Component
+@Slf4j
+public class DailyStatsCache {
+
+  private final EmailRepository emailRepository;
+  private final Duration todayTtl;
+  private final Clock clock;
+  private final AtomicReference<History> history = new AtomicReference<>();
+  private final AtomicReference<Today> today = new AtomicReference<>();
+  private final Counter hits;
+  private final Counter misses;
+
+  @Autowired
+  public DailyStatsCache(
+      EmailRepository emailRepository,
+      MeterRegistry meterRegistry,
+      @Value("${email.stats.today-ttl:10s}") Duration todayTtl) {
+    this(emailRepository, meterRegistry, todayTtl, Clock.systemUTC());
+  }
+
+  DailyStatsCache(
+      EmailRepository emailRepository,
+      MeterRegistry meterRegistry,
+      Duration todayTtl,
+      Clock clock) {
+    this.emailRepository = emailRepository;
+    this.todayTtl = todayTtl;
+    this.clock = clock;
+    this.hits = meterRegistry.counter("mailflow.email.stats.cache.requests", "result", "hit");
+    this.misses = meterRegistry.counter("mailflow.email.stats.cache.requests", "result", "miss");
+  }
+
+  /** Totals for every day from {@code from} up to and including today that saw any activity. */
+  public Mono<List<EmailDailyStatsDTO>> getDailyStats(LocalDate from) {
+    LocalDate currentDay = LocalDate.ofInstant(clock.instant(), ZoneOffset.UTC);
+    return Mono.zip(history(from, currentDay), today(currentDay))
+        .map(
+            tuple -> {
+              List<EmailDailyStatsDTO> days =
+                  new ArrayList<>(tuple.getT1().tailMap(from, true).values());
+              if (!from.isAfter(currentDay)) {
+                days.add(tuple.getT2());
+              }
+              return days;
+            });
+  }
+
+  private Mono<NavigableMap<LocalDate, EmailDailyStatsDTO>> history(
+      LocalDate from, LocalDate currentDay) {
+    if (!from.isBefore(currentDay)) {
+      return Mono.just(Collections.emptyNavigableMap());
+    }
+
+    History cached = history.get();
+    if (cached != null && cached.covers(from, currentDay)) {
+      hits.increment();
+      return Mono.just(cached.days());
+    }
+
+    misses.increment();
+    return emailRepository
+        .findDailyStats(from, currentDay.minusDays(1))
+        .collectList()
+        .map(
+            rows -> {
+              NavigableMap<LocalDate, EmailDailyStatsDTO> days = new TreeMap<>();
+              rows.forEach(row -> days.put(row.day(), row));
+              History loaded =
+                  new History(currentDay, from, Collections.unmodifiableNavigableMap(days));
+              history.set(loaded);
+              log.debug("Loaded {} days of email stats since {}", days.size(), from);
+              return loaded.days();
+            });
+  }
+
+  private Mono<EmailDailyStatsDTO> today(LocalDate currentDay) {
+    Today cached = today.get();
+    if (cached != null && cached.isFresh(currentDay, todayTtl)) {
+      hits.increment();
+      return Mono.just(cached.stats());
+    }
+
+    misses.increment();
+    return emailRepository
+        .findDailyStats(currentDay, currentDay)
+        .next()
+        .defaultIfEmpty(new EmailDailyStatsDTO(currentDay, 0L, 0L, 0L, 0L))
+        .doOnNext(stats -> today.set(new Today(currentDay, stats, System.nanoTime())));
+  }
+
+  private record History(
+      LocalDate loadedOn, LocalDate from, NavigableMap<LocalDate, EmailDailyStatsDTO> days) {
+
+    boolean covers(LocalDate requestedFrom, LocalDate currentDay) {
+      return loadedOn.equals(currentDay) && !requestedFrom.isBefore(from);
+    }
+  }
+
+  private record Today(LocalDate day, EmailDailyStatsDTO stats, long loadedAt) {
+
+    boolean isFresh(LocalDate currentDay, Duration ttl) {
+      return day.equals(currentDay) && System.nanoTime() - loadedAt < ttl.toNanos();
+    }
+  }
+}
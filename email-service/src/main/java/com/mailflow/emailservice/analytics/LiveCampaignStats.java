@@ -0,0 +1,190 @@
+package com.mailflow.emailservice.analytics;
+
+import com.mailflow.emailservice.domain.Email;
+import com.mailflow.emailservice.domain.EmailStatus;
+import com.mailflow.emailservice.dto.email.CampaignStatsDTO;
+import com.mailflow.emailservice.repository.EmailRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Live per-campaign delivery counters, streamed to dashboards as Server-Sent Events.
+ *
+ * <p>Counters only exist while a campaign has at least one subscriber. They start from the {@code
+ * email_daily_stats} rollup and are then advanced in memory by the send and tracking paths through
+ * {@link LongAdder}s, so recording an outcome is a map lookup and an uncontended add. The rollup is
+ * re-read every {@code email.live.baseline-refresh} to pick up what other instances recorded.
+ *
+ * <p>Each watched campaign has a single shared stream that takes a snapshot every {@code
+ * email.live.tick} and emits it only if it changed. Subscribers share that stream, so the work is
+ * proportional to ticks, not to events or subscribers. Idle streams send a comment every {@code
+ * email.live.keep-alive} so proxies keep the connection open.
+ */
+@Component
+@Slf4j
+public class LiveCampaignStats {
+
+  private final EmailRepository emailRepository;
+  private final Duration tick;
+  private final Duration baselineRefresh;
+  private final Duration keepAlive;
+  private final Map<Long, CampaignCounters> counters = new ConcurrentHashMap<>();
+  private final Map<Long, Flux<ServerSentEvent<CampaignStatsDTO>>> streams =
+      new ConcurrentHashMap<>();
+
+  public LiveCampaignStats(
+      EmailRepository emailRepository,
+      MeterRegistry meterRegistry,
+      @Value("${email.live.tick:1s}") Duration tick,
+      @Value("${email.live.baseline-refresh:30s}") Duration baselineRefresh,
+      @Value("${email.live.keep-alive:15s}") Duration keepAlive) {
+    this.emailRepository = emailRepository;
+    this.tick = tick;
+    this.baselineRefresh = baselineRefresh;
+    this.keepAlive = keepAlive;
+    Gauge.builder("mailflow.email.live.campaigns", counters, Map::size)
+        .description("Campaigns with at least one live stats subscriber")
+        .register(meterRegistry);
+  }
+
+  /** Shared stream of snapshots for one campaign, starting with the current totals. */
+  public Flux<ServerSentEvent<CampaignStatsDTO>> stream(Long campaignId) {
+    return streams.computeIfAbsent(campaignId, this::createStream).onBackpressureLatest();
+  }
+
+  /** Counts a SENT or FAILED outcome; other statuses are ignored. */
+  public void recordDelivery(Email email) {
+    CampaignCounters campaign = counters.get(email.getCampaignId());
+    if (campaign == null) {
+      return;
+    }
+    if (email.getStatus() == EmailStatus.SENT) {
+      campaign.sent.increment();
+    } else if (email.getStatus() == EmailStatus.FAILED) {
+      campaign.failed.increment();
+    }
+  }
+
+  public void recordOpened(Long campaignId) {
+    CampaignCounters campaign = counters.get(campaignId);
+    if (campaign != null) {
+      campaign.opened.increment();
+    }
+  }
+
+  public void recordClicked(Long campaignId) {
+    CampaignCounters campaign = counters.get(campaignId);
+    if (campaign != null) {
+      campaign.clicked.increment();
+    }
+  }
+
+  private Flux<ServerSentEvent<CampaignStatsDTO>> createStream(Long campaignId) {
+    CampaignCounters campaign = new CampaignCounters(campaignId);
+
+    Flux<ServerSentEvent<CampaignStatsDTO>> snapshots =
+        Flux.interval(Duration.ZERO, tick)
+            .onBackpressureDrop()
+            .concatMap(i -> campaign.isStale(baselineRefresh) ? refresh(campaign) : Mono.just(i))
+            .map(i -> campaign.snapshot())
+            .distinctUntilChanged()
+            .map(stats -> ServerSentEvent.builder(stats).event("stats").build());
+    Flux<ServerSentEvent<CampaignStatsDTO>> keepAlives =
+        Flux.interval(keepAlive, keepAlive)
+            .onBackpressureDrop()
+            .map(i -> ServerSentEvent.<CampaignStatsDTO>builder().comment("keep-alive").build());
+
+    // Removal is keyed on this stream, so a late finish never drops the stream that replaced it
+    AtomicReference<Flux<ServerSentEvent<CampaignStatsDTO>>> self = new AtomicReference<>();
+    Flux<ServerSentEvent<CampaignStatsDTO>> stream =
+        Flux.merge(snapshots, keepAlives)
+            .doOnSubscribe(subscription -> counters.put(campaignId, campaign))
+            .doFinally(
+                signal -> {
+                  counters.remove(campaignId, campaign);
+                  streams.remove(campaignId, self.get());
+                })
+            .replay(1)
+            .refCount(1, tick);
+    self.set(stream);
+    return stream;
+  }
+
+  private Mono<Long> refresh(CampaignCounters campaign) {
+    campaign.startRefresh();
+    return emailRepository
+        .findCampaignStats(campaign.campaignId)
+        .doOnNext(campaign::resetBaseline)
+        .onErrorResume(
+            e -> {
+              log.warn(
+                  "Failed to load stats baseline for campaign {}: {}",
+                  campaign.campaignId,
+                  e.getMessage());
+              return Mono.empty();
+            })
+        .thenReturn(0L);
+  }
+
+  private static final class CampaignCounters {
+
+    private final Long campaignId;
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder opened = new LongAdder();
+    private final LongAdder clicked = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private volatile CampaignStatsDTO baseline;
+    private volatile boolean refreshed;
+    private volatile long refreshedAt;
+
+    private CampaignCounters(Long campaignId) {
+      this.campaignId = campaignId;
+      this.baseline = new CampaignStatsDTO(campaignId, 0L, 0L, 0L, 0L);
+    }
+
+    boolean isStale(Duration refresh) {
+      return !refreshed || System.nanoTime() - refreshedAt > refresh.toNanos();
+    }
+
+    /**
+     * Moves the in-memory deltas into the baseline, so totals do not dip while the rollup is being
+     * re-read. Events counted between this and the reload are briefly counted twice.
+     */
+    void startRefresh() {
+      refreshed = true;
+      refreshedAt = System.nanoTime();
+      baseline =
+          new CampaignStatsDTO(
+              campaignId,
+              baseline.sent() + sent.sumThenReset(),
+              baseline.opened() + opened.sumThenReset(),
+              baseline.clicked() + clicked.sumThenReset(),
+              baseline.failed() + failed.sumThenReset());
+    }
+
+    void resetBaseline(CampaignStatsDTO stats) {
+      baseline = stats;
+    }
+
+    CampaignStatsDTO snapshot() {
+      CampaignStatsDTO base = baseline;
+      return new CampaignStatsDTO(
+          campaignId,
+          base.sent() + sent.sum(),
+          base.opened() + opened.sum(),
+          base.clicked() + clicked.sum(),
+          base.failed() + failed.sum());
+    }
+  }
+}
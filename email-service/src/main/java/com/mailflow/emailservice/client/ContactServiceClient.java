@@ -4,10 +4,18 @@ import com.mailflow.emailservice.dto.contact.ContactDTO;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+
+import java.util.Collection;
+import java.util.List;
 
 @FeignClient(name = "contact-service", path = "/api/v1/contacts")
 public interface ContactServiceClient {
 
     @GetMapping("/{id}")
     ContactDTO getContact(@PathVariable("id") Long id);
+
+    @PostMapping("/batch")
+    List<ContactDTO> getContacts(@RequestBody Collection<Long> ids);
 }
\ No newline at end of file
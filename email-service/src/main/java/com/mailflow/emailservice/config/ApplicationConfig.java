@@ -1,18 +1,27 @@
 package com.mailflow.emailservice.config;
 
+import com.mailflow.emailservice.mail.DomainSendScheduler;
+import com.mailflow.emailservice.mail.DomainThrottleSettings;
+import com.mailflow.emailservice.mail.DomainThrottleSettings.DomainLimit;
+import com.mailflow.emailservice.mail.PooledJavaMailSender;
+import com.mailflow.emailservice.mail.SmtpPoolSettings;
+import com.mailflow.emailservice.mail.SmtpTransportPool;
+import java.time.Duration;
 import java.util.Properties;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.r2dbc.config.EnableR2dbcAuditing;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.JavaMailSenderImpl;
 import org.springframework.scheduling.annotation.EnableScheduling;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 
 @Configuration
 @EnableScheduling
 @EnableR2dbcAuditing
+@Slf4j
 public class ApplicationConfig {
   @Value("${spring.mail.host}")
   private String host;
@@ -32,9 +41,88 @@ public class ApplicationConfig {
   @Value("${spring.mail.properties.mail.smtp.starttls.enable:true}")
   private String starttls;
 
+  @Value("${spring.mail.properties.mail.debug:false}")
+  private String mailDebug;
+
+  @Value("${smtp.pool.max-connections:8}")
+  private int poolMaxConnections;
+
+  @Value("${smtp.pool.max-messages-per-connection:100}")
+  private int poolMaxMessagesPerConnection;
+
+  @Value("${smtp.pool.max-lifetime:10m}")
+  private Duration poolMaxLifetime;
+
+  @Value("${smtp.pool.idle-timeout:60s}")
+  private Duration poolIdleTimeout;
+
+  @Value("${smtp.pool.validation-interval:10s}")
+  private Duration poolValidationInterval;
+
+  @Value("${smtp.pool.borrow-timeout:30s}")
+  private Duration poolBorrowTimeout;
+
+  @Value("${smtp.pool.eviction-interval:15s}")
+  private Duration poolEvictionInterval;
+
+  @Value("${smtp.domains.max-in-flight:8}")
+  private int domainsMaxInFlight;
+
+  @Value("${smtp.domains.default-rate:20}")
+  private double domainsDefaultRate;
+
+  @Value("${smtp.domains.default-burst:40}")
+  private int domainsDefaultBurst;
+
+  @Value("${smtp.domains.default-concurrency:2}")
+  private int domainsDefaultConcurrency;
+
+  @Value("${smtp.domains.limits:}")
+  private String domainsLimits;
+
+  @Value("${smtp.domains.min-rate:0.5}")
+  private double domainsMinRate;
+
+  @Value("${smtp.domains.rate-increase:0.05}")
+  private double domainsRateIncrease;
+
+  @Value("${smtp.domains.rate-decrease:0.5}")
+  private double domainsRateDecrease;
+
+  @Value("${smtp.domains.deferral-pause:30s}")
+  private Duration domainsDeferralPause;
+
+  @Value("${smtp.domains.max-deferral-pause:15m}")
+  private Duration domainsMaxDeferralPause;
+
+  @Value("${smtp.domains.idle-timeout:10m}")
+  private Duration domainsIdleTimeout;
+
+  @Value("${email.batch.threads:16}")
+  private int batchThreads;
+
+  @Value("${email.batch.queued-tasks:1000}")
+  private int batchQueuedTasks;
+
+  @Value("${email.blocking.virtual-threads:false}")
+  private boolean virtualThreads;
+
+  @Value("${email.blocking.max-concurrency:10000}")
+  private int blockingMaxConcurrency;
+
   @Bean
-  public JavaMailSender javaMailSender() {
-    JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+  public PooledJavaMailSender javaMailSender() {
+    PooledJavaMailSender mailSender =
+        new PooledJavaMailSender(
+            SmtpPoolSettings.builder()
+                .maxConnections(poolMaxConnections)
+                .maxMessagesPerConnection(poolMaxMessagesPerConnection)
+                .maxLifetime(poolMaxLifetime)
+                .idleTimeout(poolIdleTimeout)
+                .validationInterval(poolValidationInterval)
+                .borrowTimeout(poolBorrowTimeout)
+                .evictionInterval(poolEvictionInterval)
+                .build());
     mailSender.setHost(host);
     mailSender.setPort(port);
     mailSender.setUsername(username);
@@ -53,11 +141,91 @@ public class ApplicationConfig {
     props.put("mail.smtp.timeout", "5000");
     props.put("mail.smtp.writetimeout", "5000");
 
-    props.put("mail.debug", "true");
+    props.put("mail.debug", mailDebug);
 
     return mailSender;
   }
 
+  @Bean
+  public SmtpTransportPool smtpTransportPool(PooledJavaMailSender javaMailSender) {
+    return javaMailSender.getTransportPool();
+  }
+
+  /**
+   * All sends go through here so each recipient domain is held to its rate and concurrency limits.
+   */
+  @Bean
+  public DomainSendScheduler domainSendScheduler(
+      PooledJavaMailSender javaMailSender, Scheduler smtpSendScheduler) {
+    return new DomainSendScheduler(
+        DomainThrottleSettings.builder()
+            .maxInFlight(domainsMaxInFlight)
+            .defaults(
+                new DomainLimit(
+                    domainsDefaultRate, domainsDefaultBurst, domainsDefaultConcurrency))
+            .limits(DomainThrottleSettings.parseLimits(domainsLimits))
+            .minRate(domainsMinRate)
+            .rateIncrease(domainsRateIncrease)
+            .rateDecrease(domainsRateDecrease)
+            .deferralPause(domainsDeferralPause)
+            .maxDeferralPause(domainsMaxDeferralPause)
+            .idleTimeout(domainsIdleTimeout)
+            .build(),
+        javaMailSender,
+        smtpSendScheduler);
+  }
+
+  /**
+   * Platform threads for SMTP sessions. The domain send scheduler never runs more than {@code
+   * smtp.domains.max-in-flight} sends, so they never queue here. They stay off virtual threads
+   * because the SMTP transport's methods are synchronized, which pins the carrier thread on Java 21
+   * for the whole network exchange.
+   */
+  @Bean(destroyMethod = "dispose")
+  public Scheduler smtpSendScheduler() {
+    return Schedulers.newBoundedElastic(domainsMaxInFlight, domainsMaxInFlight, "smtp-send");
+  }
+
+  /**
+   * Threads for the batch send pipeline's blocking Feign calls and message building, kept apart
+   * from the single-send path so a large campaign cannot starve the rest of the service. With
+   * {@code email.blocking.virtual-threads} every call gets a virtual thread instead, up to {@code
+   * email.blocking.max-concurrency} at once.
+   */
+  @Bean(destroyMethod = "dispose")
+  public Scheduler emailBatchScheduler() {
+    if (useVirtualThreads()) {
+      return VirtualThreadExecutor.scheduler("email-batch", blockingMaxConcurrency);
+    }
+    return Schedulers.newBoundedElastic(batchThreads, batchQueuedTasks, "email-batch");
+  }
+
+  /**
+   * Threads for the blocking calls of single sends and retries; sized like {@code
+   * Schedulers.boundedElastic()}, or virtual threads with {@code email.blocking.virtual-threads}.
+   */
+  @Bean(destroyMethod = "dispose")
+  public Scheduler emailBlockingScheduler() {
+    if (useVirtualThreads()) {
+      return VirtualThreadExecutor.scheduler("email-blocking", blockingMaxConcurrency);
+    }
+    return Schedulers.newBoundedElastic(
+        Schedulers.DEFAULT_BOUNDED_ELASTIC_SIZE,
+        Schedulers.DEFAULT_BOUNDED_ELASTIC_QUEUESIZE,
+        "email-blocking");
+  }
+
+  /** {@code email.blocking.virtual-threads}, unless the JVM is older than Java 21. */
+  private boolean useVirtualThreads() {
+    if (virtualThreads && !VirtualThreadExecutor.isSupported()) {
+      log.warn(
+          "email.blocking.virtual-threads needs Java 21, running on {}; using platform threads",
+          Runtime.version());
+      return false;
+    }
+    return virtualThreads;
+  }
+
   @Bean
   public HttpMessageConverters messageConverters() {
     return new HttpMessageConverters();
@@ -1,24 +1,40 @@
 package com.mailflow.emailservice.config;
 
-import com.mailflow.emailservice.dto.campaign.CampaignTriggeredEvent;
+import com.mailflow.emailservice.dto.template.TemplateChangedEvent;
+import com.mailflow.events.CampaignTriggeredEvent;
+import com.mailflow.events.kafka.EventDeserializer;
+import com.mailflow.events.kafka.EventSerializer;
+import com.mailflow.events.kafka.ProducerProfile;
+import com.mailflow.events.kafka.ProducerProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
 import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.config.TopicBuilder;
 import org.springframework.kafka.core.*;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
 import org.springframework.kafka.listener.DefaultErrorHandler;
 import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
 import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.util.backoff.ExponentialBackOff;
 import org.springframework.util.backoff.FixedBackOff;
+import reactor.kafka.receiver.ReceiverOptions;
 
+import java.time.Duration;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Configuration
@@ -27,7 +43,24 @@ public class KafkaConfig {
   @Value("${spring.kafka.bootstrap-servers}")
   private String bootstrapServers;
 
+  @Value("${email.batch.max-poll-records:500}")
+  private int maxPollRecords;
+
+  @Value("${email.batch.max-poll-interval:10m}")
+  private Duration maxPollInterval;
+
+  @Value("${email.batch.concurrency:6}")
+  private int concurrency;
+
+  @Value("${email.batch.max-retry-interval:1m}")
+  private Duration maxRetryInterval;
+
+  @Value("${email.batch.max-retry-time:15m}")
+  private Duration maxRetryTime;
+
   public static final String EMAIL_EVENTS_TOPIC = "email-events";
+  public static final String CAMPAIGN_TRIGGERED_TOPIC = "campaign-triggered";
+  public static final String CAMPAIGN_TRIGGERED_DLT = CAMPAIGN_TRIGGERED_TOPIC + ".DLT";
 
   @Bean
   public NewTopic emailEventsTopic() {
@@ -35,28 +68,80 @@ public class KafkaConfig {
   }
 
   @Bean
-  public ProducerFactory<String, Object> producerFactory() {
-    Map<String, Object> props = new HashMap<>();
-    props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
-    props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-    props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+  public NewTopic campaignTriggeredDeadLetterTopic() {
+    return TopicBuilder.name(CAMPAIGN_TRIGGERED_DLT).partitions(3).replicas(1).build();
+  }
+
+  @Bean
+  @ConfigurationProperties("kafka.producer")
+  public ProducerProperties producerProperties() {
+    return new ProducerProperties();
+  }
 
-    props.put(JsonSerializer.ADD_TYPE_INFO_HEADERS, false);
+  @Bean
+  public ProducerFactory<String, Object> producerFactory(MeterRegistry meterRegistry) {
+    ProducerProfile profile = producerProperties().toProfile("default");
 
-    return new DefaultKafkaProducerFactory<>(props);
+    Map<String, Object> props = profile.toProperties();
+    props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+
+    // Events go out in their binary form, anything without a codec as JSON
+    DefaultKafkaProducerFactory<String, Object> factory =
+        new DefaultKafkaProducerFactory<>(
+            props,
+            new StringSerializer(),
+            new EventSerializer(new JsonSerializer<>().noTypeInfo()));
+    // Client metrics such as kafka.producer.batch.size.avg and request.latency.avg
+    factory.addListener(
+        new MicrometerProducerListener<>(
+            meterRegistry, List.of(Tag.of("profile", profile.name()))));
+    return factory;
   }
 
   @Bean
-  public KafkaTemplate<String, Object> kafkaTemplate() {
-    return new KafkaTemplate<>(producerFactory());
+  public KafkaTemplate<String, Object> kafkaTemplate(MeterRegistry meterRegistry) {
+    return new KafkaTemplate<>(producerFactory(meterRegistry));
   }
 
+  /**
+   * Consumer settings for {@code campaign-triggered}. Records written before the topic carried
+   * binary events have no event header and are still read as JSON.
+   */
   @Bean
   public ConsumerFactory<String, Object> consumerFactory() {
-    Map<String, Object> props = new HashMap<>();
-    props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
-    props.put(ConsumerConfig.GROUP_ID_CONFIG, "email-service-group");
-    props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+    return new DefaultKafkaConsumerFactory<>(
+        consumerProps(),
+        () -> new ErrorHandlingDeserializer<>(new StringDeserializer()),
+        () ->
+            new ErrorHandlingDeserializer<>(
+                new EventDeserializer(
+                    new JsonDeserializer<>(CampaignTriggeredEvent.class, false))));
+  }
+
+  /**
+   * Receiver settings for {@code ReactiveCampaignTriggeredConsumer}, the reactive alternative to
+   * {@link #batchKafkaListenerContainerFactory}. Same group and deserializers as {@link
+   * #consumerFactory}; offsets are committed by the consumer after each batch.
+   */
+  @Bean
+  @ConditionalOnProperty(name = "email.batch.reactive", havingValue = "true")
+  public ReceiverOptions<String, Object> campaignTriggeredReceiverOptions() {
+    return ReceiverOptions.<String, Object>create(consumerProps())
+        .withKeyDeserializer(new ErrorHandlingDeserializer<>(new StringDeserializer()))
+        .withValueDeserializer(
+            new ErrorHandlingDeserializer<>(
+                new EventDeserializer(new JsonDeserializer<>(CampaignTriggeredEvent.class, false))))
+        .subscription(List.of(CAMPAIGN_TRIGGERED_TOPIC));
+  }
+
+  /**
+   * Consumer settings for {@code template-events}. Each instance reads with its own group id and
+   * only cares about changes from now on.
+   */
+  @Bean
+  public ConsumerFactory<String, Object> templateEventsConsumerFactory() {
+    Map<String, Object> props = consumerProps();
+    props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "latest");
 
     props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
     props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
@@ -65,13 +150,44 @@ public class KafkaConfig {
 
     props.put(JsonDeserializer.TRUSTED_PACKAGES, "com.mailflow.*");
 
-    props.put(JsonDeserializer.VALUE_DEFAULT_TYPE, CampaignTriggeredEvent.class.getName());
+    props.put(JsonDeserializer.VALUE_DEFAULT_TYPE, TemplateChangedEvent.class.getName());
 
     props.put(JsonDeserializer.USE_TYPE_INFO_HEADERS, false);
 
     return new DefaultKafkaConsumerFactory<>(props);
   }
 
+  /**
+   * Publishes {@code campaign-triggered} records that exhausted their retries to {@value
+   * #CAMPAIGN_TRIGGERED_DLT}, keeping their key so the producer spreads them like the original.
+   */
+  @Bean
+  public DeadLetterPublishingRecoverer campaignTriggeredDeadLetterRecoverer(
+      KafkaTemplate<String, Object> kafkaTemplate) {
+    return new DeadLetterPublishingRecoverer(
+        kafkaTemplate, (failed, e) -> new TopicPartition(CAMPAIGN_TRIGGERED_DLT, -1));
+  }
+
+  private Map<String, Object> consumerProps() {
+    Map<String, Object> props = new HashMap<>();
+    props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+    props.put(ConsumerConfig.GROUP_ID_CONFIG, "email-service-group");
+    props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+    props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
+    props.put(ConsumerConfig.MAX_POLL_INTERVAL_MS_CONFIG, (int) maxPollInterval.toMillis());
+    return props;
+  }
+
+  @Bean
+  public ConcurrentKafkaListenerContainerFactory<String, Object>
+      templateEventsKafkaListenerContainerFactory() {
+    ConcurrentKafkaListenerContainerFactory<String, Object> factory =
+        new ConcurrentKafkaListenerContainerFactory<>();
+    factory.setConsumerFactory(templateEventsConsumerFactory());
+
+    return factory;
+  }
+
   @Bean
   public ConcurrentKafkaListenerContainerFactory<String, Object> kafkaListenerContainerFactory() {
     ConcurrentKafkaListenerContainerFactory<String, Object> factory =
@@ -83,4 +199,33 @@ public class KafkaConfig {
 
     return factory;
   }
+
+  /**
+   * Hands {@code campaign-triggered} to the send pipeline one poll at a time, with one consumer
+   * thread per partition this instance owns. Offsets are committed once the listener returns, which
+   * is after every send of the batch has been recorded. A batch that fails is retried with backoff
+   * for up to {@code email.batch.max-retry-time}; retrying is safe because the pipeline skips
+   * contacts that already have their email. A batch that still fails is published record by record
+   * to {@value #CAMPAIGN_TRIGGERED_DLT} and committed, so one poison batch cannot stall its
+   * partitions.
+   */
+  @Bean
+  public ConcurrentKafkaListenerContainerFactory<String, Object>
+      batchKafkaListenerContainerFactory(
+          DeadLetterPublishingRecoverer campaignTriggeredDeadLetterRecoverer) {
+    ConcurrentKafkaListenerContainerFactory<String, Object> factory =
+        new ConcurrentKafkaListenerContainerFactory<>();
+    factory.setConsumerFactory(consumerFactory());
+    factory.setBatchListener(true);
+    factory.setConcurrency(concurrency);
+    factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.BATCH);
+
+    ExponentialBackOff backOff = new ExponentialBackOff(1000L, 2.0);
+    backOff.setMaxInterval(maxRetryInterval.toMillis());
+    backOff.setMaxElapsedTime(maxRetryTime.toMillis());
+    factory.setCommonErrorHandler(
+        new DefaultErrorHandler(campaignTriggeredDeadLetterRecoverer, backOff));
+
+    return factory;
+  }
 }
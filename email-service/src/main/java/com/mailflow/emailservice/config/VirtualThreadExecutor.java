@@ -0,0 +1,111 @@
+package com.mailflow.emailservice.config;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Runs every task on its own virtual thread, at most {@code maxConcurrency} at a time.
+ *
+ * <p>Tasks beyond the limit are not queued in the executor: their virtual thread is started and
+ * parks on a semaphore, which costs a few hundred bytes instead of a platform thread's stack. A
+ * blocked Feign or mail call unmounts its virtual thread, so in-flight calls are bounded by the
+ * semaphore rather than by a pool size.
+ *
+ * <p>The service is built for Java 17, so the Java 21 thread API is reached through reflection;
+ * {@link #isSupported()} tells whether the running JVM has it.
+ */
+class VirtualThreadExecutor extends AbstractExecutorService {
+
+  private final ExecutorService delegate;
+  private final Semaphore permits;
+
+  VirtualThreadExecutor(String name, int maxConcurrency) {
+    this.delegate = newThreadPerTaskExecutor(name);
+    this.permits = new Semaphore(maxConcurrency);
+  }
+
+  /** Whether the running JVM has final virtual threads, which arrived in Java 21. */
+  static boolean isSupported() {
+    return Runtime.version().feature() >= 21;
+  }
+
+  static Scheduler scheduler(String name, int maxConcurrency) {
+    return Schedulers.fromExecutorService(new VirtualThreadExecutor(name, maxConcurrency), name);
+  }
+
+  /**
+   * Equivalent of {@code Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name + "-",
+   * 0).factory())}.
+   */
+  private static ExecutorService newThreadPerTaskExecutor(String name) {
+    if (!isSupported()) {
+      throw new UnsupportedOperationException(
+          "Virtual threads need Java 21, running on " + Runtime.version());
+    }
+    try {
+      Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+      Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+      builder =
+          builderType
+              .getMethod("name", String.class, long.class)
+              .invoke(builder, name + "-", 0L);
+      ThreadFactory factory = (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+      return (ExecutorService)
+          Executors.class
+              .getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+              .invoke(null, factory);
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalStateException("Failed to create a virtual thread executor", e);
+    }
+  }
+
+  @Override
+  public void execute(Runnable task) {
+    delegate.execute(
+        () -> {
+          try {
+            permits.acquire();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+          }
+          try {
+            task.run();
+          } finally {
+            permits.release();
+          }
+        });
+  }
+
+  @Override
+  public void shutdown() {
+    delegate.shutdown();
+  }
+
+  @Override
+  public List<Runnable> shutdownNow() {
+    return delegate.shutdownNow();
+  }
+
+  @Override
+  public boolean isShutdown() {
+    return delegate.isShutdown();
+  }
+
+  @Override
+  public boolean isTerminated() {
+    return delegate.isTerminated();
+  }
+
+  @Override
+  public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+    return delegate.awaitTermination(timeout, unit);
+  }
+}
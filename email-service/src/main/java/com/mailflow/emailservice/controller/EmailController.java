@@ -1,13 +1,22 @@
 package com.mailflow.emailservice.controller;
 
+import com.mailflow.emailservice.analytics.LiveCampaignStats;
+import com.mailflow.emailservice.domain.EmailStatus;
+import com.mailflow.emailservice.dto.email.CampaignStatsDTO;
+import com.mailflow.emailservice.dto.email.EmailFilter;
 import com.mailflow.emailservice.dto.email.EmailResponse;
+import com.mailflow.emailservice.dto.email.EmailSummaryResponse;
 import com.mailflow.emailservice.service.EmailService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.LocalDateTime;
 import java.util.Map;
 
 @RestController
@@ -16,6 +25,37 @@ import java.util.Map;
 public class EmailController {
 
   private final EmailService emailService;
+  private final LiveCampaignStats liveCampaignStats;
+
+  @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+  public Flux<EmailSummaryResponse> listEmails(
+      @RequestParam(required = false) Long campaignId,
+      @RequestParam(required = false) Long contactId,
+      @RequestParam(required = false) EmailStatus status,
+      @RequestParam(required = false) String recipient,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+          LocalDateTime from,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+          LocalDateTime to,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+          LocalDateTime beforeCreatedAt,
+      @RequestParam(required = false) Long beforeId,
+      @RequestParam(defaultValue = "50") int size,
+      @RequestParam(defaultValue = "false") boolean includeContent) {
+    return emailService.listEmails(
+        EmailFilter.builder()
+            .campaignId(campaignId)
+            .contactId(contactId)
+            .status(status)
+            .recipientEmail(recipient)
+            .from(from)
+            .to(to)
+            .beforeCreatedAt(beforeCreatedAt)
+            .beforeId(beforeId)
+            .size(size)
+            .includeContent(includeContent)
+            .build());
+  }
 
   @GetMapping("/{id}")
   public Mono<EmailResponse> getEmail(@PathVariable Long id) {
@@ -35,10 +75,16 @@ public class EmailController {
   }
 
   @PostMapping("/retry")
-  public Flux<EmailResponse> retryFailedEmails(@RequestParam(defaultValue = "60") int minutes) {
+  public Mono<Long> retryFailedEmails(@RequestParam(defaultValue = "60") int minutes) {
     return emailService.retryFailedEmails(minutes);
   }
 
+  @GetMapping(value = "/campaign/{campaignId}/live", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public Flux<ServerSentEvent<CampaignStatsDTO>> streamCampaignStats(
+      @PathVariable Long campaignId) {
+    return liveCampaignStats.stream(campaignId);
+  }
+
   @GetMapping("/stats")
   public Mono<Map<String, Object>> getEmailStats() {
     return emailService.getEmailStatsSummary();
@@ -1,16 +1,14 @@
 package com.mailflow.emailservice.controller;
 
-import com.mailflow.emailservice.domain.EmailStatus;
-import com.mailflow.emailservice.dto.email.EmailStatusEvent;
-import com.mailflow.emailservice.kafka.KafkaEventPublisher;
-import com.mailflow.emailservice.repository.EmailRepository;
+import com.mailflow.emailservice.tracking.TrackingBuffer;
+import com.mailflow.emailservice.tracking.TrackingHit;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import reactor.core.publisher.Mono;
 
 import java.time.LocalDateTime;
 
@@ -20,8 +18,7 @@ import java.time.LocalDateTime;
 @Slf4j
 public class TrackingController {
 
-    private final EmailRepository emailRepository;
-    private final KafkaEventPublisher eventPublisher;
+    private final TrackingBuffer trackingBuffer;
 
     // 1x1 transparent GIF for tracking pixel
     private static final byte[] TRACKING_PIXEL = {
@@ -32,78 +29,26 @@ public class TrackingController {
     };
 
     @GetMapping(value = "/{trackingId}", produces = MediaType.IMAGE_GIF_VALUE)
-    public Mono<ResponseEntity<byte[]>> trackOpen(@PathVariable String trackingId) {
-        log.info("Tracking email open for ID: {}", trackingId);
-
-        return emailRepository.findByTrackingId(trackingId)
-                .flatMap(email -> {
-                    // Only update if not already opened or clicked
-                    if (email.getStatus() != EmailStatus.OPENED &&
-                            email.getStatus() != EmailStatus.CLICKED) {
-
-                        email.setStatus(EmailStatus.OPENED);
-                        email.setOpenedAt(LocalDateTime.now());
-
-                        return emailRepository.save(email)
-                                .doOnNext(updatedEmail -> {
-                                    // Publish email opened event
-                                    EmailStatusEvent event = EmailStatusEvent.builder()
-                                            .emailId(updatedEmail.getId())
-                                            .trackingId(trackingId)
-                                            .status(EmailStatus.OPENED.name())
-                                            .timestamp(LocalDateTime.now())
-                                            .build();
-
-                                    eventPublisher.publishEmailStatusEvent(event)
-                                            .subscribe(null,
-                                                    error -> log.error("Failed to publish email open event: {}",
-                                                            error.getMessage(), error));
-                                });
-                    }
-                    return Mono.just(email);
-                })
-                .map(email -> ResponseEntity.ok()
-                        .contentType(MediaType.IMAGE_GIF)
-                        .body(TRACKING_PIXEL))
-                .defaultIfEmpty(ResponseEntity.status(HttpStatus.NOT_FOUND)
-                        .contentType(MediaType.IMAGE_GIF)
-                        .body(TRACKING_PIXEL));
+    public ResponseEntity<byte[]> trackOpen(@PathVariable String trackingId) {
+        log.debug("Tracking email open for ID: {}", trackingId);
+        trackingBuffer.record(TrackingHit.open(trackingId, LocalDateTime.now()));
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.IMAGE_GIF)
+                .cacheControl(CacheControl.noStore())
+                .body(TRACKING_PIXEL);
     }
 
     @GetMapping("/click/{trackingId}")
-    public Mono<ResponseEntity<Object>> trackClick(
+    public ResponseEntity<Void> trackClick(
             @PathVariable String trackingId,
             @RequestParam String url) {
 
-        log.info("Tracking email click for ID: {}, URL: {}", trackingId, url);
-
-        return emailRepository.findByTrackingId(trackingId)
-                .flatMap(email -> {
-                    email.setStatus(EmailStatus.CLICKED);
-                    email.setClickedAt(LocalDateTime.now());
-
-                    return emailRepository.save(email)
-                            .doOnNext(updatedEmail -> {
-                                // Publish email clicked event
-                                EmailStatusEvent event = EmailStatusEvent.builder()
-                                        .emailId(updatedEmail.getId())
-                                        .trackingId(trackingId)
-                                        .status(EmailStatus.CLICKED.name())
-                                        .timestamp(LocalDateTime.now())
-                                        .metadata(url)
-                                        .build();
+        log.debug("Tracking email click for ID: {}, URL: {}", trackingId, url);
+        trackingBuffer.record(TrackingHit.click(trackingId, LocalDateTime.now(), url));
 
-                                eventPublisher.publishEmailStatusEvent(event)
-                                        .subscribe(null,
-                                                error -> log.error("Failed to publish email click event: {}",
-                                                        error.getMessage(), error));
-                            });
-                })
-                .map(email -> ResponseEntity.status(HttpStatus.FOUND)
-                        .header("Location", url)
-                        .build())
-                .defaultIfEmpty(ResponseEntity.status(HttpStatus.FOUND)
-                        .header("Location", url)
-                        .build());
+        return ResponseEntity.status(HttpStatus.FOUND)
+                .header("Location", url)
+                .build();
     }
-}
\ No newline at end of file
+}
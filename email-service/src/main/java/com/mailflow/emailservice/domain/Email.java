@@ -4,6 +4,7 @@ import lombok.*;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.annotation.Transient;
 import org.springframework.data.annotation.Version;
 import org.springframework.data.relational.core.mapping.Column;
 import org.springframework.data.relational.core.mapping.Table;
@@ -36,9 +37,18 @@ public class Email {
     @Column("subject")
     private String subject;
 
-    @Column("content")
+    /** SHA-256 of the rendered body stored in {@code email_bodies}. */
+    @Column("content_hash")
+    private String contentHash;
+
+    /** Rendered body; only populated while sending or when loaded explicitly for display. */
+    @Transient
     private String content;
 
+    /** Set when a send failed in a way that retrying cannot fix; never persisted. */
+    @Transient
+    private boolean permanentFailure;
+
     @Column("status")
     @Builder.Default
     private EmailStatus status = EmailStatus.PENDING;
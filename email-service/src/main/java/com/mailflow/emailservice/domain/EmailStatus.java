@@ -1,10 +1,21 @@
 package com.mailflow.emailservice.domain;
 
 public enum EmailStatus {
-    PENDING,
-    SENT,
-    DELIVERED,
-    OPENED,
-    CLICKED,
-    FAILED
-}
\ No newline at end of file
+    PENDING(0),
+    SENT(2),
+    DELIVERED(3),
+    OPENED(4),
+    CLICKED(5),
+    FAILED(1);
+
+    private final int rank;
+
+    EmailStatus(int rank) {
+        this.rank = rank;
+    }
+
+    /** Position along the delivery funnel, mirrored by the {@code email_status_rank} function. */
+    public int rank() {
+        return rank;
+    }
+}
@@ -0,0 +1,7 @@
+package com.mailflow.emailservice.dto.email;
+
+import lombok.Builder;
+
+@Builder
+public record CampaignStatsDTO(
+    Long campaignId, Long sent, Long opened, Long clicked, Long failed) {}
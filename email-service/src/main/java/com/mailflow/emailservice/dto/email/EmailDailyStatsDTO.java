@@ -0,0 +1,8 @@
+package com.mailflow.emailservice.dto.email;
+
+import java.time.LocalDate;
+import lombok.Builder;
+
+@Builder
+public record EmailDailyStatsDTO(
+    LocalDate day, Long sent, Long opened, Long clicked, Long failed) {}
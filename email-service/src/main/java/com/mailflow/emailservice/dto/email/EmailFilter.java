@@ -0,0 +1,22 @@
+package com.mailflow.emailservice.dto.email;
+
+import com.mailflow.emailservice.domain.EmailStatus;
+import java.time.LocalDateTime;
+import lombok.Builder;
+
+/**
+ * Criteria for listing emails, newest first. {@code beforeCreatedAt} and {@code beforeId} are the
+ * keyset cursor: the {@code createdAt} and {@code id} of the last email of the previous page.
+ */
+@Builder(toBuilder = true)
+public record EmailFilter(
+    Long campaignId,
+    Long contactId,
+    EmailStatus status,
+    String recipientEmail,
+    LocalDateTime from,
+    LocalDateTime to,
+    LocalDateTime beforeCreatedAt,
+    Long beforeId,
+    int size,
+    boolean includeContent) {}
@@ -0,0 +1,22 @@
+package com.mailflow.emailservice.dto.email;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.time.LocalDateTime;
+import lombok.Builder;
+
+/** Listing projection of an email; {@code content} is only loaded when explicitly requested. */
+@Builder
+public record EmailSummaryResponse(
+    Long id,
+    Long campaignId,
+    Long contactId,
+    String recipientEmail,
+    String subject,
+    String status,
+    String errorMessage,
+    String trackingId,
+    LocalDateTime sentAt,
+    LocalDateTime openedAt,
+    LocalDateTime clickedAt,
+    LocalDateTime createdAt,
+    @JsonInclude(JsonInclude.Include.NON_NULL) String content) {}
@@ -0,0 +1,9 @@
+package com.mailflow.emailservice.dto.template;
+
+import lombok.Builder;
+
+import java.time.LocalDateTime;
+
+@Builder
+public record TemplateChangedEvent(
+    Long templateId, Long version, String changeType, LocalDateTime timestamp) {}
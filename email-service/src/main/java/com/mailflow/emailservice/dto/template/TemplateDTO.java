@@ -6,4 +6,9 @@ import java.util.Map;
 
 @Builder
 public record TemplateDTO(
-    Long id, String name, String subject, String content, Map<String, String> variables) {}
+    Long id,
+    String name,
+    String subject,
+    String content,
+    Map<String, String> variables,
+    Long version) {}
@@ -35,6 +35,22 @@ public class GlobalExceptionHandler {
             .build());
   }
 
+  @ExceptionHandler(InvalidRequestException.class)
+  @ResponseStatus(HttpStatus.BAD_REQUEST)
+  public Mono<ErrorResponse> handleInvalidRequestException(
+      InvalidRequestException ex, ServerWebExchange exchange) {
+    log.error("Invalid request - Message: {}", ex.getMessage());
+
+    return Mono.just(
+        ErrorResponse.builder()
+            .timestamp(LocalDateTime.now())
+            .status(HttpStatus.BAD_REQUEST.value())
+            .error(HttpStatus.BAD_REQUEST.getReasonPhrase())
+            .message(ex.getMessage())
+            .path(exchange.getRequest().getPath().value())
+            .build());
+  }
+
   @ExceptionHandler(WebExchangeBindException.class)
   @ResponseStatus(HttpStatus.BAD_REQUEST)
   public Mono<ErrorResponse> handleValidationExceptions(
@@ -0,0 +1,8 @@
+package com.mailflow.emailservice.exception;
+
+/** A request whose parameters are inconsistent with each other; answered with 400. */
+public class InvalidRequestException extends RuntimeException {
+  public InvalidRequestException(String message) {
+    super(message);
+  }
+}
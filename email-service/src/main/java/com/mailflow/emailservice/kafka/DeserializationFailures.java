@@ -0,0 +1,28 @@
+package com.mailflow.emailservice.kafka;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.core.log.LogAccessor;
+import org.springframework.kafka.support.serializer.DeserializationException;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
+import org.springframework.kafka.support.serializer.SerializationUtils;
+
+/**
+ * Finds {@code campaign-triggered} records whose value the {@link ErrorHandlingDeserializer} could
+ * not read. They reach the batch consumers with a null value and the failure in a header, and have
+ * to be dead-lettered by hand since no exception is thrown for them.
+ */
+final class DeserializationFailures {
+
+  private static final LogAccessor LOGGER = new LogAccessor(DeserializationFailures.class);
+
+  private DeserializationFailures() {}
+
+  /** Returns why the record's value could not be read, or null if it was read. */
+  static DeserializationException of(ConsumerRecord<?, ?> record) {
+    if (record.value() != null) {
+      return null;
+    }
+    return SerializationUtils.getExceptionFromHeader(
+        record, SerializationUtils.VALUE_DESERIALIZER_EXCEPTION_HEADER, LOGGER);
+  }
+}
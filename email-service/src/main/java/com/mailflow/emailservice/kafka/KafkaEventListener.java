@@ -1,31 +1,82 @@
 package com.mailflow.emailservice.kafka;
 
-import com.mailflow.emailservice.dto.campaign.CampaignTriggeredEvent;
-import com.mailflow.emailservice.service.EmailService;
+import com.mailflow.emailservice.dto.template.TemplateChangedEvent;
+import com.mailflow.emailservice.service.CampaignBatchService;
+import com.mailflow.emailservice.template.TemplateCache;
+import com.mailflow.events.CampaignTriggeredEvent;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.support.serializer.DeserializationException;
 import org.springframework.stereotype.Component;
-import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
 
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class KafkaEventListener {
 
-  private final EmailService emailService;
+  private final CampaignBatchService campaignBatchService;
+  private final TemplateCache templateCache;
+  private final DeadLetterPublishingRecoverer campaignTriggeredDeadLetterRecoverer;
 
-  @KafkaListener(topics = "campaign-triggered", groupId = "email-service-group")
-  public void handleCampaignTriggeredEvent(CampaignTriggeredEvent event) {
-    log.info("Received campaign triggered event: {}", event);
+  /**
+   * Blocks the consumer thread until the whole batch has been sent, so the next poll only happens
+   * once the pipeline has capacity again. Records are keyed by contact, and each partition is read
+   * by a single thread, so one contact's triggers are never handled concurrently.
+   *
+   * <p>Records that could not be deserialized are published to the dead-letter topic once the rest
+   * of the batch has been sent, before the batch is committed. If the batch fails, the error
+   * handler dead-letters every record of it, those included.
+   */
+  @KafkaListener(
+      topics = "campaign-triggered",
+      groupId = "email-service-group",
+      containerFactory = "batchKafkaListenerContainerFactory",
+      // ReactiveCampaignTriggeredConsumer takes over with email.batch.reactive
+      autoStartup = "#{!${email.batch.reactive:false}}")
+  public void handleCampaignTriggeredEvents(List<ConsumerRecord<String, Object>> records) {
+    log.info("Received {} campaign triggered events", records.size());
 
-    Mono.fromRunnable(() -> emailService.processTriggeredCampaign(event))
-        .subscribeOn(Schedulers.boundedElastic())
-        .subscribe(
-            null,
-            error ->
-                log.error(
-                    "Error processing campaign triggered event: {}", error.getMessage(), error));
+    List<CampaignTriggeredEvent> events = new ArrayList<>(records.size());
+    Map<ConsumerRecord<String, Object>, DeserializationException> unreadable =
+        new LinkedHashMap<>();
+    for (ConsumerRecord<String, Object> record : records) {
+      DeserializationException failure = DeserializationFailures.of(record);
+      if (failure != null) {
+        unreadable.put(record, failure);
+      } else if (record.value() instanceof CampaignTriggeredEvent event) {
+        events.add(event);
+      }
+    }
+
+    campaignBatchService.sendBatch(events).block();
+
+    unreadable.forEach(
+        (record, failure) -> {
+          log.error(
+              "Unreadable campaign triggered record at {}-{}@{}, sending to dead letter topic: {}",
+              record.topic(),
+              record.partition(),
+              record.offset(),
+              failure.getMessage());
+          campaignTriggeredDeadLetterRecoverer.accept(record, failure);
+        });
+  }
+
+  /** Every instance keeps its own template cache, so each one consumes with a unique group id. */
+  @KafkaListener(
+      topics = "template-events",
+      groupId = "email-service-templates-${random.uuid}",
+      containerFactory = "templateEventsKafkaListenerContainerFactory")
+  public void handleTemplateChangedEvent(TemplateChangedEvent event) {
+    log.info("Received template changed event: {}", event);
+
+    templateCache.onTemplateChanged(event);
   }
 }
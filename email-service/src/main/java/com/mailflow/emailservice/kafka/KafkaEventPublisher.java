@@ -1,13 +1,21 @@
 package com.mailflow.emailservice.kafka;
 
-import com.mailflow.emailservice.dto.email.EmailSentEvent;
-import com.mailflow.emailservice.dto.email.EmailStatusEvent;
+import com.mailflow.emailservice.outbox.OutboxRelay;
+import com.mailflow.emailservice.outbox.OutboxRepository;
+import com.mailflow.events.EmailSentEvent;
+import com.mailflow.events.EmailStatusEvent;
+import com.mailflow.outbox.OutboxMessage;
+import java.util.List;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Mono;
 
+/**
+ * Records email events in the outbox; {@link OutboxRelay} publishes them to {@code email-events}.
+ * Each method completes once its events are written, inside the caller's transaction if there is
+ * one, so events are neither lost nor published for changes that are rolled back.
+ */
 @Component
 @RequiredArgsConstructor
 @Slf4j
@@ -15,23 +23,39 @@ public class KafkaEventPublisher {
 
   private static final String EMAIL_EVENTS_TOPIC = "email-events";
 
-  private final KafkaTemplate<String, Object> kafkaTemplate;
+  private final OutboxRepository outboxRepository;
 
   public Mono<Void> publishEmailSentEvent(EmailSentEvent event) {
-    return Mono.fromCallable(
-            () -> {
-              log.info("Publishing email sent event: {}", event);
-              return kafkaTemplate.send(EMAIL_EVENTS_TOPIC, "email-sent", event);
-            })
-        .then();
+    log.info("Publishing email sent event: {}", event);
+    return publishEmailSentEvents(List.of(event));
+  }
+
+  /** Writes all events with a single statement. */
+  public Mono<Void> publishEmailSentEvents(List<EmailSentEvent> events) {
+    if (events.isEmpty()) {
+      return Mono.empty();
+    }
+    log.debug("Publishing {} email sent events", events.size());
+    return outboxRepository.appendAll(
+        events.stream()
+            .map(event -> new OutboxMessage(EMAIL_EVENTS_TOPIC, "email-sent", event))
+            .toList());
   }
 
   public Mono<Void> publishEmailStatusEvent(EmailStatusEvent event) {
-    return Mono.fromCallable(
-            () -> {
-              log.info("Publishing email status event: {}", event);
-              return kafkaTemplate.send(EMAIL_EVENTS_TOPIC, "email-status", event);
-            })
-        .then();
+    log.info("Publishing email status event: {}", event);
+    return publishEmailStatusEvents(List.of(event));
+  }
+
+  /** Batch counterpart of {@link #publishEmailStatusEvent}, used by tracking ingestion. */
+  public Mono<Void> publishEmailStatusEvents(List<EmailStatusEvent> events) {
+    if (events.isEmpty()) {
+      return Mono.empty();
+    }
+    log.debug("Publishing {} email status events", events.size());
+    return outboxRepository.appendAll(
+        events.stream()
+            .map(event -> new OutboxMessage(EMAIL_EVENTS_TOPIC, "email-status", event))
+            .toList());
   }
 }
@@ -0,0 +1,270 @@
+package com.mailflow.emailservice.kafka;
+
+import com.mailflow.emailservice.service.CampaignBatchService;
+import com.mailflow.events.CampaignTriggeredEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.support.serializer.DeserializationException;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.kafka.receiver.KafkaReceiver;
+import reactor.kafka.receiver.ReceiverOptions;
+import reactor.kafka.receiver.ReceiverRecord;
+import reactor.util.retry.Retry;
+
+/**
+ * Reactive alternative to the {@code campaign-triggered} listener in {@link KafkaEventListener},
+ * enabled with {@code email.batch.reactive}.
+ *
+ * <p>Runs {@code email.batch.concurrency} receivers in the consumer group. Each one asks for a
+ * single poll at a time and hands it to {@link CampaignBatchService#sendBatch}; the next poll is
+ * only requested once every email of the batch is SENT or FAILED in the database and the batch's
+ * offsets are committed. While a batch is in flight the receiver has no demand, so it pauses its
+ * partitions and keeps polling without fetching, which keeps it in the group however long a slow
+ * SMTP server or database holds the batch up, and resumes them when the batch is done. An instance
+ * therefore holds at most two polls of {@code email.batch.max-poll-records} per receiver, the one
+ * being sent and the next one.
+ *
+ * <p>A batch that fails is retried with backoff for up to {@code email.batch.max-retry-time}, like
+ * the listener's, then published record by record to {@code campaign-triggered.DLT} and committed.
+ * Records that could not be deserialized are published there too, once the rest of their batch has
+ * been sent. A receiver that fails is recreated, so triggers are delivered at least once. Stopping
+ * lets the batches in flight finish and commit before the receivers are closed; polls that arrive
+ * meanwhile are left uncommitted and delivered again after the rebalance.
+ */
+@Component
+@ConditionalOnProperty(name = "email.batch.reactive", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class ReactiveCampaignTriggeredConsumer implements SmartLifecycle {
+
+  @Value("${email.batch.concurrency:6}")
+  private int concurrency;
+
+  @Value("${email.batch.max-retry-interval:1m}")
+  private Duration maxRetryInterval;
+
+  @Value("${email.batch.max-retry-time:15m}")
+  private Duration maxRetryTime;
+
+  private final ReceiverOptions<String, Object> campaignTriggeredReceiverOptions;
+  private final CampaignBatchService campaignBatchService;
+  private final DeadLetterPublishingRecoverer campaignTriggeredDeadLetterRecoverer;
+  private final MeterRegistry meterRegistry;
+
+  private volatile Disposable subscription;
+
+  // Guarded by this
+  private boolean stopping;
+  private int inFlight;
+  private Runnable onStopped;
+
+  @Override
+  public synchronized void start() {
+    stopping = false;
+    onStopped = null;
+    subscription =
+        Flux.range(0, concurrency)
+            .flatMap(receiver -> receive(), concurrency)
+            .subscribe(null, e -> log.error("Campaign triggered consumer stopped", e));
+  }
+
+  /**
+   * Stops taking new batches, waits for the ones in flight to be sent and committed, then closes
+   * the receivers and runs {@code callback}.
+   */
+  @Override
+  public void stop(Runnable callback) {
+    synchronized (this) {
+      if (subscription == null) {
+        callback.run();
+        return;
+      }
+      stopping = true;
+      onStopped = callback;
+      log.info("Stopping campaign triggered consumer, {} batches in flight", inFlight);
+    }
+    stopIfIdle();
+  }
+
+  /** Closes the receivers right away; uncommitted batches are delivered again. */
+  @Override
+  public synchronized void stop() {
+    Disposable current = subscription;
+    if (current != null) {
+      current.dispose();
+      subscription = null;
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    return subscription != null;
+  }
+
+  KafkaReceiver<String, Object> createReceiver() {
+    return KafkaReceiver.create(campaignTriggeredReceiverOptions);
+  }
+
+  private Flux<Void> receive() {
+    return Flux.defer(() -> createReceiver().receiveBatch())
+        .concatMap(batch -> batch.collectList().flatMap(this::processUnlessStopping), 1)
+        .retryWhen(
+            Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1))
+                .maxBackoff(maxRetryInterval)
+                .doBeforeRetry(
+                    signal ->
+                        log.warn(
+                            "Campaign triggered receiver failed, reconnecting: {}",
+                            signal.failure().getMessage())));
+  }
+
+  private Mono<Void> processUnlessStopping(List<ReceiverRecord<String, Object>> records) {
+    synchronized (this) {
+      if (stopping) {
+        return Mono.empty();
+      }
+      inFlight++;
+    }
+    return process(records).doFinally(signal -> batchDone());
+  }
+
+  private void batchDone() {
+    synchronized (this) {
+      inFlight--;
+    }
+    stopIfIdle();
+  }
+
+  private void stopIfIdle() {
+    Runnable callback;
+    synchronized (this) {
+      if (!stopping || inFlight > 0 || onStopped == null) {
+        return;
+      }
+      callback = onStopped;
+      onStopped = null;
+    }
+    stop();
+    log.info("Campaign triggered consumer stopped");
+    callback.run();
+  }
+
+  private Mono<Void> process(List<ReceiverRecord<String, Object>> records) {
+    if (records.isEmpty()) {
+      return Mono.empty();
+    }
+    List<CampaignTriggeredEvent> events = new ArrayList<>(records.size());
+    Map<ReceiverRecord<String, Object>, DeserializationException> unreadable =
+        new LinkedHashMap<>();
+    for (ReceiverRecord<String, Object> record : records) {
+      DeserializationException failure = DeserializationFailures.of(record);
+      if (failure != null) {
+        unreadable.put(record, failure);
+      } else if (record.value() instanceof CampaignTriggeredEvent event) {
+        events.add(event);
+      }
+    }
+    log.info("Received {} campaign triggered events", records.size());
+
+    Timer.Sample sample = Timer.start(meterRegistry);
+    long deadline = System.nanoTime() + maxRetryTime.toNanos();
+    return campaignBatchService
+        .sendBatch(events)
+        .retryWhen(
+            Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1))
+                .maxBackoff(maxRetryInterval)
+                .filter(e -> System.nanoTime() < deadline)
+                .doBeforeRetry(
+                    signal ->
+                        log.warn(
+                            "Batch of {} campaign triggered events failed, retrying: {}",
+                            events.size(),
+                            signal.failure().getMessage())))
+        .thenReturn(unreadable)
+        // A batch dead-lettered whole has no unreadable records left to publish
+        .onErrorResume(e -> deadLetter(records, e).then(Mono.empty()))
+        .flatMap(this::deadLetterUnreadable)
+        .then(Mono.defer(() -> commit(records)))
+        .doOnSuccess(
+            done -> {
+              sample.stop(meterRegistry.timer("mailflow.consumer.batch", "mode", "reactive"));
+              meterRegistry
+                  .counter("mailflow.consumer.records", "mode", "reactive")
+                  .increment(records.size());
+            });
+  }
+
+  /** Publishes a batch that kept failing to the dead-letter topic, blocking on a worker. */
+  private Mono<Void> deadLetter(List<ReceiverRecord<String, Object>> records, Throwable failure) {
+    log.error(
+        "Batch of {} campaign triggered events still failing, sending to dead letter topic: {}",
+        records.size(),
+        failure.getMessage());
+    Exception exception =
+        failure instanceof Exception e
+            ? e
+            : new IllegalStateException(failure.getMessage(), failure);
+    return Mono.<Void>fromRunnable(
+            () ->
+                records.forEach(
+                    record -> campaignTriggeredDeadLetterRecoverer.accept(record, exception)))
+        .subscribeOn(Schedulers.boundedElastic())
+        .doOnSuccess(
+            done ->
+                meterRegistry
+                    .counter("mailflow.consumer.dead-lettered", "mode", "reactive")
+                    .increment(records.size()));
+  }
+
+  /**
+   * Publishes the records the {@link DeserializationFailures deserializer could not read} to the
+   * dead-letter topic, blocking on a worker. They never reach the pipeline, so they are only
+   * dead-lettered this way once the rest of their batch has been sent.
+   */
+  private Mono<Void> deadLetterUnreadable(
+      Map<ReceiverRecord<String, Object>, DeserializationException> unreadable) {
+    if (unreadable.isEmpty()) {
+      return Mono.empty();
+    }
+    return Mono.<Void>fromRunnable(
+            () ->
+                unreadable.forEach(
+                    (record, failure) -> {
+                      log.error(
+                          "Unreadable campaign triggered record at {}-{}@{}, sending to dead"
+                              + " letter topic: {}",
+                          record.topic(),
+                          record.partition(),
+                          record.offset(),
+                          failure.getMessage());
+                      campaignTriggeredDeadLetterRecoverer.accept(record, failure);
+                    }))
+        .subscribeOn(Schedulers.boundedElastic())
+        .doOnSuccess(
+            done ->
+                meterRegistry
+                    .counter("mailflow.consumer.dead-lettered", "mode", "reactive")
+                    .increment(unreadable.size()));
+  }
+
+  /** Commits the whole batch; committing the last offset also commits every acknowledged one. */
+  private Mono<Void> commit(List<ReceiverRecord<String, Object>> records) {
+    records.forEach(record -> record.receiverOffset().acknowledge());
+    return records.get(records.size() - 1).receiverOffset().commit();
+  }
+}
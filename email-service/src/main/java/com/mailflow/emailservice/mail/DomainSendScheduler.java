@@ -0,0 +1,466 @@
+package com.mailflow.emailservice.mail;
+
+import com.mailflow.emailservice.mail.DomainThrottleSettings.DomainLimit;
+import com.mailflow.emailservice.retry.SendFailures;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.mail.Address;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeMessage;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Sends messages through the {@link JavaMailSender} within per-recipient-domain limits.
+ *
+ * <p>Messages are split by recipient domain and queued per domain. Each domain has a token bucket
+ * refilled at its rate, one token per message and never more than its burst, and a cap on
+ * concurrent sends; on top of that at most {@link DomainThrottleSettings#maxInFlight()} sends run
+ * at once. A domain's share is sent in pieces of at most the tokens its bucket holds, so no more
+ * than its burst goes out at once. Domains with queued work take turns, one piece each, so a large
+ * domain cannot starve the others.
+ *
+ * <p>Rates adapt to deferrals: when a domain answers a send with a 4xx reply, its rate is cut by
+ * {@link DomainThrottleSettings#rateDecrease()} and it is paused, twice as long on each further
+ * deferral. Every clean send adds back a share of the configured rate. Metrics are tagged with the
+ * domains that have configured limits; all others are reported as {@code other}.
+ */
+@Slf4j
+public class DomainSendScheduler implements MeterBinder, AutoCloseable {
+
+  private static final String OTHER_DOMAINS = "other";
+
+  private final DomainThrottleSettings settings;
+  private final JavaMailSender mailSender;
+  private final Scheduler sendScheduler;
+  private final Scheduler timer;
+  private final LongSupplier clock;
+  private final Disposable evictor;
+
+  // Guarded by this; a domain is in ready exactly when it has queued jobs
+  private final Map<String, DomainState> domains = new HashMap<>();
+  private final ArrayDeque<DomainState> ready = new ArrayDeque<>();
+  private int inFlight;
+  private Disposable wakeUp;
+  private long wakeUpAt;
+
+  private volatile MeterRegistry registry;
+
+  public DomainSendScheduler(
+      DomainThrottleSettings settings, JavaMailSender mailSender, Scheduler sendScheduler) {
+    this(settings, mailSender, sendScheduler, Schedulers.parallel(), System::nanoTime);
+  }
+
+  /**
+   * @param timer runs wake-ups and idle eviction
+   * @param clock nanosecond time source the limits are measured against
+   */
+  DomainSendScheduler(
+      DomainThrottleSettings settings,
+      JavaMailSender mailSender,
+      Scheduler sendScheduler,
+      Scheduler timer,
+      LongSupplier clock) {
+    this.settings = settings;
+    this.mailSender = mailSender;
+    this.sendScheduler = sendScheduler;
+    this.timer = timer;
+    this.clock = clock;
+    long interval = settings.idleTimeout().toMillis();
+    this.evictor =
+        timer.schedulePeriodically(this::evictIdle, interval, interval, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Sends the messages once their domains allow it.
+   *
+   * @return the messages that could not be sent, with the reason
+   */
+  public Mono<Map<MimeMessage, Exception>> send(List<MimeMessage> messages) {
+    if (messages.isEmpty()) {
+      return Mono.just(Map.of());
+    }
+    Map<String, List<MimeMessage>> byDomain = new LinkedHashMap<>();
+    for (MimeMessage message : messages) {
+      byDomain.computeIfAbsent(domainOf(message), domain -> new ArrayList<>()).add(message);
+    }
+    return Flux.fromIterable(byDomain.entrySet())
+        .flatMap(domain -> submit(domain.getKey(), domain.getValue()))
+        .<Map<MimeMessage, Exception>>collect(LinkedHashMap::new, Map::putAll);
+  }
+
+  /** Sends one message, failing with the reason if it could not be sent. */
+  public Mono<Void> send(MimeMessage message) {
+    return send(List.of(message))
+        .flatMap(
+            failures ->
+                failures.containsKey(message)
+                    ? Mono.<Void>error(failures.get(message))
+                    : Mono.<Void>empty());
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    TreeSet<String> tags = new TreeSet<>(settings.limits().keySet());
+    tags.add(OTHER_DOMAINS);
+    for (String tag : tags) {
+      Gauge.builder("mailflow.smtp.domain.queued", this, s -> s.queuedMessages(tag))
+          .description("Messages waiting for their recipient domain's limits")
+          .tag("domain", tag)
+          .register(registry);
+      Gauge.builder("mailflow.smtp.domain.in-flight", this, s -> s.inFlightSends(tag))
+          .tag("domain", tag)
+          .register(registry);
+    }
+    for (String domain : settings.limits().keySet()) {
+      Gauge.builder("mailflow.smtp.domain.rate", this, s -> s.currentRate(domain))
+          .description("Current adaptive send rate, messages per second")
+          .tag("domain", domain)
+          .register(registry);
+    }
+    Gauge.builder("mailflow.smtp.domain.tracked", this, DomainSendScheduler::trackedDomains)
+        .register(registry);
+    this.registry = registry;
+  }
+
+  @Override
+  public void close() {
+    evictor.dispose();
+    synchronized (this) {
+      if (wakeUp != null) {
+        wakeUp.dispose();
+      }
+    }
+  }
+
+  private Mono<Map<MimeMessage, Exception>> submit(String domain, List<MimeMessage> messages) {
+    return Mono.<Map<MimeMessage, Exception>>create(
+        sink -> {
+          Job job = new Job(messages, sink);
+          synchronized (this) {
+            DomainState state = domains.computeIfAbsent(domain, DomainState::new);
+            if (state.queue.isEmpty()) {
+              ready.addLast(state);
+            }
+            state.queue.addLast(job);
+            state.queued += messages.size();
+          }
+          sink.onCancel(() -> cancel(domain, job));
+          dispatch();
+        });
+  }
+
+  private synchronized void cancel(String domain, Job job) {
+    DomainState state = domains.get(domain);
+    if (state != null && state.queue.remove(job)) {
+      state.queued -= job.remaining();
+      if (state.queue.isEmpty()) {
+        ready.remove(state);
+      }
+    }
+  }
+
+  /** Starts every job the limits allow right now and arranges a wake-up for the rest. */
+  private void dispatch() {
+    List<Runnable> starts = new ArrayList<>();
+    synchronized (this) {
+      long now = clock.getAsLong();
+      long nextWait = Long.MAX_VALUE;
+      boolean progress = true;
+      while (progress && inFlight < settings.maxInFlight() && !ready.isEmpty()) {
+        progress = false;
+        nextWait = Long.MAX_VALUE;
+        for (int i = ready.size(); i > 0 && inFlight < settings.maxInFlight(); i--) {
+          DomainState state = ready.pollFirst();
+          long wait = state.waitNanos(now);
+          if (wait == 0) {
+            Job job = state.queue.peekFirst();
+            List<MimeMessage> piece = state.take(job, now);
+            inFlight++;
+            starts.add(() -> run(state, job, piece));
+            progress = true;
+          } else if (wait > 0) {
+            nextWait = Math.min(nextWait, wait);
+          }
+          if (!state.queue.isEmpty()) {
+            ready.addLast(state);
+          }
+        }
+      }
+
+      // Concurrency-bound domains are picked up again when a send completes
+      if (nextWait != Long.MAX_VALUE
+          && inFlight < settings.maxInFlight()
+          && (wakeUp == null || now + nextWait < wakeUpAt)) {
+        if (wakeUp != null) {
+          wakeUp.dispose();
+        }
+        wakeUpAt = now + nextWait;
+        wakeUp = timer.schedule(this::wake, nextWait, TimeUnit.NANOSECONDS);
+      }
+    }
+    starts.forEach(Runnable::run);
+  }
+
+  private void wake() {
+    synchronized (this) {
+      wakeUp = null;
+    }
+    dispatch();
+  }
+
+  private void run(DomainState state, Job job, List<MimeMessage> piece) {
+    Mono.fromCallable(() -> deliver(piece))
+        .subscribeOn(sendScheduler)
+        .subscribe(
+            failures -> complete(state, job, piece, failures),
+            error -> complete(state, job, piece, allFailed(piece, error)));
+  }
+
+  private Map<MimeMessage, Exception> deliver(List<MimeMessage> messages) {
+    try {
+      mailSender.send(messages.toArray(MimeMessage[]::new));
+      return Map.of();
+    } catch (MailSendException e) {
+      Map<MimeMessage, Exception> failures = new LinkedHashMap<>();
+      e.getFailedMessages()
+          .forEach(
+              (message, error) -> {
+                if (message instanceof MimeMessage mimeMessage) {
+                  failures.put(mimeMessage, error);
+                }
+              });
+      return failures.isEmpty() ? allFailed(messages, e) : failures;
+    } catch (MailException e) {
+      return allFailed(messages, e);
+    }
+  }
+
+  private void complete(
+      DomainState state, Job job, List<MimeMessage> piece, Map<MimeMessage, Exception> failures) {
+    long deferred = failures.values().stream().filter(SendFailures::isDeferral).count();
+    long failed = failures.size() - deferred;
+    long sent = piece.size() - failures.size();
+
+    boolean done;
+    synchronized (this) {
+      state.inFlight--;
+      inFlight--;
+      job.failures.putAll(failures);
+      job.running--;
+      done = job.isDone();
+      if (deferred > 0) {
+        state.deferred(clock.getAsLong());
+        log.warn(
+            "Domain {} deferred {} messages, slowing to {}/s and pausing {} ms",
+            state.name,
+            deferred,
+            String.format(Locale.ROOT, "%.2f", state.rate),
+            TimeUnit.NANOSECONDS.toMillis(state.pauseNanos));
+      } else if (sent > 0) {
+        state.succeeded();
+      }
+    }
+
+    count(state, "sent", sent);
+    count(state, "deferred", deferred);
+    count(state, "failed", failed);
+    if (done) {
+      job.sink.success(job.failures);
+    }
+    dispatch();
+  }
+
+  private void count(DomainState state, String outcome, long amount) {
+    MeterRegistry meters = registry;
+    if (meters != null && amount > 0) {
+      meters
+          .counter("mailflow.smtp.domain.messages", "domain", state.tag, "outcome", outcome)
+          .increment(amount);
+    }
+  }
+
+  private synchronized void evictIdle() {
+    long now = clock.getAsLong();
+    domains.values().removeIf(state -> state.isIdle(now));
+  }
+
+  private synchronized double queuedMessages(String tag) {
+    return domains.values().stream()
+        .filter(state -> state.tag.equals(tag))
+        .mapToInt(state -> state.queued)
+        .sum();
+  }
+
+  private synchronized double inFlightSends(String tag) {
+    return domains.values().stream()
+        .filter(state -> state.tag.equals(tag))
+        .mapToInt(state -> state.inFlight)
+        .sum();
+  }
+
+  private synchronized double currentRate(String domain) {
+    DomainState state = domains.get(domain);
+    return state != null ? state.rate : settings.limit(domain).rate();
+  }
+
+  private synchronized double trackedDomains() {
+    return domains.size();
+  }
+
+  private static Map<MimeMessage, Exception> allFailed(
+      List<MimeMessage> messages, Throwable error) {
+    Exception exception =
+        error instanceof Exception e ? e : new MailSendException(error.getMessage(), error);
+    Map<MimeMessage, Exception> failures = new LinkedHashMap<>();
+    messages.forEach(message -> failures.put(message, exception));
+    return failures;
+  }
+
+  static String domainOf(MimeMessage message) {
+    try {
+      Address[] recipients = message.getAllRecipients();
+      if (recipients != null && recipients.length > 0
+          && recipients[0] instanceof InternetAddress address
+          && address.getAddress() != null) {
+        String email = address.getAddress();
+        return email.substring(email.lastIndexOf('@') + 1).toLowerCase(Locale.ROOT);
+      }
+    } catch (MessagingException e) {
+      log.debug("Cannot read recipients: {}", e.getMessage());
+    }
+    return "";
+  }
+
+  /**
+   * Messages of one domain from one {@link #send(List)} call, handed out in pieces; guarded by the
+   * enclosing scheduler.
+   */
+  private static final class Job {
+
+    private final List<MimeMessage> messages;
+    private final MonoSink<Map<MimeMessage, Exception>> sink;
+    private final Map<MimeMessage, Exception> failures = new LinkedHashMap<>();
+    private int taken;
+    private int running;
+
+    private Job(List<MimeMessage> messages, MonoSink<Map<MimeMessage, Exception>> sink) {
+      this.messages = messages;
+      this.sink = sink;
+    }
+
+    int remaining() {
+      return messages.size() - taken;
+    }
+
+    /** Every piece was handed out and has completed. */
+    boolean isDone() {
+      return remaining() == 0 && running == 0;
+    }
+  }
+
+  /** Throttling state of one recipient domain; guarded by the enclosing scheduler. */
+  private final class DomainState {
+
+    private final String name;
+    private final String tag;
+    private final DomainLimit limit;
+    private final ArrayDeque<Job> queue = new ArrayDeque<>();
+    private int queued;
+    private int inFlight;
+    private double rate;
+    private double tokens;
+    private long refilledAt;
+    private long pausedUntil;
+    private long pauseNanos;
+    private long lastActive;
+
+    private DomainState(String name) {
+      this.name = name;
+      this.tag = settings.limits().containsKey(name) ? name : OTHER_DOMAINS;
+      this.limit = settings.limit(name);
+      this.rate = limit.rate();
+      this.tokens = limit.burst();
+      this.refilledAt = clock.getAsLong();
+      this.lastActive = refilledAt;
+    }
+
+    /** Nanoseconds until the next job may start, 0 for now, -1 while at the concurrency cap. */
+    long waitNanos(long now) {
+      if (inFlight >= limit.concurrency()) {
+        return -1;
+      }
+      if (now < pausedUntil) {
+        return pausedUntil - now;
+      }
+      tokens = Math.min(limit.burst(), tokens + (now - refilledAt) * rate / 1e9);
+      refilledAt = now;
+      if (tokens >= 1) {
+        return 0;
+      }
+      return Math.max(1, (long) Math.ceil((1 - tokens) / rate * 1e9));
+    }
+
+    /**
+     * Hands out the next piece of the job at the head of the queue, as many messages as there are
+     * whole tokens, and dequeues the job once all of it is handed out.
+     */
+    List<MimeMessage> take(Job job, long now) {
+      int size = Math.min(job.remaining(), (int) tokens);
+      List<MimeMessage> piece = List.copyOf(job.messages.subList(job.taken, job.taken + size));
+      job.taken += size;
+      job.running++;
+      if (job.remaining() == 0) {
+        queue.pollFirst();
+      }
+      tokens -= size;
+      queued -= size;
+      inFlight++;
+      lastActive = now;
+      return piece;
+    }
+
+    void deferred(long now) {
+      rate = Math.max(settings.minRate(), rate * settings.rateDecrease());
+      long initial = settings.deferralPause().toNanos();
+      pauseNanos =
+          pauseNanos == 0
+              ? initial
+              : Math.min(settings.maxDeferralPause().toNanos(), pauseNanos * 2);
+      pausedUntil = now + pauseNanos;
+      lastActive = now;
+    }
+
+    void succeeded() {
+      rate = Math.min(limit.rate(), rate + limit.rate() * settings.rateIncrease());
+      pauseNanos = 0;
+    }
+
+    boolean isIdle(long now) {
+      return queue.isEmpty()
+          && inFlight == 0
+          && rate >= limit.rate()
+          && now - lastActive > settings.idleTimeout().toNanos();
+    }
+  }
+}
@@ -0,0 +1,70 @@
+package com.mailflow.emailservice.mail;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import lombok.Builder;
+
+/**
+ * Tuning knobs for {@link DomainSendScheduler}.
+ *
+ * @param maxInFlight sends in progress across all domains, usually the SMTP pool size
+ * @param defaults limits of domains without an entry in {@code limits}
+ * @param limits limits per recipient domain, keyed by lower-case domain name
+ * @param minRate floor the adaptive rate of a deferring domain never drops below, per second
+ * @param rateIncrease share of the configured rate added back after each clean send
+ * @param rateDecrease factor the rate is multiplied by when a send is deferred
+ * @param deferralPause pause after the first deferral, doubled on each further one
+ * @param maxDeferralPause upper bound on that pause
+ * @param idleTimeout idle time after which a fully recovered domain's state is discarded
+ */
+@Builder
+public record DomainThrottleSettings(
+    int maxInFlight,
+    DomainLimit defaults,
+    Map<String, DomainLimit> limits,
+    double minRate,
+    double rateIncrease,
+    double rateDecrease,
+    Duration deferralPause,
+    Duration maxDeferralPause,
+    Duration idleTimeout) {
+
+  /**
+   * @param rate messages per second
+   * @param burst messages that may go out at once after an idle period
+   * @param concurrency sends to the domain in progress at the same time
+   */
+  public record DomainLimit(double rate, int burst, int concurrency) {}
+
+  public DomainLimit limit(String domain) {
+    return limits.getOrDefault(domain, defaults);
+  }
+
+  /**
+   * Parses comma-separated {@code domain=rate/burst/concurrency} entries, for example {@code
+   * gmail.com=50/100/4,yahoo.com=20/40/2}.
+   */
+  public static Map<String, DomainLimit> parseLimits(String value) {
+    Map<String, DomainLimit> limits = new LinkedHashMap<>();
+    for (String entry : value.split(",")) {
+      if (entry.isBlank()) {
+        continue;
+      }
+      String[] domainAndLimit = entry.trim().split("=", 2);
+      String[] parts = domainAndLimit.length == 2 ? domainAndLimit[1].split("/") : new String[0];
+      if (parts.length != 3) {
+        throw new IllegalArgumentException(
+            "Invalid domain limit '" + entry.trim() + "', expected domain=rate/burst/concurrency");
+      }
+      limits.put(
+          domainAndLimit[0].trim().toLowerCase(Locale.ROOT),
+          new DomainLimit(
+              Double.parseDouble(parts[0].trim()),
+              Integer.parseInt(parts[1].trim()),
+              Integer.parseInt(parts[2].trim())));
+    }
+    return limits;
+  }
+}
@@ -0,0 +1,50 @@
+package com.mailflow.emailservice.mail;
+
+import com.mailflow.emailservice.domain.Email;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.stereotype.Component;
+
+/**
+ * Builds the MIME message for an {@link Email} row. The tracking pixel is added here rather than
+ * stored, so bodies in {@code email_bodies} stay identical across recipients of the same content.
+ */
+@Component
+@RequiredArgsConstructor
+public class EmailMessageFactory {
+
+  @Value("${base.url}")
+  private String baseUrl;
+
+  private final JavaMailSender mailSender;
+
+  public MimeMessage createMessage(Email email) throws MessagingException {
+    MimeMessage message = mailSender.createMimeMessage();
+    MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+
+    helper.setTo(email.getRecipientEmail());
+    helper.setSubject(email.getSubject());
+    helper.setText(addTrackingPixel(email.getContent(), email.getTrackingId()), true);
+
+    return message;
+  }
+
+  public String addTrackingPixel(String content, String trackingId) {
+    if (trackingId == null) {
+      return content;
+    }
+    String trackingPixel =
+        "<img src=\"" + baseUrl + "/t/" + trackingId + "\" width=\"1\" height=\"1\" alt=\"\" />";
+
+    // Add tracking pixel before the closing body tag
+    if (content.contains("</body>")) {
+      return content.replace("</body>", trackingPixel + "</body>");
+    } else {
+      return content + trackingPixel;
+    }
+  }
+}
@@ -0,0 +1,115 @@
+package com.mailflow.emailservice.mail;
+
+import jakarta.mail.Address;
+import jakarta.mail.AuthenticationFailedException;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.lang.Nullable;
+import org.springframework.mail.MailAuthenticationException;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+/**
+ * {@link JavaMailSenderImpl} that sends over connections borrowed from a {@link
+ * SmtpTransportPool} instead of opening, authenticating and closing a connection for every call.
+ *
+ * <p>All messages passed to one {@code send(MimeMessage...)} call go out back-to-back over the
+ * same session, rotating to a fresh connection when the current one reaches its message limit or
+ * breaks.
+ */
+public class PooledJavaMailSender extends JavaMailSenderImpl implements DisposableBean {
+
+  private final SmtpTransportPool transportPool;
+
+  public PooledJavaMailSender(SmtpPoolSettings settings) {
+    this.transportPool = new SmtpTransportPool(settings, this::connectTransport);
+  }
+
+  public SmtpTransportPool getTransportPool() {
+    return transportPool;
+  }
+
+  @Override
+  protected void doSend(MimeMessage[] mimeMessages, @Nullable Object[] originalMessages)
+      throws MailException {
+    Map<Object, Exception> failedMessages = new LinkedHashMap<>();
+
+    PooledTransport transport;
+    try {
+      transport = transportPool.borrow();
+    } catch (AuthenticationFailedException ex) {
+      throw new MailAuthenticationException(ex);
+    } catch (MessagingException ex) {
+      for (int i = 0; i < mimeMessages.length; i++) {
+        failedMessages.put(original(mimeMessages, originalMessages, i), ex);
+      }
+      throw new MailSendException("Mail server connection failed", ex, failedMessages);
+    }
+
+    int next = 0;
+    try {
+      for (; next < mimeMessages.length; next++) {
+        if (transport != null && transportPool.isExhausted(transport)) {
+          transportPool.release(transport);
+          transport = null;
+        }
+        if (transport == null) {
+          transport = transportPool.borrow();
+        }
+
+        MimeMessage mimeMessage = mimeMessages[next];
+        try {
+          prepare(mimeMessage);
+          Address[] addresses = mimeMessage.getAllRecipients();
+          transport.sendMessage(mimeMessage, addresses != null ? addresses : new Address[0]);
+        } catch (MessagingException ex) {
+          failedMessages.put(original(mimeMessages, originalMessages, next), ex);
+          if (!transport.isConnected()) {
+            transportPool.invalidate(transport);
+            transport = null;
+          }
+        }
+      }
+    } catch (MessagingException ex) {
+      // No connection could be re-established, so the rest of the batch fails as well.
+      for (; next < mimeMessages.length; next++) {
+        failedMessages.put(original(mimeMessages, originalMessages, next), ex);
+      }
+    } finally {
+      if (transport != null) {
+        transportPool.release(transport);
+      }
+    }
+
+    if (!failedMessages.isEmpty()) {
+      throw new MailSendException(failedMessages);
+    }
+  }
+
+  @Override
+  public void destroy() {
+    transportPool.close();
+  }
+
+  private void prepare(MimeMessage mimeMessage) throws MessagingException {
+    if (mimeMessage.getSentDate() == null) {
+      mimeMessage.setSentDate(new Date());
+    }
+    String messageId = mimeMessage.getMessageID();
+    mimeMessage.saveChanges();
+    if (messageId != null) {
+      // Preserve explicitly specified message id...
+      mimeMessage.setHeader("Message-ID", messageId);
+    }
+  }
+
+  private Object original(
+      MimeMessage[] mimeMessages, @Nullable Object[] originalMessages, int index) {
+    return originalMessages != null ? originalMessages[index] : mimeMessages[index];
+  }
+}
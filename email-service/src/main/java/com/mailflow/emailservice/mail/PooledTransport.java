@@ -0,0 +1,60 @@
+package com.mailflow.emailservice.mail;
+
+import jakarta.mail.Address;
+import jakarta.mail.Message;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+import java.util.concurrent.atomic.AtomicLong;
+
+/** An authenticated SMTP connection owned by {@link SmtpTransportPool}. */
+public class PooledTransport {
+
+  private final Transport transport;
+  private final AtomicLong poolMessagesSent;
+  private final long createdAtNanos;
+  private volatile long lastUsedAtNanos;
+  private int messagesSent;
+
+  PooledTransport(Transport transport, AtomicLong poolMessagesSent) {
+    this.transport = transport;
+    this.poolMessagesSent = poolMessagesSent;
+    this.createdAtNanos = System.nanoTime();
+    this.lastUsedAtNanos = createdAtNanos;
+  }
+
+  public void sendMessage(Message message, Address[] addresses) throws MessagingException {
+    transport.sendMessage(message, addresses);
+    messagesSent++;
+    poolMessagesSent.incrementAndGet();
+    lastUsedAtNanos = System.nanoTime();
+  }
+
+  public int getMessagesSent() {
+    return messagesSent;
+  }
+
+  /** Sends a NOOP to the server, so only call this when a round trip is acceptable. */
+  boolean isConnected() {
+    return transport.isConnected();
+  }
+
+  long ageNanos(long now) {
+    return now - createdAtNanos;
+  }
+
+  long idleNanos(long now) {
+    return now - lastUsedAtNanos;
+  }
+
+  void markIdle() {
+    lastUsedAtNanos = System.nanoTime();
+  }
+
+  void close() {
+    try {
+      transport.close();
+    } catch (MessagingException ignored) {
+      // the connection is being discarded anyway
+    }
+  }
+}
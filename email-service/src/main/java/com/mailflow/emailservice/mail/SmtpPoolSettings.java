@@ -0,0 +1,25 @@
+package com.mailflow.emailservice.mail;
+
+import java.time.Duration;
+import lombok.Builder;
+
+/**
+ * Tuning knobs for {@link SmtpTransportPool}.
+ *
+ * @param maxConnections upper bound on open SMTP connections (idle + borrowed)
+ * @param maxMessagesPerConnection messages sent before a connection is recycled
+ * @param maxLifetime age after which a connection is closed instead of being returned
+ * @param idleTimeout idle time after which the evictor closes a connection
+ * @param validationInterval idle time after which a connection is NOOP-checked before reuse
+ * @param borrowTimeout how long a sender waits for a free connection
+ * @param evictionInterval how often idle connections are inspected
+ */
+@Builder
+public record SmtpPoolSettings(
+    int maxConnections,
+    int maxMessagesPerConnection,
+    Duration maxLifetime,
+    Duration idleTimeout,
+    Duration validationInterval,
+    Duration borrowTimeout,
+    Duration evictionInterval) {}
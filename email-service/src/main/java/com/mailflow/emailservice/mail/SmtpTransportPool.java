@@ -0,0 +1,246 @@
+package com.mailflow.emailservice.mail;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Bounded pool of connected, authenticated SMTP {@link Transport}s.
+ *
+ * <p>Connections are handed out LIFO so the warmest one is reused first, recycled after {@link
+ * SmtpPoolSettings#maxMessagesPerConnection()} messages or {@link SmtpPoolSettings#maxLifetime()},
+ * NOOP-checked before reuse once they have been idle longer than {@link
+ * SmtpPoolSettings#validationInterval()}, and closed by a background evictor after {@link
+ * SmtpPoolSettings#idleTimeout()}.
+ */
+@Slf4j
+public class SmtpTransportPool implements MeterBinder, AutoCloseable {
+
+  /** Opens and authenticates a new SMTP connection. */
+  @FunctionalInterface
+  public interface TransportFactory {
+    Transport connect() throws MessagingException;
+  }
+
+  private final SmtpPoolSettings settings;
+  private final TransportFactory transportFactory;
+  private final BlockingDeque<PooledTransport> idle = new LinkedBlockingDeque<>();
+  private final Semaphore permits;
+  private final ScheduledExecutorService evictor;
+
+  private final AtomicInteger active = new AtomicInteger();
+  private final AtomicInteger pending = new AtomicInteger();
+  private final AtomicLong created = new AtomicLong();
+  private final AtomicLong destroyed = new AtomicLong();
+  private final AtomicLong validationFailures = new AtomicLong();
+  private final AtomicLong borrowTimeouts = new AtomicLong();
+  private final AtomicLong messagesSent = new AtomicLong();
+
+  private volatile Timer borrowTimer;
+  private volatile boolean closed;
+
+  public SmtpTransportPool(SmtpPoolSettings settings, TransportFactory transportFactory) {
+    this.settings = settings;
+    this.transportFactory = transportFactory;
+    this.permits = new Semaphore(settings.maxConnections(), true);
+    this.evictor =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              Thread thread = new Thread(runnable, "smtp-pool-evictor");
+              thread.setDaemon(true);
+              return thread;
+            });
+    long interval = settings.evictionInterval().toMillis();
+    evictor.scheduleWithFixedDelay(this::evictIdle, interval, interval, TimeUnit.MILLISECONDS);
+  }
+
+  public PooledTransport borrow() throws MessagingException {
+    if (closed) {
+      throw new MessagingException("SMTP transport pool is closed");
+    }
+
+    long start = System.nanoTime();
+    boolean acquired;
+    pending.incrementAndGet();
+    try {
+      acquired =
+          permits.tryAcquire(settings.borrowTimeout().toMillis(), TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new MessagingException("Interrupted while waiting for an SMTP connection", e);
+    } finally {
+      pending.decrementAndGet();
+    }
+
+    if (!acquired) {
+      borrowTimeouts.incrementAndGet();
+      throw new MessagingException(
+          "Timed out after " + settings.borrowTimeout() + " waiting for an SMTP connection");
+    }
+
+    try {
+      PooledTransport transport = takeIdle();
+      if (transport == null) {
+        transport = create();
+      }
+      active.incrementAndGet();
+      Timer timer = borrowTimer;
+      if (timer != null) {
+        timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+      }
+      return transport;
+    } catch (MessagingException | RuntimeException e) {
+      permits.release();
+      throw e;
+    }
+  }
+
+  /** Returns a healthy connection to the pool, recycling it if it has reached its limits. */
+  public void release(PooledTransport transport) {
+    active.decrementAndGet();
+    try {
+      if (closed || isWornOut(transport, System.nanoTime())) {
+        destroy(transport);
+      } else {
+        transport.markIdle();
+        idle.offerFirst(transport);
+      }
+    } finally {
+      permits.release();
+    }
+  }
+
+  /** Discards a connection that failed mid-session. */
+  public void invalidate(PooledTransport transport) {
+    active.decrementAndGet();
+    try {
+      destroy(transport);
+    } finally {
+      permits.release();
+    }
+  }
+
+  public boolean isExhausted(PooledTransport transport) {
+    return transport.getMessagesSent() >= settings.maxMessagesPerConnection();
+  }
+
+  public int getMaxConnections() {
+    return settings.maxConnections();
+  }
+
+  public int getActiveCount() {
+    return active.get();
+  }
+
+  public int getIdleCount() {
+    return idle.size();
+  }
+
+  public int getPendingCount() {
+    return pending.get();
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    Gauge.builder("mailflow.smtp.pool.connections", active, AtomicInteger::get)
+        .tag("state", "active")
+        .register(registry);
+    Gauge.builder("mailflow.smtp.pool.connections", idle, BlockingDeque::size)
+        .tag("state", "idle")
+        .register(registry);
+    Gauge.builder("mailflow.smtp.pool.pending", pending, AtomicInteger::get)
+        .description("Senders waiting for a free SMTP connection")
+        .register(registry);
+    Gauge.builder("mailflow.smtp.pool.max", settings, SmtpPoolSettings::maxConnections)
+        .register(registry);
+    FunctionCounter.builder("mailflow.smtp.pool.created", created, AtomicLong::get)
+        .register(registry);
+    FunctionCounter.builder("mailflow.smtp.pool.destroyed", destroyed, AtomicLong::get)
+        .register(registry);
+    FunctionCounter.builder(
+            "mailflow.smtp.pool.validation.failures", validationFailures, AtomicLong::get)
+        .register(registry);
+    FunctionCounter.builder("mailflow.smtp.pool.borrow.timeouts", borrowTimeouts, AtomicLong::get)
+        .register(registry);
+    FunctionCounter.builder("mailflow.smtp.messages.sent", messagesSent, AtomicLong::get)
+        .description("Messages sent over pooled connections")
+        .register(registry);
+    borrowTimer =
+        Timer.builder("mailflow.smtp.pool.borrow")
+            .description("Time spent waiting for and preparing an SMTP connection")
+            .register(registry);
+  }
+
+  @Override
+  public void close() {
+    closed = true;
+    evictor.shutdownNow();
+    PooledTransport transport;
+    while ((transport = idle.pollFirst()) != null) {
+      destroy(transport);
+    }
+  }
+
+  private PooledTransport takeIdle() {
+    PooledTransport transport;
+    while ((transport = idle.pollFirst()) != null) {
+      long now = System.nanoTime();
+      if (isWornOut(transport, now)) {
+        destroy(transport);
+        continue;
+      }
+      if (transport.idleNanos(now) > settings.validationInterval().toNanos()
+          && !transport.isConnected()) {
+        validationFailures.incrementAndGet();
+        destroy(transport);
+        continue;
+      }
+      return transport;
+    }
+    return null;
+  }
+
+  private PooledTransport create() throws MessagingException {
+    PooledTransport transport = new PooledTransport(transportFactory.connect(), messagesSent);
+    created.incrementAndGet();
+    log.debug("Opened SMTP connection ({} open)", active.get() + idle.size() + 1);
+    return transport;
+  }
+
+  private boolean isWornOut(PooledTransport transport, long now) {
+    return isExhausted(transport) || transport.ageNanos(now) > settings.maxLifetime().toNanos();
+  }
+
+  private void destroy(PooledTransport transport) {
+    transport.close();
+    destroyed.incrementAndGet();
+  }
+
+  private void evictIdle() {
+    try {
+      long now = System.nanoTime();
+      for (PooledTransport transport : idle) {
+        if ((transport.idleNanos(now) > settings.idleTimeout().toNanos()
+                || isWornOut(transport, now))
+            && idle.remove(transport)) {
+          destroy(transport);
+        }
+      }
+    } catch (RuntimeException e) {
+      log.warn("SMTP pool eviction run failed: {}", e.getMessage());
+    }
+  }
+}
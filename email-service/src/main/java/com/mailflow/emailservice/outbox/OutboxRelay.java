@@ -0,0 +1,110 @@
+package com.mailflow.emailservice.outbox;
+
+import com.mailflow.outbox.OutboxEvent;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+
+/**
+ * Publishes the events in {@code outbox_events} and deletes them once Kafka has acknowledged them.
+ *
+ * <p>Each batch locks up to {@code outbox.relay.batch-size} of the oldest events, hands them all to
+ * the producer at once and deletes them in the same transaction after every send is acknowledged.
+ * A full batch is followed by the next one right away, so a backlog drains at producer speed
+ * while an empty table costs one indexed query per {@code outbox.relay.interval}. A failed batch
+ * is rolled back and sent again on the next run, so delivery is at least once. Relays on several
+ * instances skip each other's batches; events of one key are then only ordered within a batch.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OutboxRelay {
+
+  private final OutboxRepository outboxRepository;
+  private final KafkaTemplate<String, Object> kafkaTemplate;
+  private final TransactionalOperator transactionalOperator;
+  private final MeterRegistry meterRegistry;
+
+  @Value("${outbox.relay.batch-size:500}")
+  private int batchSize;
+
+  @Value("${outbox.relay.max-batches-per-run:200}")
+  private int maxBatchesPerRun;
+
+  @Value("${outbox.relay.send-timeout:30s}")
+  private Duration sendTimeout;
+
+  @Scheduled(fixedDelayString = "${outbox.relay.interval:200}")
+  public Mono<Void> relay() {
+    return relayBatches(maxBatchesPerRun)
+        .onErrorResume(
+            e -> {
+              meterRegistry.counter("mailflow.outbox.failures").increment();
+              log.warn("Outbox relay failed, the batch will be sent again: {}", e.getMessage());
+              return Mono.empty();
+            });
+  }
+
+  private Mono<Void> relayBatches(int remaining) {
+    return transactionalOperator
+        .transactional(relayBatch())
+        .flatMap(
+            relayed ->
+                relayed == batchSize && remaining > 1
+                    ? relayBatches(remaining - 1)
+                    : Mono.<Void>empty());
+  }
+
+  private Mono<Integer> relayBatch() {
+    return outboxRepository
+        .lockOldest(batchSize)
+        .collectList()
+        .flatMap(
+            events ->
+                events.isEmpty()
+                    ? Mono.just(0)
+                    : send(events)
+                        .then(outboxRepository.delete(events))
+                        .then(
+                            Mono.fromCallable(
+                                () -> {
+                                  record(events);
+                                  return events.size();
+                                })));
+  }
+
+  private Mono<Void> send(List<OutboxEvent> events) {
+    return Mono.defer(
+            () -> {
+              CompletableFuture<?>[] sends =
+                  events.stream()
+                      .map(
+                          event -> kafkaTemplate.send(event.topic(), event.key(), event.payload()))
+                      .toArray(CompletableFuture[]::new);
+              return Mono.fromFuture(CompletableFuture.allOf(sends));
+            })
+        .timeout(sendTimeout);
+  }
+
+  private void record(List<OutboxEvent> events) {
+    meterRegistry.counter("mailflow.outbox.relayed").increment(events.size());
+    DistributionSummary.builder("mailflow.outbox.batch")
+        .description("Events published per relay batch")
+        .register(meterRegistry)
+        .record(events.size());
+    Timer lag = meterRegistry.timer("mailflow.outbox.lag");
+    events.forEach(event -> lag.record(event.ageMillis(), TimeUnit.MILLISECONDS));
+  }
+}
@@ -0,0 +1,117 @@
+package com.mailflow.emailservice.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mailflow.outbox.OutboxCodec;
+import com.mailflow.outbox.OutboxEvent;
+import com.mailflow.outbox.OutboxMessage;
+import com.mailflow.outbox.OutboxRow;
+import com.mailflow.outbox.OutboxSql;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.spi.Row;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reads and writes {@code outbox_events} over R2DBC, with the statements and payload encoding of
+ * the shared mailflow-outbox module. Writes join the caller's reactive transaction when there is
+ * one.
+ */
+@Repository
+@Slf4j
+public class OutboxRepository {
+
+  private final DatabaseClient databaseClient;
+  private final OutboxCodec codec;
+  private final MeterRegistry meterRegistry;
+
+  public OutboxRepository(
+      DatabaseClient databaseClient, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+    this.databaseClient = databaseClient;
+    this.codec = new OutboxCodec(objectMapper);
+    this.meterRegistry = meterRegistry;
+  }
+
+  /** Writes all messages in one statement. */
+  public Mono<Void> appendAll(List<OutboxMessage> messages) {
+    if (messages.isEmpty()) {
+      return Mono.empty();
+    }
+
+    return Mono.fromCallable(
+            () -> messages.stream().map(message -> codec.encode(message.payload())).toList())
+        .flatMap(
+            payloads ->
+                databaseClient
+                    .sql(OutboxSql.INSERT_EVENTS)
+                    .bind(
+                        "topics",
+                        messages.stream().map(OutboxMessage::topic).toArray(String[]::new))
+                    .bind("keys", messages.stream().map(OutboxMessage::key).toArray(String[]::new))
+                    .bind(
+                        "types",
+                        messages.stream()
+                            .map(message -> codec.type(message.payload()))
+                            .toArray(String[]::new))
+                    .bind("payloads", payloads.toArray(String[]::new))
+                    .then());
+  }
+
+  /**
+   * Locks up to {@code limit} of the oldest events for the rest of the current transaction.
+   * Events locked by another relay are skipped rather than waited on. A row whose payload cannot
+   * be read back is moved to {@code outbox_dead_letters} instead of being emitted, so it cannot
+   * hold up the events behind it.
+   */
+  public Flux<OutboxEvent> lockOldest(int limit) {
+    return databaseClient
+        .sql(OutboxSql.LOCK_OLDEST)
+        .bind("limit", limit)
+        .map((row, metadata) -> toRow(row))
+        .all()
+        // Read the whole batch first; the connection cannot run the dead-letter statement mid-query
+        .collectList()
+        .flatMapMany(Flux::fromIterable)
+        .concatMap(
+            row ->
+                Mono.fromCallable(() -> codec.decode(row))
+                    .onErrorResume(e -> deadLetter(row, e).then(Mono.empty())));
+  }
+
+  public Mono<Void> delete(List<OutboxEvent> events) {
+    return databaseClient
+        .sql(OutboxSql.DELETE_EVENTS)
+        .bind("ids", events.stream().map(OutboxEvent::id).toArray(Long[]::new))
+        .then();
+  }
+
+  private Mono<Void> deadLetter(OutboxRow row, Throwable failure) {
+    return databaseClient
+        .sql(OutboxSql.DEAD_LETTER)
+        .bind("id", row.id())
+        .bind("error", String.valueOf(failure.getMessage()))
+        .then()
+        .doOnSuccess(
+            done -> {
+              meterRegistry.counter("mailflow.outbox.dead_letters").increment();
+              log.error(
+                  "Moved outbox event {} for {} to outbox_dead_letters: {}",
+                  row.id(),
+                  row.topic(),
+                  failure.getMessage());
+            });
+  }
+
+  private static OutboxRow toRow(Row row) {
+    return new OutboxRow(
+        row.get("id", Long.class),
+        row.get("topic", String.class),
+        row.get("message_key", String.class),
+        row.get("payload_type", String.class),
+        row.get("payload", String.class),
+        row.get("age_millis", Long.class));
+  }
+}
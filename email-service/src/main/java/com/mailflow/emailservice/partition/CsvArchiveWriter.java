@@ -0,0 +1,67 @@
+package com.mailflow.emailservice.partition;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/** Writes RFC 4180 CSV rows into a gzip file and syncs it to disk on {@link #finish()}. */
+class CsvArchiveWriter implements Closeable {
+
+  private final FileOutputStream file;
+  private final GZIPOutputStream gzip;
+  private final Writer writer;
+
+  CsvArchiveWriter(Path path) throws IOException {
+    this.file = new FileOutputStream(path.toFile());
+    this.gzip = new GZIPOutputStream(file, 64 * 1024);
+    this.writer = new BufferedWriter(new OutputStreamWriter(gzip, StandardCharsets.UTF_8));
+  }
+
+  void writeRow(List<?> values) throws IOException {
+    for (int i = 0; i < values.size(); i++) {
+      if (i > 0) {
+        writer.write(',');
+      }
+      Object value = values.get(i);
+      if (value != null) {
+        writeField(value.toString());
+      }
+    }
+    writer.write("\r\n");
+  }
+
+  /** Completes the gzip stream and forces it to disk before the archive is trusted. */
+  void finish() throws IOException {
+    writer.flush();
+    gzip.finish();
+    file.flush();
+    file.getFD().sync();
+  }
+
+  @Override
+  public void close() throws IOException {
+    writer.close();
+  }
+
+  private void writeField(String value) throws IOException {
+    boolean quote =
+        value.indexOf(',') >= 0
+            || value.indexOf('"') >= 0
+            || value.indexOf('\n') >= 0
+            || value.indexOf('\r') >= 0;
+    if (!quote) {
+      writer.write(value);
+      return;
+    }
+    writer.write('"');
+    writer.write(value.replace("\"", "\"\""));
+    writer.write('"');
+  }
+}
@@ -0,0 +1,353 @@
+package com.mailflow.emailservice.partition;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Keeps the monthly partitions of {@code emails} in shape.
+ *
+ * <p>On startup and every {@code email.partitions.maintenance-cron} it creates the partitions for
+ * the current month and the next {@code email.partitions.months-ahead}, so inserts never hit a
+ * missing range. Rows that landed in {@code emails_default} before their month existed are moved
+ * into its partition when it is created; rows of months that are never created stay there and are
+ * reported by a warning and the {@code mailflow.email.partitions.default.rows} gauge. When {@code
+ * email.partitions.retention-months} is positive, every partition older than that is exported
+ * with its bodies to {@code <archive-dir>/emails_pYYYYMM.csv.gz}, then detached and dropped
+ * together with its retry schedule, its dispatch claims and the bodies only it referenced.
+ *
+ * <p>Each partition is archived in its own transaction holding an advisory lock on its name, so
+ * several instances can run the job at once. The partition is only dropped once its archive has
+ * been synced to disk, and a failed export leaves it attached for the next run.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class EmailPartitionMaintenance {
+
+  private static final Pattern PARTITION_NAME = Pattern.compile("emails_p(\\d{4})(\\d{2})");
+
+  private static final String LIST_PARTITIONS =
+      """
+      SELECT c.relname
+      FROM pg_inherits i
+      JOIN pg_class c ON c.oid = i.inhrelid
+      WHERE i.inhparent = CAST('emails' AS regclass)
+      ORDER BY c.relname
+      """;
+
+  private static final List<String> ARCHIVE_COLUMNS =
+      List.of(
+          "id",
+          "campaign_id",
+          "contact_id",
+          "template_id",
+          "recipient_email",
+          "subject",
+          "status",
+          "sent_at",
+          "opened_at",
+          "clicked_at",
+          "tracking_id",
+          "error_message",
+          "created_at",
+          "updated_at",
+          "version",
+          "content_hash",
+          "content");
+
+  private static final String ARCHIVE_ROWS =
+      """
+      SELECT e.id, e.campaign_id, e.contact_id, e.template_id, e.recipient_email, e.subject,
+             e.status, e.sent_at, e.opened_at, e.clicked_at, e.tracking_id, e.error_message,
+             e.created_at, e.updated_at, e.version, e.content_hash, b.content
+      FROM %s e
+      LEFT JOIN email_bodies b ON b.content_hash = e.content_hash
+      ORDER BY e.id
+      """;
+
+  private static final String DELETE_RETRIES =
+      "DELETE FROM email_retries r USING %s e WHERE r.email_id = e.id";
+
+  private static final String DELETE_DISPATCHES =
+      """
+      DELETE FROM email_dispatches d
+      USING %s e
+      WHERE d.campaign_id = e.campaign_id AND d.contact_id = e.contact_id
+      """;
+
+  // Checks the other partitions once with an anti-join rather than an index on content_hash,
+  // which every insert would have to maintain
+  private static final String DELETE_BODIES =
+      """
+      DELETE FROM email_bodies b
+      WHERE b.content_hash IN (SELECT content_hash FROM %s)
+        AND (b.last_used_at IS NULL OR b.last_used_at < :to)
+        AND NOT EXISTS (
+            SELECT 1 FROM emails e
+            WHERE e.content_hash = b.content_hash
+              AND (e.created_at < :from OR e.created_at >= :to))
+      """;
+
+  @Value("${email.partitions.months-ahead:3}")
+  private int monthsAhead;
+
+  @Value("${email.partitions.retention-months:0}")
+  private int retentionMonths;
+
+  @Value("${email.partitions.archive-dir:archive/emails}")
+  private Path archiveDir;
+
+  private final DatabaseClient databaseClient;
+  private final TransactionalOperator transactionalOperator;
+  private final MeterRegistry meterRegistry;
+
+  private final AtomicBoolean running = new AtomicBoolean();
+  private final AtomicLong defaultPartitionRows = new AtomicLong();
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void onStartup() {
+    maintain();
+  }
+
+  @Scheduled(cron = "${email.partitions.maintenance-cron:0 15 3 * * *}")
+  public void maintain() {
+    if (!running.compareAndSet(false, true)) {
+      log.debug("Email partition maintenance already running");
+      return;
+    }
+
+    // created_at and the daily stats count in UTC, whatever the JVM's zone
+    YearMonth currentMonth = YearMonth.now(ZoneOffset.UTC);
+    createPartitions(currentMonth)
+        .then(checkDefaultPartition())
+        .then(applyRetention(currentMonth))
+        .doFinally(signal -> running.set(false))
+        .subscribe(
+            null, error -> log.error("Email partition maintenance failed: {}", error.getMessage()));
+  }
+
+  private Mono<Void> createPartitions(YearMonth currentMonth) {
+    return Flux.range(0, monthsAhead + 1)
+        .map(currentMonth::plusMonths)
+        .concatMap(
+            month ->
+                databaseClient
+                    .sql("SELECT create_email_partition(:month)")
+                    .bind("month", month.atDay(1))
+                    .map(row -> row.get(0, String.class))
+                    .one()
+                    .onErrorResume(
+                        e -> {
+                          // Another instance may be creating the same partition
+                          log.warn(
+                              "Failed to create email partition for {}: {}", month, e.getMessage());
+                          return Mono.empty();
+                        }))
+        .then();
+  }
+
+  /** Counts the rows no monthly partition has taken over, which retention never archives. */
+  private Mono<Void> checkDefaultPartition() {
+    return databaseClient
+        .sql("SELECT count(*) FROM emails_default")
+        .map(row -> row.get(0, Long.class))
+        .one()
+        .doOnNext(
+            rows -> {
+              meterRegistry
+                  .gauge("mailflow.email.partitions.default.rows", defaultPartitionRows)
+                  .set(rows);
+              if (rows > 0) {
+                log.warn(
+                    "{} emails are in the default partition emails_default, outside every monthly"
+                        + " partition",
+                    rows);
+              }
+            })
+        .then();
+  }
+
+  private Mono<Void> applyRetention(YearMonth currentMonth) {
+    if (retentionMonths <= 0) {
+      return Mono.empty();
+    }
+
+    return databaseClient
+        .sql(LIST_PARTITIONS)
+        .map(row -> row.get("relname", String.class))
+        .all()
+        .filter(name -> expired(name, currentMonth, retentionMonths))
+        .concatMap(this::archive)
+        .then();
+  }
+
+  private Mono<Path> archive(String partition) {
+    Mono<Path> archived =
+        databaseClient
+            .sql(
+                "SELECT pg_try_advisory_xact_lock(hashtext(:name))"
+                    + " AND to_regclass(:name) IS NOT NULL")
+            .bind("name", partition)
+            .map(row -> row.get(0, Boolean.class))
+            .one()
+            .filter(Boolean::booleanValue)
+            .flatMap(locked -> export(partition))
+            .flatMap(
+                file ->
+                    deleteDependents(partition)
+                        .then(
+                            databaseClient
+                                .sql("ALTER TABLE emails DETACH PARTITION " + partition)
+                                .then())
+                        .then(databaseClient.sql("DROP TABLE " + partition).then())
+                        .thenReturn(file));
+
+    return transactionalOperator
+        .transactional(archived)
+        .doOnNext(
+            file -> {
+              meterRegistry.counter("mailflow.email.partitions.archived").increment();
+              log.info("Archived and dropped email partition {} to {}", partition, file);
+            })
+        .onErrorResume(
+            e -> {
+              log.error("Failed to archive email partition {}: {}", partition, e.getMessage(), e);
+              return Mono.empty();
+            });
+  }
+
+  /**
+   * Deletes what the partition's emails leave behind in other tables: their retry schedule, their
+   * dispatch claims, and the bodies no email outside the partition references. A body used again
+   * after the partition's month is kept even if no committed email points at it yet, because an
+   * email reusing it may be being inserted.
+   */
+  private Mono<Void> deleteDependents(String partition) {
+    YearMonth month = month(partition);
+    LocalDateTime from = month.atDay(1).atStartOfDay();
+    LocalDateTime to = month.plusMonths(1).atDay(1).atStartOfDay();
+
+    return databaseClient
+        .sql(DELETE_RETRIES.formatted(partition))
+        .then()
+        .then(databaseClient.sql(DELETE_DISPATCHES.formatted(partition)).then())
+        .then(
+            databaseClient
+                .sql(DELETE_BODIES.formatted(partition))
+                .bind("from", from)
+                .bind("to", to)
+                .fetch()
+                .rowsUpdated())
+        .doOnNext(
+            bodies -> log.info("Deleted {} email bodies referenced only by {}", bodies, partition))
+        .then();
+  }
+
+  /** Streams the partition into a gzip CSV file, returning it once it is complete on disk. */
+  private Mono<Path> export(String partition) {
+    Path target = archiveDir.resolve(partition + ".csv.gz");
+    Path temp = archiveDir.resolve(partition + ".csv.gz.tmp");
+
+    // Opening and closing the file block, so they run on a worker like the writes
+    return Mono.usingWhen(
+        Mono.fromCallable(
+                () -> {
+                  Files.createDirectories(archiveDir);
+                  CsvArchiveWriter writer = new CsvArchiveWriter(temp);
+                  writer.writeRow(ARCHIVE_COLUMNS);
+                  return writer;
+                })
+            .subscribeOn(Schedulers.boundedElastic()),
+        writer ->
+            databaseClient
+                .sql(ARCHIVE_ROWS.formatted(partition))
+                .map(
+                    row -> {
+                      List<Object> values = new ArrayList<>(ARCHIVE_COLUMNS.size());
+                      ARCHIVE_COLUMNS.forEach(column -> values.add(row.get(column)));
+                      return values;
+                    })
+                .all()
+                .publishOn(Schedulers.boundedElastic(), 256)
+                .doOnNext(values -> write(writer, values))
+                .count()
+                .map(
+                    rows -> {
+                      try {
+                        writer.finish();
+                        writer.close();
+                        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+                      } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                      }
+                      log.info("Exported {} emails from {}", rows, partition);
+                      return target;
+                    }),
+        writer ->
+            Mono.fromRunnable(
+                    () -> {
+                      try {
+                        writer.close();
+                      } catch (IOException e) {
+                        log.warn("Failed to close archive {}: {}", temp, e.getMessage());
+                      }
+                    })
+                .subscribeOn(Schedulers.boundedElastic()));
+  }
+
+  private static void write(CsvArchiveWriter writer, List<Object> values) {
+    try {
+      writer.writeRow(values);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Whether a partition holds only months older than the retention allows. {@code emails_default}
+   * and tables not named after a month never expire.
+   */
+  static boolean expired(String partition, YearMonth currentMonth, int retentionMonths) {
+    YearMonth month = month(partition);
+    return month != null && month.isBefore(currentMonth.minusMonths(retentionMonths));
+  }
+
+  /** The month a partition named {@code emails_pYYYYMM} covers, or null for any other table. */
+  static YearMonth month(String partition) {
+    Matcher matcher = PARTITION_NAME.matcher(partition);
+    if (!matcher.matches()) {
+      return null;
+    }
+    try {
+      return YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+    } catch (DateTimeException e) {
+      return null;
+    }
+  }
+}
@@ -1,37 +1,37 @@
 package com.mailflow.emailservice.repository;
 
 import com.mailflow.emailservice.domain.Email;
-import com.mailflow.emailservice.domain.EmailStatus;
-import com.mailflow.emailservice.dto.email.EmailAnalyticsDTO;
+import com.mailflow.emailservice.dto.email.CampaignStatsDTO;
+import com.mailflow.emailservice.dto.email.EmailDailyStatsDTO;
 import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import org.springframework.stereotype.Repository;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
-import java.time.LocalDateTime;
+import java.time.LocalDate;
 
 @Repository
-public interface EmailRepository extends ReactiveCrudRepository<Email, Long> {
+public interface EmailRepository
+        extends ReactiveCrudRepository<Email, Long>, EmailRepositoryCustom {
     Mono<Email> findByTrackingId(String trackingId);
 
-    @Query("SELECT * FROM emails WHERE status = :status AND created_at < :timeout")
-    Flux<Email> findByStatusAndTimeout(EmailStatus status, LocalDateTime timeout);
-
     @Query("SELECT * FROM emails ORDER BY created_at DESC LIMIT :limit")
     Flux<Email> findRecentEmails(int limit);
 
-    Mono<Long> countByStatusAndCreatedAtAfter(EmailStatus status, LocalDateTime date);
-
-    Mono<Long> countByStatusAndCreatedAtBetween(EmailStatus status, LocalDateTime startDate, LocalDateTime endDate);
-
-    @Query("SELECT EXTRACT(MONTH FROM created_at)::integer as month, " +
-            "COUNT(CASE WHEN status = 'SENT' THEN 1 END) as sent, " +
-            "COUNT(CASE WHEN status = 'OPENED' THEN 1 END) as opened, " +
-            "COUNT(CASE WHEN status = 'CLICKED' THEN 1 END) as clicked " +
-            "FROM emails " +
-            "WHERE created_at >= :startDate " +
-            "GROUP BY EXTRACT(MONTH FROM created_at) " +
-            "ORDER BY month")
-    Flux<EmailAnalyticsDTO> getEmailAnalytics(LocalDateTime startDate);
-}
\ No newline at end of file
+    @Query("SELECT day, SUM(sent)::bigint AS sent, SUM(opened)::bigint AS opened, " +
+            "SUM(clicked)::bigint AS clicked, SUM(failed)::bigint AS failed " +
+            "FROM email_daily_stats " +
+            "WHERE day BETWEEN :from AND :to " +
+            "GROUP BY day " +
+            "ORDER BY day")
+    Flux<EmailDailyStatsDTO> findDailyStats(LocalDate from, LocalDate to);
+
+    @Query("SELECT CAST(:campaignId AS bigint) AS campaign_id, " +
+            "COALESCE(SUM(sent), 0)::bigint AS sent, COALESCE(SUM(opened), 0)::bigint AS opened, " +
+            "COALESCE(SUM(clicked), 0)::bigint AS clicked, " +
+            "COALESCE(SUM(failed), 0)::bigint AS failed " +
+            "FROM email_daily_stats " +
+            "WHERE campaign_id = :campaignId")
+    Mono<CampaignStatsDTO> findCampaignStats(Long campaignId);
+}
@@ -0,0 +1,81 @@
+package com.mailflow.emailservice.repository;
+
+import com.mailflow.emailservice.domain.Email;
+import com.mailflow.emailservice.domain.EmailStatus;
+import com.mailflow.emailservice.dto.email.EmailFilter;
+import com.mailflow.emailservice.dto.email.EmailSummaryResponse;
+import com.mailflow.emailservice.tracking.TrackedEmail;
+import com.mailflow.emailservice.tracking.TrackingHit;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import org.springframework.lang.Nullable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/** Set-based writes used by the batch send pipeline and tracking ingestion, and listing. */
+public interface EmailRepositoryCustom {
+
+  /**
+   * Inserts all rows with a single statement and fills in their generated ids and audit columns.
+   * Rendered bodies are stored once per distinct content in {@code email_bodies} and referenced by
+   * {@code contentHash}. Every row must carry a unique tracking id.
+   *
+   * <p>At most one email is ever created per campaign and contact: rows whose pair already has
+   * one, from an earlier or concurrent insert, are skipped and left out of the result.
+   */
+  Flux<Email> insertAll(List<Email> emails);
+
+  /**
+   * Loads the emails already created for any of {@code contactIds} in a campaign, bodies
+   * included, so a redelivered trigger can be matched to the rows it produced the first time.
+   */
+  Flux<Email> findCampaignEmails(Long campaignId, List<Long> contactIds);
+
+  /** Loads a rendered body by the hash an email references; empty for a {@code null} hash. */
+  Mono<String> findContent(@Nullable String contentHash);
+
+  /** Loads the rendered bodies of {@code contentHashes} in one query, keyed by hash. */
+  Mono<Map<String, String>> findContents(Collection<String> contentHashes);
+
+  /**
+   * Writes status and error message of already-inserted rows with a single statement, stamping
+   * {@code sentAt} on the ones marked {@code SENT}. Their {@code createdAt} bounds the partitions
+   * the update visits. Emails already at or past their new status are left untouched; the ids of
+   * the ones written are returned.
+   */
+  Flux<Long> updateDeliveryResults(List<Email> emails, LocalDateTime sentAt);
+
+  /**
+   * Moves the given emails forward to {@code status} without loading or rewriting the rest of the
+   * row: only the status, the timestamp column belonging to it ({@code sentAt}, {@code openedAt}
+   * or {@code clickedAt}, set to {@code at} if still empty) and, for {@code FAILED}, the error
+   * message are written. Emails already at or past {@code status} are left untouched. The version
+   * is bumped but not checked. A {@code createdFrom} no later than the emails' creation limits
+   * the partitions searched for them.
+   *
+   * @return ids of the emails that actually transitioned
+   */
+  Flux<Long> transitionStatus(
+      List<Long> ids,
+      @Nullable LocalDateTime createdFrom,
+      EmailStatus status,
+      LocalDateTime at,
+      @Nullable String errorMessage);
+
+  /**
+   * Moves every email with a matching tracking id forward to the hit's status with a single
+   * statement, stamping {@code openedAt}/{@code clickedAt} where they are still empty. Rows that
+   * are already at or past that status are left untouched, so only real transitions are returned.
+   * Hits must have distinct tracking ids. Only emails created at or after {@code createdFrom} are
+   * considered, which keeps the lookup to the most recent partitions.
+   */
+  Flux<TrackedEmail> applyTrackingHits(List<TrackingHit> hits, LocalDateTime createdFrom);
+
+  /**
+   * Streams one page of emails matching {@code filter}, newest first, ordered by {@code (createdAt,
+   * id)} so the last row is the cursor of the next page. Rows are read as they are requested.
+   */
+  Flux<EmailSummaryResponse> findEmails(EmailFilter filter);
+}
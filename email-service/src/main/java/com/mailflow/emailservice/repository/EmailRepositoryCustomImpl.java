@@ -0,0 +1,446 @@
+package com.mailflow.emailservice.repository;
+
+import com.mailflow.emailservice.domain.Email;
+import com.mailflow.emailservice.domain.EmailStatus;
+import com.mailflow.emailservice.dto.email.EmailFilter;
+import com.mailflow.emailservice.dto.email.EmailSummaryResponse;
+import com.mailflow.emailservice.tracking.TrackedEmail;
+import com.mailflow.emailservice.tracking.TrackingHit;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import org.springframework.lang.Nullable;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@RequiredArgsConstructor
+public class EmailRepositoryCustomImpl implements EmailRepositoryCustom {
+
+  // Claims each (campaign, contact) pair in email_dispatches and inserts only the rows whose claim
+  // succeeded; both writes are one statement, so a claim never exists without its email.
+  private static final String INSERT_ALL =
+      """
+      WITH r AS (
+          SELECT * FROM unnest(CAST(:campaignIds AS bigint[]), CAST(:contactIds AS bigint[]),
+                               CAST(:templateIds AS bigint[]), CAST(:recipients AS varchar[]),
+                               CAST(:subjects AS varchar[]), CAST(:contentHashes AS varchar[]),
+                               CAST(:statuses AS varchar[]), CAST(:trackingIds AS varchar[]),
+                               CAST(:errors AS text[]))
+              AS r(campaign_id, contact_id, template_id, recipient_email, subject, content_hash,
+                   status, tracking_id, error_message)
+      ),
+      claimed AS (
+          INSERT INTO email_dispatches (campaign_id, contact_id)
+          SELECT campaign_id, contact_id FROM r
+          ON CONFLICT DO NOTHING
+          RETURNING campaign_id, contact_id
+      )
+      INSERT INTO emails (campaign_id, contact_id, template_id, recipient_email, subject,
+                          content_hash, status, tracking_id, error_message)
+      SELECT r.* FROM r
+      JOIN claimed c ON c.campaign_id = r.campaign_id AND c.contact_id = r.contact_id
+      RETURNING id, tracking_id, created_at, updated_at, version
+      """;
+
+  // A reused body is marked as used, at most once a day, so partition retention keeps it
+  private static final String INSERT_BODIES =
+      """
+      INSERT INTO email_bodies (content_hash, content)
+      SELECT * FROM unnest(CAST(:contentHashes AS varchar[]), CAST(:contents AS text[]))
+      ON CONFLICT (content_hash) DO UPDATE SET last_used_at = NOW()
+      WHERE email_bodies.last_used_at IS NULL
+         OR email_bodies.last_used_at < NOW() - INTERVAL '1 day'
+      """;
+
+  private static final String FIND_CONTENT =
+      "SELECT content FROM email_bodies WHERE content_hash = :contentHash";
+
+  private static final String FIND_CONTENTS =
+      """
+      SELECT content_hash, content FROM email_bodies
+      WHERE content_hash = ANY (CAST(:contentHashes AS char(64)[]))
+      """;
+
+  private static final String FIND_CAMPAIGN_EMAILS =
+      """
+      SELECT e.id, e.campaign_id, e.contact_id, e.template_id, e.recipient_email, e.subject,
+             e.content_hash, e.status, e.tracking_id, e.error_message, e.sent_at, e.created_at,
+             e.updated_at, e.version, b.content
+      FROM emails e
+      LEFT JOIN email_bodies b ON b.content_hash = e.content_hash
+      WHERE e.campaign_id = :campaignId
+        AND e.contact_id = ANY (CAST(:contactIds AS bigint[]))
+      """;
+
+  private static final String UPDATE_DELIVERY_RESULTS =
+      """
+      UPDATE emails e
+      SET status = r.status,
+          error_message = r.error_message,
+          sent_at = CASE WHEN r.status = 'SENT' THEN :sentAt ELSE e.sent_at END,
+          updated_at = NOW(),
+          version = e.version + 1
+      FROM unnest(CAST(:ids AS bigint[]), CAST(:statuses AS varchar[]), CAST(:errors AS text[]))
+          AS r(id, status, error_message)
+      WHERE e.id = r.id
+        AND e.created_at >= :createdFrom
+        AND email_status_rank(e.status) < email_status_rank(r.status)
+      RETURNING e.id
+      """;
+
+  private static final String TRANSITION_STATUS =
+      """
+      UPDATE emails e
+      SET status = t.status,
+          sent_at = CASE WHEN t.status = 'SENT' THEN COALESCE(e.sent_at, t.at) ELSE e.sent_at END,
+          opened_at = CASE WHEN t.status = 'OPENED' THEN COALESCE(e.opened_at, t.at)
+                           ELSE e.opened_at END,
+          clicked_at = CASE WHEN t.status = 'CLICKED' THEN COALESCE(e.clicked_at, t.at)
+                            ELSE e.clicked_at END,
+          error_message = CASE WHEN t.status = 'FAILED' THEN t.error_message
+                               ELSE e.error_message END,
+          updated_at = NOW(),
+          version = e.version + 1
+      FROM (SELECT CAST(:status AS varchar) AS status, CAST(:at AS timestamp) AS at,
+                   CAST(:errorMessage AS text) AS error_message) t
+      WHERE e.id = ANY (CAST(:ids AS bigint[]))
+        AND e.created_at >= :createdFrom
+        AND email_status_rank(e.status) < email_status_rank(t.status)
+      RETURNING e.id
+      """;
+
+  // Status-only write: content and the other columns are not rewritten. Timestamps travel as ISO
+  // strings because the driver has no codec for LocalDateTime arrays.
+  private static final String APPLY_TRACKING_HITS =
+      """
+      UPDATE emails e
+      SET status = h.status,
+          opened_at = COALESCE(e.opened_at, h.opened_at),
+          clicked_at = COALESCE(e.clicked_at, h.clicked_at),
+          updated_at = NOW(),
+          version = e.version + 1
+      FROM unnest(CAST(:trackingIds AS varchar[]), CAST(:statuses AS varchar[]),
+                  CAST(:openedAts AS timestamp[]), CAST(:clickedAts AS timestamp[]))
+          AS h(tracking_id, status, opened_at, clicked_at)
+      WHERE e.tracking_id = h.tracking_id
+        AND e.created_at >= :createdFrom
+        AND email_status_rank(e.status) < email_status_rank(h.status)
+      RETURNING e.id, e.campaign_id, e.tracking_id, e.opened_at = h.opened_at AS opened,
+                e.clicked_at = h.clicked_at AS clicked
+      """;
+
+  private static final String FIND_EMAILS =
+      """
+      SELECT e.id, e.campaign_id, e.contact_id, e.recipient_email, e.subject, e.status,
+             e.error_message, e.tracking_id, e.sent_at, e.opened_at, e.clicked_at, e.created_at
+      """;
+
+  // Lower created_at bound used when none is known; every partition lies above it
+  private static final LocalDateTime NO_LOWER_BOUND = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+  private final DatabaseClient databaseClient;
+
+  @Override
+  public Flux<Email> insertAll(List<Email> emails) {
+    if (emails.isEmpty()) {
+      return Flux.empty();
+    }
+
+    Map<String, Email> byTrackingId = new HashMap<>();
+    Map<String, String> bodies = new LinkedHashMap<>();
+    for (Email email : emails) {
+      byTrackingId.put(email.getTrackingId(), email);
+      if (email.getContent() != null) {
+        String contentHash = contentHash(email.getContent());
+        email.setContentHash(contentHash);
+        bodies.putIfAbsent(contentHash, email.getContent());
+      }
+    }
+
+    return insertBodies(bodies).thenMany(insertRows(emails, byTrackingId));
+  }
+
+  @Override
+  public Mono<String> findContent(@Nullable String contentHash) {
+    if (contentHash == null) {
+      return Mono.empty();
+    }
+
+    return databaseClient
+        .sql(FIND_CONTENT)
+        .bind("contentHash", contentHash)
+        .map((row, metadata) -> row.get("content", String.class))
+        .one();
+  }
+
+  @Override
+  public Mono<Map<String, String>> findContents(Collection<String> contentHashes) {
+    if (contentHashes.isEmpty()) {
+      return Mono.just(Map.of());
+    }
+
+    return databaseClient
+        .sql(FIND_CONTENTS)
+        .bind("contentHashes", contentHashes.toArray(String[]::new))
+        .map(
+            (row, metadata) ->
+                Map.entry(row.get("content_hash", String.class), row.get("content", String.class)))
+        .all()
+        .collectMap(Map.Entry::getKey, Map.Entry::getValue);
+  }
+
+  @Override
+  public Flux<Email> findCampaignEmails(Long campaignId, List<Long> contactIds) {
+    if (contactIds.isEmpty()) {
+      return Flux.empty();
+    }
+
+    return databaseClient
+        .sql(FIND_CAMPAIGN_EMAILS)
+        .bind("campaignId", campaignId)
+        .bind("contactIds", contactIds.toArray(Long[]::new))
+        .map(
+            (row, metadata) ->
+                Email.builder()
+                    .id(row.get("id", Long.class))
+                    .campaignId(row.get("campaign_id", Long.class))
+                    .contactId(row.get("contact_id", Long.class))
+                    .templateId(row.get("template_id", Long.class))
+                    .recipientEmail(row.get("recipient_email", String.class))
+                    .subject(row.get("subject", String.class))
+                    .contentHash(row.get("content_hash", String.class))
+                    .content(row.get("content", String.class))
+                    .status(EmailStatus.valueOf(row.get("status", String.class)))
+                    .trackingId(row.get("tracking_id", String.class))
+                    .errorMessage(row.get("error_message", String.class))
+                    .sentAt(row.get("sent_at", LocalDateTime.class))
+                    .createdAt(row.get("created_at", LocalDateTime.class))
+                    .updatedAt(row.get("updated_at", LocalDateTime.class))
+                    .version(row.get("version", Long.class))
+                    .build())
+        .all();
+  }
+
+  private Mono<Void> insertBodies(Map<String, String> bodies) {
+    if (bodies.isEmpty()) {
+      return Mono.empty();
+    }
+
+    return databaseClient
+        .sql(INSERT_BODIES)
+        .bind("contentHashes", bodies.keySet().toArray(String[]::new))
+        .bind("contents", bodies.values().toArray(String[]::new))
+        .then();
+  }
+
+  private Flux<Email> insertRows(List<Email> emails, Map<String, Email> byTrackingId) {
+    return databaseClient
+        .sql(INSERT_ALL)
+        .bind("campaignIds", column(emails, Email::getCampaignId, Long[]::new))
+        .bind("contactIds", column(emails, Email::getContactId, Long[]::new))
+        .bind("templateIds", column(emails, Email::getTemplateId, Long[]::new))
+        .bind("recipients", column(emails, Email::getRecipientEmail, String[]::new))
+        .bind("subjects", column(emails, Email::getSubject, String[]::new))
+        .bind("contentHashes", column(emails, Email::getContentHash, String[]::new))
+        .bind("statuses", column(emails, email -> email.getStatus().name(), String[]::new))
+        .bind("trackingIds", column(emails, Email::getTrackingId, String[]::new))
+        .bind("errors", column(emails, Email::getErrorMessage, String[]::new))
+        .map(
+            (row, metadata) -> {
+              Email email = byTrackingId.get(row.get("tracking_id", String.class));
+              email.setId(row.get("id", Long.class));
+              email.setCreatedAt(row.get("created_at", LocalDateTime.class));
+              email.setUpdatedAt(row.get("updated_at", LocalDateTime.class));
+              email.setVersion(row.get("version", Long.class));
+              return email;
+            })
+        .all();
+  }
+
+  @Override
+  public Flux<Long> updateDeliveryResults(List<Email> emails, LocalDateTime sentAt) {
+    if (emails.isEmpty()) {
+      return Flux.empty();
+    }
+
+    Map<Long, Email> byId =
+        emails.stream().collect(Collectors.toMap(Email::getId, Function.identity()));
+    return databaseClient
+        .sql(UPDATE_DELIVERY_RESULTS)
+        .bind("ids", column(emails, Email::getId, Long[]::new))
+        .bind("statuses", column(emails, email -> email.getStatus().name(), String[]::new))
+        .bind("errors", column(emails, Email::getErrorMessage, String[]::new))
+        .bind("sentAt", sentAt)
+        .bind("createdFrom", earliestCreatedAt(emails))
+        .map((row, metadata) -> row.get("id", Long.class))
+        .all()
+        .doOnNext(
+            id -> {
+              Email email = byId.get(id);
+              if (email.getStatus() == EmailStatus.SENT) {
+                email.setSentAt(sentAt);
+              }
+              email.setVersion(email.getVersion() != null ? email.getVersion() + 1 : 1L);
+            });
+  }
+
+  @Override
+  public Flux<Long> transitionStatus(
+      List<Long> ids,
+      @Nullable LocalDateTime createdFrom,
+      EmailStatus status,
+      LocalDateTime at,
+      @Nullable String errorMessage) {
+    if (ids.isEmpty()) {
+      return Flux.empty();
+    }
+
+    DatabaseClient.GenericExecuteSpec spec =
+        databaseClient
+            .sql(TRANSITION_STATUS)
+            .bind("ids", ids.toArray(Long[]::new))
+            .bind("createdFrom", createdFrom != null ? createdFrom : NO_LOWER_BOUND)
+            .bind("status", status.name())
+            .bind("at", at);
+    spec =
+        errorMessage != null
+            ? spec.bind("errorMessage", errorMessage)
+            : spec.bindNull("errorMessage", String.class);
+    return spec.map((row, metadata) -> row.get("id", Long.class)).all();
+  }
+
+  @Override
+  public Flux<TrackedEmail> applyTrackingHits(List<TrackingHit> hits, LocalDateTime createdFrom) {
+    if (hits.isEmpty()) {
+      return Flux.empty();
+    }
+
+    return databaseClient
+        .sql(APPLY_TRACKING_HITS)
+        .bind("trackingIds", column(hits, TrackingHit::trackingId, String[]::new))
+        .bind("statuses", column(hits, hit -> hit.status().name(), String[]::new))
+        .bind("openedAts", column(hits, hit -> timestamp(hit.openedAt()), String[]::new))
+        .bind("clickedAts", column(hits, hit -> timestamp(hit.clickedAt()), String[]::new))
+        .bind("createdFrom", createdFrom)
+        .map(
+            (row, metadata) ->
+                new TrackedEmail(
+                    row.get("id", Long.class),
+                    row.get("campaign_id", Long.class),
+                    row.get("tracking_id", String.class),
+                    Boolean.TRUE.equals(row.get("opened", Boolean.class)),
+                    Boolean.TRUE.equals(row.get("clicked", Boolean.class))))
+        .all();
+  }
+
+  @Override
+  public Flux<EmailSummaryResponse> findEmails(EmailFilter filter) {
+    StringBuilder sql = new StringBuilder(FIND_EMAILS);
+    Map<String, Object> params = new LinkedHashMap<>();
+    if (filter.includeContent()) {
+      sql.append(", b.content FROM emails e ")
+          .append("LEFT JOIN email_bodies b ON b.content_hash = e.content_hash ");
+    } else {
+      sql.append("FROM emails e ");
+    }
+    sql.append("WHERE TRUE");
+    condition(sql, params, "e.campaign_id = :campaignId", "campaignId", filter.campaignId());
+    condition(sql, params, "e.contact_id = :contactId", "contactId", filter.contactId());
+    condition(
+        sql,
+        params,
+        "e.status = :status",
+        "status",
+        filter.status() != null ? filter.status().name() : null);
+    condition(
+        sql, params, "e.recipient_email = :recipient", "recipient", filter.recipientEmail());
+    condition(sql, params, "e.created_at >= :from", "from", filter.from());
+    condition(sql, params, "e.created_at < :to", "to", filter.to());
+    if (filter.beforeCreatedAt() != null && filter.beforeId() != null) {
+      // Row comparison matches the (created_at, id) index order, so paging is a range scan
+      sql.append(" AND (e.created_at, e.id) < (:beforeCreatedAt, :beforeId)");
+      params.put("beforeCreatedAt", filter.beforeCreatedAt());
+      params.put("beforeId", filter.beforeId());
+    }
+    sql.append(" ORDER BY e.created_at DESC, e.id DESC LIMIT :limit");
+    params.put("limit", filter.size());
+
+    DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql.toString());
+    for (Map.Entry<String, Object> param : params.entrySet()) {
+      spec = spec.bind(param.getKey(), param.getValue());
+    }
+    return spec.map(
+            (row, metadata) ->
+                EmailSummaryResponse.builder()
+                    .id(row.get("id", Long.class))
+                    .campaignId(row.get("campaign_id", Long.class))
+                    .contactId(row.get("contact_id", Long.class))
+                    .recipientEmail(row.get("recipient_email", String.class))
+                    .subject(row.get("subject", String.class))
+                    .status(row.get("status", String.class))
+                    .errorMessage(row.get("error_message", String.class))
+                    .trackingId(row.get("tracking_id", String.class))
+                    .sentAt(row.get("sent_at", LocalDateTime.class))
+                    .openedAt(row.get("opened_at", LocalDateTime.class))
+                    .clickedAt(row.get("clicked_at", LocalDateTime.class))
+                    .createdAt(row.get("created_at", LocalDateTime.class))
+                    .content(filter.includeContent() ? row.get("content", String.class) : null)
+                    .build())
+        .all();
+  }
+
+  private static void condition(
+      StringBuilder sql, Map<String, Object> params, String clause, String name, Object value) {
+    if (value != null) {
+      sql.append(" AND ").append(clause);
+      params.put(name, value);
+    }
+  }
+
+  private static LocalDateTime earliestCreatedAt(List<Email> emails) {
+    LocalDateTime earliest = null;
+    for (Email email : emails) {
+      if (email.getCreatedAt() == null) {
+        return NO_LOWER_BOUND;
+      }
+      if (earliest == null || email.getCreatedAt().isBefore(earliest)) {
+        earliest = email.getCreatedAt();
+      }
+    }
+    return earliest;
+  }
+
+  private static String contentHash(String content) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      return HexFormat.of().formatHex(digest.digest(content.getBytes(StandardCharsets.UTF_8)));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 not available", e);
+    }
+  }
+
+  private static String timestamp(LocalDateTime value) {
+    return value != null ? value.toString() : null;
+  }
+
+  private static <E, T> T[] column(
+      List<E> rows, Function<E, T> getter, IntFunction<T[]> array) {
+    T[] values = array.apply(rows.size());
+    for (int i = 0; i < values.length; i++) {
+      values[i] = getter.apply(rows.get(i));
+    }
+    return values;
+  }
+}
@@ -0,0 +1,211 @@
+package com.mailflow.emailservice.repository;
+
+import com.mailflow.emailservice.domain.Email;
+import com.mailflow.emailservice.domain.EmailStatus;
+import com.mailflow.emailservice.retry.EmailRetry;
+import io.r2dbc.spi.Row;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.lang.Nullable;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Access to the {@code email_retries} schedule. Times are taken from the database clock so that
+ * instances with drifting clocks agree on which retries are due.
+ */
+@Repository
+@RequiredArgsConstructor
+public class EmailRetryRepository {
+
+  private static final String SCHEDULE =
+      """
+      INSERT INTO email_retries (email_id, email_created_at, next_attempt_at, last_error)
+      SELECT e.id, e.created_at,
+             CASE WHEN r.delay_ms < 0 THEN NULL
+                  ELSE NOW() + r.delay_ms * INTERVAL '1 millisecond' END,
+             e.error_message
+      FROM unnest(CAST(:ids AS bigint[]), CAST(:delays AS bigint[])) AS r(id, delay_ms)
+      JOIN emails e ON e.id = r.id AND e.created_at >= :createdFrom
+      WHERE e.status = 'FAILED'
+        AND e.content_hash IS NOT NULL
+      ON CONFLICT (email_id) DO NOTHING
+      """;
+
+  private static final String ENQUEUE_FAILED =
+      """
+      INSERT INTO email_retries (email_id, email_created_at, next_attempt_at, last_error)
+      SELECT id, created_at, NOW(), error_message
+      FROM emails
+      WHERE status = 'FAILED'
+        AND content_hash IS NOT NULL
+        AND created_at >= :since
+      ON CONFLICT (email_id) DO UPDATE
+          SET next_attempt_at = LEAST(email_retries.next_attempt_at, EXCLUDED.next_attempt_at),
+              updated_at = NOW()
+          WHERE email_retries.next_attempt_at IS NOT NULL
+      RETURNING email_id
+      """;
+
+  private static final String CLAIM_DUE =
+      """
+      WITH due AS (
+          SELECT email_id
+          FROM email_retries
+          WHERE next_attempt_at <= NOW()
+          ORDER BY next_attempt_at
+          LIMIT :limit
+          FOR UPDATE SKIP LOCKED
+      ), claimed AS (
+          UPDATE email_retries r
+          SET next_attempt_at = NOW() + :leaseMs * INTERVAL '1 millisecond',
+              updated_at = NOW()
+          FROM due
+          WHERE r.email_id = due.email_id
+          RETURNING r.email_id, r.email_created_at, r.attempts
+      )
+      SELECT c.email_id AS retry_email_id, c.attempts, e.id, e.campaign_id, e.contact_id,
+             e.template_id, e.recipient_email, e.subject, e.content_hash, b.content, e.status,
+             e.sent_at, e.tracking_id, e.error_message, e.created_at, e.updated_at, e.version
+      FROM claimed c
+      LEFT JOIN emails e ON e.id = c.email_id AND e.created_at = c.email_created_at
+      LEFT JOIN email_bodies b ON b.content_hash = e.content_hash
+      """;
+
+  private static final String RESCHEDULE =
+      """
+      UPDATE email_retries
+      SET attempts = :attempts,
+          next_attempt_at = CASE WHEN :delayMs < 0 THEN NULL
+                                 ELSE NOW() + :delayMs * INTERVAL '1 millisecond' END,
+          last_error = :error,
+          updated_at = NOW()
+      WHERE email_id = :emailId
+      """;
+
+  private static final String QUEUE_DEPTH =
+      """
+      SELECT COUNT(*) AS queued, COUNT(*) FILTER (WHERE next_attempt_at <= NOW()) AS due
+      FROM email_retries
+      WHERE next_attempt_at IS NOT NULL
+      """;
+
+  private final DatabaseClient databaseClient;
+
+  /**
+   * Schedules the first retry of emails that just failed, {@code delays} after now. A negative
+   * delay records the email as given up instead. Emails that are no longer {@code FAILED}, have no
+   * stored body or are already scheduled are skipped.
+   *
+   * @return number of schedule rows written
+   */
+  public Mono<Long> schedule(List<Long> ids, List<Long> delays, LocalDateTime createdFrom) {
+    return databaseClient
+        .sql(SCHEDULE)
+        .bind("ids", ids.toArray(Long[]::new))
+        .bind("delays", delays.toArray(Long[]::new))
+        .bind("createdFrom", createdFrom)
+        .fetch()
+        .rowsUpdated();
+  }
+
+  /**
+   * Makes every failed email created since {@code since} due now, unless it was given up on.
+   *
+   * @return ids of the emails that are now due
+   */
+  public Flux<Long> enqueueFailed(LocalDateTime since) {
+    return databaseClient
+        .sql(ENQUEUE_FAILED)
+        .bind("since", since)
+        .map(row -> row.get("email_id", Long.class))
+        .all();
+  }
+
+  /**
+   * Claims up to {@code limit} due retries by pushing their next attempt {@code lease} into the
+   * future, so other instances skip them while they are being sent and a crashed instance's claims
+   * come due again. Each retry carries its email with the rendered body, or no email if the row is
+   * gone.
+   */
+  public Flux<EmailRetry> claimDue(int limit, Duration lease) {
+    return databaseClient
+        .sql(CLAIM_DUE)
+        .bind("limit", limit)
+        .bind("leaseMs", lease.toMillis())
+        .map(
+            row ->
+                new EmailRetry(
+                    row.get("retry_email_id", Long.class),
+                    row.get("attempts", Integer.class),
+                    row.get("id", Long.class) != null ? email(row) : null))
+        .all();
+  }
+
+  /**
+   * Records a failed attempt and schedules the next one {@code delay} from now, or gives the retry
+   * up when {@code delay} is {@code null}.
+   */
+  public Mono<Void> reschedule(
+      Long emailId, int attempts, @Nullable Duration delay, @Nullable String error) {
+    DatabaseClient.GenericExecuteSpec spec =
+        databaseClient
+            .sql(RESCHEDULE)
+            .bind("emailId", emailId)
+            .bind("attempts", attempts)
+            .bind("delayMs", delay != null ? delay.toMillis() : -1L);
+    spec = error != null ? spec.bind("error", error) : spec.bindNull("error", String.class);
+    return spec.then();
+  }
+
+  public Mono<Void> delete(Long emailId) {
+    return databaseClient
+        .sql("DELETE FROM email_retries WHERE email_id = :emailId")
+        .bind("emailId", emailId)
+        .then();
+  }
+
+  /** Forgets given-up retries last touched before {@code before}. */
+  public Mono<Long> purgeGivenUp(LocalDateTime before) {
+    return databaseClient
+        .sql(
+            "DELETE FROM email_retries WHERE next_attempt_at IS NULL AND updated_at < :before")
+        .bind("before", before)
+        .fetch()
+        .rowsUpdated();
+  }
+
+  /** Scheduled retries, and how many of them are due now. */
+  public Mono<QueueDepth> queueDepth() {
+    return databaseClient
+        .sql(QUEUE_DEPTH)
+        .map(row -> new QueueDepth(row.get("queued", Long.class), row.get("due", Long.class)))
+        .one();
+  }
+
+  private static Email email(Row row) {
+    return Email.builder()
+        .id(row.get("id", Long.class))
+        .campaignId(row.get("campaign_id", Long.class))
+        .contactId(row.get("contact_id", Long.class))
+        .templateId(row.get("template_id", Long.class))
+        .recipientEmail(row.get("recipient_email", String.class))
+        .subject(row.get("subject", String.class))
+        .contentHash(row.get("content_hash", String.class))
+        .content(row.get("content", String.class))
+        .status(EmailStatus.valueOf(row.get("status", String.class)))
+        .sentAt(row.get("sent_at", LocalDateTime.class))
+        .trackingId(row.get("tracking_id", String.class))
+        .errorMessage(row.get("error_message", String.class))
+        .createdAt(row.get("created_at", LocalDateTime.class))
+        .updatedAt(row.get("updated_at", LocalDateTime.class))
+        .version(row.get("version", Long.class))
+        .build();
+  }
+
+  public record QueueDepth(long queued, long due) {}
+}
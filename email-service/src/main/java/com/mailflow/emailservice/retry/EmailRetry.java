@@ -0,0 +1,10 @@
+package com.mailflow.emailservice.retry;
+
+import com.mailflow.emailservice.domain.Email;
+import org.springframework.lang.Nullable;
+
+/**
+ * A claimed retry: the email with its rendered body, or {@code null} if the row no longer exists,
+ * and the number of delivery attempts made so far.
+ */
+public record EmailRetry(Long emailId, int attempts, @Nullable Email email) {}
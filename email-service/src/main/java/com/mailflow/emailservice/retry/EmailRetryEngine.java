@@ -0,0 +1,285 @@
+package com.mailflow.emailservice.retry;
+
+import com.mailflow.emailservice.analytics.LiveCampaignStats;
+import com.mailflow.emailservice.domain.Email;
+import com.mailflow.emailservice.domain.EmailStatus;
+import com.mailflow.emailservice.kafka.KafkaEventPublisher;
+import com.mailflow.emailservice.mail.DomainSendScheduler;
+import com.mailflow.emailservice.mail.EmailMessageFactory;
+import com.mailflow.emailservice.repository.EmailRepository;
+import com.mailflow.emailservice.repository.EmailRetryRepository;
+import com.mailflow.events.EmailSentEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+/**
+ * Resends failed emails from the {@code email_retries} schedule.
+ *
+ * <p>When a send fails, the email is {@link #schedule scheduled} once: permanent failures (see
+ * {@link SendFailures}) are recorded as given up, others get a first attempt after the base delay.
+ * Every {@code email.retry.interval} the engine claims at most {@code email.retry.max-per-run} due
+ * retries and resends their existing row and stored body through the {@link DomainSendScheduler},
+ * paced to {@code email.retry.rate} messages per second with at most {@code
+ * email.retry.concurrency} in flight. A failed attempt is
+ * rescheduled with exponential backoff, {@code base-delay * 2^(attempts - 1)} capped at {@code
+ * max-delay}, of which a random half is waited so retries of one outage spread out. After {@code
+ * email.retry.max-attempts} attempts, or a permanent failure, the retry is given up.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class EmailRetryEngine {
+
+  @Value("${email.retry.max-attempts:6}")
+  private int maxAttempts;
+
+  @Value("${email.retry.base-delay:5m}")
+  private Duration baseDelay;
+
+  @Value("${email.retry.max-delay:6h}")
+  private Duration maxDelay;
+
+  @Value("${email.retry.max-per-run:500}")
+  private int maxPerRun;
+
+  @Value("${email.retry.rate:20}")
+  private int rate;
+
+  @Value("${email.retry.concurrency:4}")
+  private int concurrency;
+
+  @Value("${email.retry.lease:10m}")
+  private Duration lease;
+
+  @Value("${email.retry.history:30d}")
+  private Duration history;
+
+  private final EmailRetryRepository retryRepository;
+  private final EmailRepository emailRepository;
+  private final EmailMessageFactory messageFactory;
+  private final DomainSendScheduler domainSendScheduler;
+  private final KafkaEventPublisher eventPublisher;
+  private final LiveCampaignStats liveCampaignStats;
+  private final Scheduler emailBlockingScheduler;
+  private final TransactionalOperator transactionalOperator;
+  private final MeterRegistry meterRegistry;
+
+  private final AtomicLong queued = new AtomicLong();
+  private final AtomicLong due = new AtomicLong();
+
+  @PostConstruct
+  void init() {
+    Gauge.builder("mailflow.email.retry.queue", queued, AtomicLong::get)
+        .description("Failed emails scheduled for another attempt")
+        .register(meterRegistry);
+    Gauge.builder("mailflow.email.retry.due", due, AtomicLong::get)
+        .description("Scheduled retries whose next attempt is due")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Schedules the failed emails among {@code emails}. Emails without a stored body cannot be
+   * resent and are left alone.
+   */
+  public Mono<Void> schedule(List<Email> emails) {
+    List<Long> ids = new ArrayList<>();
+    List<Long> delays = new ArrayList<>();
+    LocalDateTime createdFrom = null;
+    for (Email email : emails) {
+      if (email.getStatus() != EmailStatus.FAILED
+          || email.getId() == null
+          || email.getContentHash() == null) {
+        continue;
+      }
+      boolean permanent = email.isPermanentFailure();
+      ids.add(email.getId());
+      delays.add(permanent ? -1L : backoff(1).toMillis());
+      meterRegistry
+          .counter("mailflow.email.retry.failures", "kind", permanent ? "permanent" : "transient")
+          .increment();
+      if (createdFrom == null || email.getCreatedAt().isBefore(createdFrom)) {
+        createdFrom = email.getCreatedAt();
+      }
+    }
+    if (ids.isEmpty()) {
+      return Mono.empty();
+    }
+
+    return retryRepository
+        .schedule(ids, delays, createdFrom)
+        .doOnNext(rows -> queued.addAndGet(rows))
+        .onErrorResume(
+            e -> {
+              log.error("Failed to schedule retries for {} emails: {}", ids.size(), e.getMessage());
+              return Mono.empty();
+            })
+        .then();
+  }
+
+  /**
+   * Makes every failed email created since {@code since} due right away, unless it was already
+   * given up on.
+   *
+   * @return ids of the emails queued
+   */
+  public Flux<Long> retryNow(LocalDateTime since) {
+    return retryRepository.enqueueFailed(since);
+  }
+
+  @Scheduled(
+      fixedDelayString = "${email.retry.interval:60000}",
+      initialDelayString = "${email.retry.interval:60000}")
+  public Mono<Void> retryDue() {
+    Duration pacing = Duration.ofNanos(1_000_000_000L / Math.max(1, rate));
+    return retryRepository
+        .claimDue(maxPerRun, lease)
+        .collectList()
+        .flatMapMany(
+            retries -> {
+              if (!retries.isEmpty()) {
+                log.info("Retrying {} failed emails", retries.size());
+              }
+              return Flux.fromIterable(retries);
+            })
+        .delayElements(pacing)
+        .flatMap(this::attempt, concurrency)
+        .then(retryRepository.purgeGivenUp(LocalDateTime.now().minus(history)))
+        .then(retryRepository.queueDepth())
+        .doOnNext(
+            depth -> {
+              queued.set(depth.queued());
+              due.set(depth.due());
+            })
+        .onErrorResume(
+            e -> {
+              log.error("Email retry run failed: {}", e.getMessage(), e);
+              return Mono.empty();
+            })
+        .then();
+  }
+
+  /** Delay before the attempt following {@code attempts} failed ones, with equal jitter. */
+  Duration backoff(int attempts) {
+    long base = baseDelay.toMillis();
+    int doublings = Math.min(attempts - 1, 30);
+    long delay = Math.min(maxDelay.toMillis(), base << doublings);
+    long half = delay / 2;
+    return Duration.ofMillis(half + ThreadLocalRandom.current().nextLong(half + 1));
+  }
+
+  private Mono<Void> attempt(EmailRetry retry) {
+    Email email = retry.email();
+    if (email == null || email.getStatus() != EmailStatus.FAILED || email.getContent() == null) {
+      // Sent in the meantime, archived or without a body: nothing left to retry
+      return retryRepository.delete(retry.emailId()).doOnSuccess(v -> count("dropped"));
+    }
+
+    return Mono.fromCallable(() -> messageFactory.createMessage(email))
+        .subscribeOn(emailBlockingScheduler)
+        .flatMap(domainSendScheduler::send)
+        .then(Mono.just(Optional.<Throwable>empty()))
+        .onErrorResume(e -> Mono.just(Optional.of(e)))
+        .flatMap(
+            failure ->
+                failure.isPresent() ? failed(retry, failure.get()) : delivered(retry, email))
+        .onErrorResume(
+            e -> {
+              // The lease expires and the retry comes due again
+              log.error("Failed to record retry of email {}: {}", email.getId(), e.getMessage());
+              return Mono.empty();
+            });
+  }
+
+  /**
+   * Records a successful attempt: the transition to {@code SENT}, its {@link EmailSentEvent} and
+   * the removal of the retry are written in one transaction. If that fails the error propagates,
+   * the lease runs out and the retry comes due again.
+   */
+  private Mono<Void> delivered(EmailRetry retry, Email email) {
+    LocalDateTime sentAt = LocalDateTime.now();
+    EmailSentEvent event =
+        EmailSentEvent.builder()
+            .emailId(email.getId())
+            .campaignId(email.getCampaignId())
+            .contactId(email.getContactId())
+            .recipientEmail(email.getRecipientEmail())
+            .trackingId(email.getTrackingId())
+            .sentAt(sentAt)
+            .build();
+
+    return transactionalOperator
+        .transactional(
+            emailRepository
+                .transitionStatus(
+                    List.of(email.getId()), email.getCreatedAt(), EmailStatus.SENT, sentAt, null)
+                .hasElements()
+                .flatMap(
+                    transitioned -> {
+                      Mono<Void> published =
+                          transitioned ? eventPublisher.publishEmailSentEvent(event) : Mono.empty();
+                      return published
+                          .then(retryRepository.delete(retry.emailId()))
+                          .thenReturn(transitioned);
+                    }))
+        .doOnNext(
+            transitioned -> {
+              count("sent");
+              log.info("Email {} sent on attempt {}", email.getId(), retry.attempts() + 1);
+              if (transitioned) {
+                email.setStatus(EmailStatus.SENT);
+                email.setSentAt(sentAt);
+                liveCampaignStats.recordDelivery(email);
+              }
+            })
+        .then();
+  }
+
+  private Mono<Void> failed(EmailRetry retry, Throwable failure) {
+    int attempts = retry.attempts() + 1;
+    boolean permanent = SendFailures.isPermanent(failure);
+    boolean exhausted = !permanent && attempts >= maxAttempts;
+    Duration delay = permanent || exhausted ? null : backoff(attempts);
+
+    if (delay != null) {
+      log.warn(
+          "Attempt {} of email {} failed, next in {}: {}",
+          attempts,
+          retry.emailId(),
+          delay,
+          failure.getMessage());
+    } else {
+      log.error(
+          "Giving up on email {} after {} attempts{}: {}",
+          retry.emailId(),
+          attempts,
+          permanent ? " (permanent failure)" : "",
+          failure.getMessage());
+    }
+
+    return retryRepository
+        .reschedule(retry.emailId(), attempts, delay, failure.getMessage())
+        .doOnSuccess(
+            v -> count(permanent ? "permanent" : exhausted ? "exhausted" : "rescheduled"));
+  }
+
+  private void count(String outcome) {
+    meterRegistry.counter("mailflow.email.retry.attempts", "outcome", outcome).increment();
+  }
+}
@@ -0,0 +1,84 @@
+package com.mailflow.emailservice.retry;
+
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.internet.AddressException;
+import org.eclipse.angus.mail.smtp.SMTPAddressFailedException;
+import org.eclipse.angus.mail.smtp.SMTPSendFailedException;
+import org.eclipse.angus.mail.smtp.SMTPSenderFailedException;
+import java.util.Arrays;
+import org.springframework.mail.MailParseException;
+import org.springframework.mail.MailSendException;
+
+/**
+ * Tells failures that sending again cannot fix from transient ones.
+ *
+ * <p>A failure is permanent when the server answered with a 5xx reply, when the recipient address
+ * cannot be parsed or was rejected as invalid, or when the message itself could not be built.
+ * Everything else, including 4xx replies, timeouts and lost connections, is worth retrying.
+ */
+public final class SendFailures {
+
+  private SendFailures() {}
+
+  /** Whether the server asked to try again later with a 4xx reply. */
+  public static boolean isDeferral(Throwable failure) {
+    for (Throwable cause = failure; cause != null; cause = next(cause)) {
+      int replyCode = replyCode(cause);
+      if (replyCode > 0) {
+        return replyCode >= 400 && replyCode < 500;
+      }
+      if (cause instanceof MailSendException mailSend
+          && mailSend.getMessageExceptions().length > 0) {
+        return Arrays.stream(mailSend.getMessageExceptions()).anyMatch(SendFailures::isDeferral);
+      }
+    }
+    return false;
+  }
+
+  public static boolean isPermanent(Throwable failure) {
+    for (Throwable cause = failure; cause != null; cause = next(cause)) {
+      int replyCode = replyCode(cause);
+      if (replyCode > 0) {
+        return replyCode >= 500;
+      }
+      if (cause instanceof MailSendException mailSend
+          && mailSend.getMessageExceptions().length > 0) {
+        return Arrays.stream(mailSend.getMessageExceptions()).allMatch(SendFailures::isPermanent);
+      }
+      if (cause instanceof AddressException || cause instanceof MailParseException) {
+        return true;
+      }
+      if (cause instanceof SendFailedException sendFailed
+          && hasAny(sendFailed.getInvalidAddresses())
+          && !hasAny(sendFailed.getValidUnsentAddresses())) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static int replyCode(Throwable cause) {
+    if (cause instanceof SMTPAddressFailedException e) {
+      return e.getReturnCode();
+    }
+    if (cause instanceof SMTPSenderFailedException e) {
+      return e.getReturnCode();
+    }
+    if (cause instanceof SMTPSendFailedException e) {
+      return e.getReturnCode();
+    }
+    return -1;
+  }
+
+  private static Throwable next(Throwable cause) {
+    if (cause instanceof MessagingException messaging && messaging.getNextException() != null) {
+      return messaging.getNextException();
+    }
+    return cause.getCause() != cause ? cause.getCause() : null;
+  }
+
+  private static boolean hasAny(Object[] values) {
+    return values != null && values.length > 0;
+  }
+}
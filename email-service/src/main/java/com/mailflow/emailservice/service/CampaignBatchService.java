@@ -0,0 +1,14 @@
+package com.mailflow.emailservice.service;
+
+import com.mailflow.events.CampaignTriggeredEvent;
+import java.util.List;
+import reactor.core.publisher.Mono;
+
+public interface CampaignBatchService {
+
+  /**
+   * Sends one email per distinct campaign/contact pair in {@code events}, completing once every
+   * email has been recorded as sent or failed.
+   */
+  Mono<Void> sendBatch(List<CampaignTriggeredEvent> events);
+}
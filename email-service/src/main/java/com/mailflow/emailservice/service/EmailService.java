@@ -1,7 +1,7 @@
 package com.mailflow.emailservice.service;
 
-import com.mailflow.emailservice.dto.campaign.CampaignTriggeredEvent;
 import com.mailflow.emailservice.dto.email.*;
+import com.mailflow.events.CampaignTriggeredEvent;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -17,7 +17,15 @@ public interface EmailService {
 
   Flux<EmailResponse> getRecentEmails(int limit);
 
-  Flux<EmailResponse> retryFailedEmails(int minutes);
+  Flux<EmailSummaryResponse> listEmails(EmailFilter filter);
+
+  /**
+   * Makes failed emails created in the last {@code minutes} due for the retry engine right away,
+   * except those it gave up on.
+   *
+   * @return number of emails queued
+   */
+  Mono<Long> retryFailedEmails(int minutes);
 
   Mono<Map<String, Object>> getEmailStatsSummary();
 
@@ -0,0 +1,373 @@
+package com.mailflow.emailservice.service.impl;
+
+import com.mailflow.emailservice.analytics.LiveCampaignStats;
+import com.mailflow.emailservice.client.ContactServiceClient;
+import com.mailflow.emailservice.domain.Email;
+import com.mailflow.emailservice.domain.EmailStatus;
+import com.mailflow.emailservice.dto.contact.ContactDTO;
+import com.mailflow.emailservice.kafka.KafkaEventPublisher;
+import com.mailflow.emailservice.mail.DomainSendScheduler;
+import com.mailflow.emailservice.mail.EmailMessageFactory;
+import com.mailflow.emailservice.repository.EmailRepository;
+import com.mailflow.emailservice.retry.EmailRetryEngine;
+import com.mailflow.emailservice.retry.SendFailures;
+import com.mailflow.emailservice.service.CampaignBatchService;
+import com.mailflow.emailservice.template.CachedTemplate;
+import com.mailflow.emailservice.template.TemplateCache;
+import com.mailflow.emailservice.template.TemplateRenderer;
+import com.mailflow.emailservice.template.TemplateRenderer.RenderedTemplate;
+import com.mailflow.events.CampaignTriggeredEvent;
+import com.mailflow.events.EmailSentEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+/**
+ * Staged send pipeline for batches of {@code campaign-triggered} events.
+ *
+ * <p>Events are grouped by campaign and template so the template is resolved once per group from
+ * the local {@link TemplateCache}. Contacts are then fetched in bulk ({@code
+ * email.batch.fetch-size} per call, {@code email.batch.fetch-concurrency} calls in flight),
+ * rendered locally and inserted with a single statement per chunk. Contacts that already have an
+ * email for the campaign, from an earlier delivery of the same events, are not created again;
+ * only their still-pending emails are sent. Pending emails are regrouped into chunks of {@code
+ * email.batch.send-chunk-size} that go out through the {@link DomainSendScheduler}, one pooled
+ * SMTP session per recipient domain within the chunk, with at most {@code
+ * email.batch.send-concurrency} chunks in flight. Each chunk's results are written back
+ * in one transaction with its {@link EmailSentEvent}s, which the outbox relay then publishes.
+ * Every operator is bounded, so a slow stage throttles the ones before it instead of queueing
+ * work.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CampaignBatchServiceImpl implements CampaignBatchService {
+
+  @Value("${email.batch.fetch-size:500}")
+  private int fetchSize;
+
+  @Value("${email.batch.fetch-concurrency:2}")
+  private int fetchConcurrency;
+
+  @Value("${email.batch.send-chunk-size:50}")
+  private int sendChunkSize;
+
+  @Value("${email.batch.send-concurrency:8}")
+  private int sendConcurrency;
+
+  private final EmailRepository emailRepository;
+  private final ContactServiceClient contactServiceClient;
+  private final TemplateCache templateCache;
+  private final TemplateRenderer templateRenderer;
+  private final EmailMessageFactory messageFactory;
+  private final DomainSendScheduler domainSendScheduler;
+  private final KafkaEventPublisher eventPublisher;
+  private final TransactionalOperator transactionalOperator;
+  private final LiveCampaignStats liveCampaignStats;
+  private final EmailRetryEngine retryEngine;
+  private final Scheduler emailBatchScheduler;
+  private final MeterRegistry meterRegistry;
+
+  @Override
+  public Mono<Void> sendBatch(List<CampaignTriggeredEvent> events) {
+    Map<GroupKey, Set<Long>> groups = new LinkedHashMap<>();
+    for (CampaignTriggeredEvent event : events) {
+      if (event == null || event.contactId() == null) {
+        continue;
+      }
+      groups
+          .computeIfAbsent(
+              new GroupKey(event.campaignId(), event.templateId()), key -> new LinkedHashSet<>())
+          .add(event.contactId());
+    }
+
+    log.info("Processing {} campaign triggered events in {} groups", events.size(), groups.size());
+
+    return Flux.fromIterable(groups.entrySet())
+        .concatMap(group -> sendGroup(group.getKey(), group.getValue()))
+        .then();
+  }
+
+  private Mono<Void> sendGroup(GroupKey key, Set<Long> contactIds) {
+    return fetchTemplate(key)
+        .flatMapMany(
+            template ->
+                Flux.fromIterable(contactIds)
+                    .buffer(fetchSize)
+                    .flatMapSequential(
+                        ids -> prepareEmails(key, template, ids), fetchConcurrency, 1))
+        .concatMapIterable(Function.identity())
+        .filter(email -> email.getStatus() == EmailStatus.PENDING)
+        .buffer(sendChunkSize)
+        .flatMap(this::sendChunk, sendConcurrency)
+        .then();
+  }
+
+  private Mono<TemplateLookup> fetchTemplate(GroupKey key) {
+    return blocking("template", () -> templateCache.get(key.templateId()))
+        .map(template -> new TemplateLookup(template, null))
+        .onErrorResume(
+            e -> {
+              log.error("Failed to fetch template {}: {}", key.templateId(), e.getMessage());
+              return Mono.just(
+                  new TemplateLookup(null, "Failed to fetch template: " + e.getMessage()));
+            });
+  }
+
+  /**
+   * Matches one chunk of contacts against the emails a previous delivery of the same triggers
+   * already created, then creates emails for the rest. A redelivered batch therefore resends only
+   * rows that never left {@code PENDING}; contacts whose email was sent, or failed and handed to
+   * the retry engine, are skipped.
+   */
+  private Mono<List<Email>> prepareEmails(GroupKey key, TemplateLookup template, List<Long> ids) {
+    return timed(
+            "dedupe", emailRepository.findCampaignEmails(key.campaignId(), ids).collectList())
+        .flatMap(
+            existing -> {
+              Map<Long, Email> byContact =
+                  existing.stream()
+                      .collect(
+                          Collectors.toMap(
+                              Email::getContactId,
+                              Function.identity(),
+                              (a, b) -> a.getStatus() == EmailStatus.PENDING ? b : a));
+              List<Email> unsent =
+                  byContact.values().stream()
+                      .filter(email -> email.getStatus() == EmailStatus.PENDING)
+                      .toList();
+              if (!byContact.isEmpty()) {
+                log.info(
+                    "Campaign {}: {} contacts already have an email, resending {} unsent",
+                    key.campaignId(),
+                    byContact.size(),
+                    unsent.size());
+                meterRegistry
+                    .counter("mailflow.batch.emails", "outcome", "duplicate")
+                    .increment(byContact.size() - unsent.size());
+              }
+
+              List<Long> fresh = ids.stream().filter(id -> !byContact.containsKey(id)).toList();
+              if (fresh.isEmpty()) {
+                return Mono.just(unsent);
+              }
+              return createEmails(key, template, fresh)
+                  .map(
+                      created -> {
+                        List<Email> emails = new ArrayList<>(created.size() + unsent.size());
+                        emails.addAll(unsent);
+                        emails.addAll(created);
+                        return emails;
+                      });
+            });
+  }
+
+  /** Fetches, renders and inserts one chunk of contacts, failed rows included. */
+  private Mono<List<Email>> createEmails(GroupKey key, TemplateLookup template, List<Long> ids) {
+    Mono<List<Email>> emails =
+        template.error() != null
+            ? Mono.just(failedEmails(key, ids, template.error()))
+            : blocking("contacts", () -> contactServiceClient.getContacts(ids))
+                .map(contacts -> renderEmails(key, template.template(), ids, contacts))
+                .switchIfEmpty(
+                    Mono.fromSupplier(() -> renderEmails(key, template.template(), ids, List.of())))
+                .onErrorResume(
+                    e -> {
+                      log.error("Failed to fetch {} contacts: {}", ids.size(), e.getMessage());
+                      return Mono.just(
+                          failedEmails(key, ids, "Failed to fetch contacts: " + e.getMessage()));
+                    });
+
+    return emails.flatMap(
+        rows ->
+            timed("insert", emailRepository.insertAll(rows).collectList())
+                .doOnNext(
+                    saved -> {
+                      long failed =
+                          saved.stream().filter(e -> e.getStatus() == EmailStatus.FAILED).count();
+                      meterRegistry
+                          .counter("mailflow.batch.emails", "outcome", "failed")
+                          .increment(failed);
+                      saved.forEach(liveCampaignStats::recordDelivery);
+                    }));
+  }
+
+  private List<Email> renderEmails(
+      GroupKey key, CachedTemplate template, List<Long> ids, List<ContactDTO> contacts) {
+    Timer.Sample sample = Timer.start(meterRegistry);
+    Map<Long, ContactDTO> byId =
+        contacts.stream()
+            .collect(Collectors.toMap(ContactDTO::id, Function.identity(), (a, b) -> a));
+
+    List<Email> emails = new ArrayList<>(ids.size());
+    for (Long contactId : ids) {
+      ContactDTO contact = byId.get(contactId);
+      if (contact == null || contact.email() == null) {
+        emails.add(failedEmail(key, contactId, "Contact or contact email is null"));
+        continue;
+      }
+
+      String trackingId = UUID.randomUUID().toString();
+      RenderedTemplate rendered =
+          templateRenderer.render(template, templateRenderer.contactVariables(contact));
+      emails.add(
+          Email.builder()
+              .campaignId(key.campaignId())
+              .contactId(contactId)
+              .templateId(key.templateId())
+              .recipientEmail(contact.email())
+              .subject(rendered.subject())
+              .content(rendered.content())
+              .status(EmailStatus.PENDING)
+              .trackingId(trackingId)
+              .build());
+    }
+
+    sample.stop(meterRegistry.timer("mailflow.batch.stage", "stage", "render"));
+    return emails;
+  }
+
+  private Mono<Void> sendChunk(List<Email> chunk) {
+    return timed(
+            "send",
+            Mono.fromCallable(() -> createMessages(chunk))
+                .subscribeOn(emailBatchScheduler)
+                .flatMap(messages -> deliver(chunk, messages)))
+        .flatMap(
+            sentAt ->
+                transactionalOperator.transactional(
+                    timed(
+                            "update",
+                            emailRepository
+                                .updateDeliveryResults(chunk, sentAt)
+                                .collect(Collectors.toSet()))
+                        .map(updated -> transitioned(chunk, updated))
+                        .flatMap(updated -> publishSentEvents(updated).thenReturn(updated))))
+        .doOnNext(updated -> updated.forEach(liveCampaignStats::recordDelivery))
+        .then(Mono.defer(() -> retryEngine.schedule(chunk)));
+  }
+
+  /**
+   * The emails of the chunk whose status was written; a redelivered email that another instance
+   * already moved on is neither announced nor counted again.
+   */
+  private static List<Email> transitioned(List<Email> chunk, Set<Long> updatedIds) {
+    return chunk.stream().filter(email -> updatedIds.contains(email.getId())).toList();
+  }
+
+  private Map<MimeMessage, Email> createMessages(List<Email> chunk) {
+    Map<MimeMessage, Email> messages = new LinkedHashMap<>();
+    for (Email email : chunk) {
+      try {
+        messages.put(messageFactory.createMessage(email), email);
+      } catch (MessagingException e) {
+        markFailed(email, e);
+      }
+    }
+    return messages;
+  }
+
+  /**
+   * Hands the chunk to the domain send scheduler, which sends each recipient domain's share over
+   * one SMTP session within that domain's limits, and marks each email SENT or FAILED.
+   */
+  private Mono<LocalDateTime> deliver(List<Email> chunk, Map<MimeMessage, Email> messages) {
+    return domainSendScheduler
+        .send(new ArrayList<>(messages.keySet()))
+        .map(
+            failures -> {
+              if (!failures.isEmpty()) {
+                log.error("Failed to send {} of {} emails", failures.size(), messages.size());
+              }
+              failures.forEach((message, error) -> markFailed(messages.get(message), error));
+              return countDelivered(chunk);
+            });
+  }
+
+  private LocalDateTime countDelivered(List<Email> chunk) {
+    long sent = 0;
+    for (Email email : chunk) {
+      if (email.getStatus() == EmailStatus.PENDING) {
+        email.setStatus(EmailStatus.SENT);
+        sent++;
+      }
+    }
+    meterRegistry.counter("mailflow.batch.emails", "outcome", "sent").increment(sent);
+    meterRegistry
+        .counter("mailflow.batch.emails", "outcome", "failed")
+        .increment(chunk.size() - sent);
+    return LocalDateTime.now();
+  }
+
+  private Mono<Void> publishSentEvents(List<Email> chunk) {
+    List<EmailSentEvent> events =
+        chunk.stream()
+            .filter(email -> email.getStatus() == EmailStatus.SENT)
+            .map(
+                email ->
+                    EmailSentEvent.builder()
+                        .emailId(email.getId())
+                        .campaignId(email.getCampaignId())
+                        .contactId(email.getContactId())
+                        .recipientEmail(email.getRecipientEmail())
+                        .trackingId(email.getTrackingId())
+                        .sentAt(email.getSentAt())
+                        .build())
+            .toList();
+
+    // Written with the delivery results, so a failure rolls both back
+    return timed("publish", eventPublisher.publishEmailSentEvents(events));
+  }
+
+  private List<Email> failedEmails(GroupKey key, List<Long> ids, String errorMessage) {
+    return ids.stream().map(id -> failedEmail(key, id, errorMessage)).toList();
+  }
+
+  private Email failedEmail(GroupKey key, Long contactId, String errorMessage) {
+    return Email.builder()
+        .campaignId(key.campaignId())
+        .contactId(contactId)
+        .templateId(key.templateId())
+        .status(EmailStatus.FAILED)
+        .trackingId(UUID.randomUUID().toString())
+        .errorMessage(errorMessage)
+        .build();
+  }
+
+  private void markFailed(Email email, Exception error) {
+    email.setStatus(EmailStatus.FAILED);
+    email.setErrorMessage(error.getMessage());
+    email.setPermanentFailure(SendFailures.isPermanent(error));
+  }
+
+  private <T> Mono<T> blocking(String stage, Callable<T> callable) {
+    return timed(stage, Mono.fromCallable(callable).subscribeOn(emailBatchScheduler));
+  }
+
+  private <T> Mono<T> timed(String stage, Mono<T> mono) {
+    return Mono.defer(
+        () -> {
+          Timer.Sample sample = Timer.start(meterRegistry);
+          return mono.doFinally(
+              signal -> sample.stop(meterRegistry.timer("mailflow.batch.stage", "stage", stage)));
+        });
+  }
+
+  private record GroupKey(Long campaignId, Long templateId) {}
+
+  private record TemplateLookup(CachedTemplate template, String error) {}
+}
@@ -1,47 +1,60 @@
 package com.mailflow.emailservice.service.impl;
 
+import com.mailflow.emailservice.analytics.DailyStatsCache;
+import com.mailflow.emailservice.analytics.LiveCampaignStats;
 import com.mailflow.emailservice.client.ContactServiceClient;
-import com.mailflow.emailservice.client.TemplateServiceClient;
 import com.mailflow.emailservice.domain.Email;
 import com.mailflow.emailservice.domain.EmailStatus;
-import com.mailflow.emailservice.dto.campaign.CampaignTriggeredEvent;
-import com.mailflow.emailservice.dto.contact.ContactDTO;
-import com.mailflow.emailservice.dto.email.EmailAnalyticsDTO;
+import com.mailflow.emailservice.dto.email.EmailDailyStatsDTO;
+import com.mailflow.emailservice.dto.email.EmailFilter;
+import com.mailflow.emailservice.dto.email.EmailSummaryResponse;
 import com.mailflow.emailservice.dto.email.EmailResponse;
-import com.mailflow.emailservice.dto.email.EmailSentEvent;
+import com.mailflow.emailservice.exception.InvalidRequestException;
 import com.mailflow.emailservice.kafka.KafkaEventPublisher;
+import com.mailflow.emailservice.mail.DomainSendScheduler;
+import com.mailflow.emailservice.mail.EmailMessageFactory;
 import com.mailflow.emailservice.mapper.EmailMapper;
 import com.mailflow.emailservice.repository.EmailRepository;
+import com.mailflow.emailservice.retry.EmailRetryEngine;
+import com.mailflow.emailservice.retry.SendFailures;
 import com.mailflow.emailservice.service.EmailService;
-import jakarta.mail.MessagingException;
-import jakarta.mail.internet.MimeMessage;
+import com.mailflow.emailservice.template.TemplateRenderer;
+import com.mailflow.events.CampaignTriggeredEvent;
+import com.mailflow.events.EmailSentEvent;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
 import java.util.*;
 import java.util.concurrent.Callable;
+import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
+import reactor.core.scheduler.Scheduler;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class EmailServiceImpl implements EmailService {
 
-  @Value("${base.url}")
-  private String baseUrl;
+  private static final int MAX_LIST_PAGE_SIZE = 1000;
 
   private final EmailRepository emailRepository;
   private final ContactServiceClient contactServiceClient;
-  private final TemplateServiceClient templateServiceClient;
-  private final JavaMailSender mailSender;
+  private final DomainSendScheduler domainSendScheduler;
+  private final EmailMessageFactory messageFactory;
+  private final TemplateRenderer templateRenderer;
   private final KafkaEventPublisher eventPublisher;
   private final EmailMapper emailMapper;
+  private final DailyStatsCache dailyStatsCache;
+  private final LiveCampaignStats liveCampaignStats;
+  private final EmailRetryEngine retryEngine;
+  private final Scheduler emailBlockingScheduler;
+  private final TransactionalOperator transactionalOperator;
 
   @Override
   public Mono<EmailResponse> sendEmail(Long campaignId, Long contactId, Long templateId) {
@@ -73,133 +86,73 @@ public class EmailServiceImpl implements EmailService {
                     campaignId, contactId, templateId, null, "Contact or contact email is null");
               }
 
-              // Get template information
-              return executeBlocking(() -> templateServiceClient.getTemplate(templateId))
+              Map<String, String> variables = templateRenderer.contactVariables(contact);
+
+              // Render locally from the template cache, falling back to template-service
+              return executeBlocking(() -> templateRenderer.render(templateId, variables))
                   .onErrorResume(
                       e -> {
-                        log.error("Failed to fetch template: {}", e.getMessage());
+                        log.error("Failed to render template: {}", e.getMessage());
                         return createFailedEmail(
                                 campaignId,
                                 contactId,
                                 templateId,
                                 contact.email(),
-                                "Failed to fetch template: " + e.getMessage())
+                                "Failed to render template: " + e.getMessage())
                             .flatMap(response -> Mono.empty());
                       })
                   .flatMap(
-                      template -> {
-                        if (template == null) {
-                          return createFailedEmail(
-                              campaignId,
-                              contactId,
-                              templateId,
-                              contact.email(),
-                              "Template is null");
-                        }
-
-                        // Prepare variables for template rendering
-                        Map<String, String> variables = prepareTemplateVariables(contact);
-
-                        // Render the template
-                        return executeBlocking(
-                                () -> templateServiceClient.renderTemplate(templateId, variables))
-                            .onErrorResume(
-                                e -> {
-                                  log.error("Failed to render template: {}", e.getMessage());
-                                  return createFailedEmail(
-                                          campaignId,
-                                          contactId,
-                                          templateId,
-                                          contact.email(),
-                                          "Failed to render template: " + e.getMessage())
-                                      .flatMap(response -> Mono.empty());
-                                })
+                      renderedTemplate -> {
+                        String subject = renderedTemplate.subject();
+                        String content = renderedTemplate.content();
+
+                        Email email =
+                            Email.builder()
+                                .campaignId(campaignId)
+                                .contactId(contactId)
+                                .templateId(templateId)
+                                .recipientEmail(contact.email())
+                                .subject(subject)
+                                .content(content)
+                                .status(EmailStatus.PENDING)
+                                .trackingId(trackingId)
+                                .build();
+
+                        // Save email and its body in database
+                        return emailRepository
+                            .insertAll(List.of(email))
+                            .singleOrEmpty()
                             .flatMap(
-                                renderedTemplate -> {
-                                  if (renderedTemplate == null) {
-                                    return createFailedEmail(
-                                        campaignId,
-                                        contactId,
-                                        templateId,
-                                        contact.email(),
-                                        "Rendered template is null");
-                                  }
-
-                                  String subject = renderedTemplate.get("subject");
-                                  String content = renderedTemplate.get("content");
-
-                                  // Add tracking pixel to content
-                                  content = addTrackingPixel(content, trackingId);
-
-                                  Email email =
-                                      Email.builder()
-                                          .campaignId(campaignId)
-                                          .contactId(contactId)
-                                          .templateId(templateId)
-                                          .recipientEmail(contact.email())
-                                          .subject(subject)
-                                          .content(content)
-                                          .status(EmailStatus.PENDING)
-                                          .trackingId(trackingId)
-                                          .build();
-
-                                  // Save email in database
-                                  return emailRepository
-                                      .save(email)
+                                savedEmail -> {
+                                  // Send email asynchronously
+                                  return sendMimeMessage(savedEmail)
+                                      .then(
+                                          Mono.fromSupplier(
+                                              () -> {
+                                                savedEmail.setStatus(EmailStatus.SENT);
+                                                savedEmail.setSentAt(LocalDateTime.now());
+                                                return savedEmail;
+                                              }))
+                                      .onErrorResume(
+                                          e -> {
+                                            log.error(
+                                                "Failed to send email: {}", e.getMessage(), e);
+                                            savedEmail.setStatus(EmailStatus.FAILED);
+                                            savedEmail.setErrorMessage(e.getMessage());
+                                            savedEmail.setPermanentFailure(
+                                                SendFailures.isPermanent(e));
+                                            return Mono.just(savedEmail);
+                                          })
+                                      .flatMap(this::recordDeliveryResult)
                                       .flatMap(
-                                          savedEmail -> {
-                                            // Send email asynchronously
-                                            return Mono.fromCallable(
-                                                    () -> {
-                                                      try {
-                                                        sendMimeMessage(savedEmail);
-                                                        savedEmail.setStatus(EmailStatus.SENT);
-                                                        savedEmail.setSentAt(LocalDateTime.now());
-                                                        return savedEmail;
-                                                      } catch (Exception e) {
-                                                        log.error(
-                                                            "Failed to send email: {}",
-                                                            e.getMessage(),
-                                                            e);
-                                                        savedEmail.setStatus(EmailStatus.FAILED);
-                                                        savedEmail.setErrorMessage(e.getMessage());
-                                                        return savedEmail;
-                                                      }
-                                                    })
-                                                .subscribeOn(Schedulers.boundedElastic())
-                                                .flatMap(emailRepository::save)
-                                                .doOnNext(
-                                                    sentEmail -> {
-                                                      if (sentEmail.getStatus()
-                                                          == EmailStatus.SENT) {
-                                                        // Publish email sent event
-                                                        EmailSentEvent sentEvent =
-                                                            EmailSentEvent.builder()
-                                                                .emailId(sentEmail.getId())
-                                                                .campaignId(
-                                                                    sentEmail.getCampaignId())
-                                                                .contactId(sentEmail.getContactId())
-                                                                .recipientEmail(
-                                                                    sentEmail.getRecipientEmail())
-                                                                .trackingId(
-                                                                    sentEmail.getTrackingId())
-                                                                .sentAt(sentEmail.getSentAt())
-                                                                .build();
-
-                                                        eventPublisher
-                                                            .publishEmailSentEvent(sentEvent)
-                                                            .subscribe(
-                                                                null,
-                                                                error ->
-                                                                    log.error(
-                                                                        "Failed to publish email sent event: {}",
-                                                                        error.getMessage(),
-                                                                        error));
-                                                      }
-                                                    })
-                                                .map(emailMapper::toResponse);
-                                          });
-                                });
+                                          result ->
+                                              retryEngine
+                                                  .schedule(List.of(result))
+                                                  .thenReturn(result))
+                                      .map(emailMapper::toResponse);
+                                })
+                            .switchIfEmpty(
+                                Mono.defer(() -> existingEmail(campaignId, contactId)));
                       });
             });
   }
@@ -220,48 +173,94 @@ public class EmailServiceImpl implements EmailService {
 
   @Override
   public Mono<EmailResponse> getEmail(Long id) {
-    return emailRepository.findById(id).map(emailMapper::toResponse);
+    return emailRepository
+        .findById(id)
+        .flatMap(
+            email ->
+                emailRepository
+                    .findContent(email.getContentHash())
+                    .doOnNext(email::setContent)
+                    .thenReturn(email))
+        .map(emailMapper::toResponse);
   }
 
   @Override
   public Flux<EmailResponse> getRecentEmails(int limit) {
-    return emailRepository.findRecentEmails(limit).map(emailMapper::toResponse);
+    return emailRepository
+        .findRecentEmails(limit)
+        .collectList()
+        .flatMapMany(
+            emails ->
+                emailRepository
+                    .findContents(
+                        emails.stream()
+                            .map(Email::getContentHash)
+                            .filter(Objects::nonNull)
+                            .collect(Collectors.toSet()))
+                    .flatMapIterable(
+                        contents -> {
+                          for (Email email : emails) {
+                            if (email.getContentHash() != null) {
+                              email.setContent(contents.get(email.getContentHash()));
+                            }
+                          }
+                          return emails;
+                        }))
+        .map(emailMapper::toResponse);
   }
 
   @Override
-  public Flux<EmailResponse> retryFailedEmails(int minutes) {
-    LocalDateTime timeout = LocalDateTime.now().minusMinutes(minutes);
+  public Flux<EmailSummaryResponse> listEmails(EmailFilter filter) {
+    if ((filter.beforeCreatedAt() == null) != (filter.beforeId() == null)) {
+      return Flux.error(
+          new InvalidRequestException("beforeCreatedAt and beforeId must be given together"));
+    }
+    if (filter.from() != null && filter.to() != null && filter.from().isAfter(filter.to())) {
+      return Flux.error(new InvalidRequestException("from must not be after to"));
+    }
+    int size = Math.max(1, Math.min(filter.size(), MAX_LIST_PAGE_SIZE));
+    return emailRepository.findEmails(
+        filter.size() == size ? filter : filter.toBuilder().size(size).build());
+  }
 
-    return emailRepository
-        .findByStatusAndTimeout(EmailStatus.FAILED, timeout)
-        .flatMap(
-            email -> {
-              log.info("Retrying failed email: {}", email.getId());
-              return sendEmail(email.getCampaignId(), email.getContactId(), email.getTemplateId());
-            });
+  @Override
+  public Mono<Long> retryFailedEmails(int minutes) {
+    return retryEngine
+        .retryNow(LocalDateTime.now().minusMinutes(minutes))
+        .count()
+        .doOnNext(queued -> log.info("Queued {} failed emails for an immediate retry", queued));
   }
 
     @Override
     public Mono<Map<String, Object>> getEmailAnalytics(String period) {
-        LocalDateTime startDate = getStartDateForPeriod(period);
+        LocalDate startDate = getStartDateForPeriod(period).toLocalDate();
 
-        return emailRepository
-                .getEmailAnalytics(startDate)
-                .collectList()
+        return dailyStatsCache
+                .getDailyStats(startDate)
                 .map(
-                        results -> {
+                        days -> {
+                            Map<YearMonth, long[]> months = new LinkedHashMap<>();
+                            for (EmailDailyStatsDTO day : days) {
+                                long[] totals =
+                                        months.computeIfAbsent(
+                                                YearMonth.from(day.day()), month -> new long[3]);
+                                totals[0] += day.sent();
+                                totals[1] += day.opened();
+                                totals[2] += day.clicked();
+                            }
+
                             List<String> labels = new ArrayList<>();
                             List<Long> sent = new ArrayList<>();
                             List<Long> opened = new ArrayList<>();
                             List<Long> clicked = new ArrayList<>();
 
-                            for (EmailAnalyticsDTO result : results) {
-                                String monthName = getMonthName(result.month());
-                                labels.add(monthName);
-                                sent.add(result.sent() != null ? result.sent() : 0L);
-                                opened.add(result.opened() != null ? result.opened() : 0L);
-                                clicked.add(result.clicked() != null ? result.clicked() : 0L);
-                            }
+                            months.forEach(
+                                    (month, totals) -> {
+                                        labels.add(getMonthName(month.getMonthValue()));
+                                        sent.add(totals[0]);
+                                        opened.add(totals[1]);
+                                        clicked.add(totals[2]);
+                                    });
 
                             Map<String, Object> response = new HashMap<>();
                             response.put("labels", labels);
@@ -293,45 +292,26 @@ public class EmailServiceImpl implements EmailService {
 
   @Override
   public Mono<Map<String, Object>> getEmailStatsSummary() {
-    LocalDateTime lastMonthStart =
-        LocalDateTime.now()
-            .minusMonths(1)
-            .withDayOfMonth(1)
-            .withHour(0)
-            .withMinute(0)
-            .withSecond(0);
-    LocalDateTime thisMonthStart =
-        LocalDateTime.now().withDayOfMonth(1).withHour(0).withMinute(0).withSecond(0);
-
-    // Current month stats
-    Mono<Long> totalSent =
-        emailRepository.countByStatusAndCreatedAtAfter(EmailStatus.SENT, thisMonthStart);
-    Mono<Long> totalOpened =
-        emailRepository.countByStatusAndCreatedAtAfter(EmailStatus.OPENED, thisMonthStart);
-    Mono<Long> totalClicked =
-        emailRepository.countByStatusAndCreatedAtAfter(EmailStatus.CLICKED, thisMonthStart);
-
-    // Previous month stats
-    Mono<Long> lastMonthSent =
-        emailRepository.countByStatusAndCreatedAtBetween(
-            EmailStatus.SENT, lastMonthStart, thisMonthStart);
-    Mono<Long> lastMonthOpened =
-        emailRepository.countByStatusAndCreatedAtBetween(
-            EmailStatus.OPENED, lastMonthStart, thisMonthStart);
-    Mono<Long> lastMonthClicked =
-        emailRepository.countByStatusAndCreatedAtBetween(
-            EmailStatus.CLICKED, lastMonthStart, thisMonthStart);
-
-    return Mono.zip(
-            totalSent, totalOpened, totalClicked, lastMonthSent, lastMonthOpened, lastMonthClicked)
+    LocalDate thisMonthStart = LocalDate.now(ZoneOffset.UTC).withDayOfMonth(1);
+    LocalDate lastMonthStart = thisMonthStart.minusMonths(1);
+
+    return dailyStatsCache
+        .getDailyStats(lastMonthStart)
         .map(
-            tuple -> {
-              long sent = tuple.getT1();
-              long opened = tuple.getT2();
-              long clicked = tuple.getT3();
-              long prevSent = tuple.getT4();
-              long prevOpened = tuple.getT5();
-              long prevClicked = tuple.getT6();
+            days -> {
+              long sent = 0, opened = 0, clicked = 0;
+              long prevSent = 0, prevOpened = 0, prevClicked = 0;
+              for (EmailDailyStatsDTO day : days) {
+                if (day.day().isBefore(thisMonthStart)) {
+                  prevSent += day.sent();
+                  prevOpened += day.opened();
+                  prevClicked += day.clicked();
+                } else {
+                  sent += day.sent();
+                  opened += day.opened();
+                  clicked += day.clicked();
+                }
+              }
 
               double openRate = sent > 0 ? (double) opened / sent * 100 : 0;
               double prevOpenRate = prevSent > 0 ? (double) prevOpened / prevSent * 100 : 0;
@@ -362,7 +342,8 @@ public class EmailServiceImpl implements EmailService {
   }
 
   private LocalDateTime getStartDateForPeriod(String period) {
-    LocalDateTime now = LocalDateTime.now();
+    // Daily stats are kept per UTC day
+    LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
     return switch (period.toLowerCase()) {
       case "week" -> now.minusWeeks(1);
       case "month" -> now.minusMonths(1);
@@ -388,45 +369,76 @@ public class EmailServiceImpl implements EmailService {
             .errorMessage(errorMessage)
             .build();
 
-    return emailRepository.save(failedEmail).map(emailMapper::toResponse);
+    // Claims the pair like a sent email, so a redelivered trigger finds this row instead
+    return emailRepository
+        .insertAll(List.of(failedEmail))
+        .singleOrEmpty()
+        .doOnNext(liveCampaignStats::recordDelivery)
+        .map(emailMapper::toResponse)
+        .switchIfEmpty(Mono.defer(() -> existingEmail(campaignId, contactId)));
   }
 
-  private <T> Mono<T> executeBlocking(Callable<T> callable) {
-    return Mono.fromCallable(callable).subscribeOn(Schedulers.boundedElastic());
+  /** The email a campaign already has for a contact, which is returned instead of sending again. */
+  private Mono<EmailResponse> existingEmail(Long campaignId, Long contactId) {
+    log.info("Campaign {} already has an email for contact {}", campaignId, contactId);
+    return emailRepository
+        .findCampaignEmails(campaignId, List.of(contactId))
+        .next()
+        .map(emailMapper::toResponse);
   }
 
-  private Map<String, String> prepareTemplateVariables(ContactDTO contact) {
-    Map<String, String> variables = new HashMap<>();
-
-    variables.put("email", contact.email());
-    variables.put("firstName", contact.firstName());
-    variables.put("lastName", contact.lastName());
-    variables.put("fullName", contact.firstName() + " " + contact.lastName());
-
-    return variables;
+  /**
+   * Writes the send outcome as a status transition instead of saving the whole row again. A sent
+   * email's {@link EmailSentEvent} is written in the same transaction, so it is recorded exactly
+   * when the transition commits; a failure to write it rolls the transition back and is returned.
+   */
+  private Mono<Email> recordDeliveryResult(Email email) {
+    LocalDateTime at = email.getSentAt() != null ? email.getSentAt() : LocalDateTime.now();
+    return transactionalOperator
+        .transactional(
+            emailRepository
+                .transitionStatus(
+                    List.of(email.getId()),
+                    email.getCreatedAt(),
+                    email.getStatus(),
+                    at,
+                    email.getErrorMessage())
+                .hasElements()
+                .flatMap(
+                    transitioned ->
+                        transitioned && email.getStatus() == EmailStatus.SENT
+                            ? eventPublisher
+                                .publishEmailSentEvent(sentEvent(email))
+                                .thenReturn(true)
+                            : Mono.just(transitioned)))
+        .map(
+            transitioned -> {
+              if (transitioned) {
+                email.setVersion(email.getVersion() != null ? email.getVersion() + 1 : 1L);
+                liveCampaignStats.recordDelivery(email);
+              }
+              return email;
+            });
   }
 
-  private String addTrackingPixel(String content, String trackingId) {
-    String trackingPixel =
-        "<img src=\"" + baseUrl + "/t/" + trackingId + "\" width=\"1\" height=\"1\" alt=\"\" />";
-
-    // Add tracking pixel before the closing body tag
-    if (content.contains("</body>")) {
-      return content.replace("</body>", trackingPixel + "</body>");
-    } else {
-      return content + trackingPixel;
-    }
+  private static EmailSentEvent sentEvent(Email email) {
+    return EmailSentEvent.builder()
+        .emailId(email.getId())
+        .campaignId(email.getCampaignId())
+        .contactId(email.getContactId())
+        .recipientEmail(email.getRecipientEmail())
+        .trackingId(email.getTrackingId())
+        .sentAt(email.getSentAt())
+        .build();
   }
 
-  private void sendMimeMessage(Email email) throws MessagingException {
-    MimeMessage message = mailSender.createMimeMessage();
-    MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-
-    helper.setTo(email.getRecipientEmail());
-    helper.setSubject(email.getSubject());
-    helper.setText(email.getContent(), true);
+  private <T> Mono<T> executeBlocking(Callable<T> callable) {
+    return Mono.fromCallable(callable).subscribeOn(emailBlockingScheduler);
+  }
 
-    mailSender.send(message);
-    log.info("Email sent to: {}", email.getRecipientEmail());
+  private Mono<Void> sendMimeMessage(Email email) {
+    return executeBlocking(() -> messageFactory.createMessage(email))
+        .flatMap(domainSendScheduler::send)
+        .doOnSuccess(sent -> log.info("Email sent to: {}", email.getRecipientEmail()));
   }
 }
@@ -0,0 +1,28 @@
+package com.mailflow.emailservice.template;
+
+import com.mailflow.emailservice.dto.template.TemplateDTO;
+import com.mailflow.templates.CompiledTemplate;
+import java.util.HashMap;
+import java.util.Map;
+
+/** Compiled subject and content of one template version, as held by {@link TemplateCache}. */
+public record CachedTemplate(
+    Long id,
+    Long version,
+    CompiledTemplate subject,
+    CompiledTemplate content,
+    Map<String, String> defaults,
+    long loadedAtNanos) {
+
+  static CachedTemplate compile(TemplateDTO template) {
+    Map<String, String> defaults =
+        template.variables() != null ? new HashMap<>(template.variables()) : new HashMap<>();
+    return new CachedTemplate(
+        template.id(),
+        template.version(),
+        CompiledTemplate.compile(template.subject(), defaults.keySet()),
+        CompiledTemplate.compile(template.content(), defaults.keySet()),
+        defaults,
+        System.nanoTime());
+  }
+}
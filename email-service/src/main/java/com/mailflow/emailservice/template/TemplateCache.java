@@ -0,0 +1,120 @@
+package com.mailflow.emailservice.template;
+
+import com.mailflow.emailservice.client.TemplateServiceClient;
+import com.mailflow.emailservice.dto.template.TemplateChangedEvent;
+import com.mailflow.emailservice.dto.template.TemplateDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Local copy of compiled templates, refreshed when template-service announces a change on {@code
+ * template-events}. Entries also expire after {@code template.cache.ttl} as a safety net for
+ * missed events.
+ *
+ * <p>{@link #get(Long)} may call template-service and therefore blocks. Each entry is the future of
+ * its load, so concurrent misses for a template wait for one call, and the call itself runs outside
+ * the map's locks, without holding up lookups of other templates.
+ */
+@Component
+@Slf4j
+public class TemplateCache {
+
+  private final TemplateServiceClient templateServiceClient;
+  private final Duration ttl;
+  private final Map<Long, CompletableFuture<CachedTemplate>> templates = new ConcurrentHashMap<>();
+  private final Counter hits;
+  private final Counter misses;
+
+  public TemplateCache(
+      TemplateServiceClient templateServiceClient,
+      MeterRegistry meterRegistry,
+      @Value("${template.cache.ttl:10m}") Duration ttl) {
+    this.templateServiceClient = templateServiceClient;
+    this.ttl = ttl;
+    this.hits = meterRegistry.counter("mailflow.template.cache.requests", "result", "hit");
+    this.misses = meterRegistry.counter("mailflow.template.cache.requests", "result", "miss");
+    Gauge.builder("mailflow.template.cache.size", templates, Map::size).register(meterRegistry);
+  }
+
+  public CachedTemplate get(Long templateId) {
+    CompletableFuture<CachedTemplate> cached = templates.get(templateId);
+    if (cached != null && isFresh(cached)) {
+      hits.increment();
+      return await(cached);
+    }
+    if (cached != null) {
+      templates.remove(templateId, cached);
+    }
+
+    CompletableFuture<CachedTemplate> loading = new CompletableFuture<>();
+    CompletableFuture<CachedTemplate> current =
+        templates.computeIfAbsent(templateId, id -> loading);
+    if (current != loading) {
+      return await(current);
+    }
+    try {
+      loading.complete(load(templateId));
+    } catch (RuntimeException e) {
+      templates.remove(templateId, loading);
+      loading.completeExceptionally(e);
+      throw e;
+    }
+    return loading.join();
+  }
+
+  /**
+   * Drops the cached copy if it is older than the version announced by {@code event}, or if it is
+   * still being loaded and may predate the change.
+   */
+  public void onTemplateChanged(TemplateChangedEvent event) {
+    templates.computeIfPresent(
+        event.templateId(),
+        (id, cached) ->
+            !cached.isDone()
+                    || cached.isCompletedExceptionally()
+                    || "DELETED".equals(event.changeType())
+                    || event.version() == null
+                    || cached.join().version() == null
+                    || cached.join().version() < event.version()
+                ? null
+                : cached);
+  }
+
+  private CachedTemplate load(Long templateId) {
+    misses.increment();
+    TemplateDTO template = templateServiceClient.getTemplate(templateId);
+    if (template == null) {
+      throw new IllegalStateException("Template " + templateId + " not found");
+    }
+
+    CachedTemplate compiled = CachedTemplate.compile(template);
+    log.debug("Cached template {} version {}", templateId, compiled.version());
+    return compiled;
+  }
+
+  /** A load in progress counts as fresh: callers wait for it rather than start another. */
+  private boolean isFresh(CompletableFuture<CachedTemplate> cached) {
+    if (!cached.isDone()) {
+      return true;
+    }
+    return !cached.isCompletedExceptionally()
+        && System.nanoTime() - cached.join().loadedAtNanos() < ttl.toNanos();
+  }
+
+  private static CachedTemplate await(CompletableFuture<CachedTemplate> loading) {
+    try {
+      return loading.join();
+    } catch (CompletionException e) {
+      throw e.getCause() instanceof RuntimeException cause ? cause : e;
+    }
+  }
+}
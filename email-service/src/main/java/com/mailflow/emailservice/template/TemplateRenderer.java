@@ -0,0 +1,56 @@
+package com.mailflow.emailservice.template;
+
+import com.mailflow.emailservice.client.TemplateServiceClient;
+import com.mailflow.emailservice.dto.contact.ContactDTO;
+import java.util.HashMap;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Renders templates in-process from {@link TemplateCache}, with the same rules as
+ * template-service's {@code /render} endpoint. The endpoint is only called when the local path
+ * fails.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TemplateRenderer {
+
+  private final TemplateCache templateCache;
+  private final TemplateServiceClient templateServiceClient;
+
+  /** Renders {@code templateId} locally, falling back to template-service. Blocking. */
+  public RenderedTemplate render(Long templateId, Map<String, String> values) {
+    try {
+      return render(templateCache.get(templateId), values);
+    } catch (RuntimeException e) {
+      log.warn(
+          "Local rendering of template {} failed, falling back to template-service: {}",
+          templateId,
+          e.getMessage());
+      Map<String, String> rendered = templateServiceClient.renderTemplate(templateId, values);
+      return new RenderedTemplate(rendered.get("subject"), rendered.get("content"));
+    }
+  }
+
+  public RenderedTemplate render(CachedTemplate template, Map<String, String> values) {
+    return new RenderedTemplate(
+        template.subject().render(values, template.defaults()),
+        template.content().render(values, template.defaults()));
+  }
+
+  public Map<String, String> contactVariables(ContactDTO contact) {
+    Map<String, String> variables = new HashMap<>();
+
+    variables.put("email", contact.email());
+    variables.put("firstName", contact.firstName());
+    variables.put("lastName", contact.lastName());
+    variables.put("fullName", contact.firstName() + " " + contact.lastName());
+
+    return variables;
+  }
+
+  public record RenderedTemplate(String subject, String content) {}
+}
@@ -0,0 +1,8 @@
+package com.mailflow.emailservice.tracking;
+
+/**
+ * An email whose row was changed by a tracking flush; {@code opened} and {@code clicked} tell
+ * whether this flush set the corresponding timestamp for the first time.
+ */
+public record TrackedEmail(
+    Long emailId, Long campaignId, String trackingId, boolean opened, boolean clicked) {}
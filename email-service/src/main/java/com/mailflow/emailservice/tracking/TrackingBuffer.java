@@ -0,0 +1,268 @@
+package com.mailflow.emailservice.tracking;
+
+import com.mailflow.emailservice.analytics.LiveCampaignStats;
+import com.mailflow.emailservice.domain.EmailStatus;
+import com.mailflow.emailservice.kafka.KafkaEventPublisher;
+import com.mailflow.emailservice.repository.EmailRepository;
+import com.mailflow.events.EmailStatusEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.locks.LockSupport;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+/**
+ * Write-behind buffer for open and click hits.
+ *
+ * <p>Tracking endpoints only {@link #record} a hit into a bounded queue and answer immediately. A
+ * single flusher thread drains the queue every {@code tracking.buffer.flush-interval}, or as soon
+ * as {@code tracking.buffer.max-batch} hits are waiting, coalesces the hits per tracking id and
+ * applies them with one status-only {@code UPDATE}. In the same transaction one {@link
+ * EmailStatusEvent} is written to the outbox per email that actually moved forward, so repeated
+ * opens of the same email cost nothing beyond the queue slot. Hits for emails older than {@code
+ * tracking.max-email-age} are ignored, which keeps the update to the most recent partitions.
+ *
+ * <p>When the queue is full new hits are dropped and counted rather than blocking the request
+ * thread. A failed database write puts the batch back on the queue for the next flush. The
+ * lifecycle phase is below the web server's, so on shutdown the server stops accepting hits before
+ * the remaining ones are drained within {@code tracking.buffer.shutdown-timeout}.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TrackingBuffer implements SmartLifecycle {
+
+  @Value("${tracking.buffer.capacity:100000}")
+  private int capacity;
+
+  @Value("${tracking.buffer.max-batch:5000}")
+  private int maxBatch;
+
+  @Value("${tracking.buffer.flush-interval:1s}")
+  private Duration flushInterval;
+
+  @Value("${tracking.buffer.write-timeout:30s}")
+  private Duration writeTimeout;
+
+  @Value("${tracking.buffer.shutdown-timeout:10s}")
+  private Duration shutdownTimeout;
+
+  @Value("${tracking.max-email-age:90d}")
+  private Duration maxEmailAge;
+
+  private final EmailRepository emailRepository;
+  private final KafkaEventPublisher eventPublisher;
+  private final TransactionalOperator transactionalOperator;
+  private final LiveCampaignStats liveCampaignStats;
+  private final MeterRegistry meterRegistry;
+
+  private BlockingQueue<TrackingHit> queue;
+  private Counter acceptedHits;
+  private Counter droppedHits;
+  private Counter failedHits;
+  private Counter transitions;
+  private Timer flushTimer;
+
+  private volatile Thread flusher;
+  private volatile boolean running;
+
+  @PostConstruct
+  void init() {
+    queue = new ArrayBlockingQueue<>(capacity);
+    acceptedHits = hitCounter("accepted");
+    droppedHits = hitCounter("dropped");
+    failedHits = hitCounter("failed");
+    transitions =
+        Counter.builder("mailflow.tracking.transitions")
+            .description("Emails moved forward by tracking hits")
+            .register(meterRegistry);
+    flushTimer =
+        Timer.builder("mailflow.tracking.flush")
+            .description("Time spent writing and publishing one batch of tracking hits")
+            .register(meterRegistry);
+    Gauge.builder("mailflow.tracking.buffer.size", queue, BlockingQueue::size)
+        .description("Tracking hits waiting to be flushed")
+        .register(meterRegistry);
+  }
+
+  /** Queues a hit without blocking; returns {@code false} if the buffer is full. */
+  public boolean record(TrackingHit hit) {
+    if (!queue.offer(hit)) {
+      droppedHits.increment();
+      log.warn("Tracking buffer full, dropping hit for {}", hit.trackingId());
+      return false;
+    }
+    acceptedHits.increment();
+    Thread thread = flusher;
+    if (thread != null && queue.size() >= maxBatch) {
+      LockSupport.unpark(thread);
+    }
+    return true;
+  }
+
+  @Override
+  public void start() {
+    running = true;
+    Thread thread = new Thread(this::run, "tracking-flusher");
+    thread.setDaemon(true);
+    flusher = thread;
+    thread.start();
+  }
+
+  @Override
+  public void stop() {
+    running = false;
+    Thread thread = flusher;
+    if (thread == null) {
+      return;
+    }
+    LockSupport.unpark(thread);
+    try {
+      thread.join(shutdownTimeout.toMillis());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    if (thread.isAlive()) {
+      log.warn(
+          "Tracking buffer not drained within {}, {} hits lost", shutdownTimeout, queue.size());
+      thread.interrupt();
+    }
+    flusher = null;
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  @Override
+  public int getPhase() {
+    // Stop after the web server so no hit arrives once the final drain has started
+    return DEFAULT_PHASE - 4096;
+  }
+
+  private void run() {
+    while (running) {
+      if (queue.size() < maxBatch) {
+        LockSupport.parkNanos(this, flushInterval.toNanos());
+      }
+      flushQueued(true);
+    }
+    log.info("Draining {} buffered tracking hits", queue.size());
+    flushQueued(false);
+  }
+
+  void flushQueued(boolean retry) {
+    List<TrackingHit> batch = new ArrayList<>(Math.min(maxBatch, queue.size()));
+    while (queue.drainTo(batch, maxBatch) > 0) {
+      if (!flush(batch) && retry) {
+        // Leave the rest for the next interval instead of hammering a failing database
+        return;
+      }
+      batch.clear();
+    }
+  }
+
+  private boolean flush(List<TrackingHit> batch) {
+    Map<String, TrackingHit> coalesced = new LinkedHashMap<>();
+    for (TrackingHit hit : batch) {
+      coalesced.merge(hit.trackingId(), hit, TrackingHit::merge);
+    }
+
+    Timer.Sample sample = Timer.start(meterRegistry);
+    List<TrackedEmail> updated;
+    try {
+      updated =
+          transactionalOperator
+              .transactional(
+                  emailRepository
+                      .applyTrackingHits(
+                          new ArrayList<>(coalesced.values()),
+                          LocalDateTime.now().minus(maxEmailAge))
+                      .collectList()
+                      .flatMap(
+                          rows ->
+                              eventPublisher
+                                  .publishEmailStatusEvents(statusEvents(rows, coalesced))
+                                  .thenReturn(rows)))
+              .block(writeTimeout);
+    } catch (RuntimeException e) {
+      log.error("Failed to write {} tracking hits: {}", coalesced.size(), e.getMessage(), e);
+      requeue(coalesced.values());
+      sample.stop(flushTimer);
+      return false;
+    }
+
+    if (updated != null && !updated.isEmpty()) {
+      transitions.increment(updated.size());
+      updated.forEach(this::recordLiveStats);
+    }
+    sample.stop(flushTimer);
+    log.debug(
+        "Flushed {} tracking hits for {} emails, {} updated",
+        batch.size(),
+        coalesced.size(),
+        updated != null ? updated.size() : 0);
+    return true;
+  }
+
+  private List<EmailStatusEvent> statusEvents(
+      List<TrackedEmail> updated, Map<String, TrackingHit> hits) {
+    List<EmailStatusEvent> events = new ArrayList<>(updated.size());
+    for (TrackedEmail email : updated) {
+      TrackingHit hit = hits.get(email.trackingId());
+      events.add(
+          EmailStatusEvent.builder()
+              .emailId(email.emailId())
+              .trackingId(email.trackingId())
+              .status(hit.status().name())
+              .timestamp(hit.status() == EmailStatus.CLICKED ? hit.clickedAt() : hit.openedAt())
+              .metadata(hit.url())
+              .build());
+    }
+    return events;
+  }
+
+  private void recordLiveStats(TrackedEmail email) {
+    if (email.opened()) {
+      liveCampaignStats.recordOpened(email.campaignId());
+    }
+    if (email.clicked()) {
+      liveCampaignStats.recordClicked(email.campaignId());
+    }
+  }
+
+  private void requeue(Iterable<TrackingHit> hits) {
+    if (!running) {
+      hits.forEach(hit -> failedHits.increment());
+      return;
+    }
+    for (TrackingHit hit : hits) {
+      if (!queue.offer(hit)) {
+        failedHits.increment();
+      }
+    }
+  }
+
+  private Counter hitCounter(String outcome) {
+    return Counter.builder("mailflow.tracking.hits")
+        .description("Open and click hits by buffer outcome")
+        .tag("outcome", outcome)
+        .register(meterRegistry);
+  }
+}
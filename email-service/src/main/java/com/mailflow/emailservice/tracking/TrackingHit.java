@@ -0,0 +1,43 @@
+package com.mailflow.emailservice.tracking;
+
+import com.mailflow.emailservice.domain.EmailStatus;
+import java.time.LocalDateTime;
+
+/**
+ * One or more open/click hits for the same tracking id. Merging keeps the furthest status, the
+ * first time each event was seen and the most recent clicked URL.
+ */
+public record TrackingHit(
+    String trackingId,
+    EmailStatus status,
+    LocalDateTime openedAt,
+    LocalDateTime clickedAt,
+    String url) {
+
+  public static TrackingHit open(String trackingId, LocalDateTime at) {
+    return new TrackingHit(trackingId, EmailStatus.OPENED, at, null, null);
+  }
+
+  public static TrackingHit click(String trackingId, LocalDateTime at, String url) {
+    return new TrackingHit(trackingId, EmailStatus.CLICKED, null, at, url);
+  }
+
+  public TrackingHit merge(TrackingHit later) {
+    return new TrackingHit(
+        trackingId,
+        later.status.rank() > status.rank() ? later.status : status,
+        earliest(openedAt, later.openedAt),
+        earliest(clickedAt, later.clickedAt),
+        later.url != null ? later.url : url);
+  }
+
+  private static LocalDateTime earliest(LocalDateTime a, LocalDateTime b) {
+    if (a == null) {
+      return b;
+    }
+    if (b == null) {
+      return a;
+    }
+    return a.isBefore(b) ? a : b;
+  }
+}
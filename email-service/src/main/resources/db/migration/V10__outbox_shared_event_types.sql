@@ -0,0 +1,9 @@
+-- Event records moved to the shared mailflow-events module. Rows still waiting in the outbox name
+-- the old classes, which no longer exist, so point them at the new ones.
+UPDATE outbox_events
+SET payload_type = 'com.mailflow.events.EmailSentEvent'
+WHERE payload_type = 'com.mailflow.emailservice.dto.email.EmailSentEvent';
+
+UPDATE outbox_events
+SET payload_type = 'com.mailflow.events.EmailStatusEvent'
+WHERE payload_type = 'com.mailflow.emailservice.dto.email.EmailStatusEvent';
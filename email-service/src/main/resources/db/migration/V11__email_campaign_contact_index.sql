@@ -0,0 +1,3 @@
+-- A redelivered campaign-triggered batch is matched against the emails it already created by
+-- (campaign_id, contact_id), one chunk of contacts at a time.
+CREATE INDEX IF NOT EXISTS idx_emails_campaign_contact ON emails (campaign_id, contact_id);
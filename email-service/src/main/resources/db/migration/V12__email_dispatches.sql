@@ -0,0 +1,17 @@
+-- One row per (campaign, contact) the batch pipeline has created an email for. emails is
+-- partitioned by created_at, so it cannot carry a unique key on the pair itself; batch inserts
+-- claim the pair here in the same statement and skip the email when it is already taken.
+CREATE TABLE email_dispatches
+(
+    campaign_id BIGINT                      NOT NULL,
+    contact_id  BIGINT                      NOT NULL,
+    created_at  TIMESTAMP WITHOUT TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT pk_email_dispatches PRIMARY KEY (campaign_id, contact_id)
+);
+
+INSERT INTO email_dispatches (campaign_id, contact_id, created_at)
+SELECT campaign_id, contact_id, MIN(created_at)
+FROM emails
+WHERE campaign_id IS NOT NULL
+  AND contact_id IS NOT NULL
+GROUP BY campaign_id, contact_id;
@@ -0,0 +1,33 @@
+-- Bodies copied by V4 still carry the tracking pixel the old send path baked into the content.
+-- EmailMessageFactory now adds the pixel when the message is built, so a retried legacy email
+-- would carry two pixels. Each body loses the pixel of the email that references it, is
+-- stored under the hash of the stripped content, and the body it replaces is dropped once no
+-- email references it any more.
+CREATE TEMPORARY TABLE stripped_bodies ON COMMIT DROP AS
+SELECT e.id,
+       e.created_at,
+       e.content_hash AS old_hash,
+       regexp_replace(
+           b.content,
+           '<img src="[^"]*/t/' || e.tracking_id || '" width="1" height="1" alt="" />',
+           '',
+           'g') AS content
+FROM emails e
+JOIN email_bodies b ON b.content_hash = e.content_hash
+WHERE e.tracking_id IS NOT NULL
+  AND strpos(b.content, '/t/' || e.tracking_id || '"') > 0;
+
+INSERT INTO email_bodies (content_hash, content)
+SELECT DISTINCT encode(sha256(convert_to(content, 'UTF8')), 'hex'), content
+FROM stripped_bodies
+ON CONFLICT (content_hash) DO NOTHING;
+
+UPDATE emails e
+SET content_hash = encode(sha256(convert_to(s.content, 'UTF8')), 'hex')
+FROM stripped_bodies s
+WHERE e.id = s.id
+  AND e.created_at = s.created_at;
+
+DELETE FROM email_bodies b
+WHERE b.content_hash IN (SELECT old_hash FROM stripped_bodies)
+  AND NOT EXISTS (SELECT 1 FROM emails e WHERE e.content_hash = b.content_hash);
@@ -0,0 +1,60 @@
+-- Every statement that sent or tracked emails of a campaign upserted the same (day, campaign_id)
+-- row, so concurrent batches of one campaign queued on that row's lock until commit. Counters are
+-- now spread over 16 rows per campaign and day. A statement picks its row by the backend pid of
+-- its connection, so statements running side by side on different connections rarely share one.
+-- Readers sum the shards.
+ALTER TABLE email_daily_stats ADD COLUMN shard SMALLINT NOT NULL DEFAULT 0;
+ALTER TABLE email_daily_stats DROP CONSTRAINT email_daily_stats_pkey;
+ALTER TABLE email_daily_stats ADD PRIMARY KEY (day, campaign_id, shard);
+
+-- Days are UTC, whatever the session time zone, matching DailyStatsCache
+CREATE OR REPLACE FUNCTION email_daily_stats_on_insert() RETURNS TRIGGER AS
+$$
+BEGIN
+    INSERT INTO email_daily_stats AS s (day, campaign_id, shard, sent, failed)
+    SELECT CAST(now() AT TIME ZONE 'UTC' AS DATE),
+           n.campaign_id,
+           pg_backend_pid() % 16,
+           COUNT(*) FILTER (WHERE n.sent_at IS NOT NULL),
+           COUNT(*) FILTER (WHERE n.status = 'FAILED')
+    FROM new_rows n
+    GROUP BY n.campaign_id
+    HAVING COUNT(*) FILTER (WHERE n.sent_at IS NOT NULL OR n.status = 'FAILED') > 0
+    ORDER BY n.campaign_id
+    ON CONFLICT (day, campaign_id, shard) DO UPDATE
+        SET sent = s.sent + EXCLUDED.sent,
+            failed = s.failed + EXCLUDED.failed;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION email_daily_stats_on_update() RETURNS TRIGGER AS
+$$
+BEGIN
+    INSERT INTO email_daily_stats AS s (day, campaign_id, shard, sent, opened, clicked, failed)
+    SELECT CAST(now() AT TIME ZONE 'UTC' AS DATE),
+           d.campaign_id,
+           pg_backend_pid() % 16,
+           d.sent,
+           d.opened,
+           d.clicked,
+           d.failed
+    FROM (SELECT n.campaign_id,
+                 COUNT(*) FILTER (WHERE o.sent_at IS NULL AND n.sent_at IS NOT NULL) AS sent,
+                 COUNT(*) FILTER (WHERE o.opened_at IS NULL AND n.opened_at IS NOT NULL) AS opened,
+                 COUNT(*) FILTER (WHERE o.clicked_at IS NULL AND n.clicked_at IS NOT NULL)
+                     AS clicked,
+                 COUNT(*) FILTER (WHERE o.status <> 'FAILED' AND n.status = 'FAILED') AS failed
+          FROM new_rows n
+                   JOIN old_rows o ON o.id = n.id
+          GROUP BY n.campaign_id) d
+    WHERE d.sent + d.opened + d.clicked + d.failed > 0
+    ORDER BY d.campaign_id
+    ON CONFLICT (day, campaign_id, shard) DO UPDATE
+        SET sent = s.sent + EXCLUDED.sent,
+            opened = s.opened + EXCLUDED.opened,
+            clicked = s.clicked + EXCLUDED.clicked,
+            failed = s.failed + EXCLUDED.failed;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
@@ -0,0 +1,6 @@
+-- Partition retention drops the bodies no email references any more. A body can be shared with a
+-- new email while its old month is being archived, so every insert that reuses a body marks it as
+-- used, and retention keeps bodies used after the archived month. Rows from before this
+-- migration keep a NULL mark until they are reused, which avoids rewriting the whole table.
+ALTER TABLE email_bodies ADD COLUMN last_used_at TIMESTAMP;
+ALTER TABLE email_bodies ALTER COLUMN last_used_at SET DEFAULT NOW();
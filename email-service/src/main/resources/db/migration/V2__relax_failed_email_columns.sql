@@ -0,0 +1,5 @@
+-- Emails that fail before a contact or template could be resolved are still recorded, so their
+-- recipient, subject and content may be unknown.
+ALTER TABLE emails ALTER COLUMN recipient_email DROP NOT NULL;
+ALTER TABLE emails ALTER COLUMN subject DROP NOT NULL;
+ALTER TABLE emails ALTER COLUMN content DROP NOT NULL;
@@ -0,0 +1,14 @@
+-- Order of email statuses along the delivery funnel. Tracking updates only ever move an email
+-- forward, so a late open can never overwrite a click. Must match EmailStatus#rank().
+CREATE OR REPLACE FUNCTION email_status_rank(status VARCHAR) RETURNS INT AS
+$$
+SELECT CASE status
+           WHEN 'PENDING' THEN 0
+           WHEN 'FAILED' THEN 1
+           WHEN 'SENT' THEN 2
+           WHEN 'DELIVERED' THEN 3
+           WHEN 'OPENED' THEN 4
+           WHEN 'CLICKED' THEN 5
+           ELSE 0
+           END
+$$ LANGUAGE sql IMMUTABLE;
@@ -0,0 +1,24 @@
+-- Rendered bodies live in an append-only table keyed by the SHA-256 of their content, so status
+-- updates rewrite only the small emails row and identical bodies are stored once. Bodies are not
+-- referenced by a foreign key: they are never deleted while emails point at them, and the insert
+-- path stays a plain append.
+CREATE TABLE IF NOT EXISTS email_bodies (
+    content_hash CHAR(64) PRIMARY KEY,
+    content TEXT NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT NOW()
+);
+
+ALTER TABLE emails ADD COLUMN content_hash CHAR(64);
+
+INSERT INTO email_bodies (content_hash, content)
+SELECT encode(sha256(convert_to(content, 'UTF8')), 'hex'), content
+FROM emails
+WHERE content IS NOT NULL
+ON CONFLICT (content_hash) DO NOTHING;
+
+UPDATE emails
+SET content_hash = encode(sha256(convert_to(content, 'UTF8')), 'hex')
+WHERE content IS NOT NULL;
+
+-- The space of the dropped column is reclaimed as rows are rewritten, or at once by VACUUM FULL
+ALTER TABLE emails DROP COLUMN content;
@@ -0,0 +1,91 @@
+-- Per-campaign, per-day event counters behind /stats and /analytics. An email counts as sent,
+-- opened, clicked or failed on the day that happened, independently of the status it has now.
+CREATE TABLE IF NOT EXISTS email_daily_stats (
+    day DATE NOT NULL,
+    campaign_id BIGINT NOT NULL,
+    sent BIGINT NOT NULL DEFAULT 0,
+    opened BIGINT NOT NULL DEFAULT 0,
+    clicked BIGINT NOT NULL DEFAULT 0,
+    failed BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (day, campaign_id)
+);
+
+-- Statement-level triggers see every row a statement touched at once, so a batched update of
+-- thousands of emails becomes one upsert per campaign. Campaigns are upserted in id order so
+-- concurrent statements lock the counter rows in the same order.
+CREATE OR REPLACE FUNCTION email_daily_stats_on_insert() RETURNS TRIGGER AS
+$$
+BEGIN
+    INSERT INTO email_daily_stats AS s (day, campaign_id, sent, failed)
+    SELECT CURRENT_DATE,
+           n.campaign_id,
+           COUNT(*) FILTER (WHERE n.sent_at IS NOT NULL),
+           COUNT(*) FILTER (WHERE n.status = 'FAILED')
+    FROM new_rows n
+    GROUP BY n.campaign_id
+    HAVING COUNT(*) FILTER (WHERE n.sent_at IS NOT NULL OR n.status = 'FAILED') > 0
+    ORDER BY n.campaign_id
+    ON CONFLICT (day, campaign_id) DO UPDATE
+        SET sent = s.sent + EXCLUDED.sent,
+            failed = s.failed + EXCLUDED.failed;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION email_daily_stats_on_update() RETURNS TRIGGER AS
+$$
+BEGIN
+    INSERT INTO email_daily_stats AS s (day, campaign_id, sent, opened, clicked, failed)
+    SELECT CURRENT_DATE, d.campaign_id, d.sent, d.opened, d.clicked, d.failed
+    FROM (SELECT n.campaign_id,
+                 COUNT(*) FILTER (WHERE o.sent_at IS NULL AND n.sent_at IS NOT NULL) AS sent,
+                 COUNT(*) FILTER (WHERE o.opened_at IS NULL AND n.opened_at IS NOT NULL) AS opened,
+                 COUNT(*) FILTER (WHERE o.clicked_at IS NULL AND n.clicked_at IS NOT NULL)
+                     AS clicked,
+                 COUNT(*) FILTER (WHERE o.status <> 'FAILED' AND n.status = 'FAILED') AS failed
+          FROM new_rows n
+                   JOIN old_rows o ON o.id = n.id
+          GROUP BY n.campaign_id) d
+    WHERE d.sent + d.opened + d.clicked + d.failed > 0
+    ORDER BY d.campaign_id
+    ON CONFLICT (day, campaign_id) DO UPDATE
+        SET sent = s.sent + EXCLUDED.sent,
+            opened = s.opened + EXCLUDED.opened,
+            clicked = s.clicked + EXCLUDED.clicked,
+            failed = s.failed + EXCLUDED.failed;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER emails_daily_stats_insert
+    AFTER INSERT ON emails
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT
+EXECUTE FUNCTION email_daily_stats_on_insert();
+
+CREATE TRIGGER emails_daily_stats_update
+    AFTER UPDATE ON emails
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT
+EXECUTE FUNCTION email_daily_stats_on_update();
+
+-- Backfill from the timestamps already recorded on existing emails
+INSERT INTO email_daily_stats (day, campaign_id, sent, opened, clicked, failed)
+SELECT day, campaign_id, SUM(sent), SUM(opened), SUM(clicked), SUM(failed)
+FROM (SELECT CAST(sent_at AS DATE) AS day, campaign_id, 1 AS sent, 0 AS opened, 0 AS clicked,
+             0 AS failed
+      FROM emails
+      WHERE sent_at IS NOT NULL
+      UNION ALL
+      SELECT CAST(opened_at AS DATE), campaign_id, 0, 1, 0, 0
+      FROM emails
+      WHERE opened_at IS NOT NULL
+      UNION ALL
+      SELECT CAST(clicked_at AS DATE), campaign_id, 0, 0, 1, 0
+      FROM emails
+      WHERE clicked_at IS NOT NULL
+      UNION ALL
+      SELECT CAST(updated_at AS DATE), campaign_id, 0, 0, 0, 1
+      FROM emails
+      WHERE status = 'FAILED') events
+GROUP BY day, campaign_id;
@@ -0,0 +1,20 @@
+-- Keyset listing walks (created_at, id) newest first, optionally narrowed by one equality filter.
+-- Each filterable column gets a composite index ending in the sort key, replacing its single-column
+-- index, so a page is a bounded index range scan whatever the filter.
+DROP INDEX IF EXISTS idx_emails_created_at;
+CREATE INDEX IF NOT EXISTS idx_emails_created_at_id ON emails (created_at DESC, id DESC);
+
+DROP INDEX IF EXISTS idx_emails_campaign_id;
+CREATE INDEX IF NOT EXISTS idx_emails_campaign_created_at
+    ON emails (campaign_id, created_at DESC, id DESC);
+
+DROP INDEX IF EXISTS idx_emails_contact_id;
+CREATE INDEX IF NOT EXISTS idx_emails_contact_created_at
+    ON emails (contact_id, created_at DESC, id DESC);
+
+DROP INDEX IF EXISTS idx_emails_status;
+CREATE INDEX IF NOT EXISTS idx_emails_status_created_at
+    ON emails (status, created_at DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS idx_emails_recipient_created_at
+    ON emails (recipient_email, created_at DESC, id DESC);
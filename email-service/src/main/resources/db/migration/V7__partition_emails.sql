@@ -0,0 +1,66 @@
+-- Range-partition emails by created_at month. Old months can then be archived and dropped as a
+-- whole instead of deleted row by row, and queries bounded on created_at only touch the months
+-- they need. Partitions are named emails_pYYYYMM; EmailPartitionMaintenance keeps future months
+-- created and applies the retention policy.
+--
+-- The table is rebuilt and copied in one transaction, so large installations should run this in
+-- a maintenance window.
+
+ALTER TABLE emails RENAME TO emails_legacy;
+DROP TRIGGER IF EXISTS emails_daily_stats_insert ON emails_legacy;
+DROP TRIGGER IF EXISTS emails_daily_stats_update ON emails_legacy;
+
+CREATE TABLE emails (LIKE emails_legacy INCLUDING DEFAULTS) PARTITION BY RANGE (created_at);
+ALTER SEQUENCE emails_id_seq OWNED BY emails.id;
+
+CREATE OR REPLACE FUNCTION create_email_partition(month DATE) RETURNS TEXT AS
+$$
+DECLARE
+    start_at DATE := date_trunc('month', month);
+    partition_name TEXT := 'emails_p' || to_char(start_at, 'YYYYMM');
+BEGIN
+    EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF emails FOR VALUES FROM (%L) TO (%L)',
+                   partition_name, start_at, (start_at + INTERVAL '1 month')::date);
+    RETURN partition_name;
+END;
+$$ LANGUAGE plpgsql;
+
+SELECT create_email_partition(CAST(month AS DATE))
+FROM (SELECT COALESCE(MIN(created_at), NOW()) AS oldest,
+             GREATEST(MAX(created_at), NOW()) AS newest
+      FROM emails_legacy) bounds,
+     generate_series(date_trunc('month', bounds.oldest),
+                     date_trunc('month', bounds.newest) + INTERVAL '3 months',
+                     INTERVAL '1 month') AS month;
+
+INSERT INTO emails SELECT * FROM emails_legacy;
+DROP TABLE emails_legacy;
+
+-- The partition key has to be part of every unique index
+ALTER TABLE emails ADD PRIMARY KEY (id, created_at);
+CREATE INDEX IF NOT EXISTS idx_emails_tracking_id ON emails (tracking_id);
+CREATE INDEX IF NOT EXISTS idx_emails_created_at_id ON emails (created_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_emails_campaign_created_at
+    ON emails (campaign_id, created_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_emails_contact_created_at
+    ON emails (contact_id, created_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_emails_status_created_at
+    ON emails (status, created_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_emails_recipient_created_at
+    ON emails (recipient_email, created_at DESC, id DESC);
+
+-- Statement triggers with transition tables are allowed on the partitioned parent and see the
+-- rows of every partition a statement touched
+CREATE TRIGGER emails_daily_stats_insert
+    AFTER INSERT ON emails
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT
+EXECUTE FUNCTION email_daily_stats_on_insert();
+
+CREATE TRIGGER emails_daily_stats_update
+    AFTER UPDATE ON emails
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT
+EXECUTE FUNCTION email_daily_stats_on_update();
+
+ANALYZE emails;
@@ -0,0 +1,29 @@
+-- Retry schedule for emails whose delivery failed. A retry resends the existing row and its stored
+-- body, so only emails with a content_hash are scheduled. A NULL next_attempt_at marks a retry
+-- that was given up on, either after a permanent failure or once attempts ran out; those rows are
+-- kept for a while so the same email is not queued again.
+--
+-- There is no foreign key to emails: a partitioned emails table could not detach partitions that
+-- are still referenced. The retry engine drops schedule rows whose email no longer exists.
+CREATE TABLE IF NOT EXISTS email_retries (
+    email_id BIGINT PRIMARY KEY,
+    email_created_at TIMESTAMP NOT NULL,
+    attempts INT NOT NULL DEFAULT 1,
+    next_attempt_at TIMESTAMP,
+    last_error TEXT,
+    created_at TIMESTAMP NOT NULL DEFAULT NOW(),
+    updated_at TIMESTAMP NOT NULL DEFAULT NOW()
+);
+
+CREATE INDEX IF NOT EXISTS idx_email_retries_next_attempt_at
+    ON email_retries (next_attempt_at)
+    WHERE next_attempt_at IS NOT NULL;
+
+-- Failures of the last day were still being picked up by the old scheduled retry
+INSERT INTO email_retries (email_id, email_created_at, next_attempt_at, last_error)
+SELECT id, created_at, NOW(), error_message
+FROM emails
+WHERE status = 'FAILED'
+  AND content_hash IS NOT NULL
+  AND created_at >= NOW() - INTERVAL '1 day'
+ON CONFLICT (email_id) DO NOTHING;
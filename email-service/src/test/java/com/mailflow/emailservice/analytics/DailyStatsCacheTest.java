@@ -0,0 +1,115 @@
+package com.mailflow.emailservice.analytics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.mailflow.emailservice.dto.email.EmailDailyStatsDTO;
+import com.mailflow.emailservice.repository.EmailRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+public class DailyStatsCacheTest {
+
+  // Still March 2nd in New York, already March 3rd in UTC
+  private static final Clock CLOCK =
+      Clock.fixed(Instant.parse("2026-03-03T01:30:00Z"), ZoneId.of("America/New_York"));
+  private static final LocalDate TODAY = LocalDate.of(2026, 3, 3);
+
+  private final EmailRepository emailRepository = mock(EmailRepository.class);
+
+  @Test
+  @DisplayName("Should load past days once and serve narrower requests from memory")
+  void shouldCachePastDays() {
+    // Arrange
+    DailyStatsCache cache = cache(Duration.ofHours(1));
+    when(emailRepository.findDailyStats(TODAY.minusDays(7), TODAY.minusDays(1)))
+        .thenReturn(Flux.just(stats(TODAY.minusDays(5), 4), stats(TODAY.minusDays(2), 6)));
+    when(emailRepository.findDailyStats(TODAY, TODAY)).thenReturn(Flux.just(stats(TODAY, 1)));
+
+    // Act
+    List<EmailDailyStatsDTO> week = cache.getDailyStats(TODAY.minusDays(7)).block();
+    List<EmailDailyStatsDTO> days = cache.getDailyStats(TODAY.minusDays(3)).block();
+
+    // Assert
+    assertThat(week)
+        .extracting(EmailDailyStatsDTO::day)
+        .containsExactly(TODAY.minusDays(5), TODAY.minusDays(2), TODAY);
+    assertThat(days)
+        .extracting(EmailDailyStatsDTO::day)
+        .containsExactly(TODAY.minusDays(2), TODAY);
+    verify(emailRepository).findDailyStats(TODAY.minusDays(7), TODAY.minusDays(1));
+    verify(emailRepository).findDailyStats(TODAY, TODAY);
+  }
+
+  @Test
+  @DisplayName("Should reload history for a request reaching further back")
+  void shouldReloadForOlderRange() {
+    // Arrange
+    DailyStatsCache cache = cache(Duration.ofHours(1));
+    when(emailRepository.findDailyStats(TODAY.minusDays(3), TODAY.minusDays(1)))
+        .thenReturn(Flux.just(stats(TODAY.minusDays(2), 6)));
+    when(emailRepository.findDailyStats(TODAY.minusDays(30), TODAY.minusDays(1)))
+        .thenReturn(Flux.just(stats(TODAY.minusDays(20), 3), stats(TODAY.minusDays(2), 6)));
+    when(emailRepository.findDailyStats(TODAY, TODAY)).thenReturn(Flux.empty());
+
+    // Act
+    cache.getDailyStats(TODAY.minusDays(3)).block();
+    List<EmailDailyStatsDTO> month = cache.getDailyStats(TODAY.minusDays(30)).block();
+
+    // Assert
+    assertThat(month)
+        .extracting(EmailDailyStatsDTO::day)
+        .containsExactly(TODAY.minusDays(20), TODAY.minusDays(2), TODAY);
+    verify(emailRepository).findDailyStats(TODAY.minusDays(30), TODAY.minusDays(1));
+  }
+
+  @Test
+  @DisplayName("Should re-read today's counters once they are older than the TTL")
+  void shouldRefreshToday() {
+    // Arrange
+    DailyStatsCache cache = cache(Duration.ZERO);
+    when(emailRepository.findDailyStats(TODAY, TODAY))
+        .thenReturn(Flux.just(stats(TODAY, 1)), Flux.just(stats(TODAY, 2)));
+
+    // Act
+    cache.getDailyStats(TODAY).block();
+    List<EmailDailyStatsDTO> days = cache.getDailyStats(TODAY).block();
+
+    // Assert
+    assertThat(days).extracting(EmailDailyStatsDTO::sent).containsExactly(2L);
+    verify(emailRepository, times(2)).findDailyStats(TODAY, TODAY);
+  }
+
+  @Test
+  @DisplayName("Should report an idle UTC day as zeros")
+  void shouldReportIdleDayAsZeros() {
+    // Arrange
+    DailyStatsCache cache = cache(Duration.ofHours(1));
+    when(emailRepository.findDailyStats(TODAY, TODAY)).thenReturn(Flux.empty());
+
+    // Act
+    List<EmailDailyStatsDTO> days = cache.getDailyStats(TODAY).block();
+
+    // Assert
+    assertThat(days).containsExactly(new EmailDailyStatsDTO(TODAY, 0L, 0L, 0L, 0L));
+  }
+
+  private DailyStatsCache cache(Duration todayTtl) {
+    return new DailyStatsCache(emailRepository, new SimpleMeterRegistry(), todayTtl, CLOCK);
+  }
+
+  private static EmailDailyStatsDTO stats(LocalDate day, long sent) {
+    return new EmailDailyStatsDTO(day, sent, 0L, 0L, 0L);
+  }
+}
@@ -0,0 +1,135 @@
+package com.mailflow.emailservice.analytics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.mailflow.emailservice.domain.Email;
+import com.mailflow.emailservice.domain.EmailStatus;
+import com.mailflow.emailservice.dto.email.CampaignStatsDTO;
+import com.mailflow.emailservice.repository.EmailRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.test.scheduler.VirtualTimeScheduler;
+
+public class LiveCampaignStatsTest {
+
+  private static final Duration TICK = Duration.ofSeconds(1);
+
+  private final EmailRepository emailRepository = mock(EmailRepository.class);
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  private VirtualTimeScheduler timer;
+  private LiveCampaignStats stats;
+
+  @BeforeEach
+  void setUp() {
+    // Flux.interval runs on the parallel scheduler, which this replaces
+    timer = VirtualTimeScheduler.getOrSet();
+    stats =
+        new LiveCampaignStats(
+            emailRepository, meterRegistry, TICK, Duration.ofMinutes(30), Duration.ofHours(1));
+    when(emailRepository.findCampaignStats(1L))
+        .thenReturn(Mono.just(new CampaignStatsDTO(1L, 5L, 2L, 1L, 0L)));
+  }
+
+  @AfterEach
+  void tearDown() {
+    VirtualTimeScheduler.reset();
+  }
+
+  @Test
+  @DisplayName("Should start from the rollup and emit only changed snapshots")
+  void shouldEmitChangedSnapshots() {
+    // Arrange
+    List<CampaignStatsDTO> snapshots = new ArrayList<>();
+    Disposable subscription =
+        stats
+            .stream(1L)
+            .filter(event -> event.data() != null)
+            .subscribe(event -> snapshots.add(event.data()));
+    timer.advanceTime();
+
+    // Act
+    timer.advanceTimeBy(TICK.multipliedBy(3));
+    stats.recordDelivery(email(1L, EmailStatus.SENT));
+    stats.recordDelivery(email(1L, EmailStatus.FAILED));
+    stats.recordDelivery(email(1L, EmailStatus.PENDING));
+    stats.recordOpened(1L);
+    stats.recordClicked(1L);
+    stats.recordOpened(2L);
+    timer.advanceTimeBy(TICK);
+    subscription.dispose();
+
+    // Assert
+    assertThat(snapshots)
+        .containsExactly(
+            new CampaignStatsDTO(1L, 5L, 2L, 1L, 0L), new CampaignStatsDTO(1L, 6L, 3L, 2L, 1L));
+  }
+
+  @Test
+  @DisplayName("Should not count events of campaigns nobody watches")
+  void shouldIgnoreUnwatchedCampaigns() {
+    // Arrange
+    stats.recordDelivery(email(1L, EmailStatus.SENT));
+    stats.recordOpened(1L);
+    List<CampaignStatsDTO> snapshots = new ArrayList<>();
+
+    // Act
+    Disposable subscription =
+        stats
+            .stream(1L)
+            .filter(event -> event.data() != null)
+            .subscribe(event -> snapshots.add(event.data()));
+    timer.advanceTime();
+    subscription.dispose();
+
+    // Assert
+    assertThat(snapshots).containsExactly(new CampaignStatsDTO(1L, 5L, 2L, 1L, 0L));
+  }
+
+  @Test
+  @DisplayName("Should share one stream between subscribers and drop it after the last leaves")
+  void shouldShareAndReleaseStream() {
+    // Arrange
+    Disposable first = stats.stream(1L).subscribe();
+    Disposable second = stats.stream(1L).subscribe();
+    timer.advanceTime();
+    assertThat(watchedCampaigns()).isEqualTo(1);
+
+    // Act
+    first.dispose();
+    timer.advanceTimeBy(TICK.multipliedBy(2));
+    assertThat(watchedCampaigns()).isEqualTo(1);
+    second.dispose();
+    timer.advanceTimeBy(TICK.multipliedBy(2));
+
+    // Assert
+    assertThat(watchedCampaigns()).isZero();
+    verify(emailRepository).findCampaignStats(1L);
+
+    // A new subscriber gets a new stream
+    Disposable third = stats.stream(1L).subscribe();
+    timer.advanceTime();
+    third.dispose();
+    verify(emailRepository, times(2)).findCampaignStats(1L);
+  }
+
+  private double watchedCampaigns() {
+    return meterRegistry.get("mailflow.email.live.campaigns").gauge().value();
+  }
+
+  private static Email email(Long campaignId, EmailStatus status) {
+    return Email.builder().campaignId(campaignId).status(status).build();
+  }
+}
@@ -0,0 +1,109 @@
+package com.mailflow.emailservice.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.condition.JRE;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Compares a {@code boundedElastic} scheduler with {@link VirtualThreadExecutor} when 1k, 10k and
+ * 100k blocking calls are in flight at once. Each call blocks for {@value #CALL_LATENCY_MILLIS} ms,
+ * standing in for a Feign lookup or an SMTP exchange; what matters is how many of them can wait on
+ * the network at the same time.
+ *
+ * <p>Run on Java 21 with {@code ./mvnw test -Dtest=BlockingSchedulerBenchmark -Dbenchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@EnabledForJreRange(min = JRE.JAVA_21)
+class BlockingSchedulerBenchmark {
+
+  private static final int[] IN_FLIGHT = {1_000, 10_000, 100_000};
+  private static final long CALL_LATENCY_MILLIS = 20;
+  private static final int MAX_CONCURRENCY = 100_000;
+
+  @Test
+  void compareBoundedElasticWithVirtualThreads() {
+    System.out.printf(
+        "%-16s %9s %9s %9s %10s %10s %10s%n",
+        "scheduler", "in-flight", "completed", "rejected", "wall", "p50", "p99");
+    for (int inFlight : IN_FLIGHT) {
+      Scheduler boundedElastic =
+          Schedulers.newBoundedElastic(
+              Schedulers.DEFAULT_BOUNDED_ELASTIC_SIZE,
+              Schedulers.DEFAULT_BOUNDED_ELASTIC_QUEUESIZE,
+              "bench-elastic");
+      Scheduler virtual = VirtualThreadExecutor.scheduler("bench-virtual", MAX_CONCURRENCY);
+      try {
+        Result elastic = run("boundedElastic", boundedElastic, inFlight);
+        Result virtualThreads = run("virtual", virtual, inFlight);
+
+        assertThat(virtualThreads.completed()).isEqualTo(inFlight);
+        System.out.printf(
+            "speed-up at %d in flight: %.1fx%n",
+            inFlight, (double) elastic.wall().toNanos() / virtualThreads.wall().toNanos());
+      } finally {
+        boundedElastic.dispose();
+        virtual.dispose();
+      }
+    }
+  }
+
+  private Result run(String label, Scheduler scheduler, int inFlight) {
+    long[] latencies = new long[inFlight];
+    AtomicLong rejected = new AtomicLong();
+    long start = System.nanoTime();
+
+    long completed =
+        Flux.range(0, inFlight)
+            .flatMap(
+                i -> {
+                  long submitted = System.nanoTime();
+                  return Mono.fromCallable(
+                          () -> {
+                            Thread.sleep(CALL_LATENCY_MILLIS);
+                            latencies[i] = System.nanoTime() - submitted;
+                            return i;
+                          })
+                      .subscribeOn(scheduler)
+                      .onErrorResume(
+                          e -> {
+                            rejected.incrementAndGet();
+                            return Mono.empty();
+                          });
+                },
+                inFlight)
+            .count()
+            .block();
+
+    Duration wall = Duration.ofNanos(System.nanoTime() - start);
+    long[] done = Arrays.stream(latencies).filter(latency -> latency > 0).sorted().toArray();
+    System.out.printf(
+        "%-16s %9d %9d %9d %8dms %8dms %8dms%n",
+        label,
+        inFlight,
+        completed,
+        rejected.get(),
+        wall.toMillis(),
+        percentile(done, 0.50) / 1_000_000,
+        percentile(done, 0.99) / 1_000_000);
+    return new Result(completed, wall);
+  }
+
+  private static long percentile(long[] sorted, double quantile) {
+    if (sorted.length == 0) {
+      return 0;
+    }
+    return sorted[Math.min(sorted.length - 1, (int) (sorted.length * quantile))];
+  }
+
+  private record Result(long completed, Duration wall) {}
+}
@@ -0,0 +1,186 @@
+package com.mailflow.emailservice.kafka;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.mailflow.events.CampaignTriggeredEvent;
+import com.mailflow.events.kafka.EventDeserializer;
+import com.mailflow.events.kafka.EventSerializer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.BatchMessageListener;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+
+/**
+ * Measures {@code campaign-triggered} consumption as email-service instances are added. Records are
+ * keyed by contact id over {@value #PARTITIONS} partitions, as campaign-service sends them, and
+ * each instance is a consumer container in the same group with {@value #THREADS_PER_INSTANCE}
+ * threads, batch listeners and {@code AckMode.BATCH}, like {@code KafkaConfig}. The listener
+ * stands in for the send pipeline by parking {@value #RECORD_COST_MICROS} µs per record, so an
+ * instance's capacity is its threads and throughput should grow with the instance count until every
+ * partition has its own thread.
+ *
+ * <p>Every contact's triggers carry an increasing sequence number; the run fails if a contact's
+ * triggers are ever handled out of order.
+ *
+ * <p>Run with {@code ./mvnw test -Dtest=CampaignTriggeredScaleOutBenchmark -Dbenchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class CampaignTriggeredScaleOutBenchmark {
+
+  private static final String TOPIC = "campaign-triggered-bench";
+  private static final int PARTITIONS = 6;
+  private static final int THREADS_PER_INSTANCE = 2;
+  private static final int[] INSTANCES = {1, 2, 3};
+  private static final int RECORDS = 60_000;
+  private static final int CONTACTS = 5_000;
+  private static final long RECORD_COST_MICROS = 100;
+
+  @Test
+  void compareInstanceCounts() throws Exception {
+    String[] topics = new String[INSTANCES.length];
+    for (int i = 0; i < INSTANCES.length; i++) {
+      topics[i] = TOPIC + "-" + INSTANCES[i];
+    }
+    EmbeddedKafkaBroker broker = new EmbeddedKafkaKraftBroker(1, PARTITIONS, topics);
+    broker.afterPropertiesSet();
+    try {
+      System.out.printf(
+          "%-10s %8s %10s %12s %9s %12s%n",
+          "instances", "threads", "records", "records/s", "speed-up", "out of order");
+      double baseline = 0;
+      for (int i = 0; i < INSTANCES.length; i++) {
+        Result result = run(broker.getBrokersAsString(), topics[i], INSTANCES[i]);
+        if (baseline == 0) {
+          baseline = result.recordsPerSecond();
+        }
+        System.out.printf(
+            "%-10d %8d %10d %12.0f %8.1fx %12d%n",
+            INSTANCES[i],
+            INSTANCES[i] * THREADS_PER_INSTANCE,
+            RECORDS,
+            result.recordsPerSecond(),
+            result.recordsPerSecond() / baseline,
+            result.outOfOrder());
+        assertThat(result.outOfOrder()).isZero();
+      }
+    } finally {
+      broker.destroy();
+    }
+  }
+
+  private Result run(String bootstrapServers, String topic, int instances) throws Exception {
+    Map<Long, Long> lastSequence = new ConcurrentHashMap<>();
+    AtomicLong outOfOrder = new AtomicLong();
+    CountDownLatch consumed = new CountDownLatch(RECORDS);
+
+    Map<String, Object> props = new HashMap<>();
+    props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+    props.put(ConsumerConfig.GROUP_ID_CONFIG, topic + "-group");
+    props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+    props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 500);
+    DefaultKafkaConsumerFactory<String, Object> consumerFactory =
+        new DefaultKafkaConsumerFactory<>(props, StringDeserializer::new, EventDeserializer::new);
+
+    BatchMessageListener<String, Object> listener =
+        records -> {
+          for (ConsumerRecord<String, Object> record : records) {
+            CampaignTriggeredEvent event = (CampaignTriggeredEvent) record.value();
+            Long previous = lastSequence.put(event.contactId(), event.campaignId());
+            if (previous != null && previous >= event.campaignId()) {
+              outOfOrder.incrementAndGet();
+            }
+          }
+          LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(RECORD_COST_MICROS * records.size()));
+          records.forEach(record -> consumed.countDown());
+        };
+
+    List<ConcurrentMessageListenerContainer<String, Object>> containers = new ArrayList<>();
+    try {
+      for (int i = 0; i < instances; i++) {
+        ContainerProperties containerProperties = new ContainerProperties(topic);
+        containerProperties.setAckMode(ContainerProperties.AckMode.BATCH);
+        containerProperties.setMessageListener(listener);
+        ConcurrentMessageListenerContainer<String, Object> container =
+            new ConcurrentMessageListenerContainer<>(consumerFactory, containerProperties);
+        container.setConcurrency(THREADS_PER_INSTANCE);
+        container.start();
+        containers.add(container);
+      }
+      awaitAssignment(containers);
+
+      long start = System.nanoTime();
+      produce(bootstrapServers, topic);
+      assertThat(consumed.await(5, TimeUnit.MINUTES)).isTrue();
+      double seconds = (System.nanoTime() - start) / 1e9;
+
+      return new Result(RECORDS / seconds, outOfOrder.get());
+    } finally {
+      containers.forEach(ConcurrentMessageListenerContainer::stop);
+    }
+  }
+
+  /** Produces only once the group has settled, so no partition changes hands mid-run. */
+  private static void awaitAssignment(
+      List<ConcurrentMessageListenerContainer<String, Object>> containers)
+      throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+    while (System.nanoTime() < deadline) {
+      int assigned =
+          containers.stream()
+              .mapToInt(
+                  container ->
+                      container.getAssignedPartitions() == null
+                          ? 0
+                          : container.getAssignedPartitions().size())
+              .sum();
+      if (assigned == PARTITIONS) {
+        return;
+      }
+      Thread.sleep(100);
+    }
+    throw new IllegalStateException("Consumer group did not settle");
+  }
+
+  private static void produce(String bootstrapServers, String topic) {
+    Map<String, Object> props = new HashMap<>();
+    props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+    props.put(ProducerConfig.LINGER_MS_CONFIG, 5);
+    DefaultKafkaProducerFactory<String, Object> producerFactory =
+        new DefaultKafkaProducerFactory<>(props, new StringSerializer(), new EventSerializer());
+    try {
+      KafkaTemplate<String, Object> template = new KafkaTemplate<>(producerFactory);
+      for (int i = 0; i < RECORDS; i++) {
+        long contactId = i % CONTACTS;
+        long sequence = i / CONTACTS;
+        // A contact's n-th trigger carries campaign id n, which the listener checks for order
+        template.send(
+            topic, String.valueOf(contactId), new CampaignTriggeredEvent(sequence, contactId, 10L));
+      }
+      template.flush();
+    } finally {
+      producerFactory.destroy();
+    }
+  }
+
+  private record Result(double recordsPerSecond, long outOfOrder) {}
+}
@@ -0,0 +1,91 @@
+package com.mailflow.emailservice.kafka;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.mailflow.emailservice.config.KafkaConfig;
+import com.mailflow.emailservice.service.CampaignBatchService;
+import com.mailflow.emailservice.template.TemplateCache;
+import com.mailflow.events.CampaignTriggeredEvent;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.support.serializer.DeserializationException;
+import org.springframework.kafka.support.serializer.SerializationUtils;
+import reactor.core.publisher.Mono;
+
+public class KafkaEventListenerTest {
+
+  private final CampaignBatchService campaignBatchService = mock(CampaignBatchService.class);
+  private final DeadLetterPublishingRecoverer recoverer = mock(DeadLetterPublishingRecoverer.class);
+  private final KafkaEventListener listener =
+      new KafkaEventListener(campaignBatchService, mock(TemplateCache.class), recoverer);
+
+  @Test
+  @DisplayName("Should send the readable events and dead-letter the unreadable records")
+  void shouldDeadLetterUnreadableRecords() {
+    // Arrange
+    when(campaignBatchService.sendBatch(anyList())).thenReturn(Mono.empty());
+    ConsumerRecord<String, Object> readable = record(0, event(1L));
+    ConsumerRecord<String, Object> unreadable = unreadable(1);
+
+    // Act
+    listener.handleCampaignTriggeredEvents(List.of(readable, unreadable));
+
+    // Assert
+    ArgumentCaptor<Exception> failure = ArgumentCaptor.forClass(Exception.class);
+    InOrder order = inOrder(campaignBatchService, recoverer);
+    order.verify(campaignBatchService).sendBatch(List.of(event(1L)));
+    order.verify(recoverer).accept(eq(unreadable), failure.capture());
+    assertThat(failure.getValue()).isInstanceOf(DeserializationException.class);
+    verify(recoverer, never()).accept(eq(readable), any());
+  }
+
+  @Test
+  @DisplayName("Should not dead-letter the unreadable records of a batch that fails")
+  void shouldLeaveFailedBatchToErrorHandler() {
+    // Arrange
+    when(campaignBatchService.sendBatch(anyList()))
+        .thenReturn(Mono.error(new IllegalStateException("Database unavailable")));
+    List<ConsumerRecord<String, Object>> records = List.of(record(0, event(1L)), unreadable(1));
+
+    // Act & Assert
+    // The container's error handler retries the batch, then dead-letters all of it
+    assertThatThrownBy(() -> listener.handleCampaignTriggeredEvents(records))
+        .isInstanceOf(IllegalStateException.class);
+    verify(recoverer, never()).accept(any(), any());
+  }
+
+  private static ConsumerRecord<String, Object> record(long position, Object value) {
+    return new ConsumerRecord<>(KafkaConfig.CAMPAIGN_TRIGGERED_TOPIC, 0, position, "10", value);
+  }
+
+  private static ConsumerRecord<String, Object> unreadable(long position) {
+    ConsumerRecord<String, Object> record = record(position, null);
+    byte[] data = "not an event".getBytes(StandardCharsets.UTF_8);
+    SerializationUtils.deserializationException(
+        record.headers(), data, new IllegalArgumentException("Unreadable event"), false);
+    return record;
+  }
+
+  private static CampaignTriggeredEvent event(Long contactId) {
+    return CampaignTriggeredEvent.builder()
+        .campaignId(10L)
+        .contactId(contactId)
+        .templateId(3L)
+        .build();
+  }
+}
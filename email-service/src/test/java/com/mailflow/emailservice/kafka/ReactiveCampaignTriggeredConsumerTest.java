@@ -0,0 +1,211 @@
+package com.mailflow.emailservice.kafka;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.mailflow.emailservice.config.KafkaConfig;
+import com.mailflow.emailservice.service.CampaignBatchService;
+import com.mailflow.events.CampaignTriggeredEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.support.serializer.DeserializationException;
+import org.springframework.kafka.support.serializer.SerializationUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.kafka.receiver.KafkaReceiver;
+import reactor.kafka.receiver.ReceiverOffset;
+import reactor.kafka.receiver.ReceiverRecord;
+
+public class ReactiveCampaignTriggeredConsumerTest {
+
+  private final CampaignBatchService campaignBatchService = mock(CampaignBatchService.class);
+  private final DeadLetterPublishingRecoverer recoverer = mock(DeadLetterPublishingRecoverer.class);
+  private final ReceiverOffset offset = mock(ReceiverOffset.class);
+
+  @SuppressWarnings("unchecked")
+  private final KafkaReceiver<String, Object> receiver = mock(KafkaReceiver.class);
+
+  private ReceiverRecord<String, Object> first;
+  private ReceiverRecord<String, Object> second;
+  private ReactiveCampaignTriggeredConsumer consumer;
+
+  @BeforeEach
+  void setUp() {
+    when(offset.commit()).thenReturn(Mono.empty());
+    first = record(0, 1L);
+    second = record(1, 2L);
+    // One poll, then an open receiver with nothing more to deliver
+    when(receiver.receiveBatch())
+        .thenReturn(Flux.just(Flux.just(first, second)).concatWith(Flux.never()));
+
+    consumer =
+        new ReactiveCampaignTriggeredConsumer(
+            null, campaignBatchService, recoverer, new SimpleMeterRegistry()) {
+          @Override
+          KafkaReceiver<String, Object> createReceiver() {
+            return receiver;
+          }
+        };
+    ReflectionTestUtils.setField(consumer, "concurrency", 1);
+    ReflectionTestUtils.setField(consumer, "maxRetryInterval", Duration.ofSeconds(1));
+    ReflectionTestUtils.setField(consumer, "maxRetryTime", Duration.ofMinutes(1));
+  }
+
+  @AfterEach
+  void tearDown() {
+    consumer.stop();
+  }
+
+  @Test
+  @DisplayName("Should send a poll as one batch and commit it")
+  void shouldSendAndCommitBatch() {
+    // Arrange
+    when(campaignBatchService.sendBatch(anyList())).thenReturn(Mono.empty());
+
+    // Act
+    consumer.start();
+
+    // Assert
+    verify(campaignBatchService).sendBatch(List.of(event(1L), event(2L)));
+    verify(offset, times(2)).acknowledge();
+    verify(offset).commit();
+    verify(recoverer, never()).accept(any(), any());
+  }
+
+  @Test
+  @DisplayName("Should wait for the batch in flight to commit before stopping")
+  void shouldFinishBatchInFlightBeforeStopping() {
+    // Arrange
+    Sinks.Empty<Void> sent = Sinks.empty();
+    when(campaignBatchService.sendBatch(anyList())).thenReturn(sent.asMono());
+    AtomicBoolean stopped = new AtomicBoolean();
+    consumer.start();
+
+    // Act
+    consumer.stop(() -> stopped.set(true));
+
+    // Assert
+    assertThat(stopped).isFalse();
+    assertThat(consumer.isRunning()).isTrue();
+    verify(offset, never()).commit();
+
+    sent.tryEmitEmpty();
+
+    assertThat(stopped).isTrue();
+    assertThat(consumer.isRunning()).isFalse();
+    verify(offset).commit();
+  }
+
+  @Test
+  @DisplayName("Should run the stop callback right away when not running")
+  void shouldRunStopCallbackWhenNotRunning() {
+    // Arrange
+    AtomicBoolean stopped = new AtomicBoolean();
+
+    // Act
+    consumer.stop(() -> stopped.set(true));
+
+    // Assert
+    assertThat(stopped).isTrue();
+  }
+
+  @Test
+  @DisplayName("Should retry a failed batch and commit it once it succeeds")
+  void shouldRetryFailedBatch() {
+    // Arrange
+    AtomicInteger attempts = new AtomicInteger();
+    when(campaignBatchService.sendBatch(anyList()))
+        .thenReturn(
+            Mono.defer(
+                () ->
+                    attempts.incrementAndGet() == 1
+                        ? Mono.error(new IllegalStateException("Database unavailable"))
+                        : Mono.empty()));
+
+    // Act
+    consumer.start();
+
+    // Assert
+    verify(offset, timeout(5000)).commit();
+    assertThat(attempts).hasValue(2);
+    verify(recoverer, never()).accept(any(), any());
+  }
+
+  @Test
+  @DisplayName("Should dead-letter and commit a batch that fails past the retry time")
+  void shouldDeadLetterBatchThatKeepsFailing() {
+    // Arrange
+    ReflectionTestUtils.setField(consumer, "maxRetryTime", Duration.ZERO);
+    IllegalStateException failure = new IllegalStateException("Poison batch");
+    when(campaignBatchService.sendBatch(anyList())).thenReturn(Mono.error(failure));
+
+    // Act
+    consumer.start();
+
+    // Assert
+    verify(offset, timeout(5000)).commit();
+    verify(recoverer).accept(first, failure);
+    verify(recoverer).accept(second, failure);
+  }
+
+  @Test
+  @DisplayName("Should dead-letter the unreadable records of a batch and commit it")
+  void shouldDeadLetterUnreadableRecords() {
+    // Arrange
+    ConsumerRecord<String, Object> unreadable =
+        new ConsumerRecord<>(KafkaConfig.CAMPAIGN_TRIGGERED_TOPIC, 0, 1, "10", null);
+    SerializationUtils.deserializationException(
+        unreadable.headers(),
+        "not an event".getBytes(StandardCharsets.UTF_8),
+        new IllegalArgumentException("Unreadable event"),
+        false);
+    second = new ReceiverRecord<>(unreadable, offset);
+    when(receiver.receiveBatch())
+        .thenReturn(Flux.just(Flux.just(first, second)).concatWith(Flux.never()));
+    when(campaignBatchService.sendBatch(anyList())).thenReturn(Mono.empty());
+
+    // Act
+    consumer.start();
+
+    // Assert
+    verify(offset, timeout(5000)).commit();
+    verify(campaignBatchService).sendBatch(List.of(event(1L)));
+    verify(recoverer).accept(eq(second), any(DeserializationException.class));
+    verify(recoverer, never()).accept(eq(first), any());
+  }
+
+  private ReceiverRecord<String, Object> record(long position, Long contactId) {
+    return new ReceiverRecord<>(
+        new ConsumerRecord<String, Object>(
+            KafkaConfig.CAMPAIGN_TRIGGERED_TOPIC, 0, position, "10", event(contactId)),
+        offset);
+  }
+
+  private static CampaignTriggeredEvent event(Long contactId) {
+    return CampaignTriggeredEvent.builder()
+        .campaignId(10L)
+        .contactId(contactId)
+        .templateId(3L)
+        .build();
+  }
+}
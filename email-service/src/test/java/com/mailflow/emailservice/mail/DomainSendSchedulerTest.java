@@ -0,0 +1,304 @@
+package com.mailflow.emailservice.mail;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.mailflow.emailservice.mail.DomainThrottleSettings.DomainLimit;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.Message;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Session;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeMessage;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import org.eclipse.angus.mail.smtp.SMTPAddressFailedException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.scheduler.VirtualTimeScheduler;
+
+public class DomainSendSchedulerTest {
+
+  private static final Duration IDLE_TIMEOUT = Duration.ofMinutes(10);
+
+  private final FakeMailSender mailSender = new FakeMailSender();
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  // Sends are only started by the scheduler; the test runs them, so in-flight work stays visible
+  private final List<Runnable> startedSends = new ArrayList<>();
+  private final Scheduler sendScheduler = Schedulers.fromExecutor(startedSends::add);
+
+  private VirtualTimeScheduler timer;
+  private DomainSendScheduler scheduler;
+
+  @BeforeEach
+  void setUp() {
+    timer = VirtualTimeScheduler.create();
+  }
+
+  @AfterEach
+  void tearDown() {
+    if (scheduler != null) {
+      scheduler.close();
+    }
+    timer.dispose();
+    sendScheduler.dispose();
+  }
+
+  @Test
+  @DisplayName("Should send a domain's share in pieces no larger than its burst")
+  void shouldSplitSendsToBurstSize() throws Exception {
+    // Arrange
+    createScheduler(new DomainLimit(10, 3, 10), 10);
+    List<MimeMessage> messages = new ArrayList<>();
+    for (int i = 0; i < 7; i++) {
+      messages.add(message("user" + i + "@gmail.com"));
+    }
+    AtomicReference<Map<MimeMessage, Exception>> result = new AtomicReference<>();
+
+    // Act & Assert
+    scheduler.send(messages).subscribe(result::set);
+    runStartedSends();
+    assertThat(mailSender.batchSizes()).containsExactly(3);
+
+    // Then one message per token, which comes back every 100 ms
+    timer.advanceTimeBy(Duration.ofMillis(450));
+    runStartedSends();
+    assertThat(mailSender.batchSizes()).containsExactly(3, 1, 1, 1, 1);
+    assertThat(result.get()).isEmpty();
+
+    // An idle bucket refills to the burst and no further
+    timer.advanceTimeBy(Duration.ofSeconds(10));
+    scheduler.send(messages.subList(0, 5)).subscribe();
+    runStartedSends();
+    assertThat(mailSender.batchSizes()).containsExactly(3, 1, 1, 1, 1, 3);
+  }
+
+  @Test
+  @DisplayName("Should hold a domain to its concurrency limit")
+  void shouldLimitConcurrentSendsPerDomain() throws Exception {
+    // Arrange
+    createScheduler(new DomainLimit(1000, 100, 2), 10);
+
+    // Act
+    for (int i = 0; i < 4; i++) {
+      scheduler.send(List.of(message("user" + i + "@gmail.com"))).subscribe();
+    }
+
+    // Assert
+    assertThat(startedSends).hasSize(2);
+    startedSends.remove(0).run();
+    assertThat(startedSends).hasSize(2);
+    runStartedSends();
+    assertThat(mailSender.batchSizes()).containsExactly(1, 1, 1, 1);
+  }
+
+  @Test
+  @DisplayName("Should hold all domains together to the in-flight limit")
+  void shouldLimitConcurrentSendsAcrossDomains() throws Exception {
+    // Arrange
+    createScheduler(new DomainLimit(1000, 100, 5), 2);
+
+    // Act
+    scheduler.send(List.of(message("a@gmail.com"))).subscribe();
+    scheduler.send(List.of(message("b@yahoo.com"))).subscribe();
+    scheduler.send(List.of(message("c@outlook.com"))).subscribe();
+
+    // Assert
+    assertThat(startedSends).hasSize(2);
+    startedSends.remove(0).run();
+    assertThat(startedSends).hasSize(2);
+  }
+
+  @Test
+  @DisplayName("Should slow down and pause a domain that defers, then recover its rate")
+  void shouldBackOffOnDeferralAndRecover() throws Exception {
+    // Arrange
+    createScheduler(new DomainLimit(10, 10, 5), 10);
+    MimeMessage deferred = message("first@gmail.com");
+    mailSender.failure =
+        message -> message == deferred ? addressFailed("first@gmail.com", 450) : null;
+    AtomicReference<Map<MimeMessage, Exception>> firstResult = new AtomicReference<>();
+
+    // Act & Assert
+    scheduler.send(List.of(deferred)).subscribe(firstResult::set);
+    runStartedSends();
+    assertThat(firstResult.get()).containsOnlyKeys(deferred);
+    assertThat(rate("gmail.com")).isEqualTo(5.0);
+
+    scheduler.send(List.of(message("second@gmail.com"))).subscribe();
+    timer.advanceTimeBy(Duration.ofSeconds(29));
+    assertThat(startedSends).isEmpty();
+
+    timer.advanceTimeBy(Duration.ofSeconds(1));
+    assertThat(startedSends).hasSize(1);
+    runStartedSends();
+    assertThat(rate("gmail.com")).isEqualTo(10.0);
+    assertThat(
+            meterRegistry
+                .counter("mailflow.smtp.domain.messages", "domain", "gmail.com", "outcome", "sent")
+                .count())
+        .isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("Should double the pause on each further deferral")
+  void shouldDoublePauseOnRepeatedDeferrals() throws Exception {
+    // Arrange
+    createScheduler(new DomainLimit(10, 10, 5), 10);
+    mailSender.failure = message -> addressFailed("user@gmail.com", 421);
+
+    // Act & Assert
+    scheduler.send(List.of(message("user@gmail.com"))).subscribe();
+    runStartedSends();
+    scheduler.send(List.of(message("user@gmail.com"))).subscribe();
+    timer.advanceTimeBy(Duration.ofSeconds(30));
+    runStartedSends();
+    assertThat(rate("gmail.com")).isEqualTo(2.5);
+
+    scheduler.send(List.of(message("user@gmail.com"))).subscribe();
+    timer.advanceTimeBy(Duration.ofSeconds(59));
+    assertThat(startedSends).isEmpty();
+    timer.advanceTimeBy(Duration.ofSeconds(1));
+    assertThat(startedSends).hasSize(1);
+  }
+
+  @Test
+  @DisplayName("Should report permanent failures without pausing the domain")
+  void shouldNotPauseOnPermanentFailure() throws Exception {
+    // Arrange
+    createScheduler(new DomainLimit(10, 10, 5), 10);
+    mailSender.failure = message -> addressFailed("gone@gmail.com", 550);
+    AtomicReference<Map<MimeMessage, Exception>> result = new AtomicReference<>();
+
+    // Act
+    scheduler.send(List.of(message("gone@gmail.com"))).subscribe(result::set);
+    runStartedSends();
+    scheduler.send(List.of(message("next@gmail.com"))).subscribe();
+
+    // Assert
+    assertThat(result.get()).hasSize(1);
+    assertThat(startedSends).hasSize(1);
+    assertThat(rate("gmail.com")).isEqualTo(10.0);
+  }
+
+  @Test
+  @DisplayName("Should forget a recovered domain after the idle timeout")
+  void shouldEvictIdleDomains() throws Exception {
+    // Arrange
+    createScheduler(new DomainLimit(10, 10, 5), 10);
+    scheduler.send(List.of(message("user@yahoo.com"))).subscribe();
+    runStartedSends();
+    assertThat(trackedDomains()).isEqualTo(1);
+
+    // Act
+    timer.advanceTimeBy(IDLE_TIMEOUT.multipliedBy(2).plusSeconds(1));
+
+    // Assert
+    assertThat(trackedDomains()).isZero();
+  }
+
+  @Test
+  @DisplayName("Should keep a domain whose rate is still reduced")
+  void shouldKeepDeferringDomains() throws Exception {
+    // Arrange
+    createScheduler(new DomainLimit(10, 10, 5), 10);
+    mailSender.failure = message -> addressFailed("user@gmail.com", 450);
+    scheduler.send(List.of(message("user@gmail.com"))).subscribe();
+    runStartedSends();
+
+    // Act
+    timer.advanceTimeBy(IDLE_TIMEOUT.multipliedBy(2).plusSeconds(1));
+
+    // Assert
+    assertThat(trackedDomains()).isEqualTo(1);
+    assertThat(rate("gmail.com")).isEqualTo(5.0);
+  }
+
+  private void createScheduler(DomainLimit gmail, int maxInFlight) {
+    DomainThrottleSettings settings =
+        DomainThrottleSettings.builder()
+            .maxInFlight(maxInFlight)
+            .defaults(new DomainLimit(10, 10, 5))
+            .limits(Map.of("gmail.com", gmail))
+            .minRate(0.5)
+            .rateIncrease(0.5)
+            .rateDecrease(0.5)
+            .deferralPause(Duration.ofSeconds(30))
+            .maxDeferralPause(Duration.ofMinutes(15))
+            .idleTimeout(IDLE_TIMEOUT)
+            .build();
+    scheduler =
+        new DomainSendScheduler(
+            settings, mailSender, sendScheduler, timer, () -> timer.now(TimeUnit.NANOSECONDS));
+    scheduler.bindTo(meterRegistry);
+  }
+
+  /** Runs every started send, including those started by the completion of another. */
+  private void runStartedSends() {
+    while (!startedSends.isEmpty()) {
+      startedSends.remove(0).run();
+    }
+  }
+
+  private double rate(String domain) {
+    return meterRegistry.get("mailflow.smtp.domain.rate").tag("domain", domain).gauge().value();
+  }
+
+  private double trackedDomains() {
+    return meterRegistry.get("mailflow.smtp.domain.tracked").gauge().value();
+  }
+
+  private static MimeMessage message(String recipient) throws MessagingException {
+    MimeMessage message = new MimeMessage(Session.getInstance(new Properties()));
+    message.setRecipients(Message.RecipientType.TO, recipient);
+    return message;
+  }
+
+  private static Exception addressFailed(String recipient, int replyCode) {
+    try {
+      return new SMTPAddressFailedException(
+          new InternetAddress(recipient), "RCPT TO", replyCode, replyCode + " rejected");
+    } catch (MessagingException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /** Records each session's batch and fails the messages {@link #failure} returns a reason for. */
+  private static final class FakeMailSender extends JavaMailSenderImpl {
+
+    private final List<List<MimeMessage>> batches = new ArrayList<>();
+    private Function<MimeMessage, Exception> failure = message -> null;
+
+    @Override
+    public void send(MimeMessage... mimeMessages) {
+      batches.add(List.of(mimeMessages));
+      Map<Object, Exception> failed = new LinkedHashMap<>();
+      for (MimeMessage message : mimeMessages) {
+        Exception reason = failure.apply(message);
+        if (reason != null) {
+          failed.put(message, reason);
+        }
+      }
+      if (!failed.isEmpty()) {
+        throw new MailSendException(failed);
+      }
+    }
+
+    List<Integer> batchSizes() {
+      return batches.stream().map(List::size).toList();
+    }
+  }
+}
@@ -0,0 +1,60 @@
+package com.mailflow.emailservice.mail;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.mailflow.emailservice.mail.DomainThrottleSettings.DomainLimit;
+import java.util.Map;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class DomainThrottleSettingsTest {
+
+  @Test
+  @DisplayName("Should parse domain limits in order with lower-cased domains")
+  void shouldParseLimits() {
+    // Act
+    Map<String, DomainLimit> limits =
+        DomainThrottleSettings.parseLimits(" Gmail.com = 50/100/4 , yahoo.com=0.5/1/1,");
+
+    // Assert
+    assertThat(limits)
+        .containsExactly(
+            Map.entry("gmail.com", new DomainLimit(50, 100, 4)),
+            Map.entry("yahoo.com", new DomainLimit(0.5, 1, 1)));
+  }
+
+  @Test
+  @DisplayName("Should parse an empty value to no limits")
+  void shouldParseEmptyLimits() {
+    // Act & Assert
+    assertThat(DomainThrottleSettings.parseLimits("")).isEmpty();
+  }
+
+  @Test
+  @DisplayName("Should reject an entry without rate, burst and concurrency")
+  void shouldRejectIncompleteEntry() {
+    // Act & Assert
+    assertThatThrownBy(() -> DomainThrottleSettings.parseLimits("gmail.com=50/100"))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("gmail.com=50/100");
+    assertThatThrownBy(() -> DomainThrottleSettings.parseLimits("gmail.com"))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  @DisplayName("Should fall back to the defaults for unlisted domains")
+  void shouldUseDefaultsForUnlistedDomains() {
+    // Arrange
+    DomainLimit defaults = new DomainLimit(10, 20, 2);
+    DomainThrottleSettings settings =
+        DomainThrottleSettings.builder()
+            .defaults(defaults)
+            .limits(DomainThrottleSettings.parseLimits("gmail.com=50/100/4"))
+            .build();
+
+    // Act & Assert
+    assertThat(settings.limit("gmail.com")).isEqualTo(new DomainLimit(50, 100, 4));
+    assertThat(settings.limit("example.org")).isEqualTo(defaults);
+  }
+}
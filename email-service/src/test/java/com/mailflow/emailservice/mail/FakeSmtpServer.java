@@ -0,0 +1,101 @@
+package com.mailflow.emailservice.mail;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Minimal in-process SMTP server for benchmarks. It accepts every message and can delay the
+ * greeting to model the TCP + STARTTLS + AUTH cost a real provider charges per connection.
+ */
+class FakeSmtpServer implements AutoCloseable {
+
+  private final ServerSocket serverSocket;
+  private final ExecutorService workers = Executors.newCachedThreadPool();
+  private final long handshakeDelayMillis;
+  private final AtomicLong connections = new AtomicLong();
+  private final AtomicLong messages = new AtomicLong();
+
+  FakeSmtpServer(long handshakeDelayMillis) throws IOException {
+    this.handshakeDelayMillis = handshakeDelayMillis;
+    this.serverSocket = new ServerSocket(0);
+    workers.submit(this::acceptLoop);
+  }
+
+  int getPort() {
+    return serverSocket.getLocalPort();
+  }
+
+  long getConnections() {
+    return connections.get();
+  }
+
+  long getMessages() {
+    return messages.get();
+  }
+
+  @Override
+  public void close() throws IOException {
+    serverSocket.close();
+    workers.shutdownNow();
+  }
+
+  private void acceptLoop() {
+    while (!serverSocket.isClosed()) {
+      try {
+        Socket socket = serverSocket.accept();
+        connections.incrementAndGet();
+        workers.submit(() -> handle(socket));
+      } catch (IOException e) {
+        return;
+      }
+    }
+  }
+
+  private void handle(Socket socket) {
+    try (socket;
+        BufferedReader in =
+            new BufferedReader(
+                new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+        OutputStream out = socket.getOutputStream()) {
+      Thread.sleep(handshakeDelayMillis);
+      reply(out, "220 fake-smtp ESMTP ready");
+
+      String line;
+      while ((line = in.readLine()) != null) {
+        String command = line.length() >= 4 ? line.substring(0, 4).toUpperCase() : line;
+        switch (command) {
+          case "EHLO" -> reply(out, "250-fake-smtp\r\n250 8BITMIME");
+          case "HELO", "MAIL", "RCPT", "RSET", "NOOP" -> reply(out, "250 OK");
+          case "DATA" -> {
+            reply(out, "354 End data with <CR><LF>.<CR><LF>");
+            while ((line = in.readLine()) != null && !line.equals(".")) {
+              // discard message body
+            }
+            messages.incrementAndGet();
+            reply(out, "250 OK queued");
+          }
+          case "QUIT" -> {
+            reply(out, "221 Bye");
+            return;
+          }
+          default -> reply(out, "502 Command not implemented");
+        }
+      }
+    } catch (IOException | InterruptedException ignored) {
+      // client went away
+    }
+  }
+
+  private void reply(OutputStream out, String response) throws IOException {
+    out.write((response + "\r\n").getBytes(StandardCharsets.US_ASCII));
+    out.flush();
+  }
+}
@@ -0,0 +1,117 @@
+package com.mailflow.emailservice.mail;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+
+/**
+ * Compares messages/sec of the connect-per-message {@link JavaMailSenderImpl} with {@link
+ * PooledJavaMailSender} against {@link FakeSmtpServer}.
+ *
+ * <p>Run with {@code ./mvnw test -Dtest=SmtpTransportPoolBenchmark -Dbenchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class SmtpTransportPoolBenchmark {
+
+  private static final int MESSAGES = 2_000;
+  private static final int THREADS = 8;
+  private static final int BATCH_SIZE = 20;
+  private static final long HANDSHAKE_DELAY_MILLIS = 25;
+
+  @Test
+  void compareConnectPerMessageWithPooledTransport() throws Exception {
+    try (FakeSmtpServer server = new FakeSmtpServer(HANDSHAKE_DELAY_MILLIS)) {
+      JavaMailSenderImpl plain = new JavaMailSenderImpl();
+      configure(plain, server.getPort());
+      double plainRate = run("connect-per-message", plain, 1);
+      long plainConnections = server.getConnections();
+
+      PooledJavaMailSender pooled =
+          new PooledJavaMailSender(
+              SmtpPoolSettings.builder()
+                  .maxConnections(THREADS)
+                  .maxMessagesPerConnection(500)
+                  .maxLifetime(Duration.ofMinutes(10))
+                  .idleTimeout(Duration.ofMinutes(1))
+                  .validationInterval(Duration.ofSeconds(10))
+                  .borrowTimeout(Duration.ofSeconds(30))
+                  .evictionInterval(Duration.ofSeconds(15))
+                  .build());
+      configure(pooled, server.getPort());
+      try {
+        double pooledSingleRate = run("pooled, single message", pooled, 1);
+        double pooledBatchRate = run("pooled, " + BATCH_SIZE + " per session", pooled, BATCH_SIZE);
+        long pooledConnections = server.getConnections() - plainConnections;
+
+        System.out.printf(
+            "connections opened: connect-per-message=%d pooled=%d%n",
+            plainConnections, pooledConnections);
+        System.out.printf(
+            "speed-up: single=%.1fx batched=%.1fx%n",
+            pooledSingleRate / plainRate, pooledBatchRate / plainRate);
+
+        assertThat(pooledConnections).isLessThanOrEqualTo(plainConnections);
+      } finally {
+        pooled.destroy();
+      }
+    }
+  }
+
+  private double run(String label, JavaMailSenderImpl sender, int batchSize) throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    long start = System.nanoTime();
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int i = 0; i < MESSAGES; i += batchSize) {
+        int offset = i;
+        futures.add(
+            executor.submit(
+                () -> {
+                  MimeMessage[] batch = new MimeMessage[batchSize];
+                  for (int j = 0; j < batchSize; j++) {
+                    batch[j] = message(sender, offset + j);
+                  }
+                  sender.send(batch);
+                  return null;
+                }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+    double seconds = (System.nanoTime() - start) / 1e9;
+    double rate = MESSAGES / seconds;
+    System.out.printf("%-32s %8.0f msg/s (%d messages in %.2fs)%n", label, rate, MESSAGES, seconds);
+    return rate;
+  }
+
+  private MimeMessage message(JavaMailSenderImpl sender, int index) throws MessagingException {
+    MimeMessage message = sender.createMimeMessage();
+    MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+    helper.setFrom("bench@mailflow.local");
+    helper.setTo("contact" + index + "@example.com");
+    helper.setSubject("Benchmark " + index);
+    helper.setText("<html><body><p>Hello " + index + "</p></body></html>", true);
+    return message;
+  }
+
+  private void configure(JavaMailSenderImpl sender, int port) {
+    sender.setHost("localhost");
+    sender.setPort(port);
+    sender.getJavaMailProperties().put("mail.smtp.auth", "false");
+    sender.getJavaMailProperties().put("mail.smtp.starttls.enable", "false");
+  }
+}
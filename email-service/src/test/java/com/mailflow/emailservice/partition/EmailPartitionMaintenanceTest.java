@@ -0,0 +1,56 @@
+package com.mailflow.emailservice.partition;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.YearMonth;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class EmailPartitionMaintenanceTest {
+
+  private static final YearMonth MARCH = YearMonth.of(2026, 3);
+
+  @Test
+  @DisplayName("Should read the month from a partition name")
+  void shouldParseMonth() {
+    // Act & Assert
+    assertThat(EmailPartitionMaintenance.month("emails_p202603")).isEqualTo(MARCH);
+    assertThat(EmailPartitionMaintenance.month("emails_p202512")).isEqualTo(YearMonth.of(2025, 12));
+  }
+
+  @Test
+  @DisplayName("Should not read a month from other tables or impossible months")
+  void shouldIgnoreOtherNames() {
+    // Act & Assert
+    assertThat(EmailPartitionMaintenance.month("emails_default")).isNull();
+    assertThat(EmailPartitionMaintenance.month("emails_p2026031")).isNull();
+    assertThat(EmailPartitionMaintenance.month("emails_p202613")).isNull();
+    assertThat(EmailPartitionMaintenance.month("emails_p202600")).isNull();
+  }
+
+  @Test
+  @DisplayName("Should expire only partitions strictly older than the retention")
+  void shouldExpireOlderPartitions() {
+    // Act & Assert
+    assertThat(EmailPartitionMaintenance.expired("emails_p202511", MARCH, 3)).isTrue();
+    assertThat(EmailPartitionMaintenance.expired("emails_p202512", MARCH, 3)).isFalse();
+    assertThat(EmailPartitionMaintenance.expired("emails_p202603", MARCH, 3)).isFalse();
+    assertThat(EmailPartitionMaintenance.expired("emails_p202606", MARCH, 3)).isFalse();
+  }
+
+  @Test
+  @DisplayName("Should count the retention back across a year boundary")
+  void shouldExpireAcrossYearBoundary() {
+    // Act & Assert
+    assertThat(EmailPartitionMaintenance.expired("emails_p202501", MARCH, 13)).isTrue();
+    assertThat(EmailPartitionMaintenance.expired("emails_p202503", MARCH, 12)).isFalse();
+    assertThat(EmailPartitionMaintenance.expired("emails_p202502", MARCH, 12)).isTrue();
+  }
+
+  @Test
+  @DisplayName("Should never expire the default partition")
+  void shouldKeepDefaultPartition() {
+    // Act & Assert
+    assertThat(EmailPartitionMaintenance.expired("emails_default", MARCH, 1)).isFalse();
+  }
+}
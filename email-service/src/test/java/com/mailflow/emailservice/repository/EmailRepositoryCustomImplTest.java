@@ -0,0 +1,108 @@
+package com.mailflow.emailservice.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.mailflow.emailservice.dto.email.EmailFilter;
+import com.mailflow.emailservice.dto.email.EmailSummaryResponse;
+import java.time.LocalDateTime;
+import java.util.function.BiFunction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.RowsFetchSpec;
+import reactor.core.publisher.Flux;
+
+public class EmailRepositoryCustomImplTest {
+
+  private static final LocalDateTime T0 = LocalDateTime.of(2026, 3, 2, 10, 0);
+
+  private final DatabaseClient databaseClient = mock(DatabaseClient.class);
+  private final DatabaseClient.GenericExecuteSpec spec =
+      mock(DatabaseClient.GenericExecuteSpec.class);
+
+  private EmailRepositoryCustomImpl repository;
+
+  @BeforeEach
+  @SuppressWarnings("unchecked")
+  void setUp() {
+    RowsFetchSpec<EmailSummaryResponse> rows = mock(RowsFetchSpec.class);
+    when(rows.all()).thenReturn(Flux.empty());
+    when(databaseClient.sql(anyString())).thenReturn(spec);
+    when(spec.bind(anyString(), any())).thenReturn(spec);
+    doReturn(rows).when(spec).map(any(BiFunction.class));
+
+    repository = new EmailRepositoryCustomImpl(databaseClient);
+  }
+
+  @Test
+  @DisplayName("Should seek past the cursor in index order when both halves are given")
+  void shouldSeekPastCursor() {
+    // Arrange
+    EmailFilter filter =
+        EmailFilter.builder().campaignId(7L).beforeCreatedAt(T0).beforeId(42L).size(50).build();
+
+    // Act
+    repository.findEmails(filter).blockLast();
+
+    // Assert
+    assertThat(sql())
+        .contains("e.campaign_id = :campaignId")
+        .contains("AND (e.created_at, e.id) < (:beforeCreatedAt, :beforeId)")
+        .endsWith("ORDER BY e.created_at DESC, e.id DESC LIMIT :limit");
+    verify(spec).bind("campaignId", 7L);
+    verify(spec).bind("beforeCreatedAt", T0);
+    verify(spec).bind("beforeId", 42L);
+    verify(spec).bind("limit", 50);
+  }
+
+  @Test
+  @DisplayName("Should read the first page without a cursor or unused filters")
+  void shouldReadFirstPage() {
+    // Arrange
+    EmailFilter filter = EmailFilter.builder().size(20).build();
+
+    // Act
+    repository.findEmails(filter).blockLast();
+
+    // Assert
+    assertThat(sql())
+        .doesNotContain(":beforeCreatedAt")
+        .doesNotContain(":campaignId")
+        .doesNotContain("email_bodies")
+        .contains("WHERE TRUE ORDER BY");
+    verify(spec, never()).bind(eq("beforeCreatedAt"), any());
+    verify(spec, never()).bind(eq("beforeId"), any());
+    verify(spec).bind("limit", 20);
+  }
+
+  @Test
+  @DisplayName("Should join the bodies only when content is requested")
+  void shouldJoinBodiesForContent() {
+    // Arrange
+    EmailFilter filter = EmailFilter.builder().includeContent(true).size(20).build();
+
+    // Act
+    repository.findEmails(filter).blockLast();
+
+    // Assert
+    assertThat(sql())
+        .contains(", b.content FROM emails e")
+        .contains("LEFT JOIN email_bodies b ON b.content_hash = e.content_hash");
+  }
+
+  private String sql() {
+    ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+    verify(databaseClient).sql(sql.capture());
+    return sql.getValue();
+  }
+}
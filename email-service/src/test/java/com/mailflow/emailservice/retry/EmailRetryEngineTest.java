@@ -0,0 +1,96 @@
+package com.mailflow.emailservice.retry;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import com.mailflow.emailservice.analytics.LiveCampaignStats;
+import com.mailflow.emailservice.kafka.KafkaEventPublisher;
+import com.mailflow.emailservice.mail.DomainSendScheduler;
+import com.mailflow.emailservice.mail.EmailMessageFactory;
+import com.mailflow.emailservice.repository.EmailRepository;
+import com.mailflow.emailservice.repository.EmailRetryRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.scheduler.Schedulers;
+
+public class EmailRetryEngineTest {
+
+  private static final int SAMPLES = 200;
+
+  private EmailRetryEngine retryEngine;
+
+  @BeforeEach
+  void setUp() {
+    retryEngine =
+        new EmailRetryEngine(
+            mock(EmailRetryRepository.class),
+            mock(EmailRepository.class),
+            mock(EmailMessageFactory.class),
+            mock(DomainSendScheduler.class),
+            mock(KafkaEventPublisher.class),
+            mock(LiveCampaignStats.class),
+            Schedulers.immediate(),
+            mock(TransactionalOperator.class),
+            new SimpleMeterRegistry());
+    ReflectionTestUtils.setField(retryEngine, "baseDelay", Duration.ofMinutes(5));
+    ReflectionTestUtils.setField(retryEngine, "maxDelay", Duration.ofHours(6));
+  }
+
+  @Test
+  @DisplayName("Should wait between half and all of the base delay before the first retry")
+  void shouldStartFromBaseDelay() {
+    // Act & Assert
+    assertBackoffBetween(1, Duration.ofSeconds(150), Duration.ofMinutes(5));
+  }
+
+  @Test
+  @DisplayName("Should double the delay with every failed attempt")
+  void shouldDoubleDelay() {
+    // Act & Assert
+    assertBackoffBetween(2, Duration.ofMinutes(5), Duration.ofMinutes(10));
+    assertBackoffBetween(4, Duration.ofMinutes(20), Duration.ofMinutes(40));
+  }
+
+  @Test
+  @DisplayName("Should cap the delay at the maximum")
+  void shouldCapDelay() {
+    // Act & Assert
+    assertBackoffBetween(8, Duration.ofHours(3), Duration.ofHours(6));
+  }
+
+  @Test
+  @DisplayName("Should not overflow for very high attempt counts")
+  void shouldNotOverflow() {
+    // Act & Assert
+    assertBackoffBetween(64, Duration.ofHours(3), Duration.ofHours(6));
+    assertBackoffBetween(Integer.MAX_VALUE, Duration.ofHours(3), Duration.ofHours(6));
+  }
+
+  @Test
+  @DisplayName("Should spread the retries of one attempt count")
+  void shouldJitterDelay() {
+    // Arrange
+    Set<Duration> delays = new HashSet<>();
+
+    // Act
+    for (int i = 0; i < SAMPLES; i++) {
+      delays.add(retryEngine.backoff(3));
+    }
+
+    // Assert
+    assertThat(delays).hasSizeGreaterThan(1);
+  }
+
+  private void assertBackoffBetween(int attempts, Duration min, Duration max) {
+    for (int i = 0; i < SAMPLES; i++) {
+      assertThat(retryEngine.backoff(attempts)).isBetween(min, max);
+    }
+  }
+}
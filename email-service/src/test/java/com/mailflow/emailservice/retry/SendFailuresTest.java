@@ -0,0 +1,131 @@
+package com.mailflow.emailservice.retry;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import jakarta.mail.Address;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.internet.AddressException;
+import jakarta.mail.internet.InternetAddress;
+import java.net.SocketTimeoutException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.eclipse.angus.mail.smtp.SMTPAddressFailedException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.MailParseException;
+import org.springframework.mail.MailSendException;
+
+public class SendFailuresTest {
+
+  @Test
+  @DisplayName("Should treat a 4xx reply as a deferral")
+  void shouldDetectDeferral() throws Exception {
+    // Act & Assert
+    assertThat(SendFailures.isDeferral(reply(421))).isTrue();
+    assertThat(SendFailures.isDeferral(reply(452))).isTrue();
+  }
+
+  @Test
+  @DisplayName("Should not treat 5xx replies or connection problems as deferrals")
+  void shouldNotDetectDeferralWithoutTemporaryReply() throws Exception {
+    // Act & Assert
+    assertThat(SendFailures.isDeferral(reply(550))).isFalse();
+    assertThat(SendFailures.isDeferral(new MailSendException("Connection lost"))).isFalse();
+    assertThat(
+            SendFailures.isDeferral(
+                new MessagingException("Read timed out", new SocketTimeoutException())))
+        .isFalse();
+  }
+
+  @Test
+  @DisplayName("Should find a deferral among the failed messages of a batch")
+  void shouldDetectDeferralInBatchFailure() throws Exception {
+    // Arrange
+    Map<Object, Exception> failed = new LinkedHashMap<>();
+    failed.put("first", reply(550));
+    failed.put("second", reply(451));
+
+    // Act & Assert
+    assertThat(SendFailures.isDeferral(new MailSendException(failed))).isTrue();
+  }
+
+  @Test
+  @DisplayName("Should follow the next exception of a messaging failure")
+  void shouldDetectChainedDeferral() throws Exception {
+    // Arrange
+    MessagingException failure = new MessagingException("Send failed", reply(450));
+
+    // Act & Assert
+    assertThat(SendFailures.isDeferral(failure)).isTrue();
+  }
+
+  @Test
+  @DisplayName("Should treat a 5xx reply as permanent and a 4xx reply as transient")
+  void shouldClassifyReplies() throws Exception {
+    // Act & Assert
+    assertThat(SendFailures.isPermanent(reply(550))).isTrue();
+    assertThat(SendFailures.isPermanent(reply(554))).isTrue();
+    assertThat(SendFailures.isPermanent(reply(421))).isFalse();
+    assertThat(SendFailures.isPermanent(new MessagingException("Send failed", reply(553))))
+        .isTrue();
+  }
+
+  @Test
+  @DisplayName("Should treat unparsable addresses and messages as permanent")
+  void shouldDetectUnsendableMessage() {
+    // Act & Assert
+    assertThat(SendFailures.isPermanent(new AddressException("Missing domain", "user@")))
+        .isTrue();
+    assertThat(SendFailures.isPermanent(new MailParseException("Illegal header"))).isTrue();
+  }
+
+  @Test
+  @DisplayName("Should treat timeouts and lost connections as transient")
+  void shouldRetryConnectionProblems() {
+    // Act & Assert
+    assertThat(SendFailures.isPermanent(new MailSendException("Connection lost"))).isFalse();
+    assertThat(
+            SendFailures.isPermanent(
+                new MessagingException("Read timed out", new SocketTimeoutException())))
+        .isFalse();
+  }
+
+  @Test
+  @DisplayName("Should give up on rejected recipients only when no valid one is left unsent")
+  void shouldDetectRejectedRecipients() throws Exception {
+    // Arrange
+    Address[] invalid = {new InternetAddress("nobody@example.com")};
+    Address[] unsent = {new InternetAddress("user@gmail.com")};
+
+    // Act & Assert
+    assertThat(
+            SendFailures.isPermanent(
+                new SendFailedException("Invalid Addresses", null, null, null, invalid)))
+        .isTrue();
+    assertThat(
+            SendFailures.isPermanent(
+                new SendFailedException("Invalid Addresses", null, null, unsent, invalid)))
+        .isFalse();
+  }
+
+  @Test
+  @DisplayName("Should treat a batch failure as permanent only when every message failed for good")
+  void shouldClassifyBatchFailure() throws Exception {
+    // Arrange
+    Map<Object, Exception> permanent = new LinkedHashMap<>();
+    permanent.put("first", reply(550));
+    permanent.put("second", new AddressException("Missing domain", "user@"));
+    Map<Object, Exception> mixed = new LinkedHashMap<>(permanent);
+    mixed.put("third", reply(451));
+
+    // Act & Assert
+    assertThat(SendFailures.isPermanent(new MailSendException(permanent))).isTrue();
+    assertThat(SendFailures.isPermanent(new MailSendException(mixed))).isFalse();
+  }
+
+  static SMTPAddressFailedException reply(int replyCode) throws Exception {
+    return new SMTPAddressFailedException(
+        new InternetAddress("user@gmail.com"), "RCPT TO", replyCode, replyCode + " reply");
+  }
+}
@@ -0,0 +1,221 @@
+package com.mailflow.emailservice.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.mailflow.emailservice.analytics.DailyStatsCache;
+import com.mailflow.emailservice.analytics.LiveCampaignStats;
+import com.mailflow.emailservice.client.ContactServiceClient;
+import com.mailflow.emailservice.domain.Email;
+import com.mailflow.emailservice.domain.EmailStatus;
+import com.mailflow.emailservice.dto.contact.ContactDTO;
+import com.mailflow.emailservice.dto.email.EmailFilter;
+import com.mailflow.emailservice.exception.InvalidRequestException;
+import com.mailflow.emailservice.kafka.KafkaEventPublisher;
+import com.mailflow.emailservice.mail.DomainSendScheduler;
+import com.mailflow.emailservice.mail.EmailMessageFactory;
+import com.mailflow.emailservice.mapper.EmailMapper;
+import com.mailflow.emailservice.repository.EmailRepository;
+import com.mailflow.emailservice.retry.EmailRetryEngine;
+import com.mailflow.emailservice.template.TemplateRenderer;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+public class EmailServiceImplTest {
+
+  private static final LocalDateTime T0 = LocalDateTime.of(2026, 3, 2, 10, 0);
+
+  private final EmailRepository emailRepository = mock(EmailRepository.class);
+  private final ContactServiceClient contactServiceClient = mock(ContactServiceClient.class);
+
+  private EmailServiceImpl emailService;
+
+  @BeforeEach
+  void setUp() {
+    emailService =
+        new EmailServiceImpl(
+            emailRepository,
+            contactServiceClient,
+            mock(DomainSendScheduler.class),
+            mock(EmailMessageFactory.class),
+            mock(TemplateRenderer.class),
+            mock(KafkaEventPublisher.class),
+            new EmailMapper(),
+            mock(DailyStatsCache.class),
+            mock(LiveCampaignStats.class),
+            mock(EmailRetryEngine.class),
+            Schedulers.immediate(),
+            mock(TransactionalOperator.class));
+    when(emailRepository.findEmails(any())).thenReturn(Flux.empty());
+  }
+
+  @Test
+  @DisplayName("Should reject a cursor with only its created_at half")
+  void shouldRejectCursorWithoutId() {
+    // Arrange
+    EmailFilter filter = EmailFilter.builder().beforeCreatedAt(T0).size(50).build();
+
+    // Act & Assert
+    StepVerifier.create(emailService.listEmails(filter))
+        .expectError(InvalidRequestException.class)
+        .verify();
+    verifyNoInteractions(emailRepository);
+  }
+
+  @Test
+  @DisplayName("Should reject a cursor with only its id half")
+  void shouldRejectCursorWithoutCreatedAt() {
+    // Arrange
+    EmailFilter filter = EmailFilter.builder().beforeId(42L).size(50).build();
+
+    // Act & Assert
+    StepVerifier.create(emailService.listEmails(filter))
+        .expectError(InvalidRequestException.class)
+        .verify();
+    verifyNoInteractions(emailRepository);
+  }
+
+  @Test
+  @DisplayName("Should reject a range whose start lies after its end")
+  void shouldRejectInvertedRange() {
+    // Arrange
+    EmailFilter filter = EmailFilter.builder().from(T0).to(T0.minusDays(1)).size(50).build();
+
+    // Act & Assert
+    StepVerifier.create(emailService.listEmails(filter))
+        .expectError(InvalidRequestException.class)
+        .verify();
+    verifyNoInteractions(emailRepository);
+  }
+
+  @Test
+  @DisplayName("Should pass a complete cursor and a valid range through unchanged")
+  void shouldPassValidFilterThrough() {
+    // Arrange
+    EmailFilter filter =
+        EmailFilter.builder()
+            .from(T0.minusDays(7))
+            .to(T0)
+            .beforeCreatedAt(T0.minusHours(1))
+            .beforeId(42L)
+            .size(50)
+            .build();
+
+    // Act
+    StepVerifier.create(emailService.listEmails(filter)).verifyComplete();
+
+    // Assert
+    verify(emailRepository).findEmails(filter);
+  }
+
+  @Test
+  @DisplayName("Should cap the page size at the maximum")
+  void shouldCapPageSize() {
+    // Act
+    StepVerifier.create(emailService.listEmails(EmailFilter.builder().size(5000).build()))
+        .verifyComplete();
+
+    // Assert
+    assertThat(requestedSize()).isEqualTo(1000);
+  }
+
+  @Test
+  @DisplayName("Should raise an empty or negative page size to one")
+  void shouldRaisePageSizeToOne() {
+    // Act
+    StepVerifier.create(emailService.listEmails(EmailFilter.builder().size(-3).build()))
+        .verifyComplete();
+
+    // Assert
+    assertThat(requestedSize()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("Should load the bodies of recent emails in one query")
+  void shouldLoadRecentEmailBodies() {
+    // Arrange
+    when(emailRepository.findRecentEmails(2))
+        .thenReturn(Flux.just(email(1L, "h-1"), email(2L, null)));
+    when(emailRepository.findContents(Set.of("h-1")))
+        .thenReturn(Mono.just(Map.of("h-1", "<p>Hello</p>")));
+
+    // Act & Assert
+    StepVerifier.create(emailService.getRecentEmails(2))
+        .assertNext(email -> assertThat(email.content()).isEqualTo("<p>Hello</p>"))
+        .assertNext(email -> assertThat(email.content()).isNull())
+        .verifyComplete();
+    verify(emailRepository).findContents(Set.of("h-1"));
+  }
+
+  @Test
+  @DisplayName("Should claim the campaign and contact pair for an email that failed before sending")
+  @SuppressWarnings("unchecked")
+  void shouldClaimPairForFailedEmail() {
+    // Arrange
+    when(contactServiceClient.getContact(5L)).thenThrow(new IllegalStateException("Timed out"));
+    when(emailRepository.insertAll(anyList()))
+        .thenAnswer(
+            invocation -> {
+              Email email = invocation.<List<Email>>getArgument(0).get(0);
+              email.setId(1L);
+              return Flux.just(email);
+            });
+
+    // Act
+    StepVerifier.create(emailService.sendEmail(3L, 5L, 7L)).verifyComplete();
+
+    // Assert
+    ArgumentCaptor<List<Email>> emails = ArgumentCaptor.forClass(List.class);
+    verify(emailRepository).insertAll(emails.capture());
+    assertThat(emails.getValue())
+        .singleElement()
+        .satisfies(
+            email -> {
+              assertThat(email.getCampaignId()).isEqualTo(3L);
+              assertThat(email.getContactId()).isEqualTo(5L);
+              assertThat(email.getStatus()).isEqualTo(EmailStatus.FAILED);
+              assertThat(email.getErrorMessage()).contains("Timed out");
+            });
+  }
+
+  @Test
+  @DisplayName("Should return the existing email when the pair is already claimed")
+  void shouldReturnExistingEmailForClaimedPair() {
+    // Arrange
+    when(contactServiceClient.getContact(5L)).thenReturn(ContactDTO.builder().id(5L).build());
+    when(emailRepository.insertAll(anyList())).thenReturn(Flux.empty());
+    when(emailRepository.findCampaignEmails(3L, List.of(5L)))
+        .thenReturn(Flux.just(email(9L, "h-9")));
+
+    // Act & Assert
+    StepVerifier.create(emailService.sendEmail(3L, 5L, 7L))
+        .assertNext(email -> assertThat(email.id()).isEqualTo(9L))
+        .verifyComplete();
+  }
+
+  private static Email email(Long id, String contentHash) {
+    return Email.builder().id(id).contentHash(contentHash).status(EmailStatus.SENT).build();
+  }
+
+  private int requestedSize() {
+    ArgumentCaptor<EmailFilter> filter = ArgumentCaptor.forClass(EmailFilter.class);
+    verify(emailRepository).findEmails(filter.capture());
+    return filter.getValue().size();
+  }
+}
@@ -0,0 +1,167 @@
+package com.mailflow.emailservice.tracking;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.mailflow.emailservice.analytics.LiveCampaignStats;
+import com.mailflow.emailservice.domain.EmailStatus;
+import com.mailflow.emailservice.kafka.KafkaEventPublisher;
+import com.mailflow.emailservice.repository.EmailRepository;
+import com.mailflow.events.EmailStatusEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public class TrackingBufferTest {
+
+  private static final LocalDateTime T0 = LocalDateTime.of(2026, 3, 2, 10, 0);
+
+  private final EmailRepository emailRepository = mock(EmailRepository.class);
+  private final KafkaEventPublisher eventPublisher = mock(KafkaEventPublisher.class);
+  private final TransactionalOperator transactionalOperator = mock(TransactionalOperator.class);
+  private final LiveCampaignStats liveCampaignStats = mock(LiveCampaignStats.class);
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  private TrackingBuffer buffer;
+
+  @BeforeEach
+  @SuppressWarnings("unchecked")
+  void setUp() {
+    when(transactionalOperator.transactional(any(Mono.class)))
+        .thenAnswer(invocation -> invocation.getArgument(0));
+    when(eventPublisher.publishEmailStatusEvents(anyList())).thenReturn(Mono.empty());
+
+    buffer =
+        new TrackingBuffer(
+            emailRepository,
+            eventPublisher,
+            transactionalOperator,
+            liveCampaignStats,
+            meterRegistry);
+    ReflectionTestUtils.setField(buffer, "capacity", 3);
+    ReflectionTestUtils.setField(buffer, "maxBatch", 100);
+    ReflectionTestUtils.setField(buffer, "writeTimeout", Duration.ofSeconds(5));
+    ReflectionTestUtils.setField(buffer, "maxEmailAge", Duration.ofDays(90));
+    buffer.init();
+    ReflectionTestUtils.setField(buffer, "running", true);
+  }
+
+  @Test
+  @DisplayName("Should coalesce hits per tracking id and publish one event per moved email")
+  @SuppressWarnings("unchecked")
+  void shouldCoalesceHitsAndPublishTransitions() {
+    // Arrange
+    buffer.record(TrackingHit.open("t-1", T0));
+    buffer.record(TrackingHit.click("t-1", T0.plusMinutes(1), "https://mailflow.io/a"));
+    buffer.record(TrackingHit.open("t-2", T0));
+    when(emailRepository.applyTrackingHits(anyList(), any()))
+        .thenReturn(Flux.just(new TrackedEmail(1L, 10L, "t-1", true, true)));
+
+    // Act
+    buffer.flushQueued(true);
+
+    // Assert
+    ArgumentCaptor<List<TrackingHit>> hits = ArgumentCaptor.forClass(List.class);
+    verify(emailRepository).applyTrackingHits(hits.capture(), any());
+    assertThat(hits.getValue())
+        .extracting(TrackingHit::trackingId, TrackingHit::status)
+        .containsExactly(tuple("t-1", EmailStatus.CLICKED), tuple("t-2", EmailStatus.OPENED));
+
+    ArgumentCaptor<List<EmailStatusEvent>> events = ArgumentCaptor.forClass(List.class);
+    verify(eventPublisher).publishEmailStatusEvents(events.capture());
+    assertThat(events.getValue())
+        .singleElement()
+        .satisfies(
+            event -> {
+              assertThat(event.emailId()).isEqualTo(1L);
+              assertThat(event.status()).isEqualTo("CLICKED");
+              assertThat(event.timestamp()).isEqualTo(T0.plusMinutes(1));
+              assertThat(event.metadata()).isEqualTo("https://mailflow.io/a");
+            });
+    verify(liveCampaignStats).recordOpened(10L);
+    verify(liveCampaignStats).recordClicked(10L);
+    assertThat(bufferSize()).isZero();
+  }
+
+  @Test
+  @DisplayName("Should put a failed batch back and write it on the next flush")
+  @SuppressWarnings("unchecked")
+  void shouldRequeueFailedBatch() {
+    // Arrange
+    buffer.record(TrackingHit.open("t-1", T0));
+    buffer.record(TrackingHit.open("t-1", T0.plusMinutes(1)));
+    buffer.record(TrackingHit.open("t-2", T0));
+    when(emailRepository.applyTrackingHits(anyList(), any()))
+        .thenReturn(Flux.error(new IllegalStateException("Database unavailable")))
+        .thenReturn(Flux.empty());
+
+    // Act & Assert
+    buffer.flushQueued(true);
+    assertThat(bufferSize()).isEqualTo(2);
+
+    buffer.flushQueued(true);
+    assertThat(bufferSize()).isZero();
+    ArgumentCaptor<List<TrackingHit>> hits = ArgumentCaptor.forClass(List.class);
+    verify(emailRepository, times(2)).applyTrackingHits(hits.capture(), any());
+    assertThat(hits.getAllValues().get(1))
+        .extracting(TrackingHit::trackingId)
+        .containsExactly("t-1", "t-2");
+    assertThat(hitCount("failed")).isZero();
+  }
+
+  @Test
+  @DisplayName("Should count a failed batch as lost once the buffer is stopping")
+  void shouldDropFailedBatchWhenStopping() {
+    // Arrange
+    buffer.record(TrackingHit.open("t-1", T0));
+    buffer.record(TrackingHit.open("t-2", T0));
+    when(emailRepository.applyTrackingHits(anyList(), any()))
+        .thenReturn(Flux.error(new IllegalStateException("Database unavailable")));
+    ReflectionTestUtils.setField(buffer, "running", false);
+
+    // Act
+    buffer.flushQueued(false);
+
+    // Assert
+    assertThat(bufferSize()).isZero();
+    assertThat(hitCount("failed")).isEqualTo(2);
+  }
+
+  @Test
+  @DisplayName("Should drop hits without blocking when the buffer is full")
+  void shouldDropHitsWhenFull() {
+    // Act
+    for (int i = 0; i < 3; i++) {
+      assertThat(buffer.record(TrackingHit.open("t-" + i, T0))).isTrue();
+    }
+    boolean accepted = buffer.record(TrackingHit.open("t-3", T0));
+
+    // Assert
+    assertThat(accepted).isFalse();
+    assertThat(hitCount("accepted")).isEqualTo(3);
+    assertThat(hitCount("dropped")).isEqualTo(1);
+  }
+
+  private double bufferSize() {
+    return meterRegistry.get("mailflow.tracking.buffer.size").gauge().value();
+  }
+
+  private double hitCount(String outcome) {
+    return meterRegistry.get("mailflow.tracking.hits").tag("outcome", outcome).counter().count();
+  }
+}
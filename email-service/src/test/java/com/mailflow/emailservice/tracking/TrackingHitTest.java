@@ -0,0 +1,48 @@
+package com.mailflow.emailservice.tracking;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.mailflow.emailservice.domain.EmailStatus;
+import java.time.LocalDateTime;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class TrackingHitTest {
+
+  private static final LocalDateTime T0 = LocalDateTime.of(2026, 3, 2, 10, 0);
+
+  @Test
+  @DisplayName("Should keep the furthest status and the first time of each event")
+  void shouldMergeOpenAndClick() {
+    // Arrange
+    TrackingHit open = TrackingHit.open("t-1", T0.plusMinutes(1));
+    TrackingHit click = TrackingHit.click("t-1", T0.plusMinutes(2), "https://mailflow.io/a");
+    TrackingHit earlierOpen = TrackingHit.open("t-1", T0);
+
+    // Act
+    TrackingHit merged = open.merge(click).merge(earlierOpen);
+
+    // Assert
+    assertThat(merged.trackingId()).isEqualTo("t-1");
+    assertThat(merged.status()).isEqualTo(EmailStatus.CLICKED);
+    assertThat(merged.openedAt()).isEqualTo(T0);
+    assertThat(merged.clickedAt()).isEqualTo(T0.plusMinutes(2));
+    assertThat(merged.url()).isEqualTo("https://mailflow.io/a");
+  }
+
+  @Test
+  @DisplayName("Should keep the most recent clicked URL")
+  void shouldKeepLatestUrl() {
+    // Arrange
+    TrackingHit first = TrackingHit.click("t-1", T0.plusMinutes(5), "https://mailflow.io/a");
+    TrackingHit second = TrackingHit.click("t-1", T0, "https://mailflow.io/b");
+
+    // Act
+    TrackingHit merged = first.merge(second).merge(TrackingHit.open("t-1", T0));
+
+    // Assert
+    assertThat(merged.url()).isEqualTo("https://mailflow.io/b");
+    assertThat(merged.clickedAt()).isEqualTo(T0);
+    assertThat(merged.status()).isEqualTo(EmailStatus.CLICKED);
+  }
+}
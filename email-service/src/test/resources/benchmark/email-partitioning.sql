@@ -0,0 +1,265 @@
+-- Email partitioning benchmark: plain emails table vs. monthly range partitions on created_at.
+--
+-- Builds a throwaway schema with two copies of the emails table, one plain and one partitioned
+-- by month like V7__partition_emails, each holding twelve months of history (240,000 rows). Then
+-- runs the hot-path writes against both: a batched insert shaped like
+-- EmailRepository#insertAll, a status transition by id shaped like
+-- EmailRepository#transitionStatus with the created_at lower bound the service now passes, and a
+-- tracking update by tracking id bounded the same way. Run against a scratch database, never
+-- production:
+--
+--   psql -h localhost -U mailflow -d email -f email-service/src/test/resources/benchmark/email-partitioning.sql
+--
+-- Compare the duration column of the final report per operation. The EXPLAIN output shows how
+-- many partitions the bounded statements touch. The schema is dropped at the end.
+
+\timing on
+SET client_min_messages = warning;
+
+DROP SCHEMA IF EXISTS partition_bench CASCADE;
+CREATE SCHEMA partition_bench;
+SET search_path = partition_bench, public;
+
+CREATE FUNCTION email_status_rank(status VARCHAR) RETURNS INT AS
+$$
+SELECT CASE status
+           WHEN 'PENDING' THEN 0
+           WHEN 'FAILED' THEN 1
+           WHEN 'SENT' THEN 2
+           WHEN 'DELIVERED' THEN 3
+           WHEN 'OPENED' THEN 4
+           WHEN 'CLICKED' THEN 5
+           ELSE 0
+           END
+$$ LANGUAGE sql IMMUTABLE;
+
+CREATE TABLE plain_emails
+(
+    id              BIGSERIAL PRIMARY KEY,
+    campaign_id     BIGINT       NOT NULL,
+    contact_id      BIGINT       NOT NULL,
+    template_id     BIGINT       NOT NULL,
+    recipient_email VARCHAR(255) NOT NULL,
+    subject         VARCHAR(512) NOT NULL,
+    content_hash    CHAR(64),
+    status          VARCHAR(20)  NOT NULL DEFAULT 'PENDING',
+    sent_at         TIMESTAMP,
+    opened_at       TIMESTAMP,
+    clicked_at      TIMESTAMP,
+    tracking_id     VARCHAR(255),
+    error_message   TEXT,
+    created_at      TIMESTAMP    NOT NULL DEFAULT NOW(),
+    updated_at      TIMESTAMP    NOT NULL DEFAULT NOW(),
+    version         BIGINT                DEFAULT 0
+);
+
+CREATE TABLE partitioned_emails
+(
+    LIKE plain_emails INCLUDING DEFAULTS,
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+DO
+$$
+    DECLARE
+        month DATE;
+    BEGIN
+        FOR i IN -12..3
+            LOOP
+                month := CAST(date_trunc('month', NOW()) + make_interval(months => i) AS DATE);
+                EXECUTE format(
+                        'CREATE TABLE partitioned_emails_p%s PARTITION OF partitioned_emails '
+                            || 'FOR VALUES FROM (%L) TO (%L)',
+                        to_char(month, 'YYYYMM'), month, month + INTERVAL '1 month');
+            END LOOP;
+    END
+$$;
+
+CREATE INDEX ON plain_emails (status, created_at);
+CREATE INDEX ON plain_emails (tracking_id);
+CREATE INDEX ON plain_emails (campaign_id, created_at DESC, id DESC);
+CREATE INDEX ON partitioned_emails (status, created_at);
+CREATE INDEX ON partitioned_emails (tracking_id);
+CREATE INDEX ON partitioned_emails (campaign_id, created_at DESC, id DESC);
+
+-- Twelve months of history, 20,000 emails per month
+INSERT INTO plain_emails (campaign_id, contact_id, template_id, recipient_email, subject,
+                          content_hash, status, tracking_id, created_at, updated_at)
+SELECT i % 50,
+       i,
+       1,
+       'contact' || i || '@example.com',
+       'Benchmark subject ' || i,
+       encode(sha256(convert_to(CAST(i % 50 AS text), 'UTF8')), 'hex'),
+       'SENT',
+       md5(i::text),
+       date_trunc('month', NOW()) - INTERVAL '12 months' + (i / 20000) * INTERVAL '1 month'
+           + (i % 20000) * INTERVAL '1 minute',
+       NOW()
+FROM generate_series(0, 239999) i;
+
+INSERT INTO partitioned_emails
+SELECT *
+FROM plain_emails;
+
+SELECT setval(pg_get_serial_sequence('plain_emails', 'id'), 240000);
+
+VACUUM ANALYZE plain_emails;
+VACUUM ANALYZE partitioned_emails;
+
+CREATE TEMP TABLE marks
+(
+    label TEXT,
+    at    TIMESTAMPTZ
+);
+
+-- 1. Batched insert of 50,000 new emails in chunks of 500, as insertAll sends them
+CREATE TEMP TABLE batch AS
+SELECT i
+FROM generate_series(240000, 289999) i;
+
+INSERT INTO marks VALUES ('insert_plain_start', clock_timestamp());
+DO
+$$
+    BEGIN
+        FOR chunk IN 0..99
+            LOOP
+                INSERT INTO plain_emails (id, campaign_id, contact_id, template_id,
+                                          recipient_email, subject, content_hash, status,
+                                          tracking_id)
+                SELECT i, 1, i, 1, 'contact' || i || '@example.com', 'Subject ' || i,
+                       encode(sha256('1'), 'hex'), 'PENDING', md5(i::text)
+                FROM unnest(ARRAY(SELECT i FROM batch
+                                  WHERE i >= 240000 + chunk * 500
+                                    AND i < 240000 + (chunk + 1) * 500)) i;
+            END LOOP;
+    END
+$$;
+INSERT INTO marks VALUES ('insert_plain_end', clock_timestamp());
+
+INSERT INTO marks VALUES ('insert_partitioned_start', clock_timestamp());
+DO
+$$
+    BEGIN
+        FOR chunk IN 0..99
+            LOOP
+                INSERT INTO partitioned_emails (id, campaign_id, contact_id, template_id,
+                                                recipient_email, subject, content_hash, status,
+                                                tracking_id)
+                SELECT i, 1, i, 1, 'contact' || i || '@example.com', 'Subject ' || i,
+                       encode(sha256('1'), 'hex'), 'PENDING', md5(i::text)
+                FROM unnest(ARRAY(SELECT i FROM batch
+                                  WHERE i >= 240000 + chunk * 500
+                                    AND i < 240000 + (chunk + 1) * 500)) i;
+            END LOOP;
+    END
+$$;
+INSERT INTO marks VALUES ('insert_partitioned_end', clock_timestamp());
+
+VACUUM ANALYZE plain_emails;
+VACUUM ANALYZE partitioned_emails;
+
+-- 2. Status transitions of the new emails by id, 500 per statement
+INSERT INTO marks VALUES ('transition_plain_start', clock_timestamp());
+DO
+$$
+    BEGIN
+        FOR chunk IN 0..99
+            LOOP
+                UPDATE plain_emails e
+                SET status     = 'SENT',
+                    sent_at    = COALESCE(e.sent_at, NOW()),
+                    updated_at = NOW(),
+                    version    = e.version + 1
+                WHERE e.id = ANY (ARRAY(SELECT generate_series(240000 + chunk * 500,
+                                                               240499 + chunk * 500))::bigint[])
+                  AND e.created_at >= date_trunc('day', NOW())
+                  AND email_status_rank(e.status) < email_status_rank('SENT');
+            END LOOP;
+    END
+$$;
+INSERT INTO marks VALUES ('transition_plain_end', clock_timestamp());
+
+INSERT INTO marks VALUES ('transition_partitioned_start', clock_timestamp());
+DO
+$$
+    BEGIN
+        FOR chunk IN 0..99
+            LOOP
+                UPDATE partitioned_emails e
+                SET status     = 'SENT',
+                    sent_at    = COALESCE(e.sent_at, NOW()),
+                    updated_at = NOW(),
+                    version    = e.version + 1
+                WHERE e.id = ANY (ARRAY(SELECT generate_series(240000 + chunk * 500,
+                                                               240499 + chunk * 500))::bigint[])
+                  AND e.created_at >= date_trunc('day', NOW())
+                  AND email_status_rank(e.status) < email_status_rank('SENT');
+            END LOOP;
+    END
+$$;
+INSERT INTO marks VALUES ('transition_partitioned_end', clock_timestamp());
+
+-- 3. Opens by tracking id over the last 90 days, 500 per statement
+INSERT INTO marks VALUES ('tracking_plain_start', clock_timestamp());
+DO
+$$
+    BEGIN
+        FOR chunk IN 0..99
+            LOOP
+                UPDATE plain_emails e
+                SET status     = 'OPENED',
+                    opened_at  = COALESCE(e.opened_at, NOW()),
+                    updated_at = NOW(),
+                    version    = e.version + 1
+                WHERE e.tracking_id = ANY (ARRAY(SELECT md5(g::text)
+                                                 FROM generate_series(240000 + chunk * 500,
+                                                                      240499 + chunk * 500) g))
+                  AND e.created_at >= NOW() - INTERVAL '90 days'
+                  AND email_status_rank(e.status) < email_status_rank('OPENED');
+            END LOOP;
+    END
+$$;
+INSERT INTO marks VALUES ('tracking_plain_end', clock_timestamp());
+
+INSERT INTO marks VALUES ('tracking_partitioned_start', clock_timestamp());
+DO
+$$
+    BEGIN
+        FOR chunk IN 0..99
+            LOOP
+                UPDATE partitioned_emails e
+                SET status     = 'OPENED',
+                    opened_at  = COALESCE(e.opened_at, NOW()),
+                    updated_at = NOW(),
+                    version    = e.version + 1
+                WHERE e.tracking_id = ANY (ARRAY(SELECT md5(g::text)
+                                                 FROM generate_series(240000 + chunk * 500,
+                                                                      240499 + chunk * 500) g))
+                  AND e.created_at >= NOW() - INTERVAL '90 days'
+                  AND email_status_rank(e.status) < email_status_rank('OPENED');
+            END LOOP;
+    END
+$$;
+INSERT INTO marks VALUES ('tracking_partitioned_end', clock_timestamp());
+
+EXPLAIN (COSTS OFF)
+UPDATE partitioned_emails e
+SET updated_at = NOW()
+WHERE e.id = ANY (ARRAY [240000, 240001]::bigint[])
+  AND e.created_at >= date_trunc('day', NOW());
+
+EXPLAIN (COSTS OFF)
+UPDATE partitioned_emails e
+SET updated_at = NOW()
+WHERE e.id = ANY (ARRAY [240000, 240001]::bigint[]);
+
+SELECT s.label,
+       e.at - s.at AS duration
+FROM marks s
+         JOIN marks e ON e.label = replace(s.label, '_start', '_end')
+WHERE s.label LIKE '%_start'
+ORDER BY s.at;
+
+RESET search_path;
+DROP SCHEMA partition_bench CASCADE;
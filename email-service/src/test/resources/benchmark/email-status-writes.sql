@@ -0,0 +1,141 @@
+-- Email status write benchmark: full entity save vs. partial status transition.
+--
+-- Builds a throwaway schema with 100,000 emails carrying ~11 KB of rendered content each, then
+-- moves half of them to SENT the way ReactiveCrudRepository.save(Email) does (every column bound
+-- again, so the content is re-toasted) and the other half with the statement behind
+-- EmailRepository#transitionStatus. WAL generated per row is the write amplification; on top of
+-- it the full save ships the content over the wire once per transition. Run against a scratch
+-- database as a user allowed to CHECKPOINT, never production:
+--
+--   psql -h localhost -U mailflow -d email -f email-service/src/test/resources/benchmark/email-status-writes.sql
+--
+-- Compare the wal_per_row and duration columns of the final report. The schema is dropped at
+-- the end.
+
+\timing on
+SET client_min_messages = warning;
+
+DROP SCHEMA IF EXISTS status_bench CASCADE;
+CREATE SCHEMA status_bench;
+SET search_path = status_bench, public;
+
+CREATE TABLE emails
+(
+    id              BIGSERIAL PRIMARY KEY,
+    campaign_id     BIGINT       NOT NULL,
+    contact_id      BIGINT       NOT NULL,
+    template_id     BIGINT       NOT NULL,
+    recipient_email VARCHAR(255) NOT NULL,
+    subject         VARCHAR(512) NOT NULL,
+    content         TEXT         NOT NULL,
+    status          VARCHAR(20)  NOT NULL DEFAULT 'PENDING',
+    sent_at         TIMESTAMP,
+    opened_at       TIMESTAMP,
+    clicked_at      TIMESTAMP,
+    tracking_id     VARCHAR(255),
+    error_message   TEXT,
+    created_at      TIMESTAMP    NOT NULL DEFAULT NOW(),
+    updated_at      TIMESTAMP    NOT NULL DEFAULT NOW(),
+    version         BIGINT                DEFAULT 0
+);
+
+CREATE INDEX idx_emails_status ON emails (status);
+CREATE INDEX idx_emails_tracking_id ON emails (tracking_id);
+
+CREATE FUNCTION email_status_rank(status VARCHAR) RETURNS INT AS
+$$
+SELECT CASE status
+           WHEN 'PENDING' THEN 0
+           WHEN 'FAILED' THEN 1
+           WHEN 'SENT' THEN 2
+           WHEN 'DELIVERED' THEN 3
+           WHEN 'OPENED' THEN 4
+           WHEN 'CLICKED' THEN 5
+           ELSE 0
+           END
+$$ LANGUAGE sql IMMUTABLE;
+
+-- Hex digests only compress about 2:1, so the content ends up out of line in TOAST like real HTML
+INSERT INTO emails (campaign_id, contact_id, template_id, recipient_email, subject, content,
+                    tracking_id)
+SELECT 1,
+       i,
+       1,
+       'contact' || i || '@example.com',
+       'Benchmark subject ' || i,
+       '<html><body>' || (SELECT string_agg(md5(g::text || i::text), ' ')
+                          FROM generate_series(1, 330) g) || '</body></html>',
+       md5(i::text)
+FROM generate_series(1, 100000) i;
+
+VACUUM ANALYZE emails;
+SELECT pg_size_pretty(pg_relation_size('emails'))       AS heap,
+       pg_size_pretty(pg_total_relation_size('emails')) AS total;
+
+CREATE TEMP TABLE marks
+(
+    label TEXT,
+    lsn   PG_LSN,
+    at    TIMESTAMPTZ
+);
+
+-- 1. Full entity save: every column is written back and the version is checked
+CHECKPOINT;
+INSERT INTO marks VALUES ('full_save_start', pg_current_wal_insert_lsn(), clock_timestamp());
+
+UPDATE emails
+SET campaign_id     = campaign_id,
+    contact_id      = contact_id,
+    template_id     = template_id,
+    recipient_email = recipient_email,
+    subject         = subject,
+    content         = content || '',
+    status          = 'SENT',
+    sent_at         = NOW(),
+    opened_at       = opened_at,
+    clicked_at      = clicked_at,
+    tracking_id     = tracking_id,
+    error_message   = error_message,
+    created_at      = created_at,
+    updated_at      = NOW(),
+    version         = version + 1
+WHERE id <= 50000
+  AND version = 0;
+
+INSERT INTO marks VALUES ('full_save_end', pg_current_wal_insert_lsn(), clock_timestamp());
+
+-- 2. Status transition: only status, its timestamp and the audit columns
+CHECKPOINT;
+INSERT INTO marks VALUES ('transition_start', pg_current_wal_insert_lsn(), clock_timestamp());
+
+UPDATE emails e
+SET status        = t.status,
+    sent_at       = CASE WHEN t.status = 'SENT' THEN COALESCE(e.sent_at, t.at) ELSE e.sent_at END,
+    opened_at     = CASE WHEN t.status = 'OPENED' THEN COALESCE(e.opened_at, t.at)
+                         ELSE e.opened_at END,
+    clicked_at    = CASE WHEN t.status = 'CLICKED' THEN COALESCE(e.clicked_at, t.at)
+                         ELSE e.clicked_at END,
+    error_message = CASE WHEN t.status = 'FAILED' THEN t.error_message
+                         ELSE e.error_message END,
+    updated_at    = NOW(),
+    version       = e.version + 1
+FROM (SELECT CAST('SENT' AS varchar) AS status, CAST(NOW() AS timestamp) AS at,
+             CAST(NULL AS text) AS error_message) t
+WHERE e.id = ANY (ARRAY(SELECT generate_series(50001, 100000))::bigint[])
+  AND email_status_rank(e.status) < email_status_rank(t.status);
+
+INSERT INTO marks VALUES ('transition_end', pg_current_wal_insert_lsn(), clock_timestamp());
+
+SELECT s.label,
+       pg_size_pretty(pg_wal_lsn_diff(e.lsn, s.lsn))          AS wal_total,
+       pg_size_pretty(pg_wal_lsn_diff(e.lsn, s.lsn) / 50000)  AS wal_per_row,
+       e.at - s.at                                             AS duration
+FROM marks s
+         JOIN marks e ON e.label = replace(s.label, '_start', '_end')
+WHERE s.label LIKE '%_start'
+ORDER BY s.at;
+
+SELECT pg_size_pretty(pg_total_relation_size('emails')) AS total_after_updates;
+
+RESET search_path;
+DROP SCHEMA status_bench CASCADE;
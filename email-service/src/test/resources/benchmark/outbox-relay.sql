@@ -0,0 +1,125 @@
+-- Outbox relay benchmark: draining outbox_events one event per transaction vs. batches of 500.
+--
+-- Builds a throwaway schema with an outbox_events table like V9__outbox_events, appends 50,000
+-- events with the unnest() insert OutboxRepository#appendAll uses, once row by row and once in
+-- batches of 500, then drains the table with the lock-and-delete pair OutboxRelay runs per batch,
+-- again with one event per round and with 500. Kafka is not involved; the numbers are the
+-- database's share of the relay rate. Each DO block is a single transaction, so the per-commit
+-- cost the relay pays once per batch comes on top of the single-event figures. Run against a
+-- scratch database, never production:
+--
+--   psql -h localhost -U mailflow -d email -f email-service/src/test/resources/benchmark/outbox-relay.sql
+--
+-- Compare the duration column of the final report per operation. The schema is dropped at the
+-- end.
+
+\timing on
+SET client_min_messages = warning;
+
+DROP SCHEMA IF EXISTS outbox_bench CASCADE;
+CREATE SCHEMA outbox_bench;
+SET search_path = outbox_bench, public;
+
+CREATE TABLE outbox_events
+(
+    id           BIGINT GENERATED ALWAYS AS IDENTITY NOT NULL,
+    topic        VARCHAR(255)                        NOT NULL,
+    message_key  VARCHAR(255),
+    payload_type VARCHAR(255)                        NOT NULL,
+    payload      TEXT                                NOT NULL,
+    created_at   TIMESTAMP WITHOUT TIME ZONE         NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT pk_outbox_events PRIMARY KEY (id)
+);
+
+CREATE TEMP TABLE marks
+(
+    label TEXT,
+    at    TIMESTAMPTZ
+);
+
+CREATE FUNCTION sent_event(n BIGINT) RETURNS TEXT AS
+$$
+SELECT format('{"emailId":%s,"campaignId":7,"contactId":%s,"recipientEmail":"contact%s@gmail.com",'
+                  '"trackingId":"%s","sentAt":"2025-03-23T12:00:00"}', n, n, n, md5(n::text))
+$$ LANGUAGE sql IMMUTABLE;
+
+-- Append: one statement per event
+INSERT INTO marks VALUES ('append_single_start', clock_timestamp());
+DO
+$$
+    BEGIN
+        FOR n IN 1..50000
+            LOOP
+                INSERT INTO outbox_events (topic, message_key, payload_type, payload)
+                VALUES ('email-events', 'email-sent',
+                        'com.mailflow.events.EmailSentEvent', sent_event(n));
+            END LOOP;
+    END
+$$;
+INSERT INTO marks VALUES ('append_single_end', clock_timestamp());
+
+-- Drain: lock and delete one event per round
+INSERT INTO marks VALUES ('drain_single_start', clock_timestamp());
+DO
+$$
+    DECLARE
+        ids BIGINT[];
+    BEGIN
+        LOOP
+            SELECT array_agg(id)
+            INTO ids
+            FROM (SELECT id FROM outbox_events ORDER BY id LIMIT 1 FOR UPDATE SKIP LOCKED) locked;
+            EXIT WHEN ids IS NULL;
+            DELETE FROM outbox_events WHERE id = ANY (ids);
+        END LOOP;
+    END
+$$;
+INSERT INTO marks VALUES ('drain_single_end', clock_timestamp());
+
+-- Append: one unnest() statement per 500 events
+INSERT INTO marks VALUES ('append_batched_start', clock_timestamp());
+DO
+$$
+    BEGIN
+        FOR chunk IN 0..99
+            LOOP
+                INSERT INTO outbox_events (topic, message_key, payload_type, payload)
+                SELECT *
+                FROM unnest(array_fill('email-events'::text, ARRAY [500]),
+                            array_fill('email-sent'::text, ARRAY [500]),
+                            array_fill('com.mailflow.events.EmailSentEvent'::text,
+                                       ARRAY [500]),
+                            ARRAY(SELECT sent_event(g)
+                                  FROM generate_series(chunk * 500 + 1, chunk * 500 + 500) g));
+            END LOOP;
+    END
+$$;
+INSERT INTO marks VALUES ('append_batched_end', clock_timestamp());
+
+-- Drain: lock and delete 500 events per round, as OutboxRelay does by default
+INSERT INTO marks VALUES ('drain_batched_start', clock_timestamp());
+DO
+$$
+    DECLARE
+        ids BIGINT[];
+    BEGIN
+        LOOP
+            SELECT array_agg(id)
+            INTO ids
+            FROM (SELECT id FROM outbox_events ORDER BY id LIMIT 500 FOR UPDATE SKIP LOCKED) locked;
+            EXIT WHEN ids IS NULL;
+            DELETE FROM outbox_events WHERE id = ANY (ids);
+        END LOOP;
+    END
+$$;
+INSERT INTO marks VALUES ('drain_batched_end', clock_timestamp());
+
+SELECT s.label,
+       e.at - s.at AS duration
+FROM marks s
+         JOIN marks e ON e.label = replace(s.label, '_start', '_end')
+WHERE s.label LIKE '%_start'
+ORDER BY s.at;
+
+RESET search_path;
+DROP SCHEMA outbox_bench CASCADE;
@@ -0,0 +1,7 @@
+package com.mailflow.events;
+
+import lombok.Builder;
+
+/** Asks email-service to send a campaign to one contact. Topic {@code campaign-triggered}. */
+@Builder
+public record CampaignTriggeredEvent(Long campaignId, Long contactId, Long templateId) {}
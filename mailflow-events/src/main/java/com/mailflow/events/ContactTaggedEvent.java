@@ -1,6 +1,7 @@
-package com.mailflow.campaignservice.dto.contact;
+package com.mailflow.events;
 
 import lombok.Builder;
 
+/** A tag was added to a contact. Topic {@code contact-events}. */
 @Builder
 public record ContactTaggedEvent(Long contactId, String contactEmail, String tag) {}
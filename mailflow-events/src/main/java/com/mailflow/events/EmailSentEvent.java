@@ -1,9 +1,9 @@
-package com.mailflow.emailservice.dto.email;
-
-import lombok.Builder;
+package com.mailflow.events;
 
 import java.time.LocalDateTime;
+import lombok.Builder;
 
+/** An email was handed to the SMTP server. Topic {@code email-events}, key {@code email-sent}. */
 @Builder
 public record EmailSentEvent(
     Long emailId,
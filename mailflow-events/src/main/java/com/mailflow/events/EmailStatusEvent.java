@@ -1,9 +1,9 @@
-package com.mailflow.emailservice.dto.email;
-
-import lombok.Builder;
+package com.mailflow.events;
 
 import java.time.LocalDateTime;
+import lombok.Builder;
 
+/** An email was opened or clicked. Topic {@code email-events}, key {@code email-status}. */
 @Builder
 public record EmailStatusEvent(
     Long emailId, String trackingId, String status, LocalDateTime timestamp, String metadata) {}
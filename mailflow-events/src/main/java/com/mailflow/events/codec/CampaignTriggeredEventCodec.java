@@ -0,0 +1,31 @@
+package com.mailflow.events.codec;
+
+import com.mailflow.events.CampaignTriggeredEvent;
+
+public final class CampaignTriggeredEventCodec implements EventCodec<CampaignTriggeredEvent> {
+
+  @Override
+  public int typeId() {
+    return 1;
+  }
+
+  @Override
+  public int version() {
+    return 1;
+  }
+
+  @Override
+  public Class<CampaignTriggeredEvent> eventClass() {
+    return CampaignTriggeredEvent.class;
+  }
+
+  @Override
+  public void encode(CampaignTriggeredEvent event, EventWriter out) {
+    out.writeLong(event.campaignId()).writeLong(event.contactId()).writeLong(event.templateId());
+  }
+
+  @Override
+  public CampaignTriggeredEvent decode(EventReader in, int version) {
+    return new CampaignTriggeredEvent(in.readLong(), in.readLong(), in.readLong());
+  }
+}
@@ -0,0 +1,31 @@
+package com.mailflow.events.codec;
+
+import com.mailflow.events.ContactTaggedEvent;
+
+public final class ContactTaggedEventCodec implements EventCodec<ContactTaggedEvent> {
+
+  @Override
+  public int typeId() {
+    return 2;
+  }
+
+  @Override
+  public int version() {
+    return 1;
+  }
+
+  @Override
+  public Class<ContactTaggedEvent> eventClass() {
+    return ContactTaggedEvent.class;
+  }
+
+  @Override
+  public void encode(ContactTaggedEvent event, EventWriter out) {
+    out.writeLong(event.contactId()).writeString(event.contactEmail()).writeString(event.tag());
+  }
+
+  @Override
+  public ContactTaggedEvent decode(EventReader in, int version) {
+    return new ContactTaggedEvent(in.readLong(), in.readString(), in.readString());
+  }
+}
@@ -0,0 +1,42 @@
+package com.mailflow.events.codec;
+
+import com.mailflow.events.EmailSentEvent;
+
+public final class EmailSentEventCodec implements EventCodec<EmailSentEvent> {
+
+  @Override
+  public int typeId() {
+    return 3;
+  }
+
+  @Override
+  public int version() {
+    return 1;
+  }
+
+  @Override
+  public Class<EmailSentEvent> eventClass() {
+    return EmailSentEvent.class;
+  }
+
+  @Override
+  public void encode(EmailSentEvent event, EventWriter out) {
+    out.writeLong(event.emailId())
+        .writeLong(event.campaignId())
+        .writeLong(event.contactId())
+        .writeString(event.recipientEmail())
+        .writeString(event.trackingId())
+        .writeTimestamp(event.sentAt());
+  }
+
+  @Override
+  public EmailSentEvent decode(EventReader in, int version) {
+    return new EmailSentEvent(
+        in.readLong(),
+        in.readLong(),
+        in.readLong(),
+        in.readString(),
+        in.readString(),
+        in.readTimestamp());
+  }
+}
@@ -0,0 +1,36 @@
+package com.mailflow.events.codec;
+
+import com.mailflow.events.EmailStatusEvent;
+
+public final class EmailStatusEventCodec implements EventCodec<EmailStatusEvent> {
+
+  @Override
+  public int typeId() {
+    return 4;
+  }
+
+  @Override
+  public int version() {
+    return 1;
+  }
+
+  @Override
+  public Class<EmailStatusEvent> eventClass() {
+    return EmailStatusEvent.class;
+  }
+
+  @Override
+  public void encode(EmailStatusEvent event, EventWriter out) {
+    out.writeLong(event.emailId())
+        .writeString(event.trackingId())
+        .writeString(event.status())
+        .writeTimestamp(event.timestamp())
+        .writeString(event.metadata());
+  }
+
+  @Override
+  public EmailStatusEvent decode(EventReader in, int version) {
+    return new EmailStatusEvent(
+        in.readLong(), in.readString(), in.readString(), in.readTimestamp(), in.readString());
+  }
+}
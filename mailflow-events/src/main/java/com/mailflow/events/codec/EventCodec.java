@@ -0,0 +1,35 @@
+package com.mailflow.events.codec;
+
+/**
+ * Binary form of one event type.
+ *
+ * <p>Fields may only be appended: readers that predate a field skip it and newer readers see null
+ * in events written without it, so that needs no new {@link #version()}. A version is raised when a
+ * field changes type or meaning; readers that only know older versions then reject such events
+ * instead of misreading them.
+ *
+ * @param <T> the event type
+ */
+public interface EventCodec<T> {
+
+  /** Identifies the type on the wire. Never reused, even after a type is retired. */
+  int typeId();
+
+  /** Version this codec writes, between 1 and 255. */
+  int version();
+
+  Class<T> eventClass();
+
+  void encode(T event, EventWriter out);
+
+  /**
+   * @param version version the event was written with, never newer than {@link #version()}
+   */
+  T decode(EventReader in, int version);
+
+  default byte[] toBytes(T event) {
+    EventWriter out = new EventWriter();
+    encode(event, out);
+    return out.toByteArray();
+  }
+}
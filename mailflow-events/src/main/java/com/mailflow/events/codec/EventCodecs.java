@@ -0,0 +1,45 @@
+package com.mailflow.events.codec;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/** The codecs of all events the services exchange, looked up by event class or type id. */
+public final class EventCodecs {
+
+  private static final List<EventCodec<?>> CODECS =
+      List.of(
+          new CampaignTriggeredEventCodec(),
+          new ContactTaggedEventCodec(),
+          new EmailSentEventCodec(),
+          new EmailStatusEventCodec());
+
+  private static final Map<Class<?>, EventCodec<?>> BY_CLASS = new HashMap<>();
+  private static final EventCodec<?>[] BY_TYPE_ID = new EventCodec<?>[256];
+
+  static {
+    for (EventCodec<?> codec : CODECS) {
+      if (BY_TYPE_ID[codec.typeId()] != null || BY_CLASS.put(codec.eventClass(), codec) != null) {
+        throw new IllegalStateException("Duplicate event codec " + codec.getClass().getName());
+      }
+      BY_TYPE_ID[codec.typeId()] = codec;
+    }
+  }
+
+  private EventCodecs() {}
+
+  public static List<EventCodec<?>> all() {
+    return CODECS;
+  }
+
+  /** The codec of {@code eventClass}, or null if it has no binary form. */
+  @SuppressWarnings("unchecked")
+  public static <T> EventCodec<T> forClass(Class<T> eventClass) {
+    return (EventCodec<T>) BY_CLASS.get(eventClass);
+  }
+
+  /** The codec registered under {@code typeId}, or null if there is none. */
+  public static EventCodec<?> forTypeId(int typeId) {
+    return typeId >= 0 && typeId < BY_TYPE_ID.length ? BY_TYPE_ID[typeId] : null;
+  }
+}
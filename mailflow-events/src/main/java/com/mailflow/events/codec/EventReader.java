@@ -0,0 +1,82 @@
+package com.mailflow.events.codec;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Decodes the fields {@link EventWriter} wrote, in the same order. A field the writer did not know
+ * about reads as null, and fields the reader does not ask for are ignored, so appending a field to
+ * an event keeps old and new readers working. Truncated or malformed bytes make the read methods
+ * throw {@link IllegalArgumentException}.
+ */
+public final class EventReader {
+
+  private final byte[] data;
+  private final int presence;
+  private int position = 1;
+  private int field;
+
+  public EventReader(byte[] data) {
+    if (data.length == 0) {
+      throw new IllegalArgumentException("Event has no presence byte");
+    }
+    this.data = data;
+    this.presence = data[0] & 0xFF;
+  }
+
+  public Long readLong() {
+    return next() ? unZigZag(readVarLong()) : null;
+  }
+
+  public String readString() {
+    if (!next()) {
+      return null;
+    }
+    long length = readVarLong();
+    if (length > data.length - position) {
+      throw new IllegalArgumentException("Truncated event: string of " + length + " bytes");
+    }
+    String value = new String(data, position, (int) length, StandardCharsets.UTF_8);
+    position += (int) length;
+    return value;
+  }
+
+  public LocalDateTime readTimestamp() {
+    if (!next()) {
+      return null;
+    }
+    long seconds = unZigZag(readVarLong());
+    long nanos = readVarLong();
+    if (nanos > 999_999_999L) {
+      throw new IllegalArgumentException("Malformed timestamp: " + nanos + " nanoseconds");
+    }
+    return LocalDateTime.ofEpochSecond(seconds, (int) nanos, ZoneOffset.UTC);
+  }
+
+  private boolean next() {
+    if (field == EventWriter.MAX_FIELDS) {
+      throw new IllegalStateException("An event has at most " + EventWriter.MAX_FIELDS + " fields");
+    }
+    return (presence & (1 << field++)) != 0;
+  }
+
+  private long readVarLong() {
+    long value = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      if (position == data.length) {
+        throw new IllegalArgumentException("Truncated event: varint runs past the end");
+      }
+      byte b = data[position++];
+      value |= (long) (b & 0x7F) << shift;
+      if (b >= 0) {
+        return value;
+      }
+    }
+    throw new IllegalArgumentException("Malformed event: varint longer than 10 bytes");
+  }
+
+  private static long unZigZag(long value) {
+    return (value >>> 1) ^ -(value & 1);
+  }
+}
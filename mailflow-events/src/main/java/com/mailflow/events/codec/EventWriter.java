@@ -0,0 +1,94 @@
+package com.mailflow.events.codec;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+/**
+ * Encodes the fields of one event, in the order the codec declares them.
+ *
+ * <p>The first byte is a presence mask: bit {@code i} is set when field {@code i} is not null, and
+ * only present fields are written after it. Numbers are zig-zag varints, so small ids take one or
+ * two bytes whatever their sign. Strings are a varint byte length followed by UTF-8, timestamps a
+ * varint of epoch seconds (read as UTC) followed by a varint of nanoseconds.
+ */
+public final class EventWriter {
+
+  /** Fields one presence byte can describe. */
+  static final int MAX_FIELDS = 8;
+
+  private byte[] buffer;
+  private int position = 1;
+  private int presence;
+  private int field;
+
+  public EventWriter() {
+    this(32);
+  }
+
+  public EventWriter(int initialCapacity) {
+    buffer = new byte[Math.max(initialCapacity, 1)];
+  }
+
+  public EventWriter writeLong(Long value) {
+    if (next(value != null)) {
+      writeVarLong(zigZag(value));
+    }
+    return this;
+  }
+
+  public EventWriter writeString(String value) {
+    if (next(value != null)) {
+      byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+      writeVarLong(bytes.length);
+      ensureCapacity(bytes.length);
+      System.arraycopy(bytes, 0, buffer, position, bytes.length);
+      position += bytes.length;
+    }
+    return this;
+  }
+
+  public EventWriter writeTimestamp(LocalDateTime value) {
+    if (next(value != null)) {
+      writeVarLong(zigZag(value.toEpochSecond(ZoneOffset.UTC)));
+      writeVarLong(value.getNano());
+    }
+    return this;
+  }
+
+  public byte[] toByteArray() {
+    buffer[0] = (byte) presence;
+    return Arrays.copyOf(buffer, position);
+  }
+
+  private boolean next(boolean present) {
+    if (field == MAX_FIELDS) {
+      throw new IllegalStateException("An event has at most " + MAX_FIELDS + " fields");
+    }
+    if (present) {
+      presence |= 1 << field;
+    }
+    field++;
+    return present;
+  }
+
+  private void writeVarLong(long value) {
+    ensureCapacity(10);
+    while ((value & ~0x7FL) != 0) {
+      buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    buffer[position++] = (byte) value;
+  }
+
+  private void ensureCapacity(int bytes) {
+    if (position + bytes > buffer.length) {
+      buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + bytes));
+    }
+  }
+
+  private static long zigZag(long value) {
+    return (value << 1) ^ (value >> 63);
+  }
+}
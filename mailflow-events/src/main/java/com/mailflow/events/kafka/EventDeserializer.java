@@ -0,0 +1,87 @@
+package com.mailflow.events.kafka;
+
+import com.mailflow.events.codec.EventCodec;
+import com.mailflow.events.codec.EventCodecs;
+import com.mailflow.events.codec.EventReader;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+
+/**
+ * Reads records written by {@link EventSerializer}. Records without an {@link EventHeaders#EVENT}
+ * header, such as those produced before a topic switched to binary events, go to the fallback
+ * deserializer.
+ *
+ * <p>The fallback is used as given: {@link #configure} is not passed on to it.
+ */
+public class EventDeserializer implements Deserializer<Object> {
+
+  private final Deserializer<?> fallback;
+
+  /** Rejects records that are not binary events. */
+  public EventDeserializer() {
+    this(null);
+  }
+
+  public EventDeserializer(Deserializer<?> fallback) {
+    this.fallback = fallback;
+  }
+
+  @Override
+  public Object deserialize(String topic, byte[] data) {
+    if (data == null) {
+      return null;
+    }
+    if (fallback == null) {
+      throw new SerializationException("Binary events need record headers");
+    }
+    return fallback.deserialize(topic, data);
+  }
+
+  @Override
+  public Object deserialize(String topic, Headers headers, byte[] data) {
+    if (data == null) {
+      return null;
+    }
+    Header header = headers.lastHeader(EventHeaders.EVENT);
+    if (header == null) {
+      if (fallback == null) {
+        throw new SerializationException("Record on " + topic + " is not a binary event");
+      }
+      return fallback.deserialize(topic, headers, data);
+    }
+
+    byte[] value = header.value();
+    if (value == null || value.length != 2) {
+      throw new SerializationException("Malformed " + EventHeaders.EVENT + " header");
+    }
+    int typeId = value[0] & 0xFF;
+    int version = value[1] & 0xFF;
+    EventCodec<?> codec = EventCodecs.forTypeId(typeId);
+    if (codec == null) {
+      throw new SerializationException("Unknown event type id " + typeId);
+    }
+    if (version > codec.version()) {
+      throw new SerializationException(
+          codec.eventClass().getSimpleName()
+              + " written with version "
+              + version
+              + ", this reader knows up to "
+              + codec.version());
+    }
+    try {
+      return codec.decode(new EventReader(data), version);
+    } catch (IllegalArgumentException e) {
+      throw new SerializationException(
+          "Malformed " + codec.eventClass().getSimpleName() + " on " + topic, e);
+    }
+  }
+
+  @Override
+  public void close() {
+    if (fallback != null) {
+      fallback.close();
+    }
+  }
+}
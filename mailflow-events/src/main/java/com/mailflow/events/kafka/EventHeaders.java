@@ -0,0 +1,13 @@
+package com.mailflow.events.kafka;
+
+/**
+ * Record header that marks a binary event. Its value is two unsigned bytes, the codec's type id
+ * followed by the version the event was written with. Records without it are not binary events.
+ */
+public final class EventHeaders {
+
+  /** Kept short since it is repeated on every record. */
+  public static final String EVENT = "mf-event";
+
+  private EventHeaders() {}
+}
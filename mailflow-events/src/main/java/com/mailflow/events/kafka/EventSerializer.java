@@ -0,0 +1,72 @@
+package com.mailflow.events.kafka;
+
+import com.mailflow.events.codec.EventCodec;
+import com.mailflow.events.codec.EventCodecs;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+
+/**
+ * Writes events that have an {@link EventCodec} in their binary form and tags the record with an
+ * {@link EventHeaders#EVENT} header. Any other value goes to the fallback serializer, so a template
+ * can keep sending payloads that have no binary form yet. Raw bytes, such as the original value of a
+ * record dead-lettered because it could not be read, are written as they are.
+ *
+ * <p>The fallback is used as given: {@link #configure} is not passed on to it.
+ */
+public class EventSerializer implements Serializer<Object> {
+
+  private final Serializer<Object> fallback;
+
+  /** Rejects values that have no binary form. */
+  public EventSerializer() {
+    this(null);
+  }
+
+  public EventSerializer(Serializer<Object> fallback) {
+    this.fallback = fallback;
+  }
+
+  /** Without headers the type cannot be recorded, so every value goes to the fallback. */
+  @Override
+  public byte[] serialize(String topic, Object data) {
+    if (data == null) {
+      return null;
+    }
+    if (data instanceof byte[] raw) {
+      return raw;
+    }
+    if (fallback == null) {
+      throw new SerializationException("Binary events need record headers");
+    }
+    return fallback.serialize(topic, data);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public byte[] serialize(String topic, Headers headers, Object data) {
+    if (data == null) {
+      return null;
+    }
+    if (data instanceof byte[] raw) {
+      return raw;
+    }
+    EventCodec<Object> codec = (EventCodec<Object>) EventCodecs.forClass(data.getClass());
+    if (codec == null) {
+      if (fallback == null) {
+        throw new SerializationException("No binary form for " + data.getClass().getName());
+      }
+      return fallback.serialize(topic, headers, data);
+    }
+    headers.remove(EventHeaders.EVENT);
+    headers.add(EventHeaders.EVENT, new byte[] {(byte) codec.typeId(), (byte) codec.version()});
+    return codec.toBytes(data);
+  }
+
+  @Override
+  public void close() {
+    if (fallback != null) {
+      fallback.close();
+    }
+  }
+}
@@ -0,0 +1,40 @@
+package com.mailflow.events.kafka;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import lombok.Builder;
+import org.apache.kafka.clients.producer.ProducerConfig;
+
+/**
+ * Batching and compression settings of a producer. Every profile is idempotent with {@code
+ * acks=all}, so retries never duplicate or reorder records of a partition.
+ *
+ * @param name tag value that tells the profiles apart in producer and template metrics
+ * @param linger time a batch may wait for more records before it is sent
+ * @param batchSize upper bound of one partition's batch, in bytes
+ * @param compression codec applied per batch: {@code none}, {@code lz4}, {@code zstd}, ...
+ * @param maxInFlight unacknowledged requests per broker connection, at most 5 with idempotence
+ * @param bufferMemory bytes of unsent records before {@code send()} starts blocking
+ */
+@Builder
+public record ProducerProfile(
+    String name,
+    Duration linger,
+    int batchSize,
+    String compression,
+    int maxInFlight,
+    long bufferMemory) {
+
+  public Map<String, Object> toProperties() {
+    Map<String, Object> props = new HashMap<>();
+    props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+    props.put(ProducerConfig.ACKS_CONFIG, "all");
+    props.put(ProducerConfig.LINGER_MS_CONFIG, linger.toMillis());
+    props.put(ProducerConfig.BATCH_SIZE_CONFIG, batchSize);
+    props.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, compression);
+    props.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, maxInFlight);
+    props.put(ProducerConfig.BUFFER_MEMORY_CONFIG, bufferMemory);
+    return props;
+  }
+}
@@ -0,0 +1,30 @@
+package com.mailflow.events.kafka;
+
+import java.time.Duration;
+import lombok.Data;
+
+/**
+ * Bindable settings of a {@link ProducerProfile}, shared by the services so each one reads {@code
+ * kafka.producer.*} the same way. A service registers it with {@code @ConfigurationProperties} on
+ * a bean method, which can change the defaults before the properties are bound.
+ */
+@Data
+public class ProducerProperties {
+
+  private Duration linger = Duration.ofMillis(5);
+  private int batchSize = 65536;
+  private String compression = "lz4";
+  private int maxInFlight = 5;
+  private long bufferMemory = 33554432;
+
+  public ProducerProfile toProfile(String name) {
+    return ProducerProfile.builder()
+        .name(name)
+        .linger(linger)
+        .batchSize(batchSize)
+        .compression(compression)
+        .maxInFlight(maxInFlight)
+        .bufferMemory(bufferMemory)
+        .build();
+  }
+}
@@ -0,0 +1,90 @@
+package com.mailflow.events.codec;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.mailflow.events.CampaignTriggeredEvent;
+import com.mailflow.events.ContactTaggedEvent;
+import com.mailflow.events.EmailSentEvent;
+import com.mailflow.events.EmailStatusEvent;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class EventCodecTest {
+
+  private static final LocalDateTime SENT_AT = LocalDateTime.of(2025, 3, 23, 12, 0, 0, 123_456_789);
+
+  @Test
+  @DisplayName("Should read back every event it wrote")
+  void shouldRoundTripEveryEvent() {
+    List<Object> events =
+        List.of(
+            new CampaignTriggeredEvent(7L, 123_456L, 10L),
+            new ContactTaggedEvent(42L, "jöhn@gmail.com", "newsletter"),
+            new EmailSentEvent(1L, 7L, 42L, "john@gmail.com", "a1b2c3", SENT_AT),
+            new EmailStatusEvent(1L, "a1b2c3", "OPENED", SENT_AT, "{\"ip\":\"10.0.0.1\"}"),
+            new CampaignTriggeredEvent(-1L, Long.MIN_VALUE, Long.MAX_VALUE),
+            new EmailSentEvent(null, null, null, null, null, null));
+
+    for (Object event : events) {
+      assertThat(roundTrip(event)).isEqualTo(event);
+    }
+  }
+
+  @Test
+  @DisplayName("Should spend one byte per small id")
+  void shouldEncodeSmallIdsCompactly() {
+    byte[] bytes =
+        EventCodecs.forClass(CampaignTriggeredEvent.class)
+            .toBytes(new CampaignTriggeredEvent(7L, 42L, 10L));
+
+    // Presence byte plus three one-byte varints
+    assertThat(bytes).hasSize(4);
+  }
+
+  @Test
+  @DisplayName("Should ignore fields appended by a newer writer")
+  void shouldSkipUnknownTrailingFields() {
+    EventWriter out = new EventWriter();
+    out.writeLong(7L).writeLong(42L).writeLong(10L).writeString("added later");
+
+    CampaignTriggeredEvent event =
+        new CampaignTriggeredEventCodec().decode(new EventReader(out.toByteArray()), 1);
+
+    assertThat(event).isEqualTo(new CampaignTriggeredEvent(7L, 42L, 10L));
+  }
+
+  @Test
+  @DisplayName("Should read fields an older writer did not know as null")
+  void shouldReadMissingTrailingFieldsAsNull() {
+    EventWriter out = new EventWriter();
+    out.writeLong(1L).writeString("a1b2c3").writeString("OPENED");
+
+    EmailStatusEvent event =
+        new EmailStatusEventCodec().decode(new EventReader(out.toByteArray()), 1);
+
+    assertThat(event).isEqualTo(new EmailStatusEvent(1L, "a1b2c3", "OPENED", null, null));
+  }
+
+  @Test
+  @DisplayName("Should reject truncated events")
+  void shouldRejectTruncatedEvents() {
+    byte[] bytes =
+        EventCodecs.forClass(ContactTaggedEvent.class)
+            .toBytes(new ContactTaggedEvent(42L, "john@gmail.com", "newsletter"));
+    byte[] truncated = Arrays.copyOf(bytes, bytes.length - 3);
+
+    assertThatThrownBy(
+            () -> new ContactTaggedEventCodec().decode(new EventReader(truncated), 1))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Object roundTrip(Object event) {
+    EventCodec<Object> codec = (EventCodec<Object>) EventCodecs.forClass(event.getClass());
+    return codec.decode(new EventReader(codec.toBytes(event)), codec.version());
+  }
+}
@@ -0,0 +1,141 @@
+package com.mailflow.events.kafka;
+
+import com.mailflow.events.CampaignTriggeredEvent;
+import com.mailflow.events.ContactTaggedEvent;
+import com.mailflow.events.EmailSentEvent;
+import com.mailflow.events.EmailStatusEvent;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+/**
+ * Compares the binary event codec with the {@code JsonSerializer}/{@code JsonDeserializer} pair
+ * the services used before, configured the same way: no type headers, target type known up front.
+ * Prints the bytes per event first, then lets JMH measure ns per event for each direction.
+ *
+ * <p>Run with {@code ./mvnw test -Dtest=EventSerializationBenchmark -Dbenchmark=true}. Record
+ * batches are compressed on top of this, which narrows the size gap on the wire but not the CPU
+ * one.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EventSerializationBenchmark {
+
+  private static final String TOPIC = "events-bench";
+  private static final LocalDateTime AT = LocalDateTime.of(2025, 3, 23, 12, 0, 0, 123_000_000);
+
+  private static final Map<String, Object> SAMPLES =
+      Map.of(
+          "campaign-triggered",
+          new CampaignTriggeredEvent(7L, 1_234_567L, 10L),
+          "contact-tagged",
+          new ContactTaggedEvent(1_234_567L, "contact1234567@gmail.com", "newsletter"),
+          "email-sent",
+          new EmailSentEvent(
+              98_765_432L,
+              7L,
+              1_234_567L,
+              "contact1234567@gmail.com",
+              "9f86d081884c7d659a2feaa0c55ad015",
+              AT),
+          "email-status",
+          new EmailStatusEvent(
+              98_765_432L,
+              "9f86d081884c7d659a2feaa0c55ad015",
+              "CLICKED",
+              AT,
+              "{\"url\":\"https://example.com/offer\"}"));
+
+  @Param({"campaign-triggered", "contact-tagged", "email-sent", "email-status"})
+  public String event;
+
+  private Object sample;
+  private JsonSerializer<Object> jsonSerializer;
+  private JsonDeserializer<?> jsonDeserializer;
+  private EventSerializer eventSerializer;
+  private EventDeserializer eventDeserializer;
+  private byte[] json;
+  private byte[] binary;
+  private Headers binaryHeaders;
+
+  @Setup
+  public void setUp() {
+    sample = SAMPLES.get(event);
+    jsonSerializer = new JsonSerializer<>();
+    jsonSerializer.setAddTypeInfo(false);
+    jsonDeserializer = jsonDeserializer(sample.getClass());
+    eventSerializer = new EventSerializer();
+    eventDeserializer = new EventDeserializer();
+
+    json = jsonSerializer.serialize(TOPIC, new RecordHeaders(), sample);
+    binaryHeaders = new RecordHeaders();
+    binary = eventSerializer.serialize(TOPIC, binaryHeaders, sample);
+  }
+
+  @Benchmark
+  public byte[] jsonSerialize() {
+    return jsonSerializer.serialize(TOPIC, new RecordHeaders(), sample);
+  }
+
+  @Benchmark
+  public byte[] binarySerialize() {
+    return eventSerializer.serialize(TOPIC, new RecordHeaders(), sample);
+  }
+
+  @Benchmark
+  public Object jsonDeserialize() {
+    return jsonDeserializer.deserialize(TOPIC, new RecordHeaders(), json);
+  }
+
+  @Benchmark
+  public Object binaryDeserialize() {
+    return eventDeserializer.deserialize(TOPIC, binaryHeaders, binary);
+  }
+
+  @Test
+  void compareWithJson() throws RunnerException {
+    System.out.printf("%-20s %10s %12s %14s%n", "event", "json B", "binary B", "binary hdr B");
+    for (String name : SAMPLES.keySet().stream().sorted().toList()) {
+      event = name;
+      setUp();
+      int headerBytes = 0;
+      for (Header header : binaryHeaders) {
+        headerBytes += header.key().length() + header.value().length;
+      }
+      System.out.printf(
+          "%-20s %10d %12d %14d%n", name, json.length, binary.length, headerBytes);
+    }
+
+    new Runner(new OptionsBuilder().include(getClass().getName()).build()).run();
+  }
+
+  private static <T> JsonDeserializer<T> jsonDeserializer(Class<T> type) {
+    return new JsonDeserializer<>(type, false);
+  }
+}
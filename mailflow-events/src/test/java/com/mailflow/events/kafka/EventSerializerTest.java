@@ -0,0 +1,80 @@
+package com.mailflow.events.kafka;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.mailflow.events.CampaignTriggeredEvent;
+import java.nio.charset.StandardCharsets;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class EventSerializerTest {
+
+  private static final String TOPIC = "campaign-triggered";
+
+  private final EventSerializer serializer =
+      new EventSerializer((topic, data) -> new StringSerializer().serialize(topic, (String) data));
+
+  private final EventDeserializer deserializer = new EventDeserializer(new StringDeserializer());
+
+  @Test
+  @DisplayName("Should tag binary events with their type and version")
+  void shouldRoundTripThroughHeaders() {
+    Headers headers = new RecordHeaders();
+    CampaignTriggeredEvent event = new CampaignTriggeredEvent(7L, 42L, 10L);
+
+    byte[] bytes = serializer.serialize(TOPIC, headers, event);
+
+    assertThat(headers.lastHeader(EventHeaders.EVENT).value()).containsExactly(1, 1);
+    assertThat(deserializer.deserialize(TOPIC, headers, bytes)).isEqualTo(event);
+  }
+
+  @Test
+  @DisplayName("Should hand values without a codec to the fallback, in both directions")
+  void shouldUseFallbackForOtherValues() {
+    Headers headers = new RecordHeaders();
+
+    byte[] bytes = serializer.serialize(TOPIC, headers, "plain");
+
+    assertThat(headers.lastHeader(EventHeaders.EVENT)).isNull();
+    assertThat(deserializer.deserialize(TOPIC, headers, bytes)).isEqualTo("plain");
+  }
+
+  @Test
+  @DisplayName("Should write raw bytes as they are, keeping their event header")
+  void shouldPassRawBytesThrough() {
+    Headers headers = new RecordHeaders().add(EventHeaders.EVENT, new byte[] {1, 1});
+    byte[] raw = {1, 2, 3};
+
+    byte[] bytes = serializer.serialize(TOPIC, headers, raw);
+
+    assertThat(bytes).isSameAs(raw);
+    assertThat(headers.lastHeader(EventHeaders.EVENT).value()).containsExactly(1, 1);
+  }
+
+  @Test
+  @DisplayName("Should reject events written with a newer version")
+  void shouldRejectNewerVersions() {
+    Headers headers = new RecordHeaders().add(EventHeaders.EVENT, new byte[] {1, 2});
+    byte[] bytes = "ignored".getBytes(StandardCharsets.UTF_8);
+
+    assertThatThrownBy(() -> deserializer.deserialize(TOPIC, headers, bytes))
+        .isInstanceOf(SerializationException.class)
+        .hasMessageContaining("version 2");
+  }
+
+  @Test
+  @DisplayName("Should reject unknown type ids")
+  void shouldRejectUnknownTypes() {
+    Headers headers = new RecordHeaders().add(EventHeaders.EVENT, new byte[] {(byte) 200, 1});
+
+    assertThatThrownBy(() -> deserializer.deserialize(TOPIC, headers, new byte[] {0}))
+        .isInstanceOf(SerializationException.class)
+        .hasMessageContaining("200");
+  }
+}
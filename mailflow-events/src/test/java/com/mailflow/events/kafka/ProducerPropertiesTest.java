@@ -0,0 +1,39 @@
+package com.mailflow.events.kafka;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.Map;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+
+public class ProducerPropertiesTest {
+
+  @Test
+  @DisplayName("Should bind kafka.producer settings over the defaults")
+  void shouldBindOverDefaults() {
+    Binder binder =
+        new Binder(
+            new MapConfigurationPropertySource(
+                Map.of(
+                    "kafka.producer.linger", "20ms",
+                    "kafka.producer.batch-size", "262144",
+                    "kafka.producer.bulk.linger", "50ms")));
+
+    ProducerProfile profile =
+        binder
+            .bind("kafka.producer", Bindable.ofInstance(new ProducerProperties()))
+            .get()
+            .toProfile("default");
+
+    assertThat(profile.name()).isEqualTo("default");
+    assertThat(profile.linger()).isEqualTo(Duration.ofMillis(20));
+    assertThat(profile.batchSize()).isEqualTo(262144);
+    assertThat(profile.compression()).isEqualTo("lz4");
+    assertThat(profile.maxInFlight()).isEqualTo(5);
+    assertThat(profile.bufferMemory()).isEqualTo(33554432);
+  }
+}
@@ -0,0 +1,24 @@
+package com.mailflow.outbox;
+
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.autoconfigure.transaction.TransactionAutoConfiguration;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Registers the {@link OutboxRepository} and its scheduled {@link OutboxRelay} in services that
+ * depend on this module. The service provides the {@code JdbcTemplate}, the {@code KafkaTemplate},
+ * the {@code outbox_events} table and its migration. Reactive services without a {@code
+ * JdbcTemplate} use only the shared {@link OutboxSql} and {@link OutboxCodec}.
+ */
+@AutoConfiguration(
+    after = {JdbcTemplateAutoConfiguration.class, TransactionAutoConfiguration.class})
+@ConditionalOnClass(JdbcTemplate.class)
+@ConditionalOnBean(JdbcTemplate.class)
+@EnableScheduling
+@Import({OutboxRepository.class, OutboxRelay.class})
+public class OutboxAutoConfiguration {}
@@ -0,0 +1,49 @@
+package com.mailflow.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.UncheckedIOException;
+
+/**
+ * Turns payloads into the {@code payload_type} and {@code payload} columns of {@code
+ * outbox_events} and back. Payloads are stored as JSON together with their class, so the relay
+ * can hand the producer the same object the caller appended.
+ */
+public final class OutboxCodec {
+
+  private final ObjectMapper objectMapper;
+
+  public OutboxCodec(ObjectMapper objectMapper) {
+    this.objectMapper = objectMapper;
+  }
+
+  public String type(Object payload) {
+    return payload.getClass().getName();
+  }
+
+  public String encode(Object payload) {
+    try {
+      return objectMapper.writeValueAsString(payload);
+    } catch (JsonProcessingException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Reads back the payload of a locked row.
+   *
+   * @throws IllegalStateException if the payload class no longer exists or the JSON does not fit it
+   */
+  public OutboxEvent decode(OutboxRow row) {
+    Object payload;
+    try {
+      payload = objectMapper.readValue(row.payload(), Class.forName(row.payloadType()));
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException(
+          "Unreadable " + row.payloadType() + " payload: " + e.getOriginalMessage(), e);
+    } catch (ClassNotFoundException e) {
+      throw new IllegalStateException("Unknown payload type " + row.payloadType(), e);
+    }
+    return new OutboxEvent(row.id(), row.topic(), row.key(), payload, row.ageMillis());
+  }
+}
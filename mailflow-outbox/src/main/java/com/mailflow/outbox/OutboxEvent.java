@@ -0,0 +1,8 @@
+package com.mailflow.outbox;
+
+/**
+ * An {@link OutboxMessage} read back for publishing.
+ *
+ * @param ageMillis time since the event was written, as seen by the database
+ */
+public record OutboxEvent(long id, String topic, String key, Object payload, long ageMillis) {}
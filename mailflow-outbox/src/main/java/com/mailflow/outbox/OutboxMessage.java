@@ -0,0 +1,9 @@
+package com.mailflow.outbox;
+
+/**
+ * An event to publish once the current transaction commits.
+ *
+ * @param key Kafka record key, or {@code null} to let the producer pick the partition
+ * @param payload serialized to JSON and sent with the {@code KafkaTemplate}'s value serializer
+ */
+public record OutboxMessage(String topic, String key, Object payload) {}
@@ -0,0 +1,139 @@
+package com.mailflow.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterUtils;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/** Reads and writes {@code outbox_events} over JDBC, encoding payloads with {@link OutboxCodec}. */
+@Repository
+@Slf4j
+public class OutboxRepository {
+
+  private static final String INSERT_EVENTS =
+      NamedParameterUtils.parseSqlStatementIntoString(OutboxSql.INSERT_EVENTS);
+
+  private static final String LOCK_OLDEST =
+      NamedParameterUtils.parseSqlStatementIntoString(OutboxSql.LOCK_OLDEST);
+
+  private static final String DELETE_EVENTS =
+      NamedParameterUtils.parseSqlStatementIntoString(OutboxSql.DELETE_EVENTS);
+
+  private static final String DEAD_LETTER =
+      NamedParameterUtils.parseSqlStatementIntoString(OutboxSql.DEAD_LETTER);
+
+  private final JdbcTemplate jdbcTemplate;
+  private final OutboxCodec codec;
+  private final MeterRegistry meterRegistry;
+
+  public OutboxRepository(
+      JdbcTemplate jdbcTemplate, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.codec = new OutboxCodec(objectMapper);
+    this.meterRegistry = meterRegistry;
+  }
+
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void append(String topic, String key, Object payload) {
+    appendAll(List.of(new OutboxMessage(topic, key, payload)));
+  }
+
+  /**
+   * Writes all messages in one statement. Must run inside the transaction of the change the
+   * messages report, so they are published if and only if it commits.
+   */
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void appendAll(List<OutboxMessage> messages) {
+    if (messages.isEmpty()) {
+      return;
+    }
+    String[] payloads = new String[messages.size()];
+    for (int i = 0; i < payloads.length; i++) {
+      payloads[i] = codec.encode(messages.get(i).payload());
+    }
+
+    jdbcTemplate.update(
+        connection -> {
+          PreparedStatement statement = connection.prepareStatement(INSERT_EVENTS);
+          statement.setArray(
+              1,
+              connection.createArrayOf(
+                  "text", messages.stream().map(OutboxMessage::topic).toArray(String[]::new)));
+          statement.setArray(
+              2,
+              connection.createArrayOf(
+                  "text", messages.stream().map(OutboxMessage::key).toArray(String[]::new)));
+          statement.setArray(
+              3,
+              connection.createArrayOf(
+                  "text",
+                  messages.stream()
+                      .map(message -> codec.type(message.payload()))
+                      .toArray(String[]::new)));
+          statement.setArray(4, connection.createArrayOf("text", payloads));
+          return statement;
+        });
+  }
+
+  /**
+   * Locks up to {@code limit} of the oldest events for the rest of the current transaction.
+   * Events locked by another relay are skipped rather than waited on. A row whose payload cannot
+   * be read back is moved to {@code outbox_dead_letters} instead of being returned, so it cannot
+   * hold up the events behind it.
+   */
+  @Transactional(propagation = Propagation.MANDATORY)
+  public List<OutboxEvent> lockOldest(int limit) {
+    List<OutboxRow> rows = jdbcTemplate.query(LOCK_OLDEST, (rs, rowNum) -> toRow(rs), limit);
+    List<OutboxEvent> events = new ArrayList<>(rows.size());
+    for (OutboxRow row : rows) {
+      try {
+        events.add(codec.decode(row));
+      } catch (RuntimeException e) {
+        deadLetter(row, e);
+      }
+    }
+    return events;
+  }
+
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void delete(List<OutboxEvent> events) {
+    jdbcTemplate.update(
+        connection -> {
+          PreparedStatement statement = connection.prepareStatement(DELETE_EVENTS);
+          statement.setArray(
+              1,
+              connection.createArrayOf(
+                  "bigint", events.stream().map(OutboxEvent::id).toArray(Long[]::new)));
+          return statement;
+        });
+  }
+
+  private void deadLetter(OutboxRow row, RuntimeException failure) {
+    jdbcTemplate.update(DEAD_LETTER, row.id(), String.valueOf(failure.getMessage()));
+    meterRegistry.counter("mailflow.outbox.dead_letters").increment();
+    log.error(
+        "Moved outbox event {} for {} to outbox_dead_letters: {}",
+        row.id(),
+        row.topic(),
+        failure.getMessage());
+  }
+
+  private static OutboxRow toRow(ResultSet rs) throws SQLException {
+    return new OutboxRow(
+        rs.getLong("id"),
+        rs.getString("topic"),
+        rs.getString("message_key"),
+        rs.getString("payload_type"),
+        rs.getString("payload"),
+        rs.getLong("age_millis"));
+  }
+}
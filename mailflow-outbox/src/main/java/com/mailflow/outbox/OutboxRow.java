@@ -0,0 +1,8 @@
+package com.mailflow.outbox;
+
+/**
+ * A locked {@code outbox_events} row before its payload is decoded, kept apart from {@link
+ * OutboxEvent} so one bad row can be set aside without failing the rest of its batch.
+ */
+public record OutboxRow(
+    long id, String topic, String key, String payloadType, String payload, long ageMillis) {}
@@ -0,0 +1,43 @@
+package com.mailflow.outbox;
+
+/**
+ * Statements on {@code outbox_events}, shared by the JDBC {@link OutboxRepository} and the R2DBC
+ * repository of email-service. Parameters are named; JDBC callers bind them by position, in the
+ * order they appear.
+ */
+public final class OutboxSql {
+
+  public static final String INSERT_EVENTS =
+      """
+      INSERT INTO outbox_events (topic, message_key, payload_type, payload)
+      SELECT * FROM unnest(
+          CAST(:topics AS text[]), CAST(:keys AS text[]),
+          CAST(:types AS text[]), CAST(:payloads AS text[]))
+      """;
+
+  /** Oldest events first, skipping those another relay holds. */
+  public static final String LOCK_OLDEST =
+      """
+      SELECT id, topic, message_key, payload_type, payload,
+             (EXTRACT(EPOCH FROM clock_timestamp()::timestamp - created_at) * 1000)::bigint
+                 AS age_millis
+      FROM outbox_events
+      ORDER BY id
+      LIMIT :limit
+      FOR UPDATE SKIP LOCKED
+      """;
+
+  public static final String DELETE_EVENTS = "DELETE FROM outbox_events WHERE id = ANY(:ids)";
+
+  /** Moves an event that cannot be published to {@code outbox_dead_letters}. */
+  public static final String DEAD_LETTER =
+      """
+      WITH failed AS (DELETE FROM outbox_events WHERE id = :id RETURNING *)
+      INSERT INTO outbox_dead_letters
+          (id, topic, message_key, payload_type, payload, created_at, error)
+      SELECT id, topic, message_key, payload_type, payload, created_at, CAST(:error AS text)
+      FROM failed
+      """;
+
+  private OutboxSql() {}
+}
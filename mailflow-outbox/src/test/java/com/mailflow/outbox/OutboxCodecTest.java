@@ -0,0 +1,57 @@
+package com.mailflow.outbox;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class OutboxCodecTest {
+
+  private final OutboxCodec codec = new OutboxCodec(new ObjectMapper());
+
+  @Test
+  @DisplayName("Should read back the payload it wrote")
+  void shouldRoundTripPayload() {
+    // Arrange
+    Greeting greeting = new Greeting("hello", 3);
+
+    // Act
+    OutboxEvent event =
+        codec.decode(
+            new OutboxRow(
+                7L, "greetings", "g-7", codec.type(greeting), codec.encode(greeting), 25L));
+
+    // Assert
+    assertThat(event).isEqualTo(new OutboxEvent(7L, "greetings", "g-7", greeting, 25L));
+  }
+
+  @Test
+  @DisplayName("Should name the payload type it cannot find")
+  void shouldRejectUnknownType() {
+    // Arrange
+    OutboxRow row =
+        new OutboxRow(7L, "greetings", "g-7", "com.mailflow.old.Greeting", "{}", 25L);
+
+    // Act & Assert
+    assertThatThrownBy(() -> codec.decode(row))
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessageContaining("com.mailflow.old.Greeting");
+  }
+
+  @Test
+  @DisplayName("Should reject a payload that does not fit its type")
+  void shouldRejectBadJson() {
+    // Arrange
+    OutboxRow row =
+        new OutboxRow(7L, "greetings", "g-7", Greeting.class.getName(), "{\"text\":", 25L);
+
+    // Act & Assert
+    assertThatThrownBy(() -> codec.decode(row))
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessageContaining("Unreadable");
+  }
+
+  record Greeting(String text, int times) {}
+}
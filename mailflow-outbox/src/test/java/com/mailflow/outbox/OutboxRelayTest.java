@@ -0,0 +1,101 @@
+package com.mailflow.outbox;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@ExtendWith(MockitoExtension.class)
+public class OutboxRelayTest {
+
+  @Mock private OutboxRepository outboxRepository;
+
+  @Mock private KafkaTemplate<String, Object> kafkaTemplate;
+
+  @Mock private TransactionTemplate transactionTemplate;
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  private OutboxRelay relay;
+
+  @BeforeEach
+  void setUp() {
+    relay = new OutboxRelay(outboxRepository, kafkaTemplate, transactionTemplate, meterRegistry);
+    ReflectionTestUtils.setField(relay, "batchSize", 2);
+    ReflectionTestUtils.setField(relay, "maxBatchesPerRun", 10);
+    ReflectionTestUtils.setField(relay, "sendTimeout", Duration.ofSeconds(5));
+
+    when(transactionTemplate.execute(any()))
+        .thenAnswer(
+            invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+  }
+
+  @Test
+  @DisplayName("Should keep relaying while batches come back full")
+  void shouldDrainBacklogInBatches() {
+    // Arrange
+    List<OutboxEvent> first = events(1, 2);
+    List<OutboxEvent> second = events(3, 3);
+    when(outboxRepository.lockOldest(2)).thenReturn(first, second);
+    when(kafkaTemplate.send(anyString(), anyString(), any()))
+        .thenReturn(CompletableFuture.completedFuture(null));
+
+    // Act
+    relay.relay();
+
+    // Assert
+    verify(kafkaTemplate, times(3)).send(eq("contact-events"), anyString(), any());
+    verify(outboxRepository).delete(first);
+    verify(outboxRepository).delete(second);
+    verify(outboxRepository, times(2)).lockOldest(2);
+    assertThat(meterRegistry.counter("mailflow.outbox.relayed").count()).isEqualTo(3);
+  }
+
+  @Test
+  @DisplayName("Should leave the batch in the outbox when a send fails")
+  void shouldKeepBatchWhenSendFails() {
+    // Arrange
+    when(outboxRepository.lockOldest(2)).thenReturn(events(1, 2));
+    when(kafkaTemplate.send(anyString(), anyString(), any()))
+        .thenReturn(CompletableFuture.completedFuture(null))
+        .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+
+    // Act
+    relay.relay();
+
+    // Assert
+    verify(outboxRepository, never()).delete(any());
+    assertThat(meterRegistry.counter("mailflow.outbox.failures").count()).isEqualTo(1);
+    assertThat(meterRegistry.counter("mailflow.outbox.relayed").count()).isZero();
+  }
+
+  private static List<OutboxEvent> events(long fromId, long toId) {
+    return LongStream.rangeClosed(fromId, toId)
+        .mapToObj(
+            id ->
+                new OutboxEvent(
+                    id,
+                    "contact-events",
+                    String.valueOf(id),
+                    "contact" + id + "@gmail.com",
+                    10))
+        .toList();
+  }
+}
@@ -0,0 +1,59 @@
+package com.mailflow.outbox;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.verify;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+@ExtendWith(MockitoExtension.class)
+public class OutboxRepositoryTest {
+
+  @Mock private JdbcTemplate jdbcTemplate;
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  private OutboxRepository outboxRepository;
+
+  @BeforeEach
+  void setUp() {
+    outboxRepository = new OutboxRepository(jdbcTemplate, new ObjectMapper(), meterRegistry);
+  }
+
+  @Test
+  @DisplayName("Should set aside a row it cannot decode and return the rest of the batch")
+  void shouldDeadLetterUndecodableRow() {
+    // Arrange
+    List<OutboxRow> rows =
+        List.of(
+            new OutboxRow(1L, "contact-events", "1", "com.mailflow.old.Event", "{}", 10L),
+            new OutboxRow(2L, "contact-events", "2", String.class.getName(), "\"second\"", 10L));
+    doReturn(rows).when(jdbcTemplate).query(anyString(), any(RowMapper.class), eq(2));
+
+    // Act
+    List<OutboxEvent> events = outboxRepository.lockOldest(2);
+
+    // Assert
+    assertThat(events).containsExactly(new OutboxEvent(2L, "contact-events", "2", "second", 10L));
+    verify(jdbcTemplate)
+        .update(
+            contains("INSERT INTO outbox_dead_letters"),
+            eq(1L),
+            contains("com.mailflow.old.Event"));
+    assertThat(meterRegistry.counter("mailflow.outbox.dead_letters").count()).isEqualTo(1);
+  }
+}
@@ -0,0 +1,100 @@
+package com.mailflow.templates;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A template parsed once into literal chunks and variable slots.
+ *
+ * <p>Only placeholders whose name is declared become slots; anything else, including {@code
+ * {{undeclared}}}, stays literal text. Rendering resolves every slot first so the output {@link
+ * StringBuilder} can be sized exactly, then appends the segments in a single pass. template-service
+ * and email-service both render through this class, so a preview and a sent email always agree.
+ */
+public final class CompiledTemplate {
+
+  private static final String OPEN = "{{";
+  private static final String CLOSE = "}}";
+
+  private final String[] literals;
+  private final String[] variables;
+  private final int literalLength;
+
+  private CompiledTemplate(String[] literals, String[] variables, int literalLength) {
+    this.literals = literals;
+    this.variables = variables;
+    this.literalLength = literalLength;
+  }
+
+  /** Compiles {@code source}; a {@code null} source renders as {@code null}. */
+  public static CompiledTemplate compile(String source, Set<String> declaredVariables) {
+    if (source == null) {
+      return new CompiledTemplate(new String[] {null}, new String[0], 0);
+    }
+
+    List<String> literals = new ArrayList<>();
+    List<String> variables = new ArrayList<>();
+    int literalLength = 0;
+
+    int literalStart = 0;
+    int open = source.indexOf(OPEN);
+    while (open >= 0) {
+      int close = source.indexOf(CLOSE, open + OPEN.length());
+      if (close < 0) {
+        break;
+      }
+
+      String name = source.substring(open + OPEN.length(), close);
+      if (declaredVariables.contains(name)) {
+        String literal = source.substring(literalStart, open);
+        literals.add(literal);
+        literalLength += literal.length();
+        variables.add(name);
+        literalStart = close + CLOSE.length();
+        open = source.indexOf(OPEN, literalStart);
+      } else {
+        open = source.indexOf(OPEN, open + 1);
+      }
+    }
+
+    String tail = source.substring(literalStart);
+    literals.add(tail);
+    literalLength += tail.length();
+
+    return new CompiledTemplate(
+        literals.toArray(String[]::new), variables.toArray(String[]::new), literalLength);
+  }
+
+  /**
+   * Renders the template, taking each variable from {@code values} and falling back to {@code
+   * defaults}, then to an empty string.
+   */
+  public String render(Map<String, String> values, Map<String, String> defaults) {
+    if (variables.length == 0) {
+      return literals[0];
+    }
+
+    String[] resolved = new String[variables.length];
+    int length = literalLength;
+    for (int i = 0; i < variables.length; i++) {
+      String value = values.get(variables[i]);
+      if (value == null) {
+        value = defaults.get(variables[i]);
+      }
+      resolved[i] = value != null ? value : "";
+      length += resolved[i].length();
+    }
+
+    StringBuilder out = new StringBuilder(length);
+    for (int i = 0; i < variables.length; i++) {
+      out.append(literals[i]).append(resolved[i]);
+    }
+    return out.append(literals[variables.length]).toString();
+  }
+
+  public int getVariableSlotCount() {
+    return variables.length;
+  }
+}
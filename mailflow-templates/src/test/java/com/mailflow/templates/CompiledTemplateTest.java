@@ -0,0 +1,62 @@
+package com.mailflow.templates;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class CompiledTemplateTest {
+
+  @Test
+  @DisplayName("Should substitute declared variables and fall back to defaults")
+  void shouldRenderDeclaredVariables() {
+    CompiledTemplate template =
+        CompiledTemplate.compile(
+            "<p>Hi {{firstName}}, see {{link}}</p>", Set.of("firstName", "link"));
+
+    String rendered =
+        template.render(Map.of("firstName", "Khalid"), Map.of("link", "https://mailflow.io"));
+
+    assertThat(rendered).isEqualTo("<p>Hi Khalid, see https://mailflow.io</p>");
+    assertThat(template.getVariableSlotCount()).isEqualTo(2);
+  }
+
+  @Test
+  @DisplayName("Should leave undeclared and unterminated placeholders untouched")
+  void shouldKeepUndeclaredPlaceholders() {
+    CompiledTemplate template =
+        CompiledTemplate.compile("{{name}} {{other}} {{{name}}} {{name", Set.of("name"));
+
+    assertThat(template.render(Map.of("name", "A"), Map.of()))
+        .isEqualTo("A {{other}} {A} {{name");
+  }
+
+  @Test
+  @DisplayName("Should not re-expand placeholders contained in values")
+  void shouldNotExpandValues() {
+    CompiledTemplate template = CompiledTemplate.compile("{{a}}-{{b}}", Set.of("a", "b"));
+
+    assertThat(template.render(Map.of("a", "{{b}}", "b", "x"), Map.of())).isEqualTo("{{b}}-x");
+  }
+
+  @Test
+  @DisplayName("Should render missing values without defaults as empty")
+  void shouldRenderMissingValuesAsEmpty() {
+    Map<String, String> defaults = new HashMap<>();
+    defaults.put("name", null);
+    CompiledTemplate template = CompiledTemplate.compile("Hello {{name}}!", defaults.keySet());
+
+    assertThat(template.render(Map.of(), defaults)).isEqualTo("Hello !");
+  }
+
+  @Test
+  @DisplayName("Should render a missing source as null")
+  void shouldRenderNullSourceAsNull() {
+    CompiledTemplate template = CompiledTemplate.compile(null, Set.of("name"));
+
+    assertThat(template.render(Map.of("name", "A"), Map.of())).isNull();
+  }
+}
@@ -58,12 +58,6 @@ public class EmailTemplateController {
     @PostMapping("/{id}/render")
     public Map<String, String> renderTemplate(
             @PathVariable Long id, @RequestBody Map<String, String> variables) {
-        String renderedContent = templateService.renderTemplate(id, variables);
-        String renderedSubject = templateService.renderSubject(id, variables);
-
-        return Map.of(
-                "subject", renderedSubject,
-                "content", renderedContent
-        );
+        return templateService.render(id, variables);
     }
 }
\ No newline at end of file
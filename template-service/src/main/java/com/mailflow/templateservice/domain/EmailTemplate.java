@@ -9,6 +9,8 @@ import org.hibernate.annotations.UpdateTimestamp;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 @Entity
 @Table(name = "templates")
@@ -19,6 +21,8 @@ import java.util.Map;
 @AllArgsConstructor
 public class EmailTemplate {
 
+    private static final Pattern VARIABLE_PATTERN = Pattern.compile("\\{\\{([^}]+)}}");
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -64,8 +68,7 @@ public class EmailTemplate {
    * @return true if all variables are properly defined, false otherwise
    */
   public boolean validateVariables() {
-        java.util.regex.Pattern pattern = java.util.regex.Pattern.compile("\\{\\{([^}]+)}}");
-        java.util.regex.Matcher matcher = pattern.matcher(content);
+        Matcher matcher = VARIABLE_PATTERN.matcher(content);
 
         while (matcher.find()) {
             String variableName = matcher.group(1).trim();
@@ -76,28 +79,4 @@ public class EmailTemplate {
 
         return true;
     }
-
-    public String renderContent(Map<String, String> variableValues) {
-        String renderedContent = content;
-
-        for (Map.Entry<String, String> entry : variables.entrySet()) {
-            String variableName = entry.getKey();
-            String value = variableValues.getOrDefault(variableName, entry.getValue());
-            renderedContent = renderedContent.replace("{{" + variableName + "}}", value);
-        }
-
-        return renderedContent;
-    }
-
-    public String renderSubject(Map<String, String> variableValues) {
-        String renderedSubject = subject;
-
-        for (Map.Entry<String, String> entry : variables.entrySet()) {
-            String variableName = entry.getKey();
-            String value = variableValues.getOrDefault(variableName, entry.getValue());
-            renderedSubject = renderedSubject.replace("{{" + variableName + "}}", value);
-        }
-
-        return renderedSubject;
-    }
 }
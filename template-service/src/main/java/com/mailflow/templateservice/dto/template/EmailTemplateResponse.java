@@ -12,4 +12,5 @@ public record EmailTemplateResponse(
     Map<String, String> variables,
     String description,
     String createdAt,
-    String updatedAt) {}
+    String updatedAt,
+    Long version) {}
@@ -0,0 +1,9 @@
+package com.mailflow.templateservice.dto.template;
+
+import java.time.LocalDateTime;
+import lombok.Builder;
+
+/** Published after a template update or delete commits so consumers can drop cached copies. */
+@Builder
+public record TemplateChangedEvent(
+    Long templateId, Long version, String changeType, LocalDateTime timestamp) {}
@@ -0,0 +1,63 @@
+package com.mailflow.templateservice.engine;
+
+import com.mailflow.templates.CompiledTemplate;
+import com.mailflow.templateservice.domain.EmailTemplate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.stereotype.Component;
+
+/**
+ * Compiled subject and content per template, keyed by id and invalidated by the entity's
+ * {@code @Version}, so an update is picked up on the next render without explicit eviction.
+ */
+@Component
+public class CompiledTemplateCache {
+
+    private final Map<Long, CompiledEmailTemplate> compiled = new ConcurrentHashMap<>();
+
+    public CompiledEmailTemplate get(EmailTemplate template) {
+        if (template.getId() == null) {
+            return CompiledEmailTemplate.of(template);
+        }
+
+        return compiled.compute(
+                template.getId(),
+                (id, cached) ->
+                        cached != null && Objects.equals(cached.version(), template.getVersion())
+                                ? cached
+                                : CompiledEmailTemplate.of(template));
+    }
+
+    public void evict(Long templateId) {
+        compiled.remove(templateId);
+    }
+
+    public record CompiledEmailTemplate(
+            Long version,
+            CompiledTemplate subject,
+            CompiledTemplate content,
+            Map<String, String> defaults) {
+
+        static CompiledEmailTemplate of(EmailTemplate template) {
+            Map<String, String> defaults =
+                    template.getVariables() != null
+                            ? new HashMap<>(template.getVariables())
+                            : new HashMap<>();
+            return new CompiledEmailTemplate(
+                    template.getVersion(),
+                    CompiledTemplate.compile(template.getSubject(), defaults.keySet()),
+                    CompiledTemplate.compile(template.getContent(), defaults.keySet()),
+                    defaults);
+        }
+
+        public String renderSubject(Map<String, String> values) {
+            return subject.render(values, defaults);
+        }
+
+        public String renderContent(Map<String, String> values) {
+            return content.render(values, defaults);
+        }
+    }
+}
@@ -34,6 +34,7 @@ public class EmailTemplateMapper {
         .description(template.getDescription())
         .createdAt(formatDateTime(template.getCreatedAt()))
         .updatedAt(formatDateTime(template.getUpdatedAt()))
+        .version(template.getVersion())
         .build();
   }
 
@@ -24,4 +24,6 @@ public interface EmailTemplateService {
     String renderTemplate(Long id, Map<String, String> variables);
 
     String renderSubject(Long id, Map<String, String> variables);
+
+    Map<String, String> render(Long id, Map<String, String> variables);
 }
@@ -1,9 +1,13 @@
 package com.mailflow.templateservice.service.impl;
 
+import com.mailflow.outbox.OutboxRepository;
 import com.mailflow.templateservice.domain.EmailTemplate;
 import com.mailflow.templateservice.dto.response.PageResponse;
 import com.mailflow.templateservice.dto.template.EmailTemplateRequest;
 import com.mailflow.templateservice.dto.template.EmailTemplateResponse;
+import com.mailflow.templateservice.dto.template.TemplateChangedEvent;
+import com.mailflow.templateservice.engine.CompiledTemplateCache;
+import com.mailflow.templateservice.engine.CompiledTemplateCache.CompiledEmailTemplate;
 import com.mailflow.templateservice.exception.InvalidTemplateException;
 import com.mailflow.templateservice.exception.ResourceNotFoundException;
 import com.mailflow.templateservice.exception.TemplateAlreadyExistsException;
@@ -11,6 +15,7 @@ import com.mailflow.templateservice.mapper.EmailTemplateMapper;
 import com.mailflow.templateservice.repository.EmailTemplateRepository;
 import com.mailflow.templateservice.service.EmailTemplateService;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import lombok.RequiredArgsConstructor;
@@ -20,6 +25,8 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import static com.mailflow.templateservice.config.KafkaConfig.TEMPLATE_EVENTS_TOPIC;
+
 @Service
 @RequiredArgsConstructor
 @Slf4j
@@ -27,6 +34,8 @@ public class EmailTemplateServiceImpl implements EmailTemplateService {
 
     private final EmailTemplateRepository templateRepository;
     private final EmailTemplateMapper templateMapper;
+    private final CompiledTemplateCache compiledTemplateCache;
+    private final OutboxRepository outboxRepository;
 
     @Transactional
     @Override
@@ -71,7 +80,8 @@ public class EmailTemplateServiceImpl implements EmailTemplateService {
                     "Email template content contains undefined variables");
         }
 
-        EmailTemplate updatedTemplate = templateRepository.save(template);
+        EmailTemplate updatedTemplate = templateRepository.saveAndFlush(template);
+        publishTemplateChanged(id, updatedTemplate.getVersion(), "UPDATED");
 
         log.info("Email template updated successfully with ID: {}", id);
         return templateMapper.toResponse(updatedTemplate);
@@ -114,6 +124,8 @@ public class EmailTemplateServiceImpl implements EmailTemplateService {
 
         EmailTemplate template = getTemplateById(id);
         templateRepository.delete(template);
+        compiledTemplateCache.evict(id);
+        publishTemplateChanged(id, template.getVersion(), "DELETED");
 
         log.info("Email template deleted successfully with ID: {}", id);
     }
@@ -123,7 +135,7 @@ public class EmailTemplateServiceImpl implements EmailTemplateService {
     public String renderTemplate(Long id, Map<String, String> variables) {
         log.info("Rendering template with ID: {}", id);
         EmailTemplate template = getTemplateById(id);
-        return template.renderContent(variables);
+        return compiledTemplateCache.get(template).renderContent(variables);
     }
 
   @Transactional(readOnly = true)
@@ -131,9 +143,37 @@ public class EmailTemplateServiceImpl implements EmailTemplateService {
   public String renderSubject(Long id, Map<String, String> variables) {
     log.info("Rendering subject for template with ID: {}", id);
     EmailTemplate template = getTemplateById(id);
-    return template.renderSubject(variables);
+    return compiledTemplateCache.get(template).renderSubject(variables);
     }
 
+  @Transactional(readOnly = true)
+  @Override
+  public Map<String, String> render(Long id, Map<String, String> variables) {
+    log.info("Rendering subject and content for template with ID: {}", id);
+    CompiledEmailTemplate compiled = compiledTemplateCache.get(getTemplateById(id));
+    return Map.of(
+        "subject", compiled.renderSubject(variables),
+        "content", compiled.renderContent(variables));
+  }
+
+  /**
+   * Writes the event to the outbox in the surrounding transaction, so it is published once the
+   * change commits and never for one that rolls back. A consumer that refetches on receipt
+   * therefore never reads the previous version.
+   */
+  private void publishTemplateChanged(Long id, Long version, String changeType) {
+    TemplateChangedEvent event =
+        TemplateChangedEvent.builder()
+            .templateId(id)
+            .version(version)
+            .changeType(changeType)
+            .timestamp(LocalDateTime.now())
+            .build();
+
+    outboxRepository.append(TEMPLATE_EVENTS_TOPIC, String.valueOf(id), event);
+    log.info("Queued template changed event: {} - {}", id, changeType);
+  }
+
   private EmailTemplate getTemplateById(Long id) {
     return templateRepository
         .findById(id)
@@ -0,0 +1,29 @@
+-- Template changed events written in the same transaction as the change, published by OutboxRelay.
+-- Rows only live until Kafka has acknowledged them, so the table stays small.
+CREATE TABLE outbox_events
+(
+    id           BIGINT GENERATED ALWAYS AS IDENTITY NOT NULL,
+    topic        VARCHAR(255)                        NOT NULL,
+    message_key  VARCHAR(255),
+    payload_type VARCHAR(255)                        NOT NULL,
+    -- Plain text: the payload is only ever read back whole, so jsonb parsing would be wasted
+    payload      TEXT                                NOT NULL,
+    created_at   TIMESTAMP WITHOUT TIME ZONE         NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT pk_outbox_events PRIMARY KEY (id)
+);
+
+-- Outbox events whose payload can no longer be read back, moved here by the relay so they stop
+-- blocking the events behind them. Rows keep the original id and payload so they can be fixed and
+-- appended to outbox_events again.
+CREATE TABLE outbox_dead_letters
+(
+    id           BIGINT                      NOT NULL,
+    topic        VARCHAR(255)                NOT NULL,
+    message_key  VARCHAR(255),
+    payload_type VARCHAR(255)                NOT NULL,
+    payload      TEXT                        NOT NULL,
+    created_at   TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    failed_at    TIMESTAMP WITHOUT TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    error        TEXT                        NOT NULL,
+    CONSTRAINT pk_outbox_dead_letters PRIMARY KEY (id)
+);
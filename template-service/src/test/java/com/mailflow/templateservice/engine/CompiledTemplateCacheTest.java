@@ -0,0 +1,36 @@
+package com.mailflow.templateservice.engine;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.mailflow.templateservice.domain.EmailTemplate;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class CompiledTemplateCacheTest {
+
+    @Test
+    @DisplayName("Should recompile when the template version changes")
+    void shouldRecompileOnVersionChange() {
+        CompiledTemplateCache cache = new CompiledTemplateCache();
+        EmailTemplate template =
+                EmailTemplate.builder()
+                        .id(1L)
+                        .version(0L)
+                        .subject("Welcome {{firstName}}")
+                        .content("<p>{{firstName}}</p>")
+                        .variables(new HashMap<>(Map.of("firstName", "there")))
+                        .build();
+
+        CompiledTemplateCache.CompiledEmailTemplate first = cache.get(template);
+        assertThat(cache.get(template)).isSameAs(first);
+
+        template.setSubject("Hello {{firstName}}");
+        template.setVersion(1L);
+        CompiledTemplateCache.CompiledEmailTemplate second = cache.get(template);
+
+        assertThat(second).isNotSameAs(first);
+        assertThat(second.renderSubject(Map.of())).isEqualTo("Hello there");
+    }
+}